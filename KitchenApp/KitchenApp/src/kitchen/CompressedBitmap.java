@@ -0,0 +1,144 @@
+package kitchen;
+
+import java.util.Arrays;
+
+/**
+ * CompressedBitmap class is an immutable set of non-negative ints stored the way roaring bitmaps do.
+ * Values are split into blocks of 65536 by their high 16 bits, and each block picks its own container:
+ * a sorted array of the low 16 bits while the block holds at most 4096 values, or a plain 1024-word
+ * bitmap once that is smaller. Sparse sets cost two bytes a value and dense ones one bit a value.
+ */
+final class CompressedBitmap {
+    private static final int BLOCK_BITS = 16;
+    private static final int ARRAY_LIMIT = 4096;
+    private static final int BLOCK_WORDS = (1 << BLOCK_BITS) / 64;
+
+    private final int[] keys;
+    private final char[][] arrays;
+    private final long[][] bitmaps;
+    private final int cardinality;
+
+    private CompressedBitmap(int[] keys, char[][] arrays, long[][] bitmaps, int cardinality) {
+        this.keys = keys;
+        this.arrays = arrays;
+        this.bitmaps = bitmaps;
+        this.cardinality = cardinality;
+    }
+
+    /**
+     * Builds a bitmap from ascending, distinct values.
+     *
+     * @param values the values, sorted ascending without duplicates
+     * @param size   how many of the values to use
+     * @return the bitmap
+     */
+    static CompressedBitmap of(int[] values, int size) {
+        int blocks = 0;
+        for (int i = 0; i < size; i++) {
+            if (i == 0 || values[i] >>> BLOCK_BITS != values[i - 1] >>> BLOCK_BITS) {
+                blocks++;
+            }
+        }
+        int[] keys = new int[blocks];
+        char[][] arrays = new char[blocks][];
+        long[][] bitmaps = new long[blocks][];
+        int block = 0;
+        for (int start = 0; start < size; block++) {
+            int key = values[start] >>> BLOCK_BITS;
+            int end = start;
+            while (end < size && values[end] >>> BLOCK_BITS == key) {
+                end++;
+            }
+            keys[block] = key;
+            if (end - start <= ARRAY_LIMIT) {
+                char[] array = new char[end - start];
+                for (int i = start; i < end; i++) {
+                    array[i - start] = (char) values[i];
+                }
+                arrays[block] = array;
+            } else {
+                long[] bitmap = new long[BLOCK_WORDS];
+                for (int i = start; i < end; i++) {
+                    int low = values[i] & 0xFFFF;
+                    bitmap[low >>> 6] |= 1L << low;
+                }
+                bitmaps[block] = bitmap;
+            }
+            start = end;
+        }
+        return new CompressedBitmap(keys, arrays, bitmaps, size);
+    }
+
+    /**
+     * Returns how many values the bitmap holds.
+     *
+     * @return the cardinality
+     */
+    int cardinality() {
+        return cardinality;
+    }
+
+    /**
+     * Returns whether the bitmap holds the given value.
+     *
+     * @param value the value
+     * @return true if it is in the set
+     */
+    boolean contains(int value) {
+        int block = Arrays.binarySearch(keys, value >>> BLOCK_BITS);
+        if (block < 0) {
+            return false;
+        }
+        int low = value & 0xFFFF;
+        if (bitmaps[block] != null) {
+            return (bitmaps[block][low >>> 6] & 1L << low) != 0;
+        }
+        return Arrays.binarySearch(arrays[block], (char) low) >= 0;
+    }
+
+    /**
+     * Hands every non-zero 64-bit word of the set to the consumer, in ascending order. Word {@code i}
+     * covers the values {@code 64 * i} to {@code 64 * i + 63}.
+     *
+     * @param consumer the consumer of the words
+     */
+    void forEachWord(WordConsumer consumer) {
+        for (int block = 0; block < keys.length; block++) {
+            int base = keys[block] * BLOCK_WORDS;
+            long[] bitmap = bitmaps[block];
+            if (bitmap != null) {
+                for (int i = 0; i < bitmap.length; i++) {
+                    if (bitmap[i] != 0) {
+                        consumer.word(base + i, bitmap[i]);
+                    }
+                }
+                continue;
+            }
+            // Values that share a word are gathered so the consumer sees each word once
+            char[] array = arrays[block];
+            int i = 0;
+            while (i < array.length) {
+                int word = array[i] >>> 6;
+                long bits = 0;
+                while (i < array.length && array[i] >>> 6 == word) {
+                    bits |= 1L << array[i];
+                    i++;
+                }
+                consumer.word(base + word, bits);
+            }
+        }
+    }
+
+    /**
+     * WordConsumer receives the words of a bitmap.
+     */
+    interface WordConsumer {
+        /**
+         * Receives one non-zero word.
+         *
+         * @param index the word index
+         * @param bits  the word
+         */
+        void word(int index, long bits);
+    }
+}
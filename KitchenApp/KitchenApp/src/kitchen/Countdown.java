@@ -0,0 +1,132 @@
+package kitchen;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Countdown class keeps the remaining time of a timer as an absolute deadline on a {@link TimerClock},
+ * normally {@code System.nanoTime()}. While running, the remaining time is derived from the deadline
+ * whenever it is read, so late or coalesced ticks never make the countdown drift. Pausing banks the
+ * time that was left and resuming sets a fresh deadline from it.
+ */
+public class Countdown {
+    private final long durationNanos;
+    private long remainingNanos;
+    private long deadlineNanos;
+    private boolean running;
+
+    /**
+     * Constructs a paused Countdown with the given duration.
+     *
+     * @param duration the total duration
+     * @param unit     the unit of the duration
+     */
+    public Countdown(long duration, TimeUnit unit) {
+        if (duration < 0) {
+            throw new IllegalArgumentException("Duration must be non-negative");
+        }
+        this.durationNanos = unit.toNanos(duration);
+        this.remainingNanos = durationNanos;
+    }
+
+    /**
+     * Starts or resumes the countdown from the time that was left when it was paused.
+     *
+     * @param nowNanos the current time on the timer's clock
+     * @return the deadline the countdown will reach zero at
+     */
+    public synchronized long start(long nowNanos) {
+        if (!running) {
+            deadlineNanos = nowNanos + remainingNanos;
+            running = true;
+        }
+        return deadlineNanos;
+    }
+
+    /**
+     * Pauses the countdown and banks the time that is left.
+     *
+     * @param nowNanos the current time on the timer's clock
+     */
+    public synchronized void pause(long nowNanos) {
+        if (running) {
+            remainingNanos = Math.max(0, deadlineNanos - nowNanos);
+            running = false;
+        }
+    }
+
+    /**
+     * Stops the countdown and restores the full duration.
+     */
+    public synchronized void reset() {
+        running = false;
+        remainingNanos = durationNanos;
+    }
+
+    /**
+     * Sets the time left on a paused countdown.
+     *
+     * @param remainingNanos the remaining time in nanoseconds
+     * @throws IllegalStateException if the countdown is running
+     */
+    public synchronized void setRemaining(long remainingNanos) {
+        if (running) {
+            throw new IllegalStateException("Countdown is running");
+        }
+        this.remainingNanos = Math.max(0, Math.min(remainingNanos, durationNanos));
+    }
+
+    /**
+     * Returns the time left, never less than zero.
+     *
+     * @param nowNanos the current time on the timer's clock
+     * @return the remaining time in nanoseconds
+     */
+    public synchronized long remainingNanos(long nowNanos) {
+        if (running) {
+            return Math.max(0, deadlineNanos - nowNanos);
+        }
+        return remainingNanos;
+    }
+
+    /**
+     * Returns the time left rounded up to whole seconds, the way a countdown display shows it.
+     *
+     * @param nowNanos the current time on the timer's clock
+     * @return the remaining whole seconds
+     */
+    public long remainingSeconds(long nowNanos) {
+        long remaining = remainingNanos(nowNanos);
+        return (remaining + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1);
+    }
+
+    /**
+     * Returns the deadline of the running countdown.
+     *
+     * @return the deadline on the timer's clock
+     * @throws IllegalStateException if the countdown is paused
+     */
+    public synchronized long deadlineNanos() {
+        if (!running) {
+            throw new IllegalStateException("Countdown is not running");
+        }
+        return deadlineNanos;
+    }
+
+    /**
+     * Returns whether the countdown is running.
+     *
+     * @return true if the countdown is running
+     */
+    public synchronized boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Returns the total duration of the countdown.
+     *
+     * @return the duration in nanoseconds
+     */
+    public long durationNanos() {
+        return durationNanos;
+    }
+}
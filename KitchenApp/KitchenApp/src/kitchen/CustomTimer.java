@@ -1,26 +1,39 @@
 package kitchen;
 
-import java.awt.event.ActionEvent;
-import java.awt.event.ActionListener;
-import javax.swing.JOptionPane;
-import javax.swing.Timer;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * CustomTimer class represents a countdown timer with a specified name, hours, minutes, and seconds.
- * It uses a Swing Timer to handle the countdown and updates the remaining time every second.
+ * The remaining time is derived from an absolute deadline on the monotonic clock, and a single task
+ * on its engine's {@link TimerScheduler} finishes the timer when the deadline is reached. Lifecycle
+ * events go to the {@link TimerListener}s subscribed to the {@link TimerEngine}; the class itself has
+ * no AWT or Swing dependency.
  */
 public class CustomTimer {
+    private static final AtomicLong NEXT_ID = new AtomicLong(1);
+    private static final long SECOND_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final long id;
     private String name;
     private int hours;
     private int minutes;
     private int seconds;
-    private int remainingTime;
-    private Timer swingTimer;
-    private TimerStatus status;
+    private final Countdown countdown;
+    private final TimerEngine engine;
+    private final TimerScheduler scheduler;
+    private final TimerClock clock;
+    private final Runnable finishTask;
+    private final Runnable tickTask;
+    private volatile TimerStatus status;
+    private TimerScheduler.Timeout finishTimeout;
+    private TimerScheduler.Timeout tickTimeout;
+    private long shownSeconds = -1;
+    private String shownTime;
 
     /**
-     * Constructs a CustomTimer object with the specified name, hours, minutes, and seconds.
-     * Initializes the remaining time and sets up the Swing Timer to decrement the remaining time.
+     * Constructs a CustomTimer object with the specified name, hours, minutes, and seconds on the shared
+     * engine. Initializes the remaining time; the countdown is driven by the scheduler once started.
      *
      * @param name     the name of the timer
      * @param hours    the initial hours
@@ -28,30 +41,135 @@ public class CustomTimer {
      * @param seconds  the initial seconds
      */
     public CustomTimer(String name, int hours, int minutes, int seconds) {
+        this(TimerEngine.shared(), name, hours, minutes, seconds);
+    }
+
+    /**
+     * Constructs a CustomTimer object with the specified name, hours, minutes, and seconds on the given
+     * engine.
+     *
+     * @param engine   the engine that drives the timer and receives its events
+     * @param name     the name of the timer
+     * @param hours    the initial hours
+     * @param minutes  the initial minutes
+     * @param seconds  the initial seconds
+     */
+    public CustomTimer(TimerEngine engine, String name, int hours, int minutes, int seconds) {
+        this(engine, NEXT_ID.getAndIncrement(), name, hours, minutes, seconds);
+    }
+
+    /**
+     * Constructs a CustomTimer with a known id, used when a timer is restored from the journal.
+     *
+     * @param engine         the engine that drives the timer and receives its events
+     * @param id             the id the timer had before the restart
+     * @param name           the name of the timer
+     * @param durationMillis the total duration in milliseconds
+     */
+    CustomTimer(TimerEngine engine, long id, String name, long durationMillis) {
+        this(engine, id, name, (int) (durationMillis / 3600000), (int) (durationMillis / 60000 % 60),
+                (int) (durationMillis / 1000 % 60));
+        NEXT_ID.accumulateAndGet(id + 1, Math::max);
+    }
+
+    private CustomTimer(TimerEngine engine, long id, String name, int hours, int minutes, int seconds) {
         if (hours < 0 || minutes < 0 || seconds < 0) {
             throw new IllegalArgumentException("Time values must be non-negative");
         }
 
+        this.id = id;
         this.name = name;
         this.hours = hours;
         this.minutes = minutes;
         this.seconds = seconds;
-        this.remainingTime = (hours * 3600) + (minutes * 60) + seconds;
+        this.countdown = new Countdown((hours * 3600L) + (minutes * 60L) + seconds, TimeUnit.SECONDS);
         this.status = TimerStatus.RESET;
 
-        // Initialize the Swing Timer to decrement the remaining time every second
-        this.swingTimer = new Timer(1000, new ActionListener() {
+        this.engine = engine;
+        this.scheduler = engine.getScheduler();
+        this.clock = scheduler.getClock();
+        this.finishTask = new Runnable() {
+            @Override
+            public void run() {
+                finish();
+            }
+        };
+        this.tickTask = new Runnable() {
             @Override
-            public void actionPerformed(ActionEvent e) {
-                if (remainingTime > 0) {
-                    remainingTime--;
-                } else {
-                    swingTimer.stop();
-                    status = TimerStatus.FINISHED;
-                    JOptionPane.showMessageDialog(null, name + " timer has ended!");
-                }
+            public void run() {
+                tick();
             }
-        });
+        };
+    }
+
+    /**
+     * Finishes the timer once its deadline has been reached. Runs on the scheduler thread.
+     */
+    private void finish() {
+        synchronized (this) {
+            // A restart between firing and taking the lock leaves a newer timeout pending.
+            if (status != TimerStatus.RUNNING || !finishTimeout.isExpired()) {
+                return;
+            }
+            long now = clock.nanoTime();
+            long remaining = countdown.remainingNanos(now);
+            if (remaining > 0) {
+                // Fired a tick early: wait for the rest of the deadline.
+                finishTimeout = scheduler.reschedule(finishTimeout, countdown.deadlineNanos());
+                return;
+            }
+            engine.getMetrics().recordDrift(now - countdown.deadlineNanos());
+            countdown.pause(now);
+            finishTimeout = null;
+            cancelTick();
+            status = TimerStatus.FINISHED;
+        }
+        engine.fireStateChanged(this, TimerStatus.RUNNING, TimerStatus.FINISHED);
+        engine.fireFinished(this);
+    }
+
+    /**
+     * Tells tick subscribers that the shown seconds dropped by one and schedules the next tick.
+     * Runs on the scheduler thread.
+     */
+    private void tick() {
+        long remainingNanos;
+        synchronized (this) {
+            if (status != TimerStatus.RUNNING || tickTimeout == null || !tickTimeout.isExpired()) {
+                return;
+            }
+            remainingNanos = countdown.remainingNanos(clock.nanoTime());
+            scheduleTick(remainingNanos);
+        }
+        engine.fireTicked(this, TimeUnit.NANOSECONDS.toMillis(remainingNanos));
+    }
+
+    /**
+     * Schedules a tick for the moment the shown seconds next drop, unless that moment is the finish.
+     * The timeout of the tick that just ran is reused, so a running timer does not allocate per tick.
+     * Caller holds the lock.
+     */
+    private void scheduleTick(long remainingNanos) {
+        long shownSeconds = (remainingNanos + SECOND_NANOS - 1) / SECOND_NANOS;
+        if (shownSeconds > 1 && engine.wantsTicks()) {
+            long nextChange = countdown.deadlineNanos() - (shownSeconds - 1) * SECOND_NANOS;
+            if (tickTimeout != null && tickTimeout.isExpired()) {
+                tickTimeout = scheduler.reschedule(tickTimeout, nextChange);
+            } else {
+                tickTimeout = scheduler.scheduleAt(nextChange, tickTask);
+            }
+        } else {
+            tickTimeout = null;
+        }
+    }
+
+    /**
+     * Returns the id of the timer, unique within the application and kept across restarts.
+     *
+     * @return the id of the timer
+     */
+    public long getId() {
+        return id;
     }
 
     /**
@@ -64,39 +182,150 @@ public class CustomTimer {
     }
 
     /**
-     * Returns the remaining time formatted as HH:mm:ss.
+     * Returns the remaining time formatted as HH:mm:ss, computed from the deadline at the time of the call.
+     * The string is only rebuilt when the shown second changes, so polling it every frame is cheap.
      *
      * @return the formatted remaining time
      */
-    public String getFormattedTime() {
-        int h = remainingTime / 3600;
-        int m = (remainingTime % 3600) / 60;
-        int s = remainingTime % 60;
-        return String.format("%02d:%02d:%02d", h, m, s);
+    public synchronized String getFormattedTime() {
+        long remaining = countdown.remainingSeconds(clock.nanoTime());
+        if (remaining != shownSeconds) {
+            shownSeconds = remaining;
+            shownTime = TimeFormatter.format(remaining);
+        }
+        return shownTime;
     }
 
     /**
-     * Starts the countdown timer.
+     * Writes the remaining time as HH:mm:ss into the given buffer without allocating.
+     *
+     * @param buffer the buffer, with room for {@link TimeFormatter#LENGTH} chars below 100 hours
+     * @param offset where to start writing
+     * @return the offset just past the last char written
+     */
+    public int formatTime(char[] buffer, int offset) {
+        return TimeFormatter.format(countdown.remainingSeconds(clock.nanoTime()), buffer, offset);
+    }
+
+    /**
+     * Returns the remaining time, computed from the deadline at the time of the call.
+     *
+     * @return the remaining time in milliseconds
+     */
+    public long getRemainingMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(countdown.remainingNanos(clock.nanoTime()));
+    }
+
+    /**
+     * Returns the deadline of a running timer.
+     *
+     * @return the deadline on the scheduler's clock, or {@code Long.MAX_VALUE} if the timer
+     *         is not running
+     */
+    public synchronized long getDeadlineNanos() {
+        return status == TimerStatus.RUNNING ? countdown.deadlineNanos() : Long.MAX_VALUE;
+    }
+
+    /**
+     * Starts the countdown timer, resuming from the time that was left if it had been stopped.
      */
     public void start() {
-        swingTimer.start();
-        status = TimerStatus.RUNNING;
+        TimerStatus oldStatus = applyStart();
+        if (oldStatus != null) {
+            engine.fireStateChanged(this, oldStatus, TimerStatus.RUNNING);
+        }
     }
 
     /**
-     * Stops the countdown timer.
+     * Stops the countdown timer and banks the time that is left.
      */
     public void stop() {
-        swingTimer.stop();
-        status = TimerStatus.STOPPED;
+        engine.fireStateChanged(this, applyStop(), TimerStatus.STOPPED);
     }
 
     /**
      * Resets the timer to its initial time.
      */
     public void reset() {
-        this.remainingTime = (hours * 3600) + (minutes * 60) + seconds;
-        this.status = TimerStatus.RESET;
+        engine.fireStateChanged(this, applyReset(), TimerStatus.RESET);
+    }
+
+    /**
+     * Starts the timer without telling listeners; the caller reports the change.
+     *
+     * @return the status before the call, or null if the timer was already running
+     */
+    synchronized TimerStatus applyStart() {
+        TimerStatus oldStatus = status;
+        if (oldStatus == TimerStatus.RUNNING) {
+            return null;
+        }
+        long now = clock.nanoTime();
+        long deadline = countdown.start(now);
+        finishTimeout = scheduler.scheduleAt(deadline, finishTask);
+        scheduleTick(deadline - now);
+        status = TimerStatus.RUNNING;
+        return oldStatus;
+    }
+
+    /**
+     * Stops the timer without telling listeners; the caller reports the change.
+     *
+     * @return the status before the call
+     */
+    synchronized TimerStatus applyStop() {
+        TimerStatus oldStatus = status;
+        cancelFinish();
+        cancelTick();
+        countdown.pause(clock.nanoTime());
+        status = TimerStatus.STOPPED;
+        return oldStatus;
+    }
+
+    /**
+     * Resets the timer without telling listeners; the caller reports the change.
+     *
+     * @return the status before the call
+     */
+    synchronized TimerStatus applyReset() {
+        TimerStatus oldStatus = status;
+        cancelFinish();
+        cancelTick();
+        countdown.reset();
+        status = TimerStatus.RESET;
+        return oldStatus;
+    }
+
+    /**
+     * Sets the time left on a timer that is not running, used when restoring it from the journal.
+     *
+     * @param remainingMillis the remaining time in milliseconds
+     */
+    synchronized void restoreRemaining(long remainingMillis) {
+        countdown.setRemaining(TimeUnit.MILLISECONDS.toNanos(remainingMillis));
+    }
+
+    /**
+     * Returns the engine that drives this timer.
+     *
+     * @return the engine
+     */
+    public TimerEngine getEngine() {
+        return engine;
+    }
+
+    private void cancelFinish() {
+        if (finishTimeout != null) {
+            finishTimeout.cancel();
+            finishTimeout = null;
+        }
+    }
+
+    private void cancelTick() {
+        if (tickTimeout != null) {
+            tickTimeout.cancel();
+            tickTimeout = null;
+        }
     }
 
     /**
@@ -2,6 +2,15 @@ package kitchen;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.swing.SwingUtilities;
 
 import org.junit.jupiter.api.Test;
 
@@ -65,4 +74,107 @@ public class CustomTimerTest {
         assertEquals(0, timer.getSeconds());
         assertEquals(CustomTimer.TimerStatus.RESET, timer.getStatus());
     }
+
+    @Test
+    public void testFormattedTimeBeforeStart() {
+        CustomTimer timer = new CustomTimer("Test Timer", 1, 2, 3);
+        assertEquals("01:02:03", timer.getFormattedTime());
+    }
+
+    @Test
+    public void testStopBanksRemainingTime() throws InterruptedException {
+        CustomTimer timer = new CustomTimer("Test Timer", 0, 0, 10);
+        timer.start();
+        Thread.sleep(200);
+        timer.stop();
+        long banked = timer.getRemainingMillis();
+        assertTrue(banked < 10000 && banked > 9000);
+        Thread.sleep(100);
+        assertEquals(banked, timer.getRemainingMillis());
+    }
+
+    @Test
+    public void testCountdownFollowsDeadline() {
+        long second = TimeUnit.SECONDS.toNanos(1);
+        Countdown countdown = new Countdown(30, TimeUnit.MINUTES);
+        long deadline = countdown.start(0);
+        assertEquals(TimeUnit.MINUTES.toNanos(30), deadline);
+        assertEquals(1800, countdown.remainingSeconds(0));
+        assertEquals(1800, countdown.remainingSeconds(second / 2));
+        assertEquals(1799, countdown.remainingSeconds(second));
+        countdown.pause(600 * second);
+        assertEquals(1200, countdown.remainingSeconds(5000 * second));
+        assertEquals(6200 * second, countdown.start(5000 * second));
+        assertEquals(0, countdown.remainingNanos(7000 * second));
+        countdown.reset();
+        assertEquals(1800, countdown.remainingSeconds(7000 * second));
+    }
+
+    @Test
+    public void testListenerReceivesLifecycleOffTheEdt() throws InterruptedException {
+        TimerEngine engine = new TimerEngine(new TimerScheduler("test-scheduler", 1, TimeUnit.MILLISECONDS));
+        final List<String> events = new CopyOnWriteArrayList<>();
+        final CountDownLatch delivered = new CountDownLatch(3);
+        engine.addListener(new TimerListener() {
+            @Override
+            public void timerFinished(CustomTimer timer) {
+                events.add("finished " + timer.getName() + " edt=" + SwingUtilities.isEventDispatchThread());
+                delivered.countDown();
+            }
+
+            @Override
+            public void timerStateChanged(CustomTimer timer, CustomTimer.TimerStatus oldStatus,
+                                          CustomTimer.TimerStatus newStatus) {
+                events.add(oldStatus + "->" + newStatus);
+                delivered.countDown();
+            }
+        }, TimerEngine.virtualThreadExecutor());
+
+        CustomTimer timer = new CustomTimer(engine, "Test Timer", 0, 0, 0);
+        timer.start();
+        assertTrue(delivered.await(2, TimeUnit.SECONDS));
+        assertTrue(events.contains("RESET->RUNNING"));
+        assertTrue(events.contains("RUNNING->FINISHED"));
+        assertTrue(events.contains("finished Test Timer edt=false"));
+        assertEquals(CustomTimer.TimerStatus.FINISHED, timer.getStatus());
+    }
+
+    @Test
+    public void testTickPathDoesNotAllocate() throws InterruptedException {
+        TimerEngine engine = new TimerEngine(new TimerScheduler("tick-allocation-test", 1, TimeUnit.MILLISECONDS));
+        final AtomicLong ticks = new AtomicLong();
+        final char[] buffer = new char[TimeFormatter.LENGTH];
+        engine.addListener(new TimerListener() {
+            @Override
+            public void timerTicked(CustomTimer timer, long remainingMillis) {
+                timer.formatTime(buffer, 0);
+                ticks.incrementAndGet();
+            }
+        }, TimerEngine.directExecutor(), true);
+        for (int i = 0; i < 2000; i++) {
+            new CustomTimer(engine, "Timer " + i, 0, 0, 30).start();
+        }
+        Thread worker = null;
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getName().equals("tick-allocation-test")) {
+                worker = thread;
+            }
+        }
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+        // Warm up until the scheduler's expiry batch has reached its high-water size
+        Thread.sleep(3500);
+        long ticksBefore = ticks.get();
+        long bytesBefore = threads.getThreadAllocatedBytes(worker.getId());
+        Thread.sleep(2000);
+        long bytes = threads.getThreadAllocatedBytes(worker.getId()) - bytesBefore;
+        long measuredTicks = ticks.get() - ticksBefore;
+        engine.getScheduler().shutdown();
+
+        assertTrue(measuredTicks >= 2000, "ticks measured: " + measuredTicks);
+        // Any per-tick allocation costs at least 16 bytes a tick; the allowance only covers one-off
+        // objects the JIT materializes when it recompiles the path mid-measurement.
+        assertTrue(bytes < measuredTicks, bytes + " bytes allocated over " + measuredTicks + " ticks");
+    }
 }
@@ -0,0 +1,132 @@
+package kitchen;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DeadlineIndex class keeps the running timers of an engine ordered by deadline, so "what finishes
+ * next" and "what finishes in the next two minutes" are answered without scanning every timer.
+ * Inserting and removing a timer are O(log n); a top-k query is O(log n + k) and a range query is
+ * O(log n + size of the range).
+ *
+ * Subscribe it to a {@link TimerEngine} with the direct executor. On every state change it re-reads the
+ * timer's current status and deadline instead of trusting the event, so events that arrive out of
+ * order from different threads still leave the index correct for paused, reset and restarted timers.
+ */
+public class DeadlineIndex implements TimerListener {
+    private final NavigableSet<Entry> byDeadline = new TreeSet<>();
+    private final Map<Long, Entry> byId = new HashMap<>();
+    private final TimerClock clock;
+
+    /**
+     * Constructs an empty DeadlineIndex for timers on the system clock.
+     */
+    public DeadlineIndex() {
+        this(TimerClock.system());
+    }
+
+    /**
+     * Constructs an empty DeadlineIndex for timers whose scheduler runs on the given clock.
+     *
+     * @param clock the clock the indexed deadlines are measured on
+     */
+    public DeadlineIndex(TimerClock clock) {
+        this.clock = clock;
+    }
+
+    @Override
+    public void timerStateChanged(CustomTimer timer, CustomTimer.TimerStatus oldStatus,
+                                  CustomTimer.TimerStatus newStatus) {
+        update(timer);
+    }
+
+    /**
+     * Brings the index up to date with the timer's current status and deadline.
+     *
+     * @param timer the timer to index or unindex
+     */
+    public synchronized void update(CustomTimer timer) {
+        long deadline = timer.getDeadlineNanos();
+        Entry old = byId.get(timer.getId());
+        if (old != null) {
+            if (old.deadlineNanos == deadline) {
+                return;
+            }
+            byDeadline.remove(old);
+            byId.remove(timer.getId());
+        }
+        if (deadline != Long.MAX_VALUE) {
+            Entry entry = new Entry(deadline, timer.getId(), timer);
+            byDeadline.add(entry);
+            byId.put(timer.getId(), entry);
+        }
+    }
+
+    /**
+     * Returns the running timers that finish first, soonest first.
+     *
+     * @param count the most timers to return
+     * @return up to {@code count} timers
+     */
+    public synchronized List<CustomTimer> nextToFinish(int count) {
+        List<CustomTimer> result = new ArrayList<>(Math.min(count, byDeadline.size()));
+        for (Entry entry : byDeadline) {
+            if (result.size() == count) {
+                break;
+            }
+            result.add(entry.timer);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the running timers whose deadline falls within the given time from now, soonest first.
+     *
+     * @param window the length of the window
+     * @param unit   the unit of the window
+     * @return the timers finishing within the window
+     */
+    public synchronized List<CustomTimer> finishingWithin(long window, TimeUnit unit) {
+        Entry last = new Entry(clock.nanoTime() + unit.toNanos(window), Long.MAX_VALUE, null);
+        List<CustomTimer> result = new ArrayList<>();
+        for (Entry entry : byDeadline.headSet(last, true)) {
+            result.add(entry.timer);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of running timers in the index.
+     *
+     * @return the number of indexed timers
+     */
+    public synchronized int size() {
+        return byDeadline.size();
+    }
+
+    /**
+     * A running timer keyed by its deadline, with the id breaking ties.
+     */
+    private static final class Entry implements Comparable<Entry> {
+        private final long deadlineNanos;
+        private final long id;
+        private final CustomTimer timer;
+
+        private Entry(long deadlineNanos, long id, CustomTimer timer) {
+            this.deadlineNanos = deadlineNanos;
+            this.id = id;
+            this.timer = timer;
+        }
+
+        @Override
+        public int compareTo(Entry other) {
+            int byTime = Long.compare(deadlineNanos - other.deadlineNanos, 0);
+            return byTime != 0 ? byTime : Long.compare(id, other.id);
+        }
+    }
+}
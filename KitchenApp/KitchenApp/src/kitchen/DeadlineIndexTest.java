@@ -0,0 +1,83 @@
+package kitchen;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * This test suite contains tests for the earliest-deadline index.
+ */
+public class DeadlineIndexTest {
+
+    private static String names(List<CustomTimer> timers) {
+        StringBuilder names = new StringBuilder();
+        for (CustomTimer timer : timers) {
+            names.append(names.length() == 0 ? "" : ",").append(timer.getName());
+        }
+        return names.toString();
+    }
+
+    @Test
+    public void testTopKAndRangeFollowDeadlines() {
+        TimerEngine engine = new TimerEngine(new TimerScheduler("index-test", 10, TimeUnit.MILLISECONDS));
+        DeadlineIndex index = new DeadlineIndex();
+        engine.addListener(index, TimerEngine.directExecutor());
+        new CustomTimer(engine, "Stock", 2, 0, 0).start();
+        new CustomTimer(engine, "Eggs", 0, 1, 0).start();
+        new CustomTimer(engine, "Bread", 0, 30, 0).start();
+        new CustomTimer(engine, "Pasta", 0, 9, 0).start();
+        new CustomTimer(engine, "Idle", 0, 1, 0);
+
+        assertEquals(4, index.size());
+        assertEquals("Eggs,Pasta", names(index.nextToFinish(2)));
+        assertEquals("Eggs,Pasta,Bread,Stock", names(index.nextToFinish(10)));
+        assertEquals("Eggs,Pasta", names(index.finishingWithin(10, TimeUnit.MINUTES)));
+        assertTrue(index.finishingWithin(30, TimeUnit.SECONDS).isEmpty());
+        engine.getScheduler().shutdown();
+    }
+
+    @Test
+    public void testPauseResetAndRestartKeepIndexCorrect() throws InterruptedException {
+        TimerEngine engine = new TimerEngine(new TimerScheduler("index-test", 10, TimeUnit.MILLISECONDS));
+        DeadlineIndex index = new DeadlineIndex();
+        engine.addListener(index, TimerEngine.directExecutor());
+        CustomTimer eggs = new CustomTimer(engine, "Eggs", 0, 1, 0);
+        CustomTimer pasta = new CustomTimer(engine, "Pasta", 0, 2, 0);
+        eggs.start();
+        pasta.start();
+        assertEquals("Eggs,Pasta", names(index.nextToFinish(5)));
+
+        eggs.stop();
+        assertEquals("Pasta", names(index.nextToFinish(5)));
+        Thread.sleep(20);
+        eggs.start();
+        assertEquals("Eggs,Pasta", names(index.nextToFinish(5)));
+
+        pasta.reset();
+        assertEquals("Eggs", names(index.nextToFinish(5)));
+        pasta.start();
+        eggs.reset();
+        eggs.start();
+        assertEquals("Eggs,Pasta", names(index.nextToFinish(5)));
+        engine.getScheduler().shutdown();
+    }
+
+    @Test
+    public void testFinishedTimersLeaveTheIndex() throws InterruptedException {
+        TimerEngine engine = new TimerEngine(new TimerScheduler("index-test", 1, TimeUnit.MILLISECONDS));
+        DeadlineIndex index = new DeadlineIndex();
+        engine.addListener(index, TimerEngine.directExecutor());
+        CustomTimer quick = new CustomTimer(engine, "Quick", 0, 0, 0);
+        quick.start();
+        for (int i = 0; i < 500 && (index.size() > 0 || quick.getStatus() != CustomTimer.TimerStatus.FINISHED); i++) {
+            Thread.sleep(2);
+        }
+        assertEquals(CustomTimer.TimerStatus.FINISHED, quick.getStatus());
+        assertEquals(0, index.size());
+        engine.getScheduler().shutdown();
+    }
+}
@@ -0,0 +1,198 @@
+package kitchen;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * FinishNotifier class collects "timer finished" notifications and shows them in one non-modal alert.
+ * Posting a notification only enqueues it, so it never blocks the thread a timer finishes on.
+ * Notifications posted within the same coalescing window are shown together, and every finish stays
+ * in the alert until the user acknowledges it. Subscribe it to a {@link TimerEngine} with the direct
+ * executor to be told about every finish.
+ */
+public class FinishNotifier implements TimerListener {
+    private static final long DEFAULT_WINDOW_MILLIS = 500;
+
+    private final TimerScheduler scheduler;
+    private final long windowMillis;
+    private final Queue<Finish> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final Runnable flushTask;
+    private final Runnable showTask;
+    private final DefaultListModel<String> unacknowledged = new DefaultListModel<>();
+    private JDialog dialog;
+    private int alertCount;
+
+    /**
+     * Constructs a FinishNotifier that coalesces notifications over the given window.
+     *
+     * @param scheduler    the scheduler that runs the end of each window
+     * @param windowMillis the coalescing window in milliseconds
+     */
+    public FinishNotifier(TimerScheduler scheduler, long windowMillis) {
+        this.scheduler = scheduler;
+        this.windowMillis = windowMillis;
+        this.flushTask = new Runnable() {
+            @Override
+            public void run() {
+                flushScheduled.set(false);
+                SwingUtilities.invokeLater(showTask);
+            }
+        };
+        this.showTask = new Runnable() {
+            @Override
+            public void run() {
+                showPending();
+            }
+        };
+    }
+
+    /**
+     * Returns the notifier shared by every timer in the application.
+     *
+     * @return the shared notifier
+     */
+    public static FinishNotifier shared() {
+        return SharedHolder.INSTANCE;
+    }
+
+    @Override
+    public void timerFinished(CustomTimer timer) {
+        timerFinished(timer.getName());
+    }
+
+    @Override
+    public void sequenceStageChanged(TimerSequence sequence, int previousStage, int newStage) {
+        post(sequence.getName() + ": " + sequence.getStageName(previousStage) + " done, "
+                + sequence.getStageName(newStage) + " next");
+    }
+
+    @Override
+    public void sequenceFinished(TimerSequence sequence) {
+        timerFinished(sequence.getName());
+    }
+
+    /**
+     * Records that a timer has finished. Safe to call from any thread; returns immediately.
+     *
+     * @param timerName the name of the finished timer
+     */
+    public void timerFinished(String timerName) {
+        post(timerName + " timer has ended!");
+    }
+
+    private void post(String message) {
+        pending.add(new Finish(message, System.currentTimeMillis()));
+        if (flushScheduled.compareAndSet(false, true)) {
+            scheduler.schedule(flushTask, windowMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Returns the finishes the user has not acknowledged yet. Must be called on the EDT.
+     *
+     * @return the unacknowledged finish messages, oldest first
+     */
+    public List<String> getUnacknowledged() {
+        List<String> messages = new ArrayList<>();
+        for (int i = 0; i < unacknowledged.size(); i++) {
+            messages.add(unacknowledged.get(i));
+        }
+        return messages;
+    }
+
+    /**
+     * Returns how many alerts have been raised; one alert covers every finish in a window.
+     * Must be called on the EDT.
+     *
+     * @return the number of alerts raised
+     */
+    public int getAlertCount() {
+        return alertCount;
+    }
+
+    /**
+     * Clears the unacknowledged finishes and hides the alert. Must be called on the EDT.
+     */
+    public void acknowledgeAll() {
+        unacknowledged.clear();
+        if (dialog != null) {
+            dialog.setVisible(false);
+        }
+    }
+
+    /**
+     * Moves everything posted so far into the alert and raises it. Runs on the EDT.
+     */
+    private void showPending() {
+        SimpleDateFormat timeFormat = new SimpleDateFormat("HH:mm:ss");
+        Finish finish;
+        boolean added = false;
+        while ((finish = pending.poll()) != null) {
+            String time = timeFormat.format(new Date(finish.finishedAtMillis));
+            unacknowledged.addElement(time + "  " + finish.message);
+            added = true;
+        }
+        if (!added) {
+            return;
+        }
+        alertCount++;
+        if (GraphicsEnvironment.isHeadless()) {
+            return;
+        }
+        if (dialog == null) {
+            dialog = createDialog();
+        }
+        dialog.setTitle(unacknowledged.size() + " timer(s) finished");
+        if (!dialog.isVisible()) {
+            dialog.setVisible(true);
+        }
+        dialog.toFront();
+    }
+
+    private JDialog createDialog() {
+        JDialog alert = new JDialog((Frame) null, "Timers finished", false);
+        alert.setLayout(new BorderLayout());
+        alert.add(new JScrollPane(new JList<>(unacknowledged)), BorderLayout.CENTER);
+        JButton acknowledgeButton = new JButton("Acknowledge");
+        acknowledgeButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                acknowledgeAll();
+            }
+        });
+        alert.add(acknowledgeButton, BorderLayout.SOUTH);
+        alert.setDefaultCloseOperation(WindowConstants.HIDE_ON_CLOSE);
+        alert.setSize(320, 240);
+        alert.setLocationByPlatform(true);
+        return alert;
+    }
+
+    /**
+     * A finish waiting to be moved into the alert.
+     */
+    private static final class Finish {
+        private final String message;
+        private final long finishedAtMillis;
+
+        private Finish(String message, long finishedAtMillis) {
+            this.message = message;
+            this.finishedAtMillis = finishedAtMillis;
+        }
+    }
+
+    private static final class SharedHolder {
+        private static final FinishNotifier INSTANCE =
+                new FinishNotifier(TimerScheduler.shared(), DEFAULT_WINDOW_MILLIS);
+    }
+}
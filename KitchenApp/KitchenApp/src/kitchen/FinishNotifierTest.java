@@ -0,0 +1,43 @@
+package kitchen;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.swing.SwingUtilities;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * This test suite contains tests for the FinishNotifier.
+ * Each test verifies that finishes are queued without blocking and coalesced into one alert.
+ */
+public class FinishNotifierTest {
+
+    @Test
+    public void testFinishesInOneWindowRaiseOneAlert() throws Exception {
+        TimerScheduler scheduler = new TimerScheduler("test-scheduler", 1, TimeUnit.MILLISECONDS);
+        final FinishNotifier notifier = new FinishNotifier(scheduler, 200);
+        for (int i = 0; i < 10; i++) {
+            notifier.timerFinished("Timer " + i);
+        }
+        Thread.sleep(500);
+
+        final AtomicReference<List<String>> messages = new AtomicReference<>();
+        final int[] alerts = new int[1];
+        SwingUtilities.invokeAndWait(new Runnable() {
+            @Override
+            public void run() {
+                messages.set(notifier.getUnacknowledged());
+                alerts[0] = notifier.getAlertCount();
+                notifier.acknowledgeAll();
+            }
+        });
+        assertEquals(10, messages.get().size());
+        assertTrue(messages.get().get(0).endsWith("Timer 0 timer has ended!"));
+        assertEquals(1, alerts[0]);
+        scheduler.shutdown();
+    }
+}
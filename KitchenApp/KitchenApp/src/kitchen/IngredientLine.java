@@ -0,0 +1,123 @@
+package kitchen;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * IngredientLine class is one structured line of a recipe's ingredient list: the ingredient name, the
+ * quantity and the unit, as parsed from text such as {@code "Salt: 1/2 teaspoon"} or
+ * {@code "Spaghetti: 200g"}. {@link #toString()} renders the line exactly as it was parsed.
+ */
+public final class IngredientLine {
+    private static final Pattern MEASUREMENT = Pattern.compile("(\\d+(?:[./]\\d+)?(?: \\d+/\\d+)?)( ?)(.*)");
+
+    private final String name;
+    private final String quantity;
+    private final String unit;
+    private final boolean unitAttached;
+
+    /**
+     * Constructs an IngredientLine.
+     *
+     * @param name         the ingredient name
+     * @param quantity     the quantity, such as "2" or "1/2", or "" if the line has none
+     * @param unit         the unit or other measurement text, or "" if the line has none
+     * @param unitAttached whether the unit follows the quantity without a space, as in "200g"
+     */
+    public IngredientLine(String name, String quantity, String unit, boolean unitAttached) {
+        this.name = name;
+        this.quantity = quantity;
+        this.unit = unit;
+        this.unitAttached = unitAttached;
+    }
+
+    /**
+     * Parses a line in the {@code "Name: quantity unit"} form. A line without a colon is all name.
+     *
+     * @param text the ingredient line
+     * @return the parsed line
+     */
+    public static IngredientLine parse(String text) {
+        int colon = text.indexOf(':');
+        if (colon < 0) {
+            return new IngredientLine(text.trim(), "", "", false);
+        }
+        String name = text.substring(0, colon).trim();
+        String measurement = text.substring(colon + 1).trim();
+        Matcher matcher = MEASUREMENT.matcher(measurement);
+        if (!matcher.matches()) {
+            return new IngredientLine(name, "", measurement, false);
+        }
+        String unit = matcher.group(3);
+        return new IngredientLine(name, matcher.group(1), unit, !unit.isEmpty() && matcher.group(2).isEmpty());
+    }
+
+    /**
+     * Returns the ingredient name.
+     *
+     * @return the name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the quantity as written.
+     *
+     * @return the quantity, or "" if the line has none
+     */
+    public String getQuantity() {
+        return quantity;
+    }
+
+    /**
+     * Returns the unit or other measurement text.
+     *
+     * @return the unit, or "" if the line has none
+     */
+    public String getUnit() {
+        return unit;
+    }
+
+    /**
+     * Returns whether the unit follows the quantity without a space.
+     *
+     * @return true for lines such as "200g"
+     */
+    public boolean isUnitAttached() {
+        return unitAttached;
+    }
+
+    /**
+     * Returns the line in the {@code "Name: quantity unit"} form it was parsed from.
+     *
+     * @return the line text
+     */
+    @Override
+    public String toString() {
+        if (quantity.isEmpty() && unit.isEmpty()) {
+            return name;
+        }
+        StringBuilder text = new StringBuilder(name.length() + quantity.length() + unit.length() + 3);
+        text.append(name).append(": ").append(quantity);
+        if (!quantity.isEmpty() && !unit.isEmpty() && !unitAttached) {
+            text.append(' ');
+        }
+        return text.append(unit).toString();
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (!(other instanceof IngredientLine)) {
+            return false;
+        }
+        IngredientLine line = (IngredientLine) other;
+        return name.equals(line.name) && quantity.equals(line.quantity) && unit.equals(line.unit)
+                && unitAttached == line.unitAttached;
+    }
+
+    @Override
+    public int hashCode() {
+        return (name.hashCode() * 31 + quantity.hashCode()) * 31 + unit.hashCode();
+    }
+}
@@ -7,6 +7,11 @@ import java.awt.event.ActionListener;
 import java.util.ArrayList;
 import java.util.List;
 
+/**
+ * IngredientsAndStepsPanel class creates a panel for writing down ingredient lines and steps.
+ * When the panel is given a {@link RecipeEditLog}, every line and step added is written to it, and the
+ * ones logged before are shown again when the panel is created.
+ */
 public class IngredientsAndStepsPanel extends JPanel {
     private JTextField ingredientField;
     private JTextField measurementField;
@@ -15,9 +20,19 @@ public class IngredientsAndStepsPanel extends JPanel {
     private JTextArea stepsList;
     private List<String> customIngredients = new ArrayList<>();
     private List<String> customSteps = new ArrayList<>();
+    private RecipeEditLog editLog;
 
     public IngredientsAndStepsPanel() {
+        this(null);
+    }
+
+    /**
+     * Constructs an IngredientsAndStepsPanel that logs to, and starts from, the given log.
+     * @param editLog The edit log, or null to keep lines and steps in memory only.
+     */
+    public IngredientsAndStepsPanel(RecipeEditLog editLog) {
         setLayout(new BorderLayout());
+        this.editLog = editLog;
 
         ingredientField = new JTextField(20);
         measurementField = new JTextField(20);
@@ -59,6 +74,17 @@ public class IngredientsAndStepsPanel extends JPanel {
         add(new JScrollPane(ingredientsList), BorderLayout.CENTER);
         add(stepPanel, BorderLayout.SOUTH);
         add(new JScrollPane(stepsList), BorderLayout.EAST);
+
+        if (editLog != null) {
+            for (String line : editLog.getIngredients()) {
+                customIngredients.add(line);
+                ingredientsList.append(line + "\n");
+            }
+            for (String step : editLog.getSteps()) {
+                customSteps.add(step);
+                stepsList.append(step + "\n");
+            }
+        }
     }
 
     private void addIngredient() {
@@ -66,18 +92,40 @@ public class IngredientsAndStepsPanel extends JPanel {
         String measurement = measurementField.getText();
         if (!ingredient.isEmpty() && !measurement.isEmpty()) {
             customIngredients.add(ingredient + ": " + measurement);
+            if (editLog != null) {
+                editLog.ingredientAdded(ingredient + ": " + measurement);
+            }
             ingredientsList.append(ingredient + ": " + measurement + "\n");
             ingredientField.setText("");
             measurementField.setText("");
         }
     }
 
-    private void addStep() {
+    void addStep() {
         String step = stepField.getText();
         if (!step.isEmpty()) {
             customSteps.add(step);
+            if (editLog != null) {
+                editLog.stepAdded(step);
+            }
             stepsList.append(step + "\n");
             stepField.setText("");
         }
     }
+
+    /**
+     * Returns the field steps are typed into.
+     * @return The step field.
+     */
+    JTextField getStepField() {
+        return stepField;
+    }
+
+    /**
+     * Returns the text area listing the steps.
+     * @return The steps list.
+     */
+    JTextArea getStepsList() {
+        return stepsList;
+    }
 }
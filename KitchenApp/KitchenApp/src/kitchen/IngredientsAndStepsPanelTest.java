@@ -0,0 +1,33 @@
+package kitchen;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * This test suite contains tests for the IngredientsAndStepsPanel.
+ */
+public class IngredientsAndStepsPanelTest {
+
+    @Test
+    public void testAddedStepComesBackOnceAfterReopening() throws Exception {
+        Path path = Files.createTempDirectory("recipelog").resolve("recipes.log");
+        RecipeEditLog log = RecipeEditLog.open(path);
+        IngredientsAndStepsPanel panel = new IngredientsAndStepsPanel(log);
+        panel.getStepField().setText("Preheat the oven.");
+        panel.addStep();
+        log.close();
+
+        for (int restart = 0; restart < 2; restart++) {
+            RecipeEditLog reopened = RecipeEditLog.open(path);
+            IngredientsAndStepsPanel restored = new IngredientsAndStepsPanel(reopened);
+            assertEquals("Preheat the oven.\n", restored.getStepsList().getText());
+            assertEquals(Collections.singletonList("Preheat the oven."), reopened.getSteps());
+            reopened.close();
+        }
+    }
+}
@@ -0,0 +1,407 @@
+package kitchen;
+
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * KitchenEventBus class is a ring buffer that streams timer lifecycle events and recipe loads to any
+ * number of subscribers. Event slots are allocated once up front and reused, and every subscriber
+ * keeps its own sequence cursor, so UI, logging and metrics consumers read the same stream without
+ * locks and without allocating per event.
+ *
+ * Publishing claims the next sequence with one atomic increment; events come from the timer scheduler
+ * thread and from the EDT, so the claim is safe for more than one publishing thread. A publisher whose
+ * sequence is a full ring ahead of another's waits for that one to finish writing the slot they share,
+ * so two publishers never write the same slot at once. What a slow
+ * subscriber does to the stream depends on its {@link BackpressurePolicy}. Publishers only look at the
+ * BLOCK subscribers, which are kept in an array that is replaced whenever one subscribes or closes.
+ */
+public class KitchenEventBus {
+    private static final int DEFAULT_CAPACITY = 1 << 14;
+
+    private final Event[] slots;
+    private final int mask;
+    private final AtomicLong nextSequence = new AtomicLong();
+    private volatile Subscription[] blockingSubscriptions = new Subscription[0];
+    private final TimerListener timerListener = new TimerListener() {
+        @Override
+        public void timerTicked(CustomTimer timer, long remainingMillis) {
+            publish(EventType.TIMER_TICKED, timer.getId(), timer.getName(), remainingMillis);
+        }
+
+        @Override
+        public void timerStateChanged(CustomTimer timer, CustomTimer.TimerStatus oldStatus,
+                                      CustomTimer.TimerStatus newStatus) {
+            publish(typeOf(newStatus), timer.getId(), timer.getName(), timer.getRemainingMillis());
+        }
+    };
+
+    /**
+     * Constructs a KitchenEventBus with the given number of event slots.
+     *
+     * @param capacity the number of slots, a power of two
+     */
+    public KitchenEventBus(int capacity) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two");
+        }
+        this.slots = new Event[capacity];
+        this.mask = capacity - 1;
+        for (int i = 0; i < capacity; i++) {
+            // As if published a lap before the first, so the first publisher of each slot need not wait
+            slots[i] = new Event();
+            slots[i].sequence = i - capacity;
+        }
+    }
+
+    /**
+     * Returns the bus shared by the whole application.
+     *
+     * @return the shared bus
+     */
+    public static KitchenEventBus shared() {
+        return SharedHolder.INSTANCE;
+    }
+
+    /**
+     * Returns a listener that publishes the lifecycle events of every timer on the engine it is
+     * subscribed to. Subscribe it with the direct executor so events keep their order.
+     *
+     * @return the timer listener
+     */
+    public TimerListener timerListener() {
+        return timerListener;
+    }
+
+    /**
+     * Publishes one event. Returns immediately unless a {@link BackpressurePolicy#BLOCK} subscriber is a
+     * full ring behind, in which case it waits for that subscriber to catch up.
+     *
+     * @param type  the event type
+     * @param id    the id of the timer, or 0 for recipe events
+     * @param name  the timer or recipe name
+     * @param value the remaining milliseconds for timer events, or 0
+     * @return the sequence of the published event
+     */
+    public long publish(EventType type, long id, String name, long value) {
+        long sequence = nextSequence.getAndIncrement();
+        waitForBlockingSubscribers(sequence);
+        Event slot = slots[(int) sequence & mask];
+        waitForPreviousPublisher(slot, sequence - slots.length);
+        slot.sequence = -1;
+        VarHandle.storeStoreFence();
+        slot.type = type;
+        slot.id = id;
+        slot.name = name;
+        slot.value = value;
+        slot.timestampNanos = System.nanoTime();
+        slot.sequence = sequence;
+        return sequence;
+    }
+
+    /**
+     * Subscribes to events published from now on.
+     *
+     * @param policy what to do when this subscriber falls a full ring behind
+     * @return the subscription to poll
+     */
+    public Subscription subscribe(BackpressurePolicy policy) {
+        Subscription subscription = new Subscription(policy, nextSequence.get());
+        if (policy == BackpressurePolicy.BLOCK) {
+            synchronized (this) {
+                Subscription[] grown = Arrays.copyOf(blockingSubscriptions, blockingSubscriptions.length + 1);
+                grown[grown.length - 1] = subscription;
+                blockingSubscriptions = grown;
+            }
+        }
+        return subscription;
+    }
+
+    private synchronized void removeBlockingSubscription(Subscription subscription) {
+        Subscription[] current = blockingSubscriptions;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i] == subscription) {
+                Subscription[] shrunk = new Subscription[current.length - 1];
+                System.arraycopy(current, 0, shrunk, 0, i);
+                System.arraycopy(current, i + 1, shrunk, i, shrunk.length - i);
+                blockingSubscriptions = shrunk;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Subscribes a handler that is fed from its own daemon thread until the subscription is closed.
+     *
+     * @param threadName the name of the consumer thread
+     * @param policy     what to do when the consumer falls a full ring behind
+     * @param handler    the handler called for every event
+     * @return the subscription, which can be closed to stop the thread
+     */
+    public Subscription startConsumer(String threadName, BackpressurePolicy policy, final EventHandler handler) {
+        final Subscription subscription = subscribe(policy);
+        Thread consumer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                long idleNanos = 0;
+                while (!subscription.isClosed()) {
+                    if (subscription.poll(handler, 256) > 0) {
+                        idleNanos = 0;
+                    } else {
+                        idleNanos = Math.min(Math.max(idleNanos * 2, 1000), TimeUnit.MILLISECONDS.toNanos(10));
+                        LockSupport.parkNanos(idleNanos);
+                    }
+                }
+            }
+        }, threadName);
+        consumer.setDaemon(true);
+        consumer.start();
+        return subscription;
+    }
+
+    /**
+     * Waits until every BLOCK subscriber has read the event that the given sequence will overwrite.
+     */
+    private void waitForBlockingSubscribers(long sequence) {
+        long wrapPoint = sequence - slots.length;
+        if (wrapPoint < 0) {
+            return;
+        }
+        Subscription[] blocking = blockingSubscriptions;
+        int spins = 0;
+        for (int i = 0; i < blocking.length; i++) {
+            Subscription subscription = blocking[i];
+            while (!subscription.closed && subscription.cursor <= wrapPoint) {
+                if (++spins < 100) {
+                    Thread.onSpinWait();
+                } else {
+                    LockSupport.parkNanos(1000);
+                }
+            }
+        }
+    }
+
+    /**
+     * Waits until the publisher of the event a lap before has finished writing the slot.
+     */
+    private static void waitForPreviousPublisher(Event slot, long previous) {
+        int spins = 0;
+        while (slot.sequence != previous) {
+            if (++spins < 100) {
+                Thread.onSpinWait();
+            } else {
+                LockSupport.parkNanos(1000);
+            }
+        }
+    }
+
+    private static EventType typeOf(CustomTimer.TimerStatus status) {
+        switch (status) {
+            case RUNNING:
+                return EventType.TIMER_STARTED;
+            case STOPPED:
+                return EventType.TIMER_STOPPED;
+            case RESET:
+                return EventType.TIMER_RESET;
+            default:
+                return EventType.TIMER_FINISHED;
+        }
+    }
+
+    /**
+     * Enum representing the kinds of events on the bus.
+     */
+    public enum EventType {
+        TIMER_STARTED,
+        TIMER_STOPPED,
+        TIMER_RESET,
+        TIMER_FINISHED,
+        TIMER_TICKED,
+        RECIPE_LOADED
+    }
+
+    /**
+     * Enum representing what happens when a subscriber is a full ring behind the publishers.
+     */
+    public enum BackpressurePolicy {
+        /** Publishers wait for the subscriber; no event is ever lost. Use for short, bounded handlers. */
+        BLOCK,
+        /** Publishers overwrite the oldest events; the subscriber skips ahead and counts what it missed. */
+        DROP
+    }
+
+    /**
+     * Callback receiving events from a subscription.
+     */
+    public interface EventHandler {
+        /**
+         * Handles one event. The event object is reused for the next event, so copy what must be kept.
+         *
+         * @param event the event
+         */
+        void onEvent(Event event);
+    }
+
+    /**
+     * Event is one slot of the ring.
+     */
+    public static final class Event {
+        private volatile long sequence = -1;
+        private EventType type;
+        private long id;
+        private String name;
+        private long value;
+        private long timestampNanos;
+
+        private void copyFrom(Event other) {
+            type = other.type;
+            id = other.id;
+            name = other.name;
+            value = other.value;
+            timestampNanos = other.timestampNanos;
+        }
+
+        /**
+         * Returns the sequence number of the event.
+         *
+         * @return the sequence number
+         */
+        public long getSequence() {
+            return sequence;
+        }
+
+        /**
+         * Returns the type of the event.
+         *
+         * @return the event type
+         */
+        public EventType getType() {
+            return type;
+        }
+
+        /**
+         * Returns the id of the timer the event is about, or 0 for recipe events.
+         *
+         * @return the timer id
+         */
+        public long getId() {
+            return id;
+        }
+
+        /**
+         * Returns the timer or recipe name.
+         *
+         * @return the name
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Returns the remaining milliseconds for timer events, or 0.
+         *
+         * @return the event value
+         */
+        public long getValue() {
+            return value;
+        }
+
+        /**
+         * Returns when the event was published.
+         *
+         * @return the {@code System.nanoTime()} value at publication
+         */
+        public long getTimestampNanos() {
+            return timestampNanos;
+        }
+    }
+
+    /**
+     * Subscription is one subscriber's cursor into the ring.
+     */
+    public final class Subscription {
+        private final BackpressurePolicy policy;
+        private final Event scratch = new Event();
+        private volatile long cursor;
+        private volatile boolean closed;
+        private long dropped;
+
+        private Subscription(BackpressurePolicy policy, long cursor) {
+            this.policy = policy;
+            this.cursor = cursor;
+        }
+
+        /**
+         * Hands up to {@code maxEvents} published events to the handler, oldest first. Must only be called
+         * from one thread at a time.
+         *
+         * @param handler   the handler called for every event
+         * @param maxEvents the most events to hand over in this call
+         * @return the number of events handed over
+         */
+        public int poll(EventHandler handler, int maxEvents) {
+            int count = 0;
+            long next = cursor;
+            while (count < maxEvents && !closed) {
+                Event slot = slots[(int) next & mask];
+                long before = slot.sequence;
+                if (before == next) {
+                    scratch.copyFrom(slot);
+                    VarHandle.acquireFence();
+                    if (slot.sequence == next) {
+                        scratch.sequence = next;
+                        next++;
+                        cursor = next;
+                        handler.onEvent(scratch);
+                        count++;
+                        continue;
+                    }
+                } else if (before < next) {
+                    // Not published yet, or still being written.
+                    break;
+                }
+                // Lapped by the publishers: skip to the oldest event still in the ring.
+                long oldest = Math.max(next + 1, nextSequence.get() - slots.length + 1);
+                dropped += oldest - next;
+                next = oldest;
+                cursor = next;
+            }
+            return count;
+        }
+
+        /**
+         * Returns how many events this subscriber missed because it was lapped.
+         *
+         * @return the number of dropped events
+         */
+        public long getDroppedCount() {
+            return dropped;
+        }
+
+        /**
+         * Returns whether the subscription has been closed.
+         *
+         * @return true if closed
+         */
+        public boolean isClosed() {
+            return closed;
+        }
+
+        /**
+         * Stops the subscription; publishers no longer wait for it.
+         */
+        public void close() {
+            closed = true;
+            if (policy == BackpressurePolicy.BLOCK) {
+                removeBlockingSubscription(this);
+            }
+        }
+    }
+
+    private static final class SharedHolder {
+        private static final KitchenEventBus INSTANCE = new KitchenEventBus(DEFAULT_CAPACITY);
+    }
+}
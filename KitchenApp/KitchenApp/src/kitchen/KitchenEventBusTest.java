@@ -0,0 +1,141 @@
+package kitchen;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * This test suite contains tests for the KitchenEventBus.
+ * Each test verifies how subscribers read the shared stream and what happens when they fall behind.
+ */
+public class KitchenEventBusTest {
+
+    @Test
+    public void testEverySubscriberSeesEveryEvent() {
+        KitchenEventBus bus = new KitchenEventBus(64);
+        KitchenEventBus.Subscription ui = bus.subscribe(KitchenEventBus.BackpressurePolicy.BLOCK);
+        KitchenEventBus.Subscription log = bus.subscribe(KitchenEventBus.BackpressurePolicy.DROP);
+        for (int i = 0; i < 10; i++) {
+            bus.publish(KitchenEventBus.EventType.TIMER_STARTED, i, "Timer " + i, 1000);
+        }
+        final List<Long> seen = new ArrayList<>();
+        KitchenEventBus.EventHandler handler = new KitchenEventBus.EventHandler() {
+            @Override
+            public void onEvent(KitchenEventBus.Event event) {
+                seen.add(event.getId());
+            }
+        };
+        assertEquals(10, ui.poll(handler, 100));
+        assertEquals(10, log.poll(handler, 100));
+        assertEquals(20, seen.size());
+        assertEquals(Long.valueOf(9), seen.get(9));
+        assertEquals(0, ui.poll(handler, 100));
+    }
+
+    @Test
+    public void testDropSubscriberSkipsWhenLapped() {
+        KitchenEventBus bus = new KitchenEventBus(16);
+        KitchenEventBus.Subscription slow = bus.subscribe(KitchenEventBus.BackpressurePolicy.DROP);
+        for (int i = 0; i < 100; i++) {
+            bus.publish(KitchenEventBus.EventType.TIMER_TICKED, i, "Timer", i);
+        }
+        final List<Long> seen = new ArrayList<>();
+        slow.poll(new KitchenEventBus.EventHandler() {
+            @Override
+            public void onEvent(KitchenEventBus.Event event) {
+                seen.add(event.getSequence());
+            }
+        }, 1000);
+        assertTrue(slow.getDroppedCount() >= 84);
+        assertEquals(100, seen.size() + slow.getDroppedCount());
+        assertEquals(Long.valueOf(99), seen.get(seen.size() - 1));
+    }
+
+    @Test
+    public void testBlockSubscriberHoldsBackPublisher() throws InterruptedException {
+        final KitchenEventBus bus = new KitchenEventBus(16);
+        KitchenEventBus.Subscription consumer = bus.subscribe(KitchenEventBus.BackpressurePolicy.BLOCK);
+        Thread publisher = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < 40; i++) {
+                    bus.publish(KitchenEventBus.EventType.RECIPE_LOADED, 0, "Pancakes", i);
+                }
+            }
+        });
+        publisher.start();
+        publisher.join(200);
+        assertTrue(publisher.isAlive(), "Publisher must wait for the blocking subscriber");
+
+        final long[] expected = {0};
+        KitchenEventBus.EventHandler handler = new KitchenEventBus.EventHandler() {
+            @Override
+            public void onEvent(KitchenEventBus.Event event) {
+                assertEquals(expected[0]++, event.getValue());
+            }
+        };
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (expected[0] < 40 && System.nanoTime() < deadline) {
+            consumer.poll(handler, 8);
+        }
+        publisher.join(1000);
+        assertEquals(40, expected[0]);
+        assertEquals(0, consumer.getDroppedCount());
+    }
+
+    @Test
+    public void testClosedBlockSubscriberNoLongerHoldsBackPublisher() {
+        KitchenEventBus bus = new KitchenEventBus(16);
+        KitchenEventBus.Subscription first = bus.subscribe(KitchenEventBus.BackpressurePolicy.BLOCK);
+        KitchenEventBus.Subscription second = bus.subscribe(KitchenEventBus.BackpressurePolicy.BLOCK);
+        first.close();
+        second.close();
+        for (int i = 0; i < 40; i++) {
+            bus.publish(KitchenEventBus.EventType.TIMER_TICKED, i, "Timer", i);
+        }
+        assertTrue(first.isClosed());
+        assertEquals(40, bus.publish(KitchenEventBus.EventType.TIMER_TICKED, 40, "Timer", 40));
+    }
+
+    @Test
+    public void testPublishersALapApartNeverTearAnEvent() throws InterruptedException {
+        final KitchenEventBus bus = new KitchenEventBus(4);
+        KitchenEventBus.Subscription reader = bus.subscribe(KitchenEventBus.BackpressurePolicy.DROP);
+        Thread[] publishers = new Thread[4];
+        for (int p = 0; p < publishers.length; p++) {
+            final long base = p * 1_000_000L;
+            publishers[p] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (long i = base; i < base + 20_000; i++) {
+                        bus.publish(KitchenEventBus.EventType.TIMER_TICKED, i, "Timer", i);
+                    }
+                }
+            });
+            publishers[p].start();
+        }
+        final long[] torn = new long[1];
+        KitchenEventBus.EventHandler handler = new KitchenEventBus.EventHandler() {
+            @Override
+            public void onEvent(KitchenEventBus.Event event) {
+                if (event.getId() != event.getValue()) {
+                    torn[0]++;
+                }
+            }
+        };
+        for (Thread publisher : publishers) {
+            while (publisher.isAlive()) {
+                reader.poll(handler, 16);
+            }
+            publisher.join();
+        }
+        reader.poll(handler, 16);
+        assertEquals(0, torn[0]);
+        assertEquals(80_000, bus.publish(KitchenEventBus.EventType.TIMER_TICKED, 0, "Timer", 0));
+    }
+}
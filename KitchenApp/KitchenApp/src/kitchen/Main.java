@@ -1,6 +1,10 @@
 package kitchen;
 
 import javax.swing.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.io.IOException;
+import java.nio.file.Paths;
 
 public class Main {
     public static void main(String[] args) {
@@ -14,12 +18,21 @@ public class Main {
                 JTabbedPane tabbedPane = new JTabbedPane();
 
                 // Add RecipePanel
-                RecipePanel recipePanel = new RecipePanel();
+                // The recipe catalog and edit log live in the user's home directory
+                RecipePanel recipePanel = new RecipePanel(
+                        Paths.get(System.getProperty("user.home"), ".kitchen_app", "recipes.catalog"),
+                        openSharedLog());
                 tabbedPane.addTab("Recipes", recipePanel);
 
                 // Add TimerPanel
-                TimerPanel timerPanel = new TimerPanel();
+                final TimerPanel timerPanel = new TimerPanel();
                 tabbedPane.addTab("Timers", timerPanel);
+                frame.addWindowListener(new WindowAdapter() {
+                    @Override
+                    public void windowClosing(WindowEvent e) {
+                        timerPanel.dispose();
+                    }
+                });
 
                 // Add UnitConverterPanel
                 UnitConverterPanel unitConverterPanel = new UnitConverterPanel();
@@ -30,4 +43,16 @@ public class Main {
             }
         });
     }
+
+    /**
+     * Opens the recipe edit log shared by the panels.
+     * @return The log, or null if it cannot be opened; edits then do not survive a restart.
+     */
+    private static RecipeEditLog openSharedLog() {
+        try {
+            return RecipeEditLog.shared();
+        } catch (IOException e) {
+            return null;
+        }
+    }
 }
@@ -0,0 +1,451 @@
+package kitchen;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+/**
+ * MappedLog class is the append-only, memory-mapped file behind {@link TimerJournal} and
+ * {@link RecipeEditLog}. Each record is copied into the mapping under a short lock, and a background
+ * flusher forces the dirty pages to disk at most once per commit interval, so a burst of records costs
+ * one flush (group commit). Flushes run outside the lock and only one runs at a time; records are
+ * numbered as they are appended, so {@link #sync()} can tell whether a flush already in flight covers
+ * them.
+ *
+ * When the log passes three quarters of its mapping, or a record does not fit in it, the flusher
+ * rewrites it as a snapshot of the subclass's state, written outside the lock to a temporary file that
+ * atomically replaces the log. Records appended meanwhile are copied into it before the swap. A record
+ * that does not fit is kept in memory until the snapshot holding it lands. Subclasses guard their own
+ * state with the same lock, so a snapshot always matches the records appended before it.
+ *
+ * File layout: {@code int magic, int version}, then records of {@code int length, int crc32, payload}.
+ * A zero length marks the end of the log, and replay stops at the first record that fails its checksum.
+ *
+ * @param <E> the type of one record
+ */
+abstract class MappedLog<E> implements Closeable {
+    private static final int HEADER_BYTES = 8;
+    private static final int INITIAL_CAPACITY = 1 << 20;
+
+    private final Path path;
+    private final int magic;
+    private final int version;
+    private final String description;
+    private final long commitIntervalMillis;
+    private final CRC32 crc = new CRC32();
+    private final AtomicLong flushes = new AtomicLong();
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private boolean dirty;
+    private boolean closed;
+    // The mapping had no room for a record; later records wait in memory for the next snapshot too
+    private boolean full;
+    // Records appended while the flusher writes a snapshot, copied into it before it replaces the log
+    private List<E> carried;
+    // Every record up to forcedSequence is on disk
+    private long appendedSequence;
+    private long forcedSequence;
+    // A flush outside the lock is in flight
+    private boolean forcing;
+
+    MappedLog(Path path, int magic, int version, String description, long commitIntervalMillis) {
+        this.path = path;
+        this.magic = magic;
+        this.version = version;
+        this.description = description;
+        this.commitIntervalMillis = commitIntervalMillis;
+    }
+
+    /**
+     * Compacts the subclass's state into a fresh log and starts the flusher. Subclasses call this last in
+     * their constructor.
+     *
+     * @param flusherName the name of the flusher thread
+     * @throws IOException if the log cannot be written
+     */
+    final void start(String flusherName) throws IOException {
+        synchronized (this) {
+            install(writeSnapshot(snapshot(), crc), 0);
+        }
+        Thread flusher = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                runFlusher();
+            }
+        }, flusherName);
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /**
+     * Returns the payload size of the given record in bytes.
+     */
+    abstract int payloadLength(E record);
+
+    /**
+     * Writes the payload of the given record; exactly {@link #payloadLength(Object)} bytes. May run
+     * outside the lock, so it must only read the record.
+     */
+    abstract void writePayload(ByteBuffer into, E record);
+
+    /**
+     * Returns the records that rebuild the current state. Caller holds the lock.
+     */
+    abstract List<E> snapshot();
+
+    /**
+     * Forces every appended record to disk before returning. If some records wait for a compaction, or
+     * a flush is in flight, waits for it first; that flush may already cover them.
+     */
+    public void sync() {
+        MappedByteBuffer dirtyBuffer;
+        long covered;
+        synchronized (this) {
+            long target = appendedSequence;
+            if (!awaitCompaction() || !awaitForce() || closed || forcedSequence >= target) {
+                return;
+            }
+            dirtyBuffer = buffer;
+            covered = beginForce();
+        }
+        dirtyBuffer.force();
+        endForce(covered);
+    }
+
+    /**
+     * Returns how many times records have been forced to disk, by the flusher, a compaction or
+     * {@link #sync()}.
+     *
+     * @return the flush count
+     */
+    long flushCount() {
+        return flushes.get();
+    }
+
+    /**
+     * Flushes the log and releases the file.
+     *
+     * @throws IOException if the file cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        MappedByteBuffer dirtyBuffer;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            awaitCompaction();
+            awaitForce();
+            closed = true;
+            notifyAll();
+            dirtyBuffer = dirty ? buffer : null;
+            dirty = false;
+        }
+        if (dirtyBuffer != null) {
+            dirtyBuffer.force();
+            flushes.incrementAndGet();
+        }
+        channel.close();
+    }
+
+    /**
+     * Appends one record, or keeps it for the next snapshot if it does not fit. The record must already
+     * be applied to the subclass's state, so a snapshot taken later includes it. Caller holds the lock.
+     *
+     * @param record the record to append
+     */
+    final void append(E record) {
+        if (closed) {
+            return;
+        }
+        appendedSequence++;
+        if (carried != null) {
+            carried.add(record);
+        }
+        if (!full && !writeRecord(buffer, crc, record)) {
+            full = true;
+        }
+        if (!dirty) {
+            dirty = true;
+            notifyAll();
+        }
+    }
+
+    /**
+     * Waits until no record is waiting for a compaction. Caller holds the lock.
+     *
+     * @return false if the thread was interrupted while waiting
+     */
+    private boolean awaitCompaction() {
+        while ((full || carried != null) && !closed) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Waits until no flush is in flight. Caller holds the lock.
+     *
+     * @return false if the thread was interrupted while waiting
+     */
+    private boolean awaitForce() {
+        while (forcing) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Marks a flush of the current mapping as in flight. Caller holds the lock, then forces the mapping
+     * outside it and calls {@link #endForce(long)}.
+     *
+     * @return the sequence of the last record the flush covers
+     */
+    private long beginForce() {
+        forcing = true;
+        dirty = false;
+        return appendedSequence;
+    }
+
+    private synchronized void endForce(long covered) {
+        flushes.incrementAndGet();
+        forcing = false;
+        forcedSequence = Math.max(forcedSequence, covered);
+        notifyAll();
+    }
+
+    /**
+     * Writes one record at the buffer's position, unless it and the end marker after it do not fit.
+     *
+     * @return false if the record does not fit
+     */
+    private boolean writeRecord(ByteBuffer into, CRC32 checksum, E record) {
+        int length = payloadLength(record);
+        if (into.remaining() < length + 12) {
+            return false;
+        }
+        int start = into.position();
+        into.position(start + 8);
+        writePayload(into, record);
+        int end = into.position();
+        checksum.reset();
+        ByteBuffer payload = into.duplicate();
+        payload.position(start + 8).limit(end);
+        checksum.update(payload);
+        into.putInt(start + 4, (int) checksum.getValue());
+        // The length goes in last, so a torn record reads as the end of the log.
+        into.putInt(start, length);
+        return true;
+    }
+
+    /**
+     * Writes the given records into a temporary file and forces it. Does not touch the log itself, so the
+     * caller need not hold the lock.
+     */
+    private Snapshot writeSnapshot(List<E> records, CRC32 checksum) throws IOException {
+        long needed = HEADER_BYTES + 4;
+        for (E record : records) {
+            needed += 8 + payloadLength(record);
+        }
+        long capacity = INITIAL_CAPACITY;
+        while (capacity < needed * 2) {
+            capacity *= 2;
+        }
+        if (capacity > Integer.MAX_VALUE) {
+            throw new IOException("The " + description + " is larger than 1 GB");
+        }
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer mapped = out.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        mapped.putInt(magic);
+        mapped.putInt(version);
+        for (E record : records) {
+            writeRecord(mapped, checksum, record);
+        }
+        mapped.force();
+        flushes.incrementAndGet();
+        return new Snapshot(temp, out, mapped);
+    }
+
+    /**
+     * Copies the records appended while the snapshot was written into it, then makes it the log. Caller
+     * holds the lock.
+     *
+     * @param covered the sequence of the last record the snapshot itself holds
+     */
+    private void install(Snapshot snapshot, long covered) throws IOException {
+        boolean fits = true;
+        if (carried != null) {
+            for (E record : carried) {
+                fits = fits && writeRecord(snapshot.buffer, crc, record);
+            }
+        }
+        Files.move(snapshot.temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        if (channel != null) {
+            channel.close();
+        }
+        channel = snapshot.channel;
+        buffer = snapshot.buffer;
+        dirty = carried != null && !carried.isEmpty();
+        forcedSequence = Math.max(forcedSequence, covered);
+        full = !fits;
+        carried = null;
+        notifyAll();
+    }
+
+    /**
+     * Group commit loop: waits for appended records, lets more arrive for one commit interval, then
+     * forces them all with a single flush. Compacts the log once it is three quarters full or a record
+     * did not fit. Flushes and compactions run outside the lock; only taking the state and swapping the
+     * mapping hold it.
+     */
+    private void runFlusher() {
+        CRC32 snapshotCrc = new CRC32();
+        while (true) {
+            MappedByteBuffer dirtyBuffer = null;
+            List<E> state = null;
+            long covered;
+            synchronized (this) {
+                try {
+                    while (!dirty && !closed) {
+                        wait();
+                    }
+                    wait(commitIntervalMillis);
+                    while (forcing && !closed) {
+                        wait();
+                    }
+                } catch (InterruptedException e) {
+                    return;
+                }
+                if (closed) {
+                    return;
+                }
+                if (!dirty) {
+                    // A sync forced the records meanwhile
+                    continue;
+                }
+                if (full || buffer.position() > buffer.capacity() / 4 * 3) {
+                    state = snapshot();
+                    carried = new ArrayList<>();
+                    dirty = false;
+                    covered = appendedSequence;
+                } else {
+                    dirtyBuffer = buffer;
+                    covered = beginForce();
+                }
+            }
+            if (dirtyBuffer != null) {
+                dirtyBuffer.force();
+                endForce(covered);
+                continue;
+            }
+            try {
+                Snapshot snapshot = writeSnapshot(state, snapshotCrc);
+                synchronized (this) {
+                    install(snapshot, covered);
+                }
+            } catch (IOException e) {
+                synchronized (this) {
+                    closed = true;
+                    carried = null;
+                    notifyAll();
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Reads every intact record of the log at the given path, stopping at the end marker, at the first
+     * record that fails its checksum, or when the reader rejects a record.
+     *
+     * @param path        the log file
+     * @param magic       the magic number the file must start with
+     * @param description what the log holds, for the error message
+     * @param reader      the reader of each record's payload
+     * @throws IOException if the file cannot be read or is not such a log
+     */
+    static void replay(Path path, int magic, String description, RecordReader reader) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES) {
+                return;
+            }
+            MappedByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (in.getInt() != magic) {
+                throw new IOException("Not a " + description + ": " + path);
+            }
+            int version = in.getInt();
+            CRC32 crc = new CRC32();
+            while (in.remaining() >= 8) {
+                int start = in.position();
+                int length = in.getInt();
+                int checksum = in.getInt();
+                if (length <= 0 || length > in.remaining()) {
+                    break;
+                }
+                ByteBuffer payload = in.duplicate();
+                payload.position(start + 8).limit(start + 8 + length);
+                crc.reset();
+                crc.update(payload);
+                if ((int) crc.getValue() != checksum) {
+                    break;
+                }
+                payload.position(start + 8);
+                if (!reader.read(version, payload)) {
+                    break;
+                }
+                in.position(start + 8 + length);
+            }
+        }
+    }
+
+    /**
+     * RecordReader reads the payload of one replayed record.
+     */
+    interface RecordReader {
+        /**
+         * Applies one record.
+         *
+         * @param version the version the log was written with
+         * @param payload the record's payload, from its position to its limit
+         * @return false if the payload is malformed and replay should stop
+         */
+        boolean read(int version, ByteBuffer payload);
+    }
+
+    /**
+     * Snapshot is a compacted log written to a temporary file, not yet in place of the log.
+     */
+    private static final class Snapshot {
+        private final Path temp;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+
+        private Snapshot(Path temp, FileChannel channel, MappedByteBuffer buffer) {
+            this.temp = temp;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+    }
+}
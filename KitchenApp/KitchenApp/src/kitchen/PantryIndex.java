@@ -0,0 +1,276 @@
+package kitchen;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * PantryIndex class answers "what can I cook with what I have" over a recipe catalog: every recipe whose
+ * ingredients are all in the pantry, or that misses at most N of them. Ingredient names are matched
+ * case-insensitively through a dictionary of their own ids.
+ *
+ * For every ingredient the index keeps the set of recipes that use it as a {@link CompressedBitmap}.
+ * A query adds the bitmaps of the pantry's ingredients into per-recipe counters that are stored
+ * bit-sliced, one 64-recipe word per bit of the count, so each addition, the subtraction from each
+ * recipe's ingredient count and the "missing at most N" comparison handle 64 recipes per operation.
+ * The cost grows with the pantry and the catalog's word count, not with the number of ingredient lines.
+ */
+public final class PantryIndex {
+    private final Recipe[] recipes;
+    private final StringDictionary ingredients;
+    private final CompressedBitmap[] recipesByIngredient;
+    // Bit s of every recipe's distinct ingredient count, 64 recipes per word
+    private final long[][] needed;
+    private final long[] withIngredients;
+    private final int words;
+
+    private PantryIndex(Recipe[] recipes, StringDictionary ingredients, CompressedBitmap[] recipesByIngredient,
+                        long[][] needed, long[] withIngredients) {
+        this.recipes = recipes;
+        this.ingredients = ingredients;
+        this.recipesByIngredient = recipesByIngredient;
+        this.needed = needed;
+        this.withIngredients = withIngredients;
+        this.words = withIngredients.length;
+    }
+
+    /**
+     * Builds an index over the given recipes.
+     *
+     * @param recipes the recipes to index
+     * @return the index
+     */
+    public static PantryIndex build(List<Recipe> recipes) {
+        Recipe[] documents = recipes.toArray(new Recipe[0]);
+        StringDictionary ingredients = new StringDictionary();
+        int[][] postings = new int[64][];
+        int[] postingSizes = new int[64];
+        int[] counts = new int[documents.length];
+        RecipeBook book = null;
+        int[] idsInBook = new int[0];
+        int[] recipeIds = new int[16];
+        int maxCount = 0;
+
+        for (int r = 0; r < documents.length; r++) {
+            Recipe recipe = documents[r];
+            if (recipe.getBook() != book) {
+                book = recipe.getBook();
+                idsInBook = new int[0];
+            }
+            int count = 0;
+            for (int i = 0; i < recipe.getIngredientCount(); i++) {
+                // Fold each of the book's ingredient names once, not once per line
+                int bookId = recipe.getIngredientNameId(i);
+                if (bookId >= idsInBook.length) {
+                    int old = idsInBook.length;
+                    idsInBook = Arrays.copyOf(idsInBook, Math.max(bookId + 1, old * 2));
+                    Arrays.fill(idsInBook, old, idsInBook.length, -1);
+                }
+                if (idsInBook[bookId] < 0) {
+                    idsInBook[bookId] = ingredients.intern(fold(book.getIngredientNames().get(bookId)));
+                }
+                if (count == recipeIds.length) {
+                    recipeIds = Arrays.copyOf(recipeIds, count * 2);
+                }
+                recipeIds[count++] = idsInBook[bookId];
+            }
+            Arrays.sort(recipeIds, 0, count);
+            int distinct = 0;
+            for (int i = 0; i < count; i++) {
+                int id = recipeIds[i];
+                if (i > 0 && id == recipeIds[i - 1]) {
+                    continue;
+                }
+                distinct++;
+                if (id >= postings.length) {
+                    postings = Arrays.copyOf(postings, Math.max(id + 1, postings.length * 2));
+                    postingSizes = Arrays.copyOf(postingSizes, postings.length);
+                }
+                if (postings[id] == null) {
+                    postings[id] = new int[4];
+                } else if (postingSizes[id] == postings[id].length) {
+                    postings[id] = Arrays.copyOf(postings[id], postingSizes[id] * 2);
+                }
+                postings[id][postingSizes[id]++] = r;
+            }
+            counts[r] = distinct;
+            maxCount = Math.max(maxCount, distinct);
+        }
+
+        CompressedBitmap[] recipesByIngredient = new CompressedBitmap[ingredients.size()];
+        for (int id = 0; id < recipesByIngredient.length; id++) {
+            recipesByIngredient[id] = CompressedBitmap.of(postings[id], postingSizes[id]);
+            postings[id] = null;
+        }
+        int words = (documents.length + 63) / 64;
+        long[][] needed = new long[Math.max(1, 32 - Integer.numberOfLeadingZeros(maxCount))][words];
+        long[] withIngredients = new long[words];
+        for (int r = 0; r < documents.length; r++) {
+            if (counts[r] > 0) {
+                withIngredients[r >>> 6] |= 1L << r;
+            }
+            for (int s = 0; s < needed.length; s++) {
+                if ((counts[r] >>> s & 1) != 0) {
+                    needed[s][r >>> 6] |= 1L << r;
+                }
+            }
+        }
+        return new PantryIndex(documents, ingredients, recipesByIngredient, needed, withIngredients);
+    }
+
+    private static String fold(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Returns every recipe that can be made entirely from the pantry, in catalog order.
+     *
+     * @param pantry the ingredient names at hand
+     * @return the recipes missing nothing
+     */
+    public List<Match> canCook(Collection<String> pantry) {
+        return missingAtMost(pantry, 0, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns the recipes that miss at most the given number of ingredients, fewest missing first and in
+     * catalog order among equals. Recipes without ingredients are never returned.
+     *
+     * @param pantry     the ingredient names at hand
+     * @param maxMissing the most ingredients a recipe may miss
+     * @param limit      the most recipes to return
+     * @return the matching recipes
+     */
+    public List<Match> missingAtMost(Collection<String> pantry, int maxMissing, int limit) {
+        final int slices = needed.length;
+        final long[][] have = new long[slices][words];
+        Set<String> folded = new HashSet<>();
+        for (String name : pantry) {
+            String key = fold(name);
+            int id = ingredients.idOf(key);
+            if (id < 0 || !folded.add(key)) {
+                continue;
+            }
+            // Adds one to the count of every recipe in the word that uses the ingredient
+            recipesByIngredient[id].forEachWord(new CompressedBitmap.WordConsumer() {
+                @Override
+                public void word(int index, long bits) {
+                    long carry = bits;
+                    for (int s = 0; s < slices && carry != 0; s++) {
+                        long sum = have[s][index] ^ carry;
+                        carry &= have[s][index];
+                        have[s][index] = sum;
+                    }
+                }
+            });
+        }
+
+        // missing = needed - have, computed in place; never negative because a recipe only counts its
+        // own ingredients
+        long[][] missing = have;
+        for (int w = 0; w < words; w++) {
+            long borrow = 0;
+            for (int s = 0; s < slices; s++) {
+                long a = needed[s][w];
+                long b = have[s][w];
+                missing[s][w] = a ^ b ^ borrow;
+                borrow = (~a & b) | (~(a ^ b) & borrow);
+            }
+        }
+
+        List<Match> matches = new ArrayList<>();
+        int highest = Math.min(maxMissing, (1 << slices) - 1);
+        for (int count = 0; count <= highest && matches.size() < limit; count++) {
+            for (int w = 0; w < words && matches.size() < limit; w++) {
+                long mask = withIngredients[w];
+                for (int s = 0; s < slices; s++) {
+                    mask &= (count >>> s & 1) != 0 ? missing[s][w] : ~missing[s][w];
+                }
+                while (mask != 0 && matches.size() < limit) {
+                    int recipe = w * 64 + Long.numberOfTrailingZeros(mask);
+                    matches.add(new Match(recipes[recipe], count, folded));
+                    mask &= mask - 1;
+                }
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Returns the number of indexed recipes.
+     *
+     * @return the recipe count
+     */
+    public int getRecipeCount() {
+        return recipes.length;
+    }
+
+    /**
+     * Returns the number of distinct ingredients, ignoring case.
+     *
+     * @return the ingredient count
+     */
+    public int getIngredientCount() {
+        return ingredients.size();
+    }
+
+    /**
+     * Match is one recipe a pantry query found, with how many of its ingredients are missing.
+     */
+    public static final class Match {
+        private final Recipe recipe;
+        private final int missingCount;
+        private final Set<String> pantry;
+
+        private Match(Recipe recipe, int missingCount, Set<String> pantry) {
+            this.recipe = recipe;
+            this.missingCount = missingCount;
+            this.pantry = pantry;
+        }
+
+        /**
+         * Returns the recipe.
+         *
+         * @return the recipe
+         */
+        public Recipe getRecipe() {
+            return recipe;
+        }
+
+        /**
+         * Returns how many distinct ingredients of the recipe are not in the pantry.
+         *
+         * @return the missing count
+         */
+        public int getMissingCount() {
+            return missingCount;
+        }
+
+        /**
+         * Returns the names of the ingredients that are not in the pantry, in recipe order.
+         *
+         * @return the missing ingredient names
+         */
+        public List<String> getMissingIngredients() {
+            List<String> missing = new ArrayList<>();
+            Set<String> listed = new HashSet<>();
+            for (int i = 0; i < recipe.getIngredientCount(); i++) {
+                String name = recipe.getIngredient(i).getName();
+                String key = fold(name);
+                if (!pantry.contains(key) && listed.add(key)) {
+                    missing.add(name);
+                }
+            }
+            return missing;
+        }
+
+        @Override
+        public String toString() {
+            return recipe.getName() + " (missing " + missingCount + ")";
+        }
+    }
+}
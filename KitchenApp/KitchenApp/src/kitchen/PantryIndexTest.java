@@ -0,0 +1,120 @@
+package kitchen;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * This test suite contains tests for the pantry ingredient index and its compressed bitmaps.
+ */
+public class PantryIndexTest {
+
+    private static String names(List<PantryIndex.Match> matches) {
+        StringBuilder names = new StringBuilder();
+        for (PantryIndex.Match match : matches) {
+            names.append(names.length() == 0 ? "" : ",").append(match);
+        }
+        return names.toString();
+    }
+
+    @Test
+    public void testCanCookAndMissingAtMost() {
+        RecipeBook book = new RecipeBook();
+        List<String> none = Collections.emptyList();
+        book.add("Omelette", Arrays.asList("Eggs: 3", "Milk: 1/4 cup", "Salt: 1 pinch"), none);
+        book.add("Pancakes", Arrays.asList("Flour: 1 cup", "Milk: 1 cup", "Eggs: 1", "Butter: 2 tablespoons"), none);
+        book.add("Boiled Eggs", Arrays.asList("Eggs: 2", "Salt: 1 pinch", "eggs: 1"), none);
+        book.add("Toast", Arrays.asList("Bread: 2 slices", "Butter: 1 tablespoon"), none);
+        book.add("Empty", none, none);
+        PantryIndex index = PantryIndex.build(book.getRecipes());
+
+        List<String> pantry = Arrays.asList("EGGS", "salt ", "Milk", "Garlic");
+        assertEquals("Omelette (missing 0),Boiled Eggs (missing 0)", names(index.canCook(pantry)));
+        assertEquals("Omelette (missing 0),Boiled Eggs (missing 0),Pancakes (missing 2),Toast (missing 2)",
+                names(index.missingAtMost(pantry, 2, 10)));
+        assertEquals("Omelette (missing 0)", names(index.missingAtMost(pantry, 5, 1)));
+        assertEquals(Arrays.asList("Flour", "Butter"),
+                index.missingAtMost(pantry, 2, 10).get(2).getMissingIngredients());
+        assertEquals("", names(index.canCook(Collections.<String>emptyList())));
+        assertEquals(6, index.getIngredientCount());
+    }
+
+    @Test
+    public void testBitSlicedCountsMatchAPlainScan() {
+        Random random = new Random(7);
+        RecipeBook book = new RecipeBook();
+        List<String> none = Collections.emptyList();
+        for (int i = 0; i < 70000; i++) {
+            List<String> lines = new ArrayList<>();
+            int count = 1 + random.nextInt(12);
+            for (int j = 0; j < count; j++) {
+                lines.add("Ingredient " + random.nextInt(i < 1000 ? 20 : 300) + ": 1");
+            }
+            book.add("Recipe " + i, lines, none);
+        }
+        List<String> pantry = new ArrayList<>();
+        for (int i = 0; i < 300; i += 2) {
+            pantry.add("ingredient " + i);
+        }
+        List<PantryIndex.Match> matches = PantryIndex.build(book.getRecipes()).missingAtMost(pantry, 3, 100000);
+
+        int[] expectedPerCount = new int[4];
+        for (Recipe recipe : book.getRecipes()) {
+            Set<String> missing = new HashSet<>();
+            for (int i = 0; i < recipe.getIngredientCount(); i++) {
+                String name = recipe.getIngredient(i).getName().toLowerCase();
+                if (!pantry.contains(name)) {
+                    missing.add(name);
+                }
+            }
+            if (missing.size() <= 3) {
+                expectedPerCount[missing.size()]++;
+            }
+        }
+        int[] actualPerCount = new int[4];
+        for (PantryIndex.Match match : matches) {
+            actualPerCount[match.getMissingCount()]++;
+            assertEquals(match.getMissingCount(), match.getMissingIngredients().size());
+        }
+        assertEquals(Arrays.toString(expectedPerCount), Arrays.toString(actualPerCount));
+    }
+
+    @Test
+    public void testBitmapUsesArrayAndBitmapContainers() {
+        int[] values = new int[10000];
+        int size = 0;
+        for (int i = 0; i < 70000; i += 10) {
+            values[size++] = i;
+        }
+        for (int i = 200000; i < 200003; i++) {
+            values[size++] = i;
+        }
+        CompressedBitmap bitmap = CompressedBitmap.of(values, size);
+        assertEquals(size, bitmap.cardinality());
+        assertTrue(bitmap.contains(65530));
+        assertTrue(bitmap.contains(200002));
+        assertFalse(bitmap.contains(65531));
+        assertFalse(bitmap.contains(300000));
+
+        final long[] seen = new long[2];
+        bitmap.forEachWord(new CompressedBitmap.WordConsumer() {
+            @Override
+            public void word(int index, long bits) {
+                seen[0] += Long.bitCount(bits);
+                seen[1] = index;
+            }
+        });
+        assertEquals(size, seen[0]);
+        assertEquals(200000 / 64, seen[1]);
+    }
+}
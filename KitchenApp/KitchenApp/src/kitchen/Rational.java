@@ -0,0 +1,192 @@
+package kitchen;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Rational class is an exact, non-negative fraction for recipe quantities, so scaling "1/3 cup" by 3
+ * gives exactly 1 cup. It parses the forms ingredient lines use: {@code "2"}, {@code "1/2"},
+ * {@code "1.5"} and {@code "1 1/2"}. Values are kept in lowest terms and are immutable.
+ */
+public final class Rational implements Comparable<Rational> {
+    private static final Pattern FORMAT = Pattern.compile("(\\d+)(?:\\.(\\d+)|/(\\d+)| (\\d+)/(\\d+))?");
+
+    /**
+     * The value 1.
+     */
+    public static final Rational ONE = new Rational(1, 1);
+
+    private final long numerator;
+    private final long denominator;
+
+    private Rational(long numerator, long denominator) {
+        this.numerator = numerator;
+        this.denominator = denominator;
+    }
+
+    /**
+     * Returns the fraction {@code numerator / denominator} in lowest terms.
+     *
+     * @param numerator   the numerator, not negative
+     * @param denominator the denominator, positive
+     * @return the fraction
+     */
+    public static Rational of(long numerator, long denominator) {
+        if (numerator < 0 || denominator <= 0) {
+            throw new IllegalArgumentException("Not a non-negative fraction: " + numerator + "/" + denominator);
+        }
+        long gcd = gcd(numerator, denominator);
+        return new Rational(numerator / gcd, denominator / gcd);
+    }
+
+    /**
+     * Parses a quantity such as "2", "1/2", "1.5" or "1 1/2".
+     *
+     * @param text the quantity
+     * @return the value, or null if the text is not a quantity in one of those forms
+     */
+    public static Rational parse(String text) {
+        Matcher matcher = FORMAT.matcher(text.trim());
+        if (!matcher.matches()) {
+            return null;
+        }
+        try {
+            long whole = Long.parseLong(matcher.group(1));
+            if (matcher.group(2) != null) {
+                long scale = 1;
+                for (int i = 0; i < matcher.group(2).length(); i++) {
+                    scale = Math.multiplyExact(scale, 10);
+                }
+                return of(Math.addExact(Math.multiplyExact(whole, scale), Long.parseLong(matcher.group(2))), scale);
+            }
+            if (matcher.group(3) != null) {
+                long denominator = Long.parseLong(matcher.group(3));
+                return denominator == 0 ? null : of(whole, denominator);
+            }
+            if (matcher.group(4) != null) {
+                long denominator = Long.parseLong(matcher.group(5));
+                return denominator == 0 ? null
+                        : of(Math.addExact(Math.multiplyExact(whole, denominator), Long.parseLong(matcher.group(4))),
+                                denominator);
+            }
+            return of(whole, 1);
+        } catch (ArithmeticException | NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns the product of this and another fraction.
+     *
+     * @param other the other fraction
+     * @return the product
+     * @throws ArithmeticException if the result does not fit in longs
+     */
+    public Rational times(Rational other) {
+        // Cross-reducing first keeps the intermediate products small
+        long a = gcd(numerator, other.denominator);
+        long b = gcd(other.numerator, denominator);
+        return new Rational(Math.multiplyExact(numerator / a, other.numerator / b),
+                Math.multiplyExact(denominator / b, other.denominator / a));
+    }
+
+    /**
+     * Returns this fraction divided by another.
+     *
+     * @param other the divisor, not zero
+     * @return the quotient
+     * @throws ArithmeticException if the divisor is zero or the result does not fit in longs
+     */
+    public Rational dividedBy(Rational other) {
+        if (other.numerator == 0) {
+            throw new ArithmeticException("Division by zero");
+        }
+        return times(new Rational(other.denominator, other.numerator));
+    }
+
+    /**
+     * Returns the numerator in lowest terms.
+     *
+     * @return the numerator
+     */
+    public long getNumerator() {
+        return numerator;
+    }
+
+    /**
+     * Returns the denominator in lowest terms.
+     *
+     * @return the denominator
+     */
+    public long getDenominator() {
+        return denominator;
+    }
+
+    /**
+     * Returns the value as a double.
+     *
+     * @return the approximate value
+     */
+    public double doubleValue() {
+        return (double) numerator / denominator;
+    }
+
+    /**
+     * Renders the value as a whole number, a fraction or a mixed number: "2", "1/2" or "1 1/2".
+     *
+     * @return the text
+     */
+    @Override
+    public String toString() {
+        long whole = numerator / denominator;
+        long rest = numerator % denominator;
+        if (rest == 0) {
+            return Long.toString(whole);
+        }
+        return (whole == 0 ? "" : whole + " ") + rest + "/" + denominator;
+    }
+
+    /**
+     * Renders the value in decimal, rounded half up to at most the given number of places, without
+     * trailing zeros: "1.5", "0.33".
+     *
+     * @param places the most decimal places
+     * @return the text
+     */
+    public String toDecimalString(int places) {
+        BigDecimal value = BigDecimal.valueOf(numerator).divide(BigDecimal.valueOf(denominator), places,
+                RoundingMode.HALF_UP);
+        return value.stripTrailingZeros().toPlainString();
+    }
+
+    @Override
+    public int compareTo(Rational other) {
+        return Long.compare(Math.multiplyExact(numerator, other.denominator),
+                Math.multiplyExact(other.numerator, denominator));
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (!(other instanceof Rational)) {
+            return false;
+        }
+        Rational rational = (Rational) other;
+        return numerator == rational.numerator && denominator == rational.denominator;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(numerator) * 31 + Long.hashCode(denominator);
+    }
+
+    private static long gcd(long a, long b) {
+        while (b != 0) {
+            long t = a % b;
+            a = b;
+            b = t;
+        }
+        return a == 0 ? 1 : a;
+    }
+}
@@ -0,0 +1,157 @@
+package kitchen;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Recipe class is one recipe of a {@link RecipeBook}: its name, its ingredient lines and its steps.
+ * Ingredient lines are not kept as objects; each line is three ints in one packed array that point
+ * into the book's dictionaries of ingredient names, quantities and units, so "Garlic" or "tablespoons"
+ * is stored once however many recipes use it. {@link #getIngredient(int)} rebuilds the typed line on
+ * demand. Recipes are immutable.
+ */
+public final class Recipe {
+    private static final int FIELDS = 3;
+
+    private final RecipeBook book;
+    private final String name;
+    // Per line: ingredient name id, quantity id, unit id << 1 | unit attached
+    private final int[] ingredients;
+    private final String[] steps;
+
+    Recipe(RecipeBook book, String name, int[] ingredients, String[] steps) {
+        this.book = book;
+        this.name = name;
+        this.ingredients = ingredients;
+        this.steps = steps;
+    }
+
+    static int[] pack(RecipeBook book, List<IngredientLine> lines) {
+        int[] packed = new int[lines.size() * FIELDS];
+        for (int i = 0; i < lines.size(); i++) {
+            IngredientLine line = lines.get(i);
+            packed[i * FIELDS] = book.getIngredientNames().intern(line.getName());
+            packed[i * FIELDS + 1] = book.getQuantities().intern(line.getQuantity());
+            packed[i * FIELDS + 2] = book.getUnits().intern(line.getUnit()) << 1 | (line.isUnitAttached() ? 1 : 0);
+        }
+        return packed;
+    }
+
+    /**
+     * Returns the name of the recipe.
+     *
+     * @return the name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the book the recipe belongs to.
+     *
+     * @return the recipe book
+     */
+    public RecipeBook getBook() {
+        return book;
+    }
+
+    /**
+     * Returns the number of ingredient lines.
+     *
+     * @return the ingredient count
+     */
+    public int getIngredientCount() {
+        return ingredients.length / FIELDS;
+    }
+
+    /**
+     * Returns the id of an ingredient's name in the book's ingredient dictionary.
+     *
+     * @param index the line index
+     * @return the ingredient name id
+     */
+    public int getIngredientNameId(int index) {
+        return ingredients[index * FIELDS];
+    }
+
+    int getQuantityId(int index) {
+        return ingredients[index * FIELDS + 1];
+    }
+
+    int getUnitField(int index) {
+        return ingredients[index * FIELDS + 2];
+    }
+
+    /**
+     * Returns a copy of the recipe in another book, with the same name and steps and the given packed
+     * ingredient lines, whose ids point into that book's dictionaries.
+     */
+    Recipe withIngredients(RecipeBook target, int[] packed) {
+        return new Recipe(target, name, packed, steps);
+    }
+
+    /**
+     * Returns one ingredient line.
+     *
+     * @param index the line index
+     * @return the typed line
+     */
+    public IngredientLine getIngredient(int index) {
+        int unit = ingredients[index * FIELDS + 2];
+        return new IngredientLine(book.getIngredientNames().get(ingredients[index * FIELDS]),
+                book.getQuantities().get(ingredients[index * FIELDS + 1]),
+                book.getUnits().get(unit >>> 1), (unit & 1) != 0);
+    }
+
+    /**
+     * Returns the ingredient lines as a read-only list whose elements are built on access.
+     *
+     * @return the ingredient lines
+     */
+    public List<IngredientLine> getIngredients() {
+        return new AbstractList<IngredientLine>() {
+            @Override
+            public IngredientLine get(int index) {
+                if (index < 0 || index >= size()) {
+                    throw new IndexOutOfBoundsException("Ingredient " + index + " of " + size());
+                }
+                return getIngredient(index);
+            }
+
+            @Override
+            public int size() {
+                return getIngredientCount();
+            }
+        };
+    }
+
+    /**
+     * Returns the number of steps.
+     *
+     * @return the step count
+     */
+    public int getStepCount() {
+        return steps.length;
+    }
+
+    /**
+     * Returns one step.
+     *
+     * @param index the step index
+     * @return the step text
+     */
+    public String getStep(int index) {
+        return steps[index];
+    }
+
+    /**
+     * Returns the steps in order.
+     *
+     * @return a read-only list of the steps
+     */
+    public List<String> getSteps() {
+        return Collections.unmodifiableList(Arrays.asList(steps));
+    }
+}
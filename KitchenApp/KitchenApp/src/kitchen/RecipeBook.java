@@ -0,0 +1,137 @@
+package kitchen;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * RecipeBook class holds a catalog of {@link Recipe}s by name, in the order they were added. The book
+ * owns the {@link StringDictionary}s its recipes' ingredient lines point into, one each for ingredient
+ * names, quantities and units, so every distinct value is stored once for the whole catalog.
+ */
+public class RecipeBook {
+    private final StringDictionary ingredientNames = new StringDictionary();
+    private final StringDictionary quantities = new StringDictionary();
+    private final StringDictionary units = new StringDictionary();
+    private final Map<String, Recipe> recipes = new LinkedHashMap<>();
+
+    /**
+     * Parses the given ingredient lines and adds the recipe, replacing any recipe with the same name.
+     *
+     * @param name        the recipe name
+     * @param ingredients the ingredient lines in the {@code "Name: quantity unit"} form
+     * @param steps       the steps in order
+     * @return the new recipe
+     */
+    public Recipe add(String name, List<String> ingredients, List<String> steps) {
+        List<IngredientLine> lines = new ArrayList<>(ingredients.size());
+        for (String ingredient : ingredients) {
+            lines.add(IngredientLine.parse(ingredient));
+        }
+        return addLines(name, lines, steps);
+    }
+
+    /**
+     * Adds a recipe from already structured ingredient lines, replacing any recipe with the same name.
+     *
+     * @param name        the recipe name
+     * @param ingredients the ingredient lines
+     * @param steps       the steps in order
+     * @return the new recipe
+     */
+    public synchronized Recipe addLines(String name, List<IngredientLine> ingredients, List<String> steps) {
+        Recipe recipe = new Recipe(this, name, Recipe.pack(this, ingredients), steps.toArray(new String[0]));
+        recipes.put(name, recipe);
+        return recipe;
+    }
+
+    /**
+     * Adds a recipe already packed against this book's dictionaries, replacing any with the same name.
+     */
+    synchronized void put(Recipe recipe) {
+        recipes.put(recipe.getName(), recipe);
+    }
+
+    /**
+     * Removes every recipe, such as after they were all saved to a catalog. The dictionaries keep their
+     * entries, since recipes handed out earlier still point into them.
+     */
+    public synchronized void clear() {
+        recipes.clear();
+    }
+
+    /**
+     * Returns the recipe with the given name.
+     *
+     * @param name the recipe name
+     * @return the recipe, or null if the book has none by that name
+     */
+    public synchronized Recipe get(String name) {
+        return recipes.get(name);
+    }
+
+    /**
+     * Returns whether the book has a recipe with the given name.
+     *
+     * @param name the recipe name
+     * @return true if the recipe exists
+     */
+    public synchronized boolean contains(String name) {
+        return recipes.containsKey(name);
+    }
+
+    /**
+     * Returns the recipe names in the order they were added.
+     *
+     * @return a snapshot of the names
+     */
+    public synchronized List<String> getNames() {
+        return new ArrayList<>(recipes.keySet());
+    }
+
+    /**
+     * Returns the recipes in the order they were added.
+     *
+     * @return a snapshot of the recipes
+     */
+    public synchronized List<Recipe> getRecipes() {
+        return new ArrayList<>(recipes.values());
+    }
+
+    /**
+     * Returns the number of recipes.
+     *
+     * @return the recipe count
+     */
+    public synchronized int size() {
+        return recipes.size();
+    }
+
+    /**
+     * Returns the dictionary of ingredient names shared by every recipe in the book.
+     *
+     * @return the ingredient name dictionary
+     */
+    public StringDictionary getIngredientNames() {
+        return ingredientNames;
+    }
+
+    /**
+     * Returns the dictionary of quantities shared by every recipe in the book.
+     *
+     * @return the quantity dictionary
+     */
+    public StringDictionary getQuantities() {
+        return quantities;
+    }
+
+    /**
+     * Returns the dictionary of units shared by every recipe in the book.
+     *
+     * @return the unit dictionary
+     */
+    public StringDictionary getUnits() {
+        return units;
+    }
+}
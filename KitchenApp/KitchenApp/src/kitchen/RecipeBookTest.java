@@ -0,0 +1,68 @@
+package kitchen;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * This test suite contains tests for the typed recipe model.
+ */
+public class RecipeBookTest {
+
+    @Test
+    public void testIngredientLinesParseAndRenderExactly() {
+        IngredientLine salt = IngredientLine.parse("Salt: 1/2 teaspoon");
+        assertEquals("Salt", salt.getName());
+        assertEquals("1/2", salt.getQuantity());
+        assertEquals("teaspoon", salt.getUnit());
+        assertFalse(salt.isUnitAttached());
+
+        IngredientLine spaghetti = IngredientLine.parse("Spaghetti: 200g");
+        assertEquals("200", spaghetti.getQuantity());
+        assertEquals("g", spaghetti.getUnit());
+        assertTrue(spaghetti.isUnitAttached());
+
+        for (String text : Arrays.asList("Eggs: 2", "Flour: 1 1/2 cups", "Butter: 0.5 cup", "Pepper: to taste",
+                "Salt and pepper", "Spaghetti: 200g", "Salt: 1/2 teaspoon")) {
+            assertEquals(text, IngredientLine.parse(text).toString());
+        }
+        assertEquals("1 1/2", IngredientLine.parse("Flour: 1 1/2 cups").getQuantity());
+        assertEquals("to taste", IngredientLine.parse("Pepper: to taste").getUnit());
+    }
+
+    @Test
+    public void testRecipesShareInternedNamesAndUnits() {
+        RecipeBook book = new RecipeBook();
+        Recipe chili = book.add("Chili", Arrays.asList("Garlic: 2 cloves", "Olive oil: 2 tablespoons"),
+                Arrays.asList("Simmer."));
+        Recipe pasta = book.add("Pasta", Arrays.asList("Olive oil: 1 tablespoon", "Garlic: 3 cloves"),
+                Collections.<String>emptyList());
+
+        assertEquals(chili.getIngredientNameId(0), pasta.getIngredientNameId(1));
+        assertEquals(2, book.getIngredientNames().size());
+        assertEquals(3, book.getUnits().size());
+        assertEquals(new IngredientLine("Garlic", "3", "cloves", false), pasta.getIngredient(1));
+        assertEquals("[Olive oil: 1 tablespoon, Garlic: 3 cloves]", pasta.getIngredients().toString());
+        assertEquals(Arrays.asList("Simmer."), chili.getSteps());
+        assertEquals(0, pasta.getStepCount());
+    }
+
+    @Test
+    public void testBookKeepsInsertionOrderAndReplacesByName() {
+        RecipeBook book = new RecipeBook();
+        book.add("Soup", Arrays.asList("Water: 1 l"), Collections.<String>emptyList());
+        book.add("Bread", Collections.<String>emptyList(), Collections.<String>emptyList());
+        book.add("Soup", Arrays.asList("Stock: 1 l"), Collections.<String>emptyList());
+
+        assertEquals(Arrays.asList("Soup", "Bread"), book.getNames());
+        assertEquals(2, book.size());
+        assertTrue(book.contains("Bread"));
+        assertEquals("Stock: 1 l", book.get("Soup").getIngredient(0).toString());
+        assertEquals(null, book.get("Cake"));
+    }
+}
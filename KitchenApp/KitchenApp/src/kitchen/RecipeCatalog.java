@@ -0,0 +1,363 @@
+package kitchen;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * RecipeCatalog class is a read-only recipe catalog in a compact binary file that is memory-mapped
+ * rather than read. Opening a catalog only checks its header, so it takes the same time whatever the
+ * number of recipes; a recipe's name or body is decoded from the mapped pages when it is asked for.
+ * The mapping is read-only, so processes that open the same catalog share its pages in the OS page
+ * cache. Decoded recipes point into the dictionaries of a private {@link RecipeBook} that never holds
+ * recipes itself.
+ *
+ * File layout, big-endian: a fixed header {@code int magic, int version, int recipeCount,
+ * int stringCount, long stringOffsetsAt, long recipeTableAt, long nameOrderAt}; the string table, the
+ * UTF-8 bytes of every distinct string back to back; {@code stringCount + 1} longs where string
+ * {@code i} runs from offset {@code i} to offset {@code i + 1}; one fixed-width entry per recipe,
+ * {@code int nameId, int ingredientCount, int stepCount, long bodyAt}; the recipe numbers sorted by
+ * name, as ints; and the bodies, three ints per ingredient line (name id, quantity id,
+ * {@code unit id << 1 | unit attached}) followed by one string id per step. The whole file is one
+ * mapping, so a catalog is limited to 2 GB.
+ */
+public final class RecipeCatalog implements Closeable {
+    private static final int MAGIC = 0x4B524354;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 4 * 4 + 3 * 8;
+    private static final int ENTRY_BYTES = 3 * 4 + 8;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer map;
+    private final int recipeCount;
+    private final int stringCount;
+    private final long stringOffsetsAt;
+    private final long recipeTableAt;
+    private final long nameOrderAt;
+    private final RecipeBook dictionaries = new RecipeBook();
+
+    private RecipeCatalog(FileChannel channel, MappedByteBuffer map) throws IOException {
+        this.channel = channel;
+        this.map = map;
+        if (map.capacity() < HEADER_BYTES || map.getInt(0) != MAGIC) {
+            throw new IOException("Not a recipe catalog");
+        }
+        if (map.getInt(4) != VERSION) {
+            throw new IOException("Unsupported recipe catalog version: " + map.getInt(4));
+        }
+        this.recipeCount = map.getInt(8);
+        this.stringCount = map.getInt(12);
+        this.stringOffsetsAt = map.getLong(16);
+        this.recipeTableAt = map.getLong(24);
+        this.nameOrderAt = map.getLong(32);
+        if (recipeCount < 0 || stringCount < 0 || nameOrderAt + 4L * recipeCount > map.capacity()
+                || stringOffsetsAt + 8L * (stringCount + 1) > recipeTableAt
+                || recipeTableAt + (long) ENTRY_BYTES * recipeCount > nameOrderAt) {
+            throw new IOException("Corrupt recipe catalog header");
+        }
+    }
+
+    /**
+     * Opens a catalog by mapping its file.
+     *
+     * @param path the catalog file
+     * @return the opened catalog
+     * @throws IOException if the file cannot be mapped or is not a catalog this version can read
+     */
+    public static RecipeCatalog open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Recipe catalog is larger than 2 GB");
+            }
+            return new RecipeCatalog(channel, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Writes the given recipes to a catalog file, replacing it atomically. Of two recipes with the same
+     * name, the later one is kept.
+     *
+     * @param path    the catalog file
+     * @param recipes the recipes in catalog order
+     * @throws IOException if the file cannot be written or the catalog would exceed 2 GB
+     */
+    public static void write(Path path, Collection<Recipe> recipes) throws IOException {
+        Map<String, Recipe> byName = new LinkedHashMap<>();
+        for (Recipe recipe : recipes) {
+            byName.remove(recipe.getName());
+            byName.put(recipe.getName(), recipe);
+        }
+        final Recipe[] ordered = byName.values().toArray(new Recipe[0]);
+
+        // First pass: give every distinct string an id and turn each recipe into ids
+        Map<String, Integer> ids = new HashMap<>();
+        List<byte[]> strings = new ArrayList<>();
+        int[] nameIds = new int[ordered.length];
+        int[][] bodies = new int[ordered.length][];
+        for (int r = 0; r < ordered.length; r++) {
+            Recipe recipe = ordered[r];
+            nameIds[r] = stringId(recipe.getName(), ids, strings);
+            int[] body = new int[recipe.getIngredientCount() * 3 + recipe.getStepCount()];
+            for (int i = 0; i < recipe.getIngredientCount(); i++) {
+                IngredientLine line = recipe.getIngredient(i);
+                body[i * 3] = stringId(line.getName(), ids, strings);
+                body[i * 3 + 1] = stringId(line.getQuantity(), ids, strings);
+                body[i * 3 + 2] = stringId(line.getUnit(), ids, strings) << 1 | (line.isUnitAttached() ? 1 : 0);
+            }
+            for (int i = 0; i < recipe.getStepCount(); i++) {
+                body[recipe.getIngredientCount() * 3 + i] = stringId(recipe.getStep(i), ids, strings);
+            }
+            bodies[r] = body;
+        }
+        Integer[] nameOrder = new Integer[ordered.length];
+        for (int r = 0; r < nameOrder.length; r++) {
+            nameOrder[r] = r;
+        }
+        Arrays.sort(nameOrder, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer a, Integer b) {
+                return ordered[a].getName().compareTo(ordered[b].getName());
+            }
+        });
+
+        long stringBytes = 0;
+        for (byte[] string : strings) {
+            stringBytes += string.length;
+        }
+        long stringOffsetsAt = HEADER_BYTES + stringBytes;
+        long recipeTableAt = stringOffsetsAt + 8L * (strings.size() + 1);
+        long nameOrderAt = recipeTableAt + (long) ENTRY_BYTES * ordered.length;
+        long bodiesAt = nameOrderAt + 4L * ordered.length;
+        long size = bodiesAt;
+        for (int[] body : bodies) {
+            size += 4L * body.length;
+        }
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Recipe catalog would be larger than 2 GB");
+        }
+
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(ordered.length);
+            out.writeInt(strings.size());
+            out.writeLong(stringOffsetsAt);
+            out.writeLong(recipeTableAt);
+            out.writeLong(nameOrderAt);
+            for (byte[] string : strings) {
+                out.write(string);
+            }
+            long offset = HEADER_BYTES;
+            out.writeLong(offset);
+            for (byte[] string : strings) {
+                offset += string.length;
+                out.writeLong(offset);
+            }
+            long bodyAt = bodiesAt;
+            for (int r = 0; r < ordered.length; r++) {
+                out.writeInt(nameIds[r]);
+                out.writeInt(ordered[r].getIngredientCount());
+                out.writeInt(ordered[r].getStepCount());
+                out.writeLong(bodyAt);
+                bodyAt += 4L * bodies[r].length;
+            }
+            for (Integer r : nameOrder) {
+                out.writeInt(r);
+            }
+            for (int[] body : bodies) {
+                for (int id : body) {
+                    out.writeInt(id);
+                }
+            }
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static int stringId(String value, Map<String, Integer> ids, List<byte[]> strings) {
+        Integer id = ids.get(value);
+        if (id == null) {
+            id = strings.size();
+            ids.put(value, id);
+            strings.add(value.getBytes(StandardCharsets.UTF_8));
+        }
+        return id;
+    }
+
+    /**
+     * Returns the number of recipes in the catalog.
+     *
+     * @return the recipe count
+     */
+    public int size() {
+        return recipeCount;
+    }
+
+    /**
+     * Returns the name of a recipe without decoding the rest of it.
+     *
+     * @param index the recipe number, in catalog order
+     * @return the name
+     */
+    public String getName(int index) {
+        return string(map.getInt(entryAt(index)));
+    }
+
+    /**
+     * Returns the number of the recipe with the given name, found by binary search over the names.
+     *
+     * @param name the recipe name
+     * @return the recipe number, or -1 if the catalog has none by that name
+     */
+    public int indexOf(String name) {
+        int low = 0;
+        int high = recipeCount - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int index = map.getInt((int) (nameOrderAt + 4L * middle));
+            int order = getName(index).compareTo(name);
+            if (order < 0) {
+                low = middle + 1;
+            } else if (order > 0) {
+                high = middle - 1;
+            } else {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns whether the catalog has a recipe with the given name.
+     *
+     * @param name the recipe name
+     * @return true if the recipe exists
+     */
+    public boolean contains(String name) {
+        return indexOf(name) >= 0;
+    }
+
+    /**
+     * Decodes a recipe.
+     *
+     * @param index the recipe number, in catalog order
+     * @return the recipe
+     */
+    public Recipe get(int index) {
+        int entry = entryAt(index);
+        int ingredientCount = map.getInt(entry + 4);
+        int stepCount = map.getInt(entry + 8);
+        int body = (int) map.getLong(entry + 12);
+        List<IngredientLine> lines = new ArrayList<>(ingredientCount);
+        for (int i = 0; i < ingredientCount; i++) {
+            int at = body + i * 12;
+            int unit = map.getInt(at + 8);
+            lines.add(new IngredientLine(string(map.getInt(at)), string(map.getInt(at + 4)), string(unit >>> 1),
+                    (unit & 1) != 0));
+        }
+        String[] steps = new String[stepCount];
+        for (int i = 0; i < stepCount; i++) {
+            steps[i] = string(map.getInt(body + ingredientCount * 12 + i * 4));
+        }
+        return new Recipe(dictionaries, getName(index), Recipe.pack(dictionaries, lines), steps);
+    }
+
+    /**
+     * Decodes the recipe with the given name.
+     *
+     * @param name the recipe name
+     * @return the recipe, or null if the catalog has none by that name
+     */
+    public Recipe get(String name) {
+        int index = indexOf(name);
+        return index < 0 ? null : get(index);
+    }
+
+    /**
+     * Returns the recipe names in catalog order. Each name is decoded when it is read from the list.
+     *
+     * @return a read-only view of the names
+     */
+    public List<String> getNames() {
+        return new AbstractList<String>() {
+            @Override
+            public String get(int index) {
+                return getName(index);
+            }
+
+            @Override
+            public int size() {
+                return recipeCount;
+            }
+        };
+    }
+
+    /**
+     * Returns the recipes in catalog order. Each recipe is decoded when it is read from the list.
+     *
+     * @return a read-only view of the recipes
+     */
+    public List<Recipe> getRecipes() {
+        return new AbstractList<Recipe>() {
+            @Override
+            public Recipe get(int index) {
+                return RecipeCatalog.this.get(index);
+            }
+
+            @Override
+            public int size() {
+                return recipeCount;
+            }
+        };
+    }
+
+    /**
+     * Closes the catalog file. The mapping itself is released once the catalog is no longer reachable.
+     *
+     * @throws IOException if the file cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private int entryAt(int index) {
+        if (index < 0 || index >= recipeCount) {
+            throw new IndexOutOfBoundsException("Recipe " + index + " of " + recipeCount);
+        }
+        return (int) (recipeTableAt + (long) ENTRY_BYTES * index);
+    }
+
+    private String string(int id) {
+        if (id < 0 || id >= stringCount) {
+            throw new IllegalStateException("Corrupt recipe catalog: string id " + id);
+        }
+        int at = (int) (stringOffsetsAt + 8L * id);
+        int start = (int) map.getLong(at);
+        byte[] bytes = new byte[(int) map.getLong(at + 8) - start];
+        map.get(start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,95 @@
+package kitchen;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * This test suite contains tests for the memory-mapped recipe catalog.
+ */
+public class RecipeCatalogTest {
+
+    private static Path tempCatalog() throws IOException {
+        Path file = Files.createTempFile("recipes", ".catalog");
+        file.toFile().deleteOnExit();
+        return file;
+    }
+
+    @Test
+    public void testRoundTripDecodesRecipesOnDemand() throws IOException {
+        RecipeBook book = new RecipeBook();
+        book.add("Pancakes", Arrays.asList("Flour: 1 cup", "Salt: 1/2 teaspoon", "Spaghetti: 200g", "Egg"),
+                Arrays.asList("Mix.", "Fry until golden."));
+        book.add("Crème brûlée", Arrays.asList("Cream: 500 ml", "Sugar: a pinch"), Arrays.asList("Bake."));
+        book.add("Apple Pie", Collections.<String>emptyList(), Collections.<String>emptyList());
+        Path file = tempCatalog();
+        RecipeCatalog.write(file, book.getRecipes());
+
+        try (RecipeCatalog catalog = RecipeCatalog.open(file)) {
+            assertEquals(3, catalog.size());
+            assertEquals(Arrays.asList("Pancakes", "Crème brûlée", "Apple Pie"), catalog.getNames());
+            assertEquals(1, catalog.indexOf("Crème brûlée"));
+            assertEquals(2, catalog.indexOf("Apple Pie"));
+            assertFalse(catalog.contains("Omelette"));
+            assertNull(catalog.get("Omelette"));
+
+            for (Recipe original : book.getRecipes()) {
+                Recipe decoded = catalog.get(original.getName());
+                assertEquals(original.getIngredients(), decoded.getIngredients());
+                assertEquals(original.getSteps(), decoded.getSteps());
+            }
+            assertEquals("Spaghetti: 200g", catalog.get(0).getIngredient(2).toString());
+            assertEquals("Sugar: a pinch", catalog.get(1).getIngredient(1).toString());
+        }
+    }
+
+    @Test
+    public void testLaterRecipeWinsAndLookupFindsEveryName() throws IOException {
+        List<Recipe> recipes = new ArrayList<>();
+        RecipeBook first = new RecipeBook();
+        RecipeBook second = new RecipeBook();
+        for (int i = 0; i < 1000; i++) {
+            recipes.add(first.add("Recipe " + (i * 7919 % 1000), Arrays.asList("Water: " + i + " l"),
+                    Collections.<String>emptyList()));
+        }
+        recipes.add(second.add("Recipe 5", Arrays.asList("Milk: 1 cup"), Collections.<String>emptyList()));
+        Path file = tempCatalog();
+        RecipeCatalog.write(file, recipes);
+
+        try (RecipeCatalog catalog = RecipeCatalog.open(file)) {
+            assertEquals(1000, catalog.size());
+            assertEquals("Recipe 5", catalog.getName(999));
+            assertEquals("Milk: 1 cup", catalog.get("Recipe 5").getIngredient(0).toString());
+            for (int i = 0; i < 1000; i++) {
+                assertTrue(catalog.contains("Recipe " + i));
+            }
+        }
+    }
+
+    @Test
+    public void testRejectsForeignAndNewerFiles() throws IOException {
+        Path file = tempCatalog();
+        Files.write(file, "not a catalog at all, just some text".getBytes("UTF-8"));
+        assertThrows(IOException.class, () -> RecipeCatalog.open(file));
+
+        RecipeCatalog.write(file, Collections.<Recipe>emptyList());
+        byte[] bytes = Files.readAllBytes(file);
+        ByteBuffer.wrap(bytes).putInt(4, 2);
+        Files.write(file, bytes);
+        IOException error = assertThrows(IOException.class, () -> RecipeCatalog.open(file));
+        assertTrue(error.getMessage().contains("version"));
+    }
+}
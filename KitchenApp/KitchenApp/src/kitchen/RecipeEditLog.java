@@ -0,0 +1,223 @@
+package kitchen;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * RecipeEditLog class is a write-ahead log of the recipe edits made in the application: recipes added in
+ * the recipe panel, and ingredient lines and steps added in the ingredients and steps panel. Each edit
+ * is copied into a {@link MappedLog} under a short lock before the caller goes on, and its flusher groups
+ * the flushes of a burst of edits into one; {@link #sync()} forces them at once. {@link #open(Path)}
+ * replays the log, and the panels start from the replayed state. Compaction folds the log into one
+ * record per recipe, ingredient line and step, mapped with room to spare, so the log grows as edits
+ * accumulate.
+ *
+ * Payload layout: {@code byte type, int textLength, text bytes}, framed as {@link MappedLog} describes.
+ */
+public class RecipeEditLog extends MappedLog<RecipeEditLog.Edit> {
+    private static final int MAGIC = 0x4B52454C;
+    private static final int RECORD_FIXED_BYTES = 1 + 4;
+    private static final long COMMIT_INTERVAL_MILLIS = 20;
+
+    private static final byte RECIPE_ADDED = 1;
+    private static final byte INGREDIENT_ADDED = 2;
+    private static final byte STEP_ADDED = 3;
+
+    private static RecipeEditLog shared;
+
+    private final Set<String> recipes;
+    private final List<String> ingredients;
+    private final List<String> steps;
+
+    private RecipeEditLog(Path path, Set<String> recipes, List<String> ingredients, List<String> steps)
+            throws IOException {
+        super(path, MAGIC, 1, "recipe log", COMMIT_INTERVAL_MILLIS);
+        this.recipes = recipes;
+        this.ingredients = ingredients;
+        this.steps = steps;
+        start("kitchen-recipe-log");
+    }
+
+    /**
+     * Opens the log at the given path, replaying any existing log. The replayed state is compacted into
+     * a fresh log before the log accepts new edits.
+     *
+     * @param path the log file
+     * @return the opened log
+     * @throws IOException if the file cannot be read or mapped
+     */
+    public static RecipeEditLog open(Path path) throws IOException {
+        Set<String> recipes = new LinkedHashSet<>();
+        List<String> ingredients = new ArrayList<>();
+        List<String> steps = new ArrayList<>();
+        if (Files.exists(path)) {
+            replay(path, recipes, ingredients, steps);
+        }
+        return new RecipeEditLog(path, recipes, ingredients, steps);
+    }
+
+    /**
+     * Returns the log the application's panels share, opening it in the user's home directory the first
+     * time it is asked for.
+     *
+     * @return the shared log
+     * @throws IOException if the log cannot be opened
+     */
+    public static synchronized RecipeEditLog shared() throws IOException {
+        if (shared == null) {
+            Path path = Paths.get(System.getProperty("user.home"), ".kitchen_app", "recipes.log");
+            Files.createDirectories(path.getParent());
+            shared = open(path);
+        }
+        return shared;
+    }
+
+    /**
+     * Returns the names of the recipes added so far, in the order they were added.
+     *
+     * @return a snapshot of the recipe names
+     */
+    public synchronized List<String> getRecipes() {
+        return new ArrayList<>(recipes);
+    }
+
+    /**
+     * Returns the ingredient lines added so far, in order.
+     *
+     * @return a snapshot of the ingredient lines
+     */
+    public synchronized List<String> getIngredients() {
+        return new ArrayList<>(ingredients);
+    }
+
+    /**
+     * Returns the steps added so far, in order.
+     *
+     * @return a snapshot of the steps
+     */
+    public synchronized List<String> getSteps() {
+        return new ArrayList<>(steps);
+    }
+
+    /**
+     * Logs a recipe that was added. A recipe already in the log is not logged again.
+     *
+     * @param name the recipe name
+     */
+    public synchronized void recipeAdded(String name) {
+        if (recipes.add(name)) {
+            append(new Edit(RECIPE_ADDED, name));
+        }
+    }
+
+    /**
+     * Logs an ingredient line that was added.
+     *
+     * @param line the ingredient line
+     */
+    public synchronized void ingredientAdded(String line) {
+        ingredients.add(line);
+        append(new Edit(INGREDIENT_ADDED, line));
+    }
+
+    /**
+     * Logs a step that was added.
+     *
+     * @param step the step
+     */
+    public synchronized void stepAdded(String step) {
+        steps.add(step);
+        append(new Edit(STEP_ADDED, step));
+    }
+
+    /**
+     * Returns how many times logged edits have been forced to disk, by the flusher or by {@link #sync()}.
+     *
+     * @return the flush count
+     */
+    public long getFlushCount() {
+        return flushCount();
+    }
+
+    @Override
+    int payloadLength(Edit edit) {
+        return RECORD_FIXED_BYTES + edit.text.length;
+    }
+
+    @Override
+    void writePayload(ByteBuffer into, Edit edit) {
+        into.put(edit.type);
+        into.putInt(edit.text.length);
+        into.put(edit.text);
+    }
+
+    /**
+     * Returns one edit per recipe, ingredient line and step. Caller holds the lock.
+     */
+    @Override
+    List<Edit> snapshot() {
+        List<Edit> edits = new ArrayList<>(recipes.size() + ingredients.size() + steps.size());
+        for (String name : recipes) {
+            edits.add(new Edit(RECIPE_ADDED, name));
+        }
+        for (String line : ingredients) {
+            edits.add(new Edit(INGREDIENT_ADDED, line));
+        }
+        for (String step : steps) {
+            edits.add(new Edit(STEP_ADDED, step));
+        }
+        return edits;
+    }
+
+    /**
+     * Reads every intact record of the log into the state.
+     */
+    private static void replay(Path path, final Set<String> recipes, final List<String> ingredients,
+                               final List<String> steps) throws IOException {
+        MappedLog.replay(path, MAGIC, "recipe log", new MappedLog.RecordReader() {
+            @Override
+            public boolean read(int version, ByteBuffer payload) {
+                if (payload.remaining() < RECORD_FIXED_BYTES) {
+                    return false;
+                }
+                byte type = payload.get();
+                int textLength = payload.getInt();
+                if (textLength != payload.remaining()) {
+                    return false;
+                }
+                byte[] bytes = new byte[textLength];
+                payload.get(bytes);
+                String text = new String(bytes, StandardCharsets.UTF_8);
+                if (type == RECIPE_ADDED) {
+                    recipes.add(text);
+                } else if (type == INGREDIENT_ADDED) {
+                    ingredients.add(text);
+                } else if (type == STEP_ADDED) {
+                    steps.add(text);
+                }
+                return true;
+            }
+        });
+    }
+
+    /**
+     * Edit is one logged edit.
+     */
+    static final class Edit {
+        private final byte type;
+        private final byte[] text;
+
+        private Edit(byte type, String text) {
+            this.type = type;
+            this.text = text.getBytes(StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package kitchen;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * This test suite contains tests for the RecipeEditLog.
+ * Each test verifies that edits logged before a restart are replayed after it.
+ */
+public class RecipeEditLogTest {
+
+    @Test
+    public void testReplaysEditsInOrder() throws Exception {
+        Path path = Files.createTempDirectory("recipelog").resolve("recipes.log");
+        RecipeEditLog log = RecipeEditLog.open(path);
+        log.recipeAdded("Crème brûlée");
+        log.recipeAdded("Toast");
+        log.recipeAdded("Crème brûlée");
+        log.ingredientAdded("Cream: 500 ml");
+        log.stepAdded("Bake.");
+        log.ingredientAdded("Sugar: 100g");
+        log.close();
+
+        RecipeEditLog reopened = RecipeEditLog.open(path);
+        assertEquals(Arrays.asList("Crème brûlée", "Toast"), reopened.getRecipes());
+        assertEquals(Arrays.asList("Cream: 500 ml", "Sugar: 100g"), reopened.getIngredients());
+        assertEquals(Collections.singletonList("Bake."), reopened.getSteps());
+        reopened.close();
+    }
+
+    @Test
+    public void testBurstOfEditsCostsFewFlushes() throws Exception {
+        Path path = Files.createTempDirectory("recipelog").resolve("recipes.log");
+        RecipeEditLog log = RecipeEditLog.open(path);
+        long before = log.getFlushCount();
+        for (int i = 0; i < 1000; i++) {
+            log.stepAdded("Step " + i);
+        }
+        for (int i = 0; i < 100 && log.getFlushCount() == before; i++) {
+            Thread.sleep(10);
+        }
+        Thread.sleep(50);
+        long flushes = log.getFlushCount() - before;
+        assertTrue(flushes >= 1 && flushes <= 5, "1000 edits took " + flushes + " flushes");
+        log.close();
+
+        RecipeEditLog reopened = RecipeEditLog.open(path);
+        assertEquals(1000, reopened.getSteps().size());
+        assertEquals("Step 999", reopened.getSteps().get(999));
+        reopened.close();
+    }
+
+    @Test
+    public void testGrowsByCompactionAndStopsAtTornRecord() throws Exception {
+        Path path = Files.createTempDirectory("recipelog").resolve("recipes.log");
+        RecipeEditLog log = RecipeEditLog.open(path);
+        char[] text = new char[1000];
+        Arrays.fill(text, 'x');
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            String step = i + new String(text);
+            expected.add(step);
+            log.stepAdded(step);
+        }
+        log.close();
+        assertTrue(Files.size(path) > 3000 * 1000L);
+
+        RecipeEditLog reopened = RecipeEditLog.open(path);
+        assertEquals(expected, reopened.getSteps());
+        reopened.ingredientAdded("Salt: 1 pinch");
+        reopened.ingredientAdded("Pepper: 1 pinch");
+        reopened.close();
+
+        // Corrupt the checksum of the last record, as a write torn by a crash would
+        byte[] bytes = Files.readAllBytes(path);
+        int at = 8;
+        int last = at;
+        while (ByteBuffer.wrap(bytes).getInt(at) != 0) {
+            last = at;
+            at += 8 + ByteBuffer.wrap(bytes).getInt(at);
+        }
+        bytes[last + 4] ^= 1;
+        Files.write(path, bytes);
+
+        RecipeEditLog recovered = RecipeEditLog.open(path);
+        assertEquals(Collections.singletonList("Salt: 1 pinch"), recovered.getIngredients());
+        assertEquals(3000, recovered.getSteps().size());
+        recovered.close();
+    }
+}
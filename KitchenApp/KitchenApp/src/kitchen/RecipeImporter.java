@@ -0,0 +1,629 @@
+package kitchen;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * RecipeImporter class streams recipes from a JSON Lines or CSV export into a {@link RecipeBook}.
+ * The file is read through a {@link FileChannel} in chunks that end on a line break. Each chunk is
+ * parsed in parallel on a fork-join pool, split further into ranges of lines, while the importing
+ * thread reads ahead. Parsed chunks are fed into the book in file order, in batches that take the
+ * book's lock once. Only a few chunks are ever in flight, so the read-ahead pipeline holds a bounded
+ * amount of the file at a time; the imported recipes themselves are all kept in the book.
+ *
+ * A JSON Lines record is one object per line: {@code {"name": "...", "ingredients": ["Rice: 2 cups"],
+ * "steps": ["..."]}}; other fields are ignored. A CSV file starts with a header row naming the
+ * {@code name}, {@code ingredients} and {@code steps} columns. Fields may be quoted with {@code "}, and
+ * the ingredient and step lists separate their items with {@code |}. A record must fit on one line.
+ * Records that cannot be parsed are skipped and counted.
+ */
+public class RecipeImporter {
+    private static final int CHUNK_BYTES = 4 << 20;
+    private static final int SPLIT_BYTES = 256 << 10;
+    private static final int BATCH_SIZE = 1024;
+    private static final char LIST_SEPARATOR = '|';
+
+    /**
+     * Format is the layout of an import file.
+     */
+    public enum Format {
+        JSON_LINES, CSV;
+
+        /**
+         * Picks the format from a file name: {@code .csv} files are CSV, anything else JSON Lines.
+         *
+         * @param path the file
+         * @return the format
+         */
+        public static Format of(Path path) {
+            return path.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".csv") ? CSV : JSON_LINES;
+        }
+    }
+
+    private final RecipeBook book;
+    private final ForkJoinPool pool;
+    private final int chunkBytes;
+    private final int splitBytes;
+    private final int maxChunksInFlight;
+
+    /**
+     * Constructs a RecipeImporter that parses on the common fork-join pool.
+     *
+     * @param book the book to add recipes to
+     */
+    public RecipeImporter(RecipeBook book) {
+        this(book, ForkJoinPool.commonPool(), CHUNK_BYTES, SPLIT_BYTES);
+    }
+
+    RecipeImporter(RecipeBook book, ForkJoinPool pool, int chunkBytes, int splitBytes) {
+        this.book = book;
+        this.pool = pool;
+        this.chunkBytes = chunkBytes;
+        this.splitBytes = splitBytes;
+        // One chunk per worker being parsed and one being fed, while the next is read
+        this.maxChunksInFlight = pool.getParallelism() + 1;
+    }
+
+    /**
+     * Imports every record of the file into the book, replacing recipes that have the same name.
+     * Progress is reported on the calling thread after each chunk is added.
+     *
+     * @param path     the file
+     * @param format   the file's format
+     * @param listener the listener told about progress, or null
+     * @return the final progress
+     * @throws IOException if the file cannot be read
+     */
+    public Progress importFile(Path path, Format format, ProgressListener listener) throws IOException {
+        long startNanos = System.nanoTime();
+        Deque<ForkJoinTask<Parsed>> inFlight = new ArrayDeque<>();
+        Progress progress = new Progress(0, 0, 0, 0, 0);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long totalBytes = channel.size();
+            long bytesRead = 0;
+            int[] columns = null;
+            byte[] carry = new byte[0];
+            boolean eof = false;
+            while (!eof) {
+                // A line longer than a chunk doubles the next one until it fits
+                byte[] bytes = new byte[Math.max(chunkBytes, carry.length * 2)];
+                System.arraycopy(carry, 0, bytes, 0, carry.length);
+                ByteBuffer buffer = ByteBuffer.wrap(bytes, carry.length, bytes.length - carry.length);
+                while (buffer.hasRemaining()) {
+                    int read = channel.read(buffer);
+                    if (read < 0) {
+                        eof = true;
+                        break;
+                    }
+                    bytesRead += read;
+                }
+                int filled = buffer.position();
+                // Only whole lines go out; the partial last line starts the next chunk
+                int end = eof ? filled : lastLineBreak(bytes, filled) + 1;
+                int start = 0;
+                if (format == Format.CSV && columns == null && end > 0) {
+                    int headerEnd = lineEnd(bytes, 0, end);
+                    columns = csvColumns(decode(bytes, 0, headerEnd));
+                    start = Math.min(end, headerEnd + 1);
+                }
+                carry = Arrays.copyOfRange(bytes, end, filled);
+                if (start < end) {
+                    if (inFlight.size() == maxChunksInFlight) {
+                        progress = feed(inFlight.removeFirst().join(), progress, bytesRead, totalBytes,
+                                startNanos, listener);
+                    }
+                    inFlight.addLast(pool.submit(new ParseTask(bytes, start, end, format, columns)));
+                }
+            }
+            while (!inFlight.isEmpty()) {
+                progress = feed(inFlight.removeFirst().join(), progress, bytesRead, totalBytes, startNanos,
+                        listener);
+            }
+            if (progress.bytesRead != bytesRead) {
+                progress = new Progress(progress.records, progress.skipped, bytesRead, totalBytes,
+                        System.nanoTime() - startNanos);
+            }
+            return progress;
+        } finally {
+            for (ForkJoinTask<Parsed> task : inFlight) {
+                task.cancel(false);
+            }
+        }
+    }
+
+    private Progress feed(Parsed parsed, Progress before, long bytesRead, long totalBytes, long startNanos,
+                          ProgressListener listener) {
+        List<ParsedRecipe> records = parsed.records;
+        for (int from = 0; from < records.size(); from += BATCH_SIZE) {
+            int to = Math.min(records.size(), from + BATCH_SIZE);
+            synchronized (book) {
+                for (int i = from; i < to; i++) {
+                    ParsedRecipe record = records.get(i);
+                    book.addLines(record.name, record.ingredients, record.steps);
+                }
+            }
+        }
+        Progress progress = new Progress(before.records + records.size(), before.skipped + parsed.skipped,
+                bytesRead, totalBytes, System.nanoTime() - startNanos);
+        if (listener != null) {
+            listener.importProgress(progress);
+        }
+        return progress;
+    }
+
+    private static int lastLineBreak(byte[] bytes, int length) {
+        for (int i = length - 1; i >= 0; i--) {
+            if (bytes[i] == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int lineEnd(byte[] bytes, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (bytes[i] == '\n') {
+                return i;
+            }
+        }
+        return to;
+    }
+
+    private static String decode(byte[] bytes, int from, int to) {
+        if (to > from && bytes[to - 1] == '\r') {
+            to--;
+        }
+        return new String(bytes, from, to - from, StandardCharsets.UTF_8);
+    }
+
+    private static int[] csvColumns(String header) {
+        List<String> names = splitCsv(header);
+        int[] columns = {-1, -1, -1};
+        for (int i = 0; i < names.size(); i++) {
+            String name = names.get(i).trim().toLowerCase(Locale.ROOT);
+            if (name.equals("name")) {
+                columns[0] = i;
+            } else if (name.equals("ingredients")) {
+                columns[1] = i;
+            } else if (name.equals("steps")) {
+                columns[2] = i;
+            }
+        }
+        if (columns[0] < 0) {
+            throw new IllegalArgumentException("CSV header has no name column: " + header);
+        }
+        return columns;
+    }
+
+    /**
+     * Parses one line into a recipe.
+     *
+     * @throws IllegalArgumentException if the line is not a valid record
+     */
+    static ParsedRecipe parseLine(String line, Format format, int[] columns) {
+        return format == Format.CSV ? parseCsv(line, columns) : new JsonLine(line).parseRecipe();
+    }
+
+    private static ParsedRecipe parseCsv(String line, int[] columns) {
+        List<String> fields = splitCsv(line);
+        String name = field(fields, columns[0]).trim();
+        if (name.isEmpty()) {
+            throw new IllegalArgumentException("Record has no name");
+        }
+        return new ParsedRecipe(name, splitList(field(fields, columns[1])), splitList(field(fields, columns[2])));
+    }
+
+    private static String field(List<String> fields, int column) {
+        return column >= 0 && column < fields.size() ? fields.get(column) : "";
+    }
+
+    private static List<String> splitList(String field) {
+        List<String> items = new ArrayList<>();
+        int start = 0;
+        while (start <= field.length()) {
+            int end = field.indexOf(LIST_SEPARATOR, start);
+            if (end < 0) {
+                end = field.length();
+            }
+            String item = field.substring(start, end).trim();
+            if (!item.isEmpty()) {
+                items.add(item);
+            }
+            start = end + 1;
+        }
+        return items;
+    }
+
+    private static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quote");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    /**
+     * ParseTask parses a range of whole lines, splitting it in two while it is larger than the split size.
+     */
+    private final class ParseTask extends RecursiveTask<Parsed> {
+        private final byte[] bytes;
+        private final int from;
+        private final int to;
+        private final Format format;
+        private final int[] columns;
+
+        private ParseTask(byte[] bytes, int from, int to, Format format, int[] columns) {
+            this.bytes = bytes;
+            this.from = from;
+            this.to = to;
+            this.format = format;
+            this.columns = columns;
+        }
+
+        @Override
+        protected Parsed compute() {
+            if (to - from > splitBytes) {
+                int middle = lineEnd(bytes, from + (to - from) / 2, to) + 1;
+                if (middle < to) {
+                    ParseTask second = new ParseTask(bytes, middle, to, format, columns);
+                    second.fork();
+                    Parsed first = new ParseTask(bytes, from, middle, format, columns).compute();
+                    first.append(second.join());
+                    return first;
+                }
+            }
+            Parsed parsed = new Parsed();
+            int start = from;
+            while (start < to) {
+                int end = lineEnd(bytes, start, to);
+                String line = decode(bytes, start, end);
+                if (!line.trim().isEmpty()) {
+                    try {
+                        parsed.records.add(parseLine(line, format, columns));
+                    } catch (IllegalArgumentException e) {
+                        parsed.skipped++;
+                    }
+                }
+                start = end + 1;
+            }
+            return parsed;
+        }
+    }
+
+    /**
+     * Parsed holds the recipes parsed from a range of lines, in file order.
+     */
+    private static final class Parsed {
+        private final List<ParsedRecipe> records = new ArrayList<>();
+        private int skipped;
+
+        private void append(Parsed next) {
+            records.addAll(next.records);
+            skipped += next.skipped;
+        }
+    }
+
+    /**
+     * ParsedRecipe is one record, with its ingredient lines already parsed.
+     */
+    static final class ParsedRecipe {
+        final String name;
+        final List<IngredientLine> ingredients;
+        final List<String> steps;
+
+        ParsedRecipe(String name, List<String> ingredients, List<String> steps) {
+            this.name = name;
+            this.ingredients = new ArrayList<>(ingredients.size());
+            for (String ingredient : ingredients) {
+                this.ingredients.add(IngredientLine.parse(ingredient));
+            }
+            this.steps = steps;
+        }
+    }
+
+    /**
+     * JsonLine reads the one object a JSON Lines record holds.
+     */
+    private static final class JsonLine {
+        private final String text;
+        private int pos;
+
+        private JsonLine(String text) {
+            this.text = text;
+        }
+
+        private ParsedRecipe parseRecipe() {
+            String name = null;
+            List<String> ingredients = new ArrayList<>();
+            List<String> steps = new ArrayList<>();
+            expect('{');
+            if (!consume('}')) {
+                do {
+                    String key = readString();
+                    expect(':');
+                    if (key.equals("name")) {
+                        name = readString().trim();
+                    } else if (key.equals("ingredients")) {
+                        readStrings(ingredients);
+                    } else if (key.equals("steps")) {
+                        readStrings(steps);
+                    } else {
+                        skipValue();
+                    }
+                } while (consume(','));
+                expect('}');
+            }
+            skipWhitespace();
+            if (pos != text.length()) {
+                throw error("Trailing characters");
+            }
+            if (name == null || name.isEmpty()) {
+                throw error("Record has no name");
+            }
+            return new ParsedRecipe(name, ingredients, steps);
+        }
+
+        private void readStrings(List<String> values) {
+            expect('[');
+            if (consume(']')) {
+                return;
+            }
+            do {
+                values.add(readString());
+            } while (consume(','));
+            expect(']');
+        }
+
+        private String readString() {
+            expect('"');
+            StringBuilder value = new StringBuilder();
+            while (true) {
+                if (pos >= text.length()) {
+                    throw error("Unterminated string");
+                }
+                char c = text.charAt(pos++);
+                if (c == '"') {
+                    return value.toString();
+                }
+                if (c != '\\') {
+                    value.append(c);
+                    continue;
+                }
+                if (pos >= text.length()) {
+                    throw error("Unterminated escape");
+                }
+                char escaped = text.charAt(pos++);
+                switch (escaped) {
+                    case 'b':
+                        value.append('\b');
+                        break;
+                    case 'f':
+                        value.append('\f');
+                        break;
+                    case 'n':
+                        value.append('\n');
+                        break;
+                    case 'r':
+                        value.append('\r');
+                        break;
+                    case 't':
+                        value.append('\t');
+                        break;
+                    case 'u':
+                        if (pos + 4 > text.length()) {
+                            throw error("Bad unicode escape");
+                        }
+                        try {
+                            value.append((char) Integer.parseInt(text.substring(pos, pos + 4), 16));
+                        } catch (NumberFormatException e) {
+                            throw error("Bad unicode escape");
+                        }
+                        pos += 4;
+                        break;
+                    case '"':
+                    case '\\':
+                    case '/':
+                        value.append(escaped);
+                        break;
+                    default:
+                        throw error("Bad escape");
+                }
+            }
+        }
+
+        private void skipValue() {
+            skipWhitespace();
+            if (pos >= text.length()) {
+                throw error("Missing value");
+            }
+            char c = text.charAt(pos);
+            if (c == '"') {
+                readString();
+            } else if (c == '[' || c == '{') {
+                char close = c == '[' ? ']' : '}';
+                pos++;
+                if (consume(close)) {
+                    return;
+                }
+                do {
+                    if (close == '}') {
+                        readString();
+                        expect(':');
+                    }
+                    skipValue();
+                } while (consume(','));
+                expect(close);
+            } else {
+                // A number, true, false or null
+                int start = pos;
+                while (pos < text.length() && ",}] \t".indexOf(text.charAt(pos)) < 0) {
+                    pos++;
+                }
+                if (pos == start) {
+                    throw error("Missing value");
+                }
+            }
+        }
+
+        private void expect(char c) {
+            if (!consume(c)) {
+                throw error("Expected '" + c + "'");
+            }
+        }
+
+        private boolean consume(char c) {
+            skipWhitespace();
+            if (pos < text.length() && text.charAt(pos) == c) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        private void skipWhitespace() {
+            while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+                pos++;
+            }
+        }
+
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(message + " at column " + pos);
+        }
+    }
+
+    /**
+     * Progress is a snapshot of an import: records added, records skipped, bytes read and time taken.
+     */
+    public static final class Progress {
+        private final long records;
+        private final long skipped;
+        private final long bytesRead;
+        private final long totalBytes;
+        private final long elapsedNanos;
+
+        private Progress(long records, long skipped, long bytesRead, long totalBytes, long elapsedNanos) {
+            this.records = records;
+            this.skipped = skipped;
+            this.bytesRead = bytesRead;
+            this.totalBytes = totalBytes;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        /**
+         * Returns the number of records added to the book so far.
+         *
+         * @return the record count
+         */
+        public long getRecords() {
+            return records;
+        }
+
+        /**
+         * Returns the number of records that could not be parsed.
+         *
+         * @return the skipped count
+         */
+        public long getSkipped() {
+            return skipped;
+        }
+
+        /**
+         * Returns how many bytes of the file have been read.
+         *
+         * @return the bytes read
+         */
+        public long getBytesRead() {
+            return bytesRead;
+        }
+
+        /**
+         * Returns the size of the file.
+         *
+         * @return the total bytes
+         */
+        public long getTotalBytes() {
+            return totalBytes;
+        }
+
+        /**
+         * Returns the fraction of the file read so far.
+         *
+         * @return a value from 0 to 1
+         */
+        public double getFraction() {
+            return totalBytes == 0 ? 1 : Math.min(1, (double) bytesRead / totalBytes);
+        }
+
+        /**
+         * Returns the time since the import started.
+         *
+         * @return the elapsed nanoseconds
+         */
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        /**
+         * Returns the average number of records added per second.
+         *
+         * @return the throughput
+         */
+        public double getRecordsPerSecond() {
+            return elapsedNanos == 0 ? 0 : records * 1e9 / elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%d records (%d skipped), %.0f%%, %.0f records/s", records, skipped,
+                    getFraction() * 100, getRecordsPerSecond());
+        }
+    }
+
+    /**
+     * ProgressListener is told how an import is going after each chunk.
+     */
+    public interface ProgressListener {
+        /**
+         * Called after a chunk of records has been added to the book.
+         *
+         * @param progress the progress so far
+         */
+        void importProgress(Progress progress);
+    }
+}
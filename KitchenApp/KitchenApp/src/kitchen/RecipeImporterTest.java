@@ -0,0 +1,116 @@
+package kitchen;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * This test suite contains tests for streaming recipe imports.
+ */
+public class RecipeImporterTest {
+
+    private static Path write(String suffix, String content) throws IOException {
+        Path file = Files.createTempFile("recipes", suffix);
+        file.toFile().deleteOnExit();
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    @Test
+    public void testJsonLinesImport() throws IOException {
+        Path file = write(".jsonl",
+                "{\"id\": 7, \"name\": \"Crêpes\", \"tags\": [\"sweet\", {\"x\": null}], "
+                        + "\"ingredients\": [\"Flour: 1 cup\", \"Milk: 1 1/2 cups\"], "
+                        + "\"steps\": [\"Whisk \\\"well\\\"\", \"Fry\\tthin\"]}\n"
+                        + "\n"
+                        + "{\"name\": \"Broken\", \"ingredients\": [\"Salt\"\n"
+                        + "{\"name\": \"Toast\", \"ingredients\": [], \"steps\": [\"Toast\\u0021\"]}");
+        RecipeBook book = new RecipeBook();
+        RecipeImporter.Progress progress = new RecipeImporter(book).importFile(file,
+                RecipeImporter.Format.of(file), null);
+
+        assertEquals(2, progress.getRecords());
+        assertEquals(1, progress.getSkipped());
+        assertEquals(Files.size(file), progress.getBytesRead());
+        assertEquals(Arrays.asList("Crêpes", "Toast"), book.getNames());
+        Recipe crepes = book.get("Crêpes");
+        assertEquals("Milk", crepes.getIngredient(1).getName());
+        assertEquals("1 1/2", crepes.getIngredient(1).getQuantity());
+        assertEquals(Arrays.asList("Whisk \"well\"", "Fry\tthin"), crepes.getSteps());
+        assertEquals(Collections.singletonList("Toast!"), book.get("Toast").getSteps());
+    }
+
+    @Test
+    public void testCsvImport() throws IOException {
+        Path file = write(".csv",
+                "steps,name,ingredients\r\n"
+                        + "\"Boil, then drain|Serve\",\"Pasta \"\"al dente\"\"\",Spaghetti: 200g|Salt: 1/2 teaspoon\r\n"
+                        + "Mix,Salad\r\n"
+                        + "\"unterminated,Nothing,\r\n");
+        RecipeBook book = new RecipeBook();
+        RecipeImporter.Progress progress = new RecipeImporter(book).importFile(file,
+                RecipeImporter.Format.of(file), null);
+
+        assertEquals(2, progress.getRecords());
+        assertEquals(1, progress.getSkipped());
+        Recipe pasta = book.get("Pasta \"al dente\"");
+        assertEquals(Arrays.asList("Boil, then drain", "Serve"), pasta.getSteps());
+        assertEquals("Spaghetti: 200g", pasta.getIngredient(0).toString());
+        assertEquals("Salt: 1/2 teaspoon", pasta.getIngredient(1).toString());
+        assertEquals(0, book.get("Salad").getIngredientCount());
+    }
+
+    @Test
+    public void testSmallChunksKeepFileOrderAndReportProgress() throws IOException {
+        StringBuilder content = new StringBuilder();
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            String name = "Recipe " + i;
+            names.add(name);
+            content.append("{\"name\": \"").append(name).append("\", \"ingredients\": [\"Item ").append(i % 97)
+                    .append(": ").append(i % 5 + 1).append(" cups\"], \"steps\": [\"Step one\"]}\n");
+            if (i == 2500) {
+                // One record longer than a whole chunk
+                char[] padding = new char[3000];
+                Arrays.fill(padding, 'x');
+                names.add("Long");
+                content.append("{\"name\": \"Long\", \"steps\": [\"").append(padding).append("\"]}\n");
+            }
+        }
+        Path file = write(".jsonl", content.toString());
+        final List<RecipeImporter.Progress> updates = new ArrayList<>();
+        RecipeBook book = new RecipeBook();
+        ForkJoinPool pool = new ForkJoinPool(2);
+        RecipeImporter.Progress progress = new RecipeImporter(book, pool, 1024, 256).importFile(file,
+                RecipeImporter.Format.JSON_LINES, new RecipeImporter.ProgressListener() {
+                    @Override
+                    public void importProgress(RecipeImporter.Progress update) {
+                        updates.add(update);
+                    }
+                });
+        pool.shutdown();
+
+        assertEquals(5001, progress.getRecords());
+        assertEquals(0, progress.getSkipped());
+        assertEquals(1.0, progress.getFraction());
+        assertEquals(names, book.getNames());
+        assertEquals(3000, book.get("Long").getStep(0).length());
+        assertEquals("4 cups", book.get("Recipe 4998").getIngredient(0).toString().substring(9));
+        assertTrue(updates.size() > 100, "updates: " + updates.size());
+        for (int i = 1; i < updates.size(); i++) {
+            assertTrue(updates.get(i).getRecords() >= updates.get(i - 1).getRecords());
+            assertTrue(updates.get(i).getBytesRead() >= updates.get(i - 1).getBytesRead());
+        }
+    }
+}
@@ -0,0 +1,615 @@
+package kitchen;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * RecipeIndex class is an in-memory inverted index over recipe names, ingredient names and step text.
+ * Every term maps to a posting list of the recipes that contain it, sorted by recipe, with a score
+ * that weighs a hit in the name above a hit in the ingredients and both above a hit in the steps.
+ * Terms are kept sorted, so a prefix selects one contiguous run of posting lists.
+ *
+ * A query is split into terms that must all match, each as a prefix of an indexed term ("gar oil"
+ * finds recipes with garlic and olive oil). The rarest term is expanded first and every other term
+ * only filters its candidates, walking their posting lists or looking each candidate up, whichever
+ * is cheaper. Recipes are ranked by their summed score; whole-word matches count double.
+ *
+ * The index is an immutable snapshot of the recipes it was built from. It is built in parallel on the
+ * common fork-join pool, one chunk of recipes per task. An index over a {@link RecipeCatalog} refers to
+ * recipes by catalog number: each recipe is decoded once while it is indexed and then dropped, and a
+ * hit decodes its recipe again only when {@link Hit#getRecipe()} asks for it.
+ */
+public final class RecipeIndex {
+    private static final int NAME_WEIGHT = 8;
+    private static final int INGREDIENT_WEIGHT = 4;
+    private static final int STEP_WEIGHT = 1;
+    private static final int CHUNK_SIZE = 4096;
+    // Rough cost of one binary-search lookup relative to stepping through one posting
+    private static final int PROBE_COST = 16;
+    // Long posting lists also keep their best recipes pre-ranked, for one-word queries
+    private static final int RANKED_POSTINGS = 128;
+
+    private final Documents documents;
+    private final String[] terms;
+    private final int[][] postings;
+    private final int[][] scores;
+    private final int[][] ranked;
+    private final ThreadLocal<Workspace> workspaces = new ThreadLocal<Workspace>() {
+        @Override
+        protected Workspace initialValue() {
+            return new Workspace(documents.size());
+        }
+    };
+
+    private RecipeIndex(Documents documents, String[] terms, int[][] postings, int[][] scores, int[][] ranked) {
+        this.documents = documents;
+        this.terms = terms;
+        this.postings = postings;
+        this.scores = scores;
+        this.ranked = ranked;
+    }
+
+    /**
+     * Builds an index over the given recipes.
+     *
+     * @param recipes the recipes to index
+     * @return the index
+     */
+    public static RecipeIndex build(List<Recipe> recipes) {
+        final Recipe[] array = recipes.toArray(new Recipe[0]);
+        return build(new Documents() {
+            @Override
+            public int size() {
+                return array.length;
+            }
+
+            @Override
+            public String getName(int id) {
+                return array[id].getName();
+            }
+
+            @Override
+            public Recipe get(int id) {
+                return array[id];
+            }
+        });
+    }
+
+    /**
+     * Builds an index over every recipe of a catalog, by catalog number. No decoded recipe is kept.
+     *
+     * @param catalog the catalog to index
+     * @return the index
+     */
+    public static RecipeIndex build(final RecipeCatalog catalog) {
+        return build(new Documents() {
+            @Override
+            public int size() {
+                return catalog.size();
+            }
+
+            @Override
+            public String getName(int id) {
+                return catalog.getName(id);
+            }
+
+            @Override
+            public Recipe get(int id) {
+                return catalog.get(id);
+            }
+        });
+    }
+
+    private static RecipeIndex build(final Documents documents) {
+        final int chunks = (documents.size() + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        @SuppressWarnings("unchecked")
+        final Map<String, Posting>[] partial = (Map<String, Posting>[]) new Map<?, ?>[chunks];
+        ForkJoinPool.commonPool().invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                List<RecursiveAction> tasks = new ArrayList<>(chunks);
+                for (int chunk = 0; chunk < chunks; chunk++) {
+                    final int index = chunk;
+                    tasks.add(new RecursiveAction() {
+                        @Override
+                        protected void compute() {
+                            int from = index * CHUNK_SIZE;
+                            int to = Math.min(documents.size(), from + CHUNK_SIZE);
+                            partial[index] = indexChunk(documents, from, to);
+                        }
+                    });
+                }
+                invokeAll(tasks);
+            }
+        });
+
+        // Chunks cover ascending recipe ranges, so appending them in order keeps every list sorted.
+        Map<String, Posting> merged = new HashMap<>();
+        for (Map<String, Posting> chunk : partial) {
+            for (Map.Entry<String, Posting> term : chunk.entrySet()) {
+                Posting posting = merged.get(term.getKey());
+                if (posting == null) {
+                    merged.put(term.getKey(), term.getValue());
+                } else {
+                    posting.append(term.getValue());
+                }
+            }
+        }
+        String[] terms = merged.keySet().toArray(new String[0]);
+        Arrays.sort(terms);
+        int[][] postings = new int[terms.length][];
+        int[][] scores = new int[terms.length][];
+        int[][] ranked = new int[terms.length][];
+        for (int i = 0; i < terms.length; i++) {
+            Posting posting = merged.get(terms[i]);
+            postings[i] = Arrays.copyOf(posting.recipes, posting.size);
+            scores[i] = Arrays.copyOf(posting.scores, posting.size);
+            if (posting.size > RANKED_POSTINGS) {
+                ranked[i] = rank(postings[i], scores[i]);
+            }
+        }
+        return new RecipeIndex(documents, terms, postings, scores, ranked);
+    }
+
+    /**
+     * Returns the positions of a posting list's best recipes, best first.
+     */
+    private static int[] rank(int[] list, int[] listScores) {
+        // Score in the high half, inverted position in the low half: the largest values are the best
+        // recipes, earlier recipes first among equal scores
+        long[] keys = new long[list.length];
+        for (int i = 0; i < list.length; i++) {
+            keys[i] = (long) listScores[i] << 32 | (Integer.MAX_VALUE - i);
+        }
+        Arrays.sort(keys);
+        int[] best = new int[RANKED_POSTINGS];
+        for (int i = 0; i < best.length; i++) {
+            best[i] = Integer.MAX_VALUE - (int) keys[keys.length - 1 - i];
+        }
+        return best;
+    }
+
+    private static Map<String, Posting> indexChunk(Documents documents, int from, int to) {
+        Map<String, Posting> chunk = new HashMap<>();
+        Map<String, Integer> recipeTerms = new HashMap<>();
+        // Ingredient names recur across recipes, so each is tokenized once per chunk, by its id in the book
+        RecipeBook book = null;
+        List<List<String>> ingredientTerms = new ArrayList<>();
+        for (int id = from; id < to; id++) {
+            Recipe recipe = documents.get(id);
+            if (recipe.getBook() != book) {
+                book = recipe.getBook();
+                ingredientTerms.clear();
+            }
+            recipeTerms.clear();
+            addTerms(recipeTerms, tokenize(recipe.getName()), NAME_WEIGHT);
+            for (int i = 0; i < recipe.getIngredientCount(); i++) {
+                addTerms(recipeTerms, ingredientTerms(ingredientTerms, book, recipe.getIngredientNameId(i)),
+                        INGREDIENT_WEIGHT);
+            }
+            for (int i = 0; i < recipe.getStepCount(); i++) {
+                addTerms(recipeTerms, tokenize(recipe.getStep(i)), STEP_WEIGHT);
+            }
+            for (Map.Entry<String, Integer> term : recipeTerms.entrySet()) {
+                Posting posting = chunk.get(term.getKey());
+                if (posting == null) {
+                    posting = new Posting();
+                    chunk.put(term.getKey(), posting);
+                }
+                posting.add(id, term.getValue());
+            }
+        }
+        return chunk;
+    }
+
+    /**
+     * Returns the terms of an ingredient name, tokenizing it the first time its id is seen.
+     */
+    private static List<String> ingredientTerms(List<List<String>> cache, RecipeBook book, int nameId) {
+        while (cache.size() <= nameId) {
+            cache.add(null);
+        }
+        List<String> terms = cache.get(nameId);
+        if (terms == null) {
+            terms = tokenize(book.getIngredientNames().get(nameId));
+            cache.set(nameId, terms);
+        }
+        return terms;
+    }
+
+    private static void addTerms(Map<String, Integer> recipeTerms, List<String> terms, int weight) {
+        for (String term : terms) {
+            Integer score = recipeTerms.get(term);
+            recipeTerms.put(term, score == null ? weight : score + weight);
+        }
+    }
+
+    /**
+     * Splits text into lower-case terms at every character that is not a letter or digit.
+     *
+     * @param text the text to split
+     * @return the terms in order
+     */
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean word = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (word && start < 0) {
+                start = i;
+            } else if (!word && start >= 0) {
+                tokens.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Returns the recipes that match every term of the query, best first. Safe to call from many
+     * threads at once; each thread scores into its own reusable workspace.
+     *
+     * @param query the query text; each term matches as a prefix
+     * @param limit the most results to return
+     * @return up to {@code limit} hits
+     */
+    public List<Hit> search(String query, int limit) {
+        List<String> tokens = tokenize(query);
+        if (tokens.isEmpty() || limit <= 0) {
+            return new ArrayList<>();
+        }
+        // Each query term selects the range of indexed terms it is a prefix of
+        int[][] ranges = new int[tokens.size()][];
+        for (int i = 0; i < tokens.size(); i++) {
+            int from = lowerBound(tokens.get(i));
+            int to = lowerBound(tokens.get(i) + Character.MAX_VALUE);
+            if (from == to) {
+                return new ArrayList<>();
+            }
+            long size = 0;
+            for (int term = from; term < to; term++) {
+                size += postings[term].length;
+            }
+            ranges[i] = new int[] {from, to, i, (int) Math.min(size, Integer.MAX_VALUE)};
+        }
+        Arrays.sort(ranges, new Comparator<int[]>() {
+            @Override
+            public int compare(int[] first, int[] second) {
+                return Integer.compare(first[3], second[3]);
+            }
+        });
+
+        if (ranges.length == 1 && ranges[0][1] - ranges[0][0] == 1 && ranked[ranges[0][0]] != null
+                && limit <= RANKED_POSTINGS) {
+            return topOf(ranges[0][0], tokens.get(0), limit);
+        }
+        Workspace work = workspaces.get();
+        work.begin();
+        collect(work, ranges[0][0], ranges[0][1], tokens.get(ranges[0][2]));
+        for (int i = 1; i < ranges.length && work.size > 0; i++) {
+            int[] range = ranges[i];
+            String token = tokens.get(range[2]);
+            long probeCost = (long) work.size * (range[1] - range[0]) * PROBE_COST;
+            if (probeCost < range[3]) {
+                probe(work, i, range[0], range[1], token);
+            } else {
+                scan(work, i, range[0], range[1], token);
+            }
+            work.retain(i + 1);
+        }
+        return work.top(documents, limit);
+    }
+
+    /**
+     * Returns the number of distinct terms in the index.
+     *
+     * @return the term count
+     */
+    public int getTermCount() {
+        return terms.length;
+    }
+
+    /**
+     * Returns the number of indexed recipes.
+     *
+     * @return the recipe count
+     */
+    public int getRecipeCount() {
+        return documents.size();
+    }
+
+    private int lowerBound(String key) {
+        int low = 0;
+        int high = terms.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (terms[middle].compareTo(key) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private List<Hit> topOf(int term, String token, int limit) {
+        int[] best = ranked[term];
+        int multiplier = multiplier(term, token);
+        List<Hit> hits = new ArrayList<>(limit);
+        for (int i = 0; i < limit; i++) {
+            // A single matching term scales every score alike, so the pre-ranked order holds
+            hits.add(new Hit(documents, postings[term][best[i]], scores[term][best[i]] * multiplier));
+        }
+        return hits;
+    }
+
+    private int multiplier(int term, String token) {
+        return terms[term].length() == token.length() ? 2 : 1;
+    }
+
+    /**
+     * Makes every recipe of the most selective query term a candidate.
+     */
+    private void collect(Workspace work, int from, int to, String token) {
+        int[] seen = work.seen;
+        int[] score = work.score;
+        int generation = work.generation;
+        for (int term = from; term < to; term++) {
+            int[] list = postings[term];
+            int[] listScores = scores[term];
+            int multiplier = multiplier(term, token);
+            for (int i = 0; i < list.length; i++) {
+                int recipe = list[i];
+                if (seen[recipe] != generation) {
+                    seen[recipe] = generation;
+                    work.matched[recipe] = 1;
+                    score[recipe] = 0;
+                    work.candidates[work.size++] = recipe;
+                }
+                score[recipe] += listScores[i] * multiplier;
+            }
+        }
+    }
+
+    /**
+     * Matches the next query term by walking its posting lists; best when they are short.
+     */
+    private void scan(Workspace work, int matchedSoFar, int from, int to, String token) {
+        int[] seen = work.seen;
+        int[] matched = work.matched;
+        int[] score = work.score;
+        int generation = work.generation;
+        for (int term = from; term < to; term++) {
+            int[] list = postings[term];
+            int[] listScores = scores[term];
+            int multiplier = multiplier(term, token);
+            for (int i = 0; i < list.length; i++) {
+                int recipe = list[i];
+                if (seen[recipe] == generation && matched[recipe] >= matchedSoFar) {
+                    matched[recipe] = matchedSoFar + 1;
+                    score[recipe] += listScores[i] * multiplier;
+                }
+            }
+        }
+    }
+
+    /**
+     * Matches the next query term by looking each candidate up in its posting lists; best when few
+     * candidates are left.
+     */
+    private void probe(Workspace work, int matchedSoFar, int from, int to, String token) {
+        for (int term = from; term < to; term++) {
+            int[] list = postings[term];
+            for (int c = 0; c < work.size; c++) {
+                int recipe = work.candidates[c];
+                int found = Arrays.binarySearch(list, recipe);
+                if (found >= 0) {
+                    work.matched[recipe] = matchedSoFar + 1;
+                    work.score[recipe] += scores[term][found] * multiplier(term, token);
+                }
+            }
+        }
+    }
+
+    /**
+     * Hit is one search result: a recipe and how well it matched.
+     */
+    public static final class Hit {
+        private final Documents documents;
+        private final int id;
+        private final int score;
+        private Recipe recipe;
+
+        private Hit(Documents documents, int id, int score) {
+            this.documents = documents;
+            this.id = id;
+            this.score = score;
+        }
+
+        /**
+         * Returns the name of the matching recipe, without decoding it.
+         *
+         * @return the recipe name
+         */
+        public String getName() {
+            return documents.getName(id);
+        }
+
+        /**
+         * Returns the matching recipe, decoding it on first use if it comes from a catalog.
+         *
+         * @return the recipe
+         */
+        public synchronized Recipe getRecipe() {
+            if (recipe == null) {
+                recipe = documents.get(id);
+            }
+            return recipe;
+        }
+
+        /**
+         * Returns the relevance score; higher is better.
+         *
+         * @return the score
+         */
+        public int getScore() {
+            return score;
+        }
+
+        @Override
+        public String toString() {
+            return getName() + " (" + score + ")";
+        }
+    }
+
+    /**
+     * Per-thread scratch space for scoring a query. Arrays indexed by recipe are reused across queries;
+     * a generation stamp tells which entries belong to the current one, so nothing is cleared between
+     * queries.
+     */
+    private static final class Workspace {
+        private final int[] seen;
+        private final int[] matched;
+        private final int[] score;
+        private final int[] candidates;
+        private int[] heap = new int[16];
+        private int generation;
+        private int size;
+
+        private Workspace(int recipes) {
+            this.seen = new int[recipes];
+            this.matched = new int[recipes];
+            this.score = new int[recipes];
+            this.candidates = new int[recipes];
+        }
+
+        private void begin() {
+            if (++generation == 0) {
+                Arrays.fill(seen, 0);
+                generation = 1;
+            }
+            size = 0;
+        }
+
+        private void retain(int matchedTerms) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                if (matched[candidates[i]] == matchedTerms) {
+                    candidates[kept++] = candidates[i];
+                }
+            }
+            size = kept;
+        }
+
+        private List<Hit> top(Documents documents, int limit) {
+            // A min-heap of the best candidates so far: the weakest one sits at the root
+            if (heap.length < Math.min(limit, size)) {
+                heap = new int[Math.min(limit, size)];
+            }
+            int count = 0;
+            for (int i = 0; i < size; i++) {
+                int recipe = candidates[i];
+                if (count < limit) {
+                    heap[count] = recipe;
+                    siftUp(count++);
+                } else if (better(recipe, heap[0])) {
+                    heap[0] = recipe;
+                    siftDown(0, count);
+                }
+            }
+            Hit[] hits = new Hit[count];
+            for (int i = count - 1; i >= 0; i--) {
+                hits[i] = new Hit(documents, heap[0], score[heap[0]]);
+                heap[0] = heap[i];
+                siftDown(0, i);
+            }
+            return new ArrayList<>(Arrays.asList(hits));
+        }
+
+        private boolean better(int first, int second) {
+            return score[first] != score[second] ? score[first] > score[second] : first < second;
+        }
+
+        private void siftUp(int index) {
+            while (index > 0) {
+                int parent = (index - 1) >>> 1;
+                if (!better(heap[parent], heap[index])) {
+                    break;
+                }
+                swap(parent, index);
+                index = parent;
+            }
+        }
+
+        private void siftDown(int index, int count) {
+            while (true) {
+                int weakest = index;
+                int left = 2 * index + 1;
+                if (left < count && better(heap[weakest], heap[left])) {
+                    weakest = left;
+                }
+                if (left + 1 < count && better(heap[weakest], heap[left + 1])) {
+                    weakest = left + 1;
+                }
+                if (weakest == index) {
+                    return;
+                }
+                swap(index, weakest);
+                index = weakest;
+            }
+        }
+
+        private void swap(int first, int second) {
+            int held = heap[first];
+            heap[first] = heap[second];
+            heap[second] = held;
+        }
+    }
+
+    /**
+     * Documents is what an index was built from, looked up by document number.
+     */
+    private interface Documents {
+        int size();
+
+        String getName(int id);
+
+        Recipe get(int id);
+    }
+
+    /**
+     * A growable posting list used while the index is built.
+     */
+    private static final class Posting {
+        private int[] recipes = new int[4];
+        private int[] scores = new int[4];
+        private int size;
+
+        private void add(int recipe, int score) {
+            if (size == recipes.length) {
+                recipes = Arrays.copyOf(recipes, size * 2);
+                scores = Arrays.copyOf(scores, size * 2);
+            }
+            recipes[size] = recipe;
+            scores[size++] = score;
+        }
+
+        private void append(Posting other) {
+            if (size + other.size > recipes.length) {
+                int capacity = Math.max(recipes.length * 2, size + other.size);
+                recipes = Arrays.copyOf(recipes, capacity);
+                scores = Arrays.copyOf(scores, capacity);
+            }
+            System.arraycopy(other.recipes, 0, recipes, size, other.size);
+            System.arraycopy(other.scores, 0, scores, size, other.size);
+            size += other.size;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package kitchen;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * This test suite contains tests for the recipe full-text index.
+ */
+public class RecipeIndexTest {
+
+    private static String names(List<RecipeIndex.Hit> hits) {
+        StringBuilder names = new StringBuilder();
+        for (RecipeIndex.Hit hit : hits) {
+            names.append(names.length() == 0 ? "" : ",").append(hit.getRecipe().getName());
+        }
+        return names.toString();
+    }
+
+    private static RecipeBook kitchenBook() {
+        RecipeBook book = new RecipeBook();
+        book.add("Garlic Bread", Arrays.asList("Bread: 1 loaf", "Butter: 50g", "Garlic: 3 cloves"),
+                Arrays.asList("Spread the butter on the bread.", "Bake for 10 minutes."));
+        book.add("Spaghetti Aglio e Olio", Arrays.asList("Spaghetti: 200g", "Garlic: 4 cloves", "Olive oil: 4 tablespoons"),
+                Arrays.asList("Cook the spaghetti.", "Fry the garlic in the oil."));
+        book.add("Pancakes", Arrays.asList("Flour: 1 cup", "Milk: 1 cup", "Butter: 2 tablespoons"),
+                Arrays.asList("Whisk and fry in butter."));
+        book.add("Roast Potatoes", Arrays.asList("Potatoes: 1 kg", "Olive oil: 3 tablespoons"),
+                Arrays.asList("Toss with oil and a little garlic.", "Roast until golden."));
+        return book;
+    }
+
+    @Test
+    public void testTokenizeLowerCasesAndSplitsOnPunctuation() {
+        assertEquals(Arrays.asList("add", "garlic", "and", "sauté", "2", "3", "min"),
+                RecipeIndex.tokenize("Add garlic, and SAUTÉ 2-3 min."));
+        assertTrue(RecipeIndex.tokenize(" .,; ").isEmpty());
+    }
+
+    @Test
+    public void testIngredientIdsAreReadInTheirOwnBook() {
+        // Ingredient name id 0 is Garlic in one book and Saffron in the other
+        RecipeBook garlic = new RecipeBook();
+        garlic.add("Garlic Butter", Arrays.asList("Garlic: 2 cloves"), Collections.<String>emptyList());
+        RecipeBook saffron = new RecipeBook();
+        saffron.add("Paella", Arrays.asList("Saffron: 1 pinch"), Collections.<String>emptyList());
+        List<Recipe> recipes = new ArrayList<>(garlic.getRecipes());
+        recipes.addAll(saffron.getRecipes());
+        RecipeIndex index = RecipeIndex.build(recipes);
+
+        assertEquals("Garlic Butter", names(index.search("garlic", 10)));
+        assertEquals("Paella", names(index.search("saffron", 10)));
+    }
+
+    @Test
+    public void testPrefixAndMultiTermQueriesAreRanked() {
+        RecipeIndex index = RecipeIndex.build(kitchenBook().getRecipes());
+
+        // The name match ranks first, the ingredient match next, the step mention last
+        assertEquals("Garlic Bread,Spaghetti Aglio e Olio,Roast Potatoes", names(index.search("garlic", 10)));
+        assertEquals("Garlic Bread,Spaghetti Aglio e Olio,Roast Potatoes", names(index.search("GAR", 10)));
+        assertEquals("Spaghetti Aglio e Olio,Roast Potatoes", names(index.search("gar oil", 10)));
+        assertEquals("Spaghetti Aglio e Olio", names(index.search("olive spag", 10)));
+        assertEquals("Garlic Bread", names(index.search("garlic", 1)));
+        assertEquals("", names(index.search("garlic saffron", 10)));
+        assertEquals("", names(index.search("  ", 10)));
+        assertEquals(4, index.getRecipeCount());
+    }
+
+    @Test
+    public void testParallelBuildMatchesAcrossChunks() {
+        RecipeBook book = new RecipeBook();
+        List<String> none = Collections.emptyList();
+        for (int i = 0; i < 20000; i++) {
+            String special = i % 5000 == 17 ? "Saffron: 1 pinch" : "Salt: 1 pinch";
+            book.add("Dish " + i, Arrays.asList(special, "Water: " + (i % 7) + " cups"), none);
+        }
+        RecipeIndex index = RecipeIndex.build(book.getRecipes());
+
+        List<String> expected = new ArrayList<>();
+        for (int i = 17; i < 20000; i += 5000) {
+            expected.add("Dish " + i);
+        }
+        assertEquals(String.join(",", expected), names(index.search("saffron", 10)));
+        List<RecipeIndex.Hit> all = index.search("salt", 50000);
+        assertEquals(20000, all.size() + 4);
+        // One-word queries on long posting lists take the pre-ranked path; it must agree with scoring
+        assertEquals(all.subList(0, 10).toString(), index.search("salt", 10).toString());
+        assertEquals(index.search("sal", 50000).subList(0, 10).toString(), index.search("sal", 10).toString());
+        assertEquals("Dish 4", names(index.search("dish 4 water", 1)));
+    }
+}
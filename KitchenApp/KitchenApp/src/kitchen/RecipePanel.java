@@ -4,158 +4,262 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
-import java.util.HashMap;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.Executor;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.event.ListSelectionEvent;
+import javax.swing.event.ListSelectionListener;
 
 /**
  * RecipePanel class creates a panel for displaying and managing recipes.
  * Users can view predefined recipes or add their own custom recipes.
+ * Recipes are kept in a {@link RecipeBook}, which shares ingredient names and units across recipes.
+ * The search field finds recipes as the user types: queries run on a background {@link RecipeSearch}
+ * and their results stream into the list below it.
+ * Recipe exports in JSON Lines or CSV form can be imported with a {@link RecipeImporter}, which runs on
+ * a background thread and reports its progress next to the import button.
+ * When the panel is given a {@link RecipeCatalog} file that exists, it starts from it instead of the
+ * predefined recipes:
+ * the catalog is memory-mapped and each recipe is decoded only when it is loaded. A successful import
+ * saves the whole collection as the catalog, and the panel reopens it and empties the book, so every
+ * recipe is listed once and the next import saves only what it adds.
+ * Shown recipes go through a {@link RecipeRenderCache}, which keeps them decoded and rendered and
+ * prefetches their neighbours in the recipe list; the "Cache Stats" button reports its counters.
+ * When the panel is given a {@link RecipeEditLog}, recipes added with the "Add New Recipe" button are
+ * written to it and come back when the panel is next created.
+ * The "Scale" button shows the selected recipe's ingredients multiplied by the factor in the field next
+ * to it, such as 30 or 3/2, through a {@link RecipeScaler} that keeps the measures in sensible units.
+ * The "What Can I Cook?" button lists the recipes that can be made from the comma-separated ingredients
+ * in the pantry field, or that miss one of them, through a {@link PantryIndex} that is built on a
+ * background thread the first time it is needed.
  */
 public class RecipePanel extends JPanel {
-    private Map<String, Map<String, List<String>>> recipes;
-    private static final Map<String, Map<String, List<String>>> predefinedRecipes = new HashMap<>() {{
-        put("Fried Rice", new HashMap<>() {{
-            put("ingredients", java.util.Arrays.asList(
-                "Rice: 2 cups", 
-                "Mixed vegetables: 1 cup", 
-                "Eggs: 2", 
-                "Garlic: 2 cloves", 
-                "Soy sauce: 2 tablespoons", 
-                "Oil: 2 tablespoons"
-            ));
-            put("steps", java.util.Arrays.asList(
-                "Heat oil in a large skillet over medium heat.",
-                "Add garlic and sauté until fragrant.",
-                "Add mixed vegetables and cook until tender.",
-                "Push the vegetables to the side and pour beaten eggs into the skillet.",
-                "Scramble the eggs until fully cooked.",
-                "Add cooked rice to the skillet and stir to combine.",
-                "Pour soy sauce and stir everything together.",
-                "Cook for another 2-3 minutes and serve hot."
-            ));
-        }});
-        put("Spaghetti Bolognese", new HashMap<>() {{
-            put("ingredients", java.util.Arrays.asList(
-                "Spaghetti: 200g", 
-                "Ground beef: 500g", 
-                "Tomato sauce: 2 cups", 
-                "Onion: 1", 
-                "Garlic: 2 cloves", 
-                "Olive oil: 2 tablespoons"
-            ));
-            put("steps", java.util.Arrays.asList(
-                "Cook spaghetti according to package instructions.",
-                "Heat oil in a large skillet over medium heat.",
-                "Add chopped onion and garlic, sauté until translucent.",
-                "Add ground beef, cook until browned.",
-                "Stir in tomato sauce, simmer for 10 minutes.",
-                "Serve sauce over spaghetti."
-            ));
-        }});
-        put("Pancakes", new HashMap<>() {{
-            put("ingredients", java.util.Arrays.asList(
-                "Flour: 1 cup", 
-                "Milk: 1 cup", 
-                "Egg: 1", 
-                "Baking powder: 1 tablespoon", 
-                "Salt: 1/2 teaspoon", 
-                "Butter: 2 tablespoons"
-            ));
-            put("steps", java.util.Arrays.asList(
-                "In a large bowl, mix flour, baking powder, and salt.",
-                "Add milk and egg, whisk until smooth.",
-                "Heat a skillet over medium heat, melt butter.",
-                "Pour batter into the skillet, cook until bubbles form.",
-                "Flip and cook until golden brown.",
-                "Serve with syrup."
-            ));
-        }});
-        put("Caesar Salad", new HashMap<>() {{
-            put("ingredients", java.util.Arrays.asList(
-                "Romaine lettuce: 1 head", 
-                "Croutons: 1 cup", 
-                "Parmesan cheese: 1/2 cup", 
-                "Caesar dressing: 1/2 cup", 
-                "Chicken breast: 1", 
-                "Olive oil: 1 tablespoon"
-            ));
-            put("steps", java.util.Arrays.asList(
-                "Grill chicken breast until cooked through, slice.",
-                "Chop romaine lettuce and place in a large bowl.",
-                "Add croutons and Parmesan cheese.",
-                "Toss with Caesar dressing.",
-                "Top with sliced chicken.",
-                "Serve immediately."
-            ));
-        }});
-        put("Chili Con Carne", new HashMap<>() {{
-            put("ingredients", java.util.Arrays.asList(
-                "Ground beef: 500g", 
-                "Kidney beans: 1 can", 
-                "Tomato sauce: 2 cups", 
-                "Onion: 1", 
-                "Garlic: 2 cloves", 
-                "Chili powder: 2 tablespoons"
-            ));
-            put("steps", java.util.Arrays.asList(
-                "Heat oil in a large pot over medium heat.",
-                "Add chopped onion and garlic, sauté until translucent.",
-                "Add ground beef, cook until browned.",
-                "Stir in kidney beans, tomato sauce, and chili powder.",
-                "Simmer for 20 minutes.",
-                "Serve hot."
-            ));
-        }});
-        put("Omelette", new HashMap<>() {{
-            put("ingredients", java.util.Arrays.asList(
-                "Eggs: 3", 
-                "Milk: 1/4 cup", 
-                "Salt: 1/2 teaspoon", 
-                "Pepper: 1/4 teaspoon", 
-                "Cheese: 1/2 cup", 
-                "Ham: 1/2 cup"
-            ));
-            put("steps", java.util.Arrays.asList(
-                "Whisk eggs, milk, salt, and pepper in a bowl.",
-                "Heat a skillet over medium heat, pour in the egg mixture.",
-                "Cook until edges start to set, add cheese and ham.",
-                "Fold the omelette in half, cook until cheese melts.",
-                "Serve hot."
-            ));
-        }});
-    }};
+    private static final long RENDER_CACHE_CHARS = 4 << 20;
+    private static final int PREFETCH_DISTANCE = 2;
+    private static final int PANTRY_MAX_MISSING = 1;
+    private static final int PANTRY_RESULTS = 50;
 
+    private RecipeBook recipes;
+    private volatile RecipeCatalog catalog;
+    private Path catalogPath;
+    private RecipeNames recipeNames;
     private JComboBox<String> recipeDropdown;
     private JTextArea ingredientsArea;
     private JTextArea stepsArea;
     private JTextField newRecipeField;
     private JButton addRecipeButton;
     private JButton viewRecipeButton;
+    private JTextField scaleField;
+    private JButton scaleButton;
+    private JTextField searchField;
+    private JLabel searchStatusLabel;
+    private DefaultListModel<String> searchResults;
+    private JList<String> searchResultsList;
+    private RecipeSearch search;
+    private JButton importButton;
+    private JLabel importStatusLabel;
+    private JButton cacheStatsButton;
+    private RecipeRenderCache renderCache;
+    private RecipeEditLog editLog;
+    private JTextField pantryField;
+    private JButton pantryButton;
+    private PantryIndex pantryIndex;
+    private int recipesVersion;
+    private int pantryIndexVersion = -1;
+
+    /**
+     * Builds the recipes every panel starts with.
+     *
+     * @return a new book holding the predefined recipes
+     */
+    private static RecipeBook predefinedRecipes() {
+        RecipeBook book = new RecipeBook();
+        book.add("Fried Rice", Arrays.asList(
+            "Rice: 2 cups", 
+            "Mixed vegetables: 1 cup", 
+            "Eggs: 2", 
+            "Garlic: 2 cloves", 
+            "Soy sauce: 2 tablespoons", 
+            "Oil: 2 tablespoons"
+        ), Arrays.asList(
+            "Heat oil in a large skillet over medium heat.",
+            "Add garlic and sauté until fragrant.",
+            "Add mixed vegetables and cook until tender.",
+            "Push the vegetables to the side and pour beaten eggs into the skillet.",
+            "Scramble the eggs until fully cooked.",
+            "Add cooked rice to the skillet and stir to combine.",
+            "Pour soy sauce and stir everything together.",
+            "Cook for another 2-3 minutes and serve hot."
+        ));
+        book.add("Spaghetti Bolognese", Arrays.asList(
+            "Spaghetti: 200g", 
+            "Ground beef: 500g", 
+            "Tomato sauce: 2 cups", 
+            "Onion: 1", 
+            "Garlic: 2 cloves", 
+            "Olive oil: 2 tablespoons"
+        ), Arrays.asList(
+            "Cook spaghetti according to package instructions.",
+            "Heat oil in a large skillet over medium heat.",
+            "Add chopped onion and garlic, sauté until translucent.",
+            "Add ground beef, cook until browned.",
+            "Stir in tomato sauce, simmer for 10 minutes.",
+            "Serve sauce over spaghetti."
+        ));
+        book.add("Pancakes", Arrays.asList(
+            "Flour: 1 cup", 
+            "Milk: 1 cup", 
+            "Egg: 1", 
+            "Baking powder: 1 tablespoon", 
+            "Salt: 1/2 teaspoon", 
+            "Butter: 2 tablespoons"
+        ), Arrays.asList(
+            "In a large bowl, mix flour, baking powder, and salt.",
+            "Add milk and egg, whisk until smooth.",
+            "Heat a skillet over medium heat, melt butter.",
+            "Pour batter into the skillet, cook until bubbles form.",
+            "Flip and cook until golden brown.",
+            "Serve with syrup."
+        ));
+        book.add("Caesar Salad", Arrays.asList(
+            "Romaine lettuce: 1 head", 
+            "Croutons: 1 cup", 
+            "Parmesan cheese: 1/2 cup", 
+            "Caesar dressing: 1/2 cup", 
+            "Chicken breast: 1", 
+            "Olive oil: 1 tablespoon"
+        ), Arrays.asList(
+            "Grill chicken breast until cooked through, slice.",
+            "Chop romaine lettuce and place in a large bowl.",
+            "Add croutons and Parmesan cheese.",
+            "Toss with Caesar dressing.",
+            "Top with sliced chicken.",
+            "Serve immediately."
+        ));
+        book.add("Chili Con Carne", Arrays.asList(
+            "Ground beef: 500g", 
+            "Kidney beans: 1 can", 
+            "Tomato sauce: 2 cups", 
+            "Onion: 1", 
+            "Garlic: 2 cloves", 
+            "Chili powder: 2 tablespoons"
+        ), Arrays.asList(
+            "Heat oil in a large pot over medium heat.",
+            "Add chopped onion and garlic, sauté until translucent.",
+            "Add ground beef, cook until browned.",
+            "Stir in kidney beans, tomato sauce, and chili powder.",
+            "Simmer for 20 minutes.",
+            "Serve hot."
+        ));
+        book.add("Omelette", Arrays.asList(
+            "Eggs: 3", 
+            "Milk: 1/4 cup", 
+            "Salt: 1/2 teaspoon", 
+            "Pepper: 1/4 teaspoon", 
+            "Cheese: 1/2 cup", 
+            "Ham: 1/2 cup"
+        ), Arrays.asList(
+            "Whisk eggs, milk, salt, and pepper in a bowl.",
+            "Heat a skillet over medium heat, pour in the egg mixture.",
+            "Cook until edges start to set, add cheese and ham.",
+            "Fold the omelette in half, cook until cheese melts.",
+            "Serve hot."
+        ));
+        return book;
+    }
 
     /**
      * Constructor for RecipePanel, initializes the panel components and layout.
+     * The panel starts from the predefined recipes and keeps every change in memory only.
      */
     public RecipePanel() {
+        this(null, null);
+    }
+
+    /**
+     * Constructs a RecipePanel that starts from the given catalog file if it exists.
+     * @param catalogPath The recipe catalog file, or null to start from the predefined recipes and keep
+     *                    imports in memory only.
+     * @param editLog The log that added recipes are written to and restored from, or null.
+     */
+    public RecipePanel(Path catalogPath, RecipeEditLog editLog) {
         setLayout(new BorderLayout());
 
-        recipes = new HashMap<>(predefinedRecipes);
+        this.catalogPath = catalogPath;
+        this.editLog = editLog;
+        catalog = openCatalog(catalogPath);
+        recipes = catalog == null ? predefinedRecipes() : new RecipeBook();
+        if (editLog != null) {
+            for (String name : editLog.getRecipes()) {
+                if (findRecipe(name) == null) {
+                    recipes.add(name, new ArrayList<String>(), new ArrayList<String>());
+                }
+            }
+        }
+        recipeNames = new RecipeNames(catalog, recipes.getNames());
+        renderCache = new RecipeRenderCache(new RecipeRenderCache.Loader() {
+            @Override
+            public Recipe load(String name) {
+                return findRecipe(name);
+            }
+        }, RENDER_CACHE_CHARS);
 
-        recipeDropdown = new JComboBox<>(recipes.keySet().toArray(new String[0]));
+        recipeDropdown = new JComboBox<>(recipeNames);
+        // Sizing the dropdown from a prototype keeps it from reading every name in a large catalog
+        recipeDropdown.setPrototypeDisplayValue("Spaghetti Bolognese with Meatballs");
         ingredientsArea = new JTextArea(10, 20);
         stepsArea = new JTextArea(10, 20);
         newRecipeField = new JTextField(20);
         addRecipeButton = new JButton("Add New Recipe");
         viewRecipeButton = new JButton("View Recipe");
+        scaleField = new JTextField("2", 4);
+        scaleButton = new JButton("Scale");
+        importButton = new JButton("Import Recipes...");
+        importStatusLabel = new JLabel(" ");
+        cacheStatsButton = new JButton("Cache Stats");
+        pantryField = new JTextField(20);
+        pantryButton = new JButton("What Can I Cook?");
+
+        searchField = new JTextField(20);
+        searchStatusLabel = new JLabel(" ");
+        searchResults = new DefaultListModel<>();
+        searchResultsList = new JList<>(searchResults);
+        searchResultsList.setVisibleRowCount(5);
+        searchResultsList.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
 
-        JPanel topPanel = new JPanel();
-        topPanel.add(recipeDropdown);
-        topPanel.add(viewRecipeButton);
+        JPanel pickerPanel = new JPanel();
+        pickerPanel.add(recipeDropdown);
+        pickerPanel.add(viewRecipeButton);
+        pickerPanel.add(scaleField);
+        pickerPanel.add(scaleButton);
+        pickerPanel.add(new JLabel("Search:"));
+        pickerPanel.add(searchField);
+        pickerPanel.add(searchStatusLabel);
+
+        JPanel pantryPanel = new JPanel();
+        pantryPanel.add(new JLabel("Pantry:"));
+        pantryPanel.add(pantryField);
+        pantryPanel.add(pantryButton);
+
+        JPanel topPanel = new JPanel(new BorderLayout());
+        topPanel.add(pickerPanel, BorderLayout.NORTH);
+        topPanel.add(new JScrollPane(searchResultsList), BorderLayout.CENTER);
+        topPanel.add(pantryPanel, BorderLayout.SOUTH);
 
         JPanel newRecipePanel = new JPanel();
         newRecipePanel.add(new JLabel("New Recipe Name:"));
         newRecipePanel.add(newRecipeField);
         newRecipePanel.add(addRecipeButton);
+        newRecipePanel.add(importButton);
+        newRecipePanel.add(cacheStatsButton);
+        newRecipePanel.add(importStatusLabel);
 
         add(topPanel, BorderLayout.NORTH);
         add(new JScrollPane(ingredientsArea), BorderLayout.WEST);
@@ -165,12 +269,14 @@ public class RecipePanel extends JPanel {
         viewRecipeButton.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
-                String recipeName = (String) recipeDropdown.getSelectedItem();
-                List<String> ingredients = recipes.get(recipeName).get("ingredients");
-                List<String> steps = recipes.get(recipeName).get("steps");
+                loadRecipe((String) recipeDropdown.getSelectedItem());
+            }
+        });
 
-                ingredientsArea.setText("Ingredients:\n" + String.join("\n", ingredients));
-                stepsArea.setText("Steps:\n" + String.join("\n", steps));
+        scaleButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                scaleRecipe((String) recipeDropdown.getSelectedItem(), scaleField.getText());
             }
         });
 
@@ -178,28 +284,376 @@ public class RecipePanel extends JPanel {
             @Override
             public void actionPerformed(ActionEvent e) {
                 String newRecipeName = newRecipeField.getText();
-                if (!newRecipeName.isEmpty() && !recipes.containsKey(newRecipeName)) {
-                    recipes.put(newRecipeName, new HashMap<>() {{
-                        put("ingredients", new java.util.ArrayList<>());
-                        put("steps", new java.util.ArrayList<>());
-                    }});
-                    recipeDropdown.addItem(newRecipeName);
+                if (!newRecipeName.isEmpty() && findRecipe(newRecipeName) == null) {
+                    recipes.add(newRecipeName, new ArrayList<String>(), new ArrayList<String>());
+                    if (editLog != null) {
+                        editLog.recipeAdded(newRecipeName);
+                    }
+                    recipeNames.addName(newRecipeName);
                     newRecipeField.setText("");
+                    recipesChanged();
+                    search.reindex();
+                }
+            }
+        });
+
+        importButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                JFileChooser chooser = new JFileChooser();
+                if (chooser.showOpenDialog(RecipePanel.this) == JFileChooser.APPROVE_OPTION) {
+                    importRecipes(chooser.getSelectedFile());
+                }
+            }
+        });
+
+        pantryButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                findPantryRecipes(pantryField.getText());
+            }
+        });
+
+        cacheStatsButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                String report = renderCache.dump();
+                importStatusLabel.setText(report.trim());
+            }
+        });
+
+        search = new RecipeSearch(recipes, catalog, new RecipeSearch.ResultListener() {
+            @Override
+            public void resultsStarted(String query) {
+                searchResults.clear();
+                searchStatusLabel.setText(query.trim().isEmpty() ? " " : "Searching...");
+            }
+
+            @Override
+            public void resultsArrived(String query, List<RecipeIndex.Hit> hits) {
+                for (RecipeIndex.Hit hit : hits) {
+                    searchResults.addElement(hit.getName());
+                }
+            }
+
+            @Override
+            public void resultsFinished(String query, int total) {
+                if (!query.trim().isEmpty()) {
+                    searchStatusLabel.setText(total + " found");
+                }
+            }
+        }, new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                SwingUtilities.invokeLater(command);
+            }
+        });
+
+        // Every keystroke supersedes the query before it; the search itself runs off the EDT
+        searchField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                search.setQuery(searchField.getText());
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                search.setQuery(searchField.getText());
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                search.setQuery(searchField.getText());
+            }
+        });
+
+        searchResultsList.addListSelectionListener(new ListSelectionListener() {
+            @Override
+            public void valueChanged(ListSelectionEvent e) {
+                String selected = searchResultsList.getSelectedValue();
+                if (!e.getValueIsAdjusting() && selected != null) {
+                    recipeDropdown.setSelectedItem(selected);
+                    loadRecipe(selected);
                 }
             }
         });
     }
 
     /**
-     * Loads a recipe into the text areas for viewing.
+     * Imports a recipe export on a background thread, then refreshes the recipe list and search index.
+     * Adding recipes is disabled meanwhile, since the book is emptied once it is saved into the catalog.
+     * @param file The JSON Lines or CSV file to import.
+     */
+    private void importRecipes(final File file) {
+        importButton.setEnabled(false);
+        addRecipeButton.setEnabled(false);
+        importStatusLabel.setText("Importing " + file.getName() + "...");
+        Thread importer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                String status;
+                RecipeImporter.Progress done = null;
+                RecipeCatalog saved = null;
+                try {
+                    done = new RecipeImporter(recipes).importFile(file.toPath(),
+                            RecipeImporter.Format.of(file.toPath()), new RecipeImporter.ProgressListener() {
+                                @Override
+                                public void importProgress(final RecipeImporter.Progress progress) {
+                                    SwingUtilities.invokeLater(new Runnable() {
+                                        @Override
+                                        public void run() {
+                                            importStatusLabel.setText(progress.toString());
+                                        }
+                                    });
+                                }
+                            });
+                    status = "Imported " + done;
+                } catch (IOException | RuntimeException ex) {
+                    status = "Import failed: " + ex.getMessage();
+                }
+                if (done != null) {
+                    try {
+                        saved = saveCatalog();
+                    } catch (IOException | RuntimeException ex) {
+                        status += "; catalog not saved: " + ex.getMessage();
+                    }
+                }
+                final String finalStatus = status;
+                final RecipeCatalog reopened = saved;
+                SwingUtilities.invokeLater(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (reopened != null) {
+                            switchCatalog(reopened);
+                        }
+                        recipeNames = new RecipeNames(catalog, recipes.getNames());
+                        recipeDropdown.setModel(recipeNames);
+                        renderCache.invalidateAll();
+                        recipesChanged();
+                        importStatusLabel.setText(finalStatus);
+                        importButton.setEnabled(true);
+                        addRecipeButton.setEnabled(true);
+                        if (reopened == null) {
+                            search.reindex();
+                        }
+                    }
+                });
+            }
+        }, "kitchen-recipe-import");
+        importer.setDaemon(true);
+        importer.start();
+    }
+
+    /**
+     * Lists the recipes that can be cooked from a pantry in the search results. The query runs on a
+     * background thread, since the first one decodes every recipe to build the pantry index.
+     * @param pantryText The ingredients at hand, separated by commas.
+     */
+    private void findPantryRecipes(final String pantryText) {
+        pantryButton.setEnabled(false);
+        searchStatusLabel.setText("Checking the pantry...");
+        Thread finder = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                final List<PantryIndex.Match> matches = cookableFrom(pantryText);
+                SwingUtilities.invokeLater(new Runnable() {
+                    @Override
+                    public void run() {
+                        searchResults.clear();
+                        for (PantryIndex.Match match : matches) {
+                            searchResults.addElement(match.getRecipe().getName());
+                        }
+                        searchStatusLabel.setText(matches.size() + " to cook");
+                        pantryButton.setEnabled(true);
+                    }
+                });
+            }
+        }, "kitchen-pantry");
+        finder.setDaemon(true);
+        finder.start();
+    }
+
+    /**
+     * Finds the recipes that can be cooked from a pantry, building the pantry index if the recipes
+     * changed since it was last built.
+     * @param pantryText The ingredients at hand, separated by commas.
+     * @return The recipes missing at most one ingredient, fewest missing first.
+     */
+    List<PantryIndex.Match> cookableFrom(String pantryText) {
+        PantryIndex index;
+        int version;
+        synchronized (this) {
+            index = pantryIndexVersion == recipesVersion ? pantryIndex : null;
+            version = recipesVersion;
+        }
+        if (index == null) {
+            List<Recipe> all = new ArrayList<>();
+            if (catalog != null) {
+                all.addAll(catalog.getRecipes());
+            }
+            all.addAll(recipes.getRecipes());
+            index = PantryIndex.build(all);
+            synchronized (this) {
+                // Kept only if no recipe was added or imported while it was being built
+                if (version == recipesVersion) {
+                    pantryIndex = index;
+                    pantryIndexVersion = version;
+                }
+            }
+        }
+        List<String> pantry = new ArrayList<>();
+        for (String ingredient : pantryText.split(",")) {
+            if (!ingredient.trim().isEmpty()) {
+                pantry.add(ingredient);
+            }
+        }
+        return index.missingAtMost(pantry, PANTRY_MAX_MISSING, PANTRY_RESULTS);
+    }
+
+    /**
+     * Records that recipes were added or imported, so the next pantry query rebuilds the pantry index.
+     */
+    private synchronized void recipesChanged() {
+        recipesVersion++;
+        pantryIndex = null;
+    }
+
+    /**
+     * Opens the recipe catalog if there is one.
+     * @param path The catalog file, or null.
+     * @return The catalog, or null if there is no file or it cannot be read.
+     */
+    private static RecipeCatalog openCatalog(Path path) {
+        if (path == null || !Files.exists(path)) {
+            return null;
+        }
+        try {
+            return RecipeCatalog.open(path);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Writes the catalog's recipes and the book's recipes to the catalog file and opens the new file.
+     * The catalog this panel has open stays mapped until {@link #switchCatalog} replaces it.
+     * @return The rewritten catalog, or null if the panel has no catalog file.
+     * @throws IOException If the catalog cannot be written or reopened.
+     */
+    private RecipeCatalog saveCatalog() throws IOException {
+        if (catalogPath == null) {
+            return null;
+        }
+        List<Recipe> all = new ArrayList<>();
+        if (catalog != null) {
+            all.addAll(catalog.getRecipes());
+        }
+        all.addAll(recipes.getRecipes());
+        Files.createDirectories(catalogPath.getParent());
+        RecipeCatalog.write(catalogPath, all);
+        return RecipeCatalog.open(catalogPath);
+    }
+
+    /**
+     * Starts showing a rewritten catalog. Every recipe in the book was saved into it, so the book is
+     * emptied, and the old catalog is closed. Runs on the EDT.
+     * @param reopened The catalog that replaces the current one.
+     */
+    private void switchCatalog(RecipeCatalog reopened) {
+        RecipeCatalog old = catalog;
+        catalog = reopened;
+        recipes.clear();
+        search.setCatalog(reopened);
+        if (old != null) {
+            try {
+                old.close();
+            } catch (IOException ex) {
+                // Its recipes were all saved into the new catalog
+            }
+        }
+    }
+
+    /**
+     * Finds a recipe in the book, then in the catalog.
+     * @param recipeName The recipe name.
+     * @return The recipe, or null if there is none by that name.
+     */
+    private Recipe findRecipe(String recipeName) {
+        Recipe recipe = recipes.get(recipeName);
+        if (recipe == null && catalog != null) {
+            recipe = catalog.get(recipeName);
+        }
+        return recipe;
+    }
+
+    /**
+     * Loads a recipe into the text areas for viewing and publishes a recipe-loaded event.
+     * The text comes from the render cache, and the recipes next to it in the list are prefetched.
+     * Unknown names are ignored.
      * @param recipeName The name of the recipe to load.
      */
     public void loadRecipe(String recipeName) {
-        List<String> ingredients = recipes.get(recipeName).get("ingredients");
-        List<String> steps = recipes.get(recipeName).get("steps");
+        RecipeRenderCache.Rendered rendered = renderCache.get(recipeName);
+        if (rendered == null) {
+            return;
+        }
 
-        ingredientsArea.setText("Ingredients:\n" + String.join("\n", ingredients));
-        stepsArea.setText("Steps:\n" + String.join("\n", steps));
+        ingredientsArea.setText(rendered.getIngredientsText());
+        stepsArea.setText(rendered.getStepsText());
+        KitchenEventBus.shared().publish(KitchenEventBus.EventType.RECIPE_LOADED, 0, recipeName, 0);
+        prefetchNeighbours(recipeName);
+    }
+
+    /**
+     * Shows a recipe's ingredients scaled by a factor, such as "30", "3/2" or "1.5". The steps are left
+     * as they are. Unknown names are ignored.
+     * @param recipeName The name of the recipe to scale.
+     * @param factorText The factor to multiply every quantity by.
+     */
+    public void scaleRecipe(String recipeName, String factorText) {
+        Rational factor = Rational.parse(factorText);
+        if (factor == null || factor.getNumerator() == 0) {
+            importStatusLabel.setText("Enter a scale such as 2, 3/2 or 1.5.");
+            return;
+        }
+        Recipe recipe = findRecipe(recipeName);
+        if (recipe == null) {
+            return;
+        }
+        StringBuilder text = new StringBuilder("Ingredients (x ").append(factor).append("):");
+        for (IngredientLine line : new RecipeScaler(factor).scale(recipe)) {
+            text.append('\n').append(line);
+        }
+        ingredientsArea.setText(text.toString());
+        stepsArea.setText("Steps:\n" + String.join("\n", recipe.getSteps()));
+    }
+
+    /**
+     * Asks the render cache to load the recipes next to the given one in the recipe list.
+     * @param recipeName The recipe being shown.
+     */
+    private void prefetchNeighbours(String recipeName) {
+        int index = recipeNames.indexOf(recipeName);
+        if (index < 0) {
+            return;
+        }
+        List<String> neighbours = new ArrayList<>();
+        for (int distance = 1; distance <= PREFETCH_DISTANCE; distance++) {
+            if (index + distance < recipeNames.getSize()) {
+                neighbours.add(recipeNames.getElementAt(index + distance));
+            }
+            if (index - distance >= 0) {
+                neighbours.add(recipeNames.getElementAt(index - distance));
+            }
+        }
+        renderCache.prefetch(neighbours);
+    }
+
+    /**
+     * @return The render cache the panel shows recipes through.
+     */
+    public RecipeRenderCache getRenderCache() {
+        return renderCache;
     }
 
     /**
@@ -215,4 +669,61 @@ public class RecipePanel extends JPanel {
     public JTextArea getStepsArea() {
         return stepsArea;
     }
+
+    /**
+     * RecipeNames is the dropdown's list of recipe names: the catalog's, each read from the catalog when
+     * the list shows it, followed by the names of the recipes in the book.
+     */
+    private static final class RecipeNames extends AbstractListModel<String> implements ComboBoxModel<String> {
+        private final RecipeCatalog catalog;
+        private final List<String> added = new ArrayList<>();
+        private Object selected;
+
+        private RecipeNames(RecipeCatalog catalog, List<String> bookNames) {
+            this.catalog = catalog;
+            this.added.addAll(bookNames);
+            selected = getSize() > 0 ? getElementAt(0) : null;
+        }
+
+        private void addName(String name) {
+            added.add(name);
+            fireIntervalAdded(this, getSize() - 1, getSize() - 1);
+        }
+
+        private int indexOf(String name) {
+            int index = catalog == null ? -1 : catalog.indexOf(name);
+            if (index < 0) {
+                index = added.indexOf(name);
+                if (index >= 0) {
+                    index += catalogSize();
+                }
+            }
+            return index;
+        }
+
+        private int catalogSize() {
+            return catalog == null ? 0 : catalog.size();
+        }
+
+        @Override
+        public int getSize() {
+            return catalogSize() + added.size();
+        }
+
+        @Override
+        public String getElementAt(int index) {
+            return index < catalogSize() ? catalog.getName(index) : added.get(index - catalogSize());
+        }
+
+        @Override
+        public void setSelectedItem(Object item) {
+            selected = item;
+            fireContentsChanged(this, -1, -1);
+        }
+
+        @Override
+        public Object getSelectedItem() {
+            return selected;
+        }
+    }
 }
@@ -1,6 +1,13 @@
 package kitchen;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
 import org.junit.jupiter.api.Test;
 
 /**
@@ -72,4 +79,55 @@ public class RecipePanelTest {
         assertEquals(expectedIngredients.trim(), actualIngredients.trim());
         assertEquals(expectedSteps.trim(), actualSteps.trim());
     }
+
+    /**
+     * Tests that a panel with a catalog file starts from the catalog and loads its recipes.
+     */
+    @Test
+    public void testStartsFromCatalog() throws IOException {
+        RecipeBook book = new RecipeBook();
+        book.add("Toast", Arrays.asList("Bread: 2 slices"), Arrays.asList("Toast the bread."));
+        Path catalog = Files.createTempFile("recipes", ".catalog");
+        catalog.toFile().deleteOnExit();
+        RecipeCatalog.write(catalog, book.getRecipes());
+
+        RecipePanel recipePanel = new RecipePanel(catalog, null);
+        recipePanel.loadRecipe("Toast");
+
+        assertEquals("Ingredients:\nBread: 2 slices", recipePanel.getIngredientsArea().getText());
+        assertEquals("Steps:\nToast the bread.", recipePanel.getStepsArea().getText());
+    }
+
+    /**
+     * Tests that recipes in the edit log are back when a panel is created again.
+     */
+    @Test
+    public void testRestoresRecipesFromEditLog() throws IOException {
+        Path directory = Files.createTempDirectory("recipes");
+        RecipeEditLog log = RecipeEditLog.open(directory.resolve("recipes.log"));
+        log.recipeAdded("Grandma's Soup");
+        log.close();
+
+        RecipeEditLog reopened = RecipeEditLog.open(directory.resolve("recipes.log"));
+        RecipePanel recipePanel = new RecipePanel(directory.resolve("recipes.catalog"), reopened);
+        recipePanel.loadRecipe("Grandma's Soup");
+        reopened.close();
+
+        assertEquals("Ingredients:", recipePanel.getIngredientsArea().getText());
+    }
+
+    /**
+     * Tests that the pantry finds the recipes that can be made from what is at hand, fewest missing first.
+     */
+    @Test
+    public void testFindsRecipesInThePantry() {
+        RecipePanel recipePanel = new RecipePanel();
+
+        List<PantryIndex.Match> matches = recipePanel.cookableFrom("eggs, Milk, Salt, Pepper, Cheese, , Ham");
+
+        assertEquals("[Omelette (missing 0)]", matches.toString());
+        matches = recipePanel.cookableFrom("Flour, Milk, Egg, Baking powder, Salt");
+        assertEquals("[Pancakes (missing 1)]", matches.toString());
+        assertEquals(Arrays.asList("Butter"), matches.get(0).getMissingIngredients());
+    }
 }
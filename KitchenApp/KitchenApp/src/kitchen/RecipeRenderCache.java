@@ -0,0 +1,301 @@
+package kitchen;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * RecipeRenderCache class keeps recently shown recipes ready to display: the decoded {@link Recipe} and
+ * its ingredient and step text, already rendered. The cache is bounded by the number of characters it
+ * holds and evicts the least recently used recipe first. A recipe that is not cached is loaded through
+ * the {@link Loader}, such as one that decodes it from a {@link RecipeCatalog}, on the thread that asks
+ * for it.
+ *
+ * {@link #prefetch(Collection)} loads recipes on a background thread before they are asked for, such
+ * as the neighbours of the recipe being shown. Only the latest few prefetch requests are kept; older
+ * ones are dropped when the user moves faster than they load. Hits, misses, evictions and prefetches
+ * are counted for sizing the cache; {@link #dump()} reports them.
+ */
+public class RecipeRenderCache {
+    // A rough per-entry charge for the objects around the text, in characters
+    private static final int ENTRY_OVERHEAD = 256;
+    private static final int PREFETCH_QUEUE = 16;
+
+    private final Loader loader;
+    private final long capacity;
+    private final LinkedHashMap<String, Rendered> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final ThreadPoolExecutor prefetcher;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong prefetches = new AtomicLong();
+    private long weight;
+    // Bumped by every invalidation, so a load that started before one is not cached
+    private long generation;
+
+    /**
+     * Constructs a RecipeRenderCache.
+     *
+     * @param loader   loads recipes that are not cached
+     * @param capacity the most characters of rendered text, plus a small charge per recipe, to keep
+     */
+    public RecipeRenderCache(Loader loader, long capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Cache capacity must be positive");
+        }
+        this.loader = loader;
+        this.capacity = capacity;
+        this.prefetcher = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<Runnable>(PREFETCH_QUEUE), new ThreadFactory() {
+                    @Override
+                    public Thread newThread(Runnable runnable) {
+                        Thread thread = new Thread(runnable, "kitchen-recipe-prefetch");
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                }, new ThreadPoolExecutor.DiscardOldestPolicy());
+    }
+
+    /**
+     * Returns a recipe ready to display, loading and rendering it if it is not cached.
+     *
+     * @param name the recipe name
+     * @return the rendered recipe, or null if the loader has no recipe by that name
+     */
+    public Rendered get(String name) {
+        synchronized (this) {
+            Rendered rendered = entries.get(name);
+            if (rendered != null) {
+                hits.incrementAndGet();
+                return rendered;
+            }
+        }
+        misses.incrementAndGet();
+        return load(name);
+    }
+
+    /**
+     * Loads the given recipes in the background if they are not cached. Loading them does not count as
+     * hits or misses.
+     *
+     * @param names the recipes likely to be asked for next
+     */
+    public void prefetch(Collection<String> names) {
+        for (final String name : names) {
+            prefetcher.execute(new Runnable() {
+                @Override
+                public void run() {
+                    synchronized (RecipeRenderCache.this) {
+                        if (entries.containsKey(name)) {
+                            return;
+                        }
+                    }
+                    if (load(name) != null) {
+                        prefetches.incrementAndGet();
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Drops a recipe, after it was changed or replaced.
+     *
+     * @param name the recipe name
+     */
+    public synchronized void invalidate(String name) {
+        generation++;
+        Rendered rendered = entries.remove(name);
+        if (rendered != null) {
+            weight -= rendered.weight;
+        }
+    }
+
+    /**
+     * Drops every recipe, after many were changed at once.
+     */
+    public synchronized void invalidateAll() {
+        generation++;
+        entries.clear();
+        weight = 0;
+    }
+
+    /**
+     * Stops the prefetch thread.
+     */
+    public void shutdown() {
+        prefetcher.shutdownNow();
+    }
+
+    private Rendered load(String name) {
+        long loadGeneration;
+        synchronized (this) {
+            loadGeneration = generation;
+        }
+        // Loaded outside the lock; if two threads race, the later copy replaces the earlier one
+        Recipe recipe = loader.load(name);
+        if (recipe == null) {
+            return null;
+        }
+        Rendered rendered = new Rendered(recipe);
+        synchronized (this) {
+            if (loadGeneration != generation) {
+                return rendered;
+            }
+            Rendered previous = entries.put(name, rendered);
+            if (previous != null) {
+                weight -= previous.weight;
+            }
+            weight += rendered.weight;
+            Iterator<Map.Entry<String, Rendered>> eldest = entries.entrySet().iterator();
+            while (weight > capacity && eldest.hasNext()) {
+                Rendered evicted = eldest.next().getValue();
+                if (evicted == rendered) {
+                    // A recipe bigger than the whole cache is handed out but not kept
+                    eldest.remove();
+                    weight -= evicted.weight;
+                    break;
+                }
+                eldest.remove();
+                weight -= evicted.weight;
+                evictions.incrementAndGet();
+            }
+        }
+        return rendered;
+    }
+
+    /**
+     * Returns how many lookups found their recipe cached.
+     *
+     * @return the hit count
+     */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * Returns how many lookups had to load their recipe.
+     *
+     * @return the miss count
+     */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * Returns how many recipes were evicted to stay within the capacity.
+     *
+     * @return the eviction count
+     */
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    /**
+     * Returns how many recipes were loaded by prefetching.
+     *
+     * @return the prefetch count
+     */
+    public long getPrefetches() {
+        return prefetches.get();
+    }
+
+    /**
+     * Returns the number of cached recipes.
+     *
+     * @return the entry count
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Returns how much of the capacity the cached recipes use.
+     *
+     * @return the weight in characters
+     */
+    public synchronized long getWeight() {
+        return weight;
+    }
+
+    /**
+     * Returns a human-readable report of the counters.
+     *
+     * @return the report
+     */
+    public String dump() {
+        long lookups = getHits() + getMisses();
+        return String.format(Locale.ROOT, "render cache: entries=%d weight=%d/%d hits=%d misses=%d "
+                        + "hit rate=%.1f%% evictions=%d prefetches=%d%n",
+                size(), getWeight(), capacity, getHits(), getMisses(),
+                lookups == 0 ? 0.0 : getHits() * 100.0 / lookups, getEvictions(), getPrefetches());
+    }
+
+    /**
+     * Rendered is one recipe with its display text.
+     */
+    public static final class Rendered {
+        private final Recipe recipe;
+        private final String ingredientsText;
+        private final String stepsText;
+        private final long weight;
+
+        private Rendered(Recipe recipe) {
+            this.recipe = recipe;
+            StringBuilder ingredients = new StringBuilder("Ingredients:");
+            for (int i = 0; i < recipe.getIngredientCount(); i++) {
+                ingredients.append('\n').append(recipe.getIngredient(i));
+            }
+            this.ingredientsText = ingredients.toString();
+            this.stepsText = "Steps:\n" + String.join("\n", recipe.getSteps());
+            this.weight = ENTRY_OVERHEAD + ingredientsText.length() + stepsText.length();
+        }
+
+        /**
+         * Returns the recipe.
+         *
+         * @return the recipe
+         */
+        public Recipe getRecipe() {
+            return recipe;
+        }
+
+        /**
+         * Returns the ingredient list as displayed, starting with an "Ingredients:" line.
+         *
+         * @return the ingredients text
+         */
+        public String getIngredientsText() {
+            return ingredientsText;
+        }
+
+        /**
+         * Returns the steps as displayed, starting with a "Steps:" line.
+         *
+         * @return the steps text
+         */
+        public String getStepsText() {
+            return stepsText;
+        }
+    }
+
+    /**
+     * Loader finds recipes the cache does not hold.
+     */
+    public interface Loader {
+        /**
+         * Loads a recipe. Called on the thread that asked for it or on the prefetch thread.
+         *
+         * @param name the recipe name
+         * @return the recipe, or null if there is none by that name
+         */
+        Recipe load(String name);
+    }
+}
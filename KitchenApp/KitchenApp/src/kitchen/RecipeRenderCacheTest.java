@@ -0,0 +1,116 @@
+package kitchen;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * This test suite contains tests for the recipe render cache.
+ */
+public class RecipeRenderCacheTest {
+
+    /**
+     * Loads recipes from a book and records every name it was asked for.
+     */
+    private static final class CountingLoader implements RecipeRenderCache.Loader {
+        private final RecipeBook book;
+        private final List<String> loads = new CopyOnWriteArrayList<>();
+
+        private CountingLoader(RecipeBook book) {
+            this.book = book;
+        }
+
+        @Override
+        public Recipe load(String name) {
+            loads.add(name);
+            return book.get(name);
+        }
+    }
+
+    private static RecipeBook book(int count) {
+        RecipeBook book = new RecipeBook();
+        for (int i = 0; i < count; i++) {
+            book.add("Recipe " + i, Arrays.asList("Flour: " + i + " cups", "Egg"), Arrays.asList("Mix.", "Bake."));
+        }
+        return book;
+    }
+
+    @Test
+    public void testRendersOnceAndCountsHitsAndMisses() {
+        CountingLoader loader = new CountingLoader(book(3));
+        RecipeRenderCache cache = new RecipeRenderCache(loader, 1 << 20);
+
+        RecipeRenderCache.Rendered first = cache.get("Recipe 1");
+        assertEquals("Ingredients:\nFlour: 1 cups\nEgg", first.getIngredientsText());
+        assertEquals("Steps:\nMix.\nBake.", first.getStepsText());
+        assertSame(first, cache.get("Recipe 1"));
+        assertNull(cache.get("Omelette"));
+
+        assertEquals(Arrays.asList("Recipe 1", "Omelette"), loader.loads);
+        assertEquals(1, cache.getHits());
+        assertEquals(2, cache.getMisses());
+        assertEquals(1, cache.size());
+        assertTrue(cache.dump().contains("hits=1 misses=2"), cache.dump());
+        cache.shutdown();
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsedToStayWithinCapacity() {
+        CountingLoader loader = new CountingLoader(book(10));
+        RecipeRenderCache probe = new RecipeRenderCache(loader, 1 << 20);
+        long entryWeight = probe.get("Recipe 0").getIngredientsText().length()
+                + probe.get("Recipe 0").getStepsText().length() + 256;
+        probe.shutdown();
+
+        RecipeRenderCache cache = new RecipeRenderCache(loader, entryWeight * 3);
+        cache.get("Recipe 1");
+        cache.get("Recipe 2");
+        cache.get("Recipe 3");
+        cache.get("Recipe 1");
+        cache.get("Recipe 4");
+
+        assertEquals(1, cache.getEvictions());
+        assertEquals(3, cache.size());
+        assertTrue(cache.getWeight() <= entryWeight * 3);
+        loader.loads.clear();
+        cache.get("Recipe 1");
+        cache.get("Recipe 3");
+        cache.get("Recipe 4");
+        assertEquals(Collections.<String>emptyList(), loader.loads);
+        cache.get("Recipe 2");
+        assertEquals(Collections.singletonList("Recipe 2"), loader.loads);
+
+        cache.invalidate("Recipe 2");
+        cache.invalidateAll();
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getWeight());
+        cache.shutdown();
+    }
+
+    @Test
+    public void testPrefetchLoadsInTheBackground() throws InterruptedException {
+        CountingLoader loader = new CountingLoader(book(5));
+        RecipeRenderCache cache = new RecipeRenderCache(loader, 1 << 20);
+        List<String> neighbours = new ArrayList<>(Arrays.asList("Recipe 2", "Recipe 3", "Missing"));
+        cache.prefetch(neighbours);
+        for (int i = 0; i < 500 && cache.getPrefetches() < 2; i++) {
+            Thread.sleep(10);
+        }
+
+        assertEquals(2, cache.getPrefetches());
+        cache.get("Recipe 2");
+        cache.get("Recipe 3");
+        assertEquals(2, cache.getHits());
+        assertEquals(0, cache.getMisses());
+        cache.shutdown();
+    }
+}
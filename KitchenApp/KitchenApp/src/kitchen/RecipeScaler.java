@@ -0,0 +1,375 @@
+package kitchen;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * RecipeScaler class scales recipes by a fixed factor, such as from 4 to 120 servings. Quantities are
+ * scaled as exact {@link Rational}s and the result is renormalized to a sensible unit of the same kind:
+ * 15 teaspoons become 5 tablespoons and 6000 g become 6 kg, using the rates of the
+ * {@link UnitConverterPanel}. Volumes never turn into weights, since that would need each ingredient's
+ * density. Lines without a quantity, such as "Salt: a pinch", are left as they are.
+ *
+ * A recipe's quantities and units are ids into its book's dictionaries, so each distinct quantity and
+ * unit is parsed once per book, and each distinct quantity and unit pair is scaled once per scaler.
+ * {@link #scaleAll(Collection)} scales a whole catalog into a new book by mapping ids to ids, without
+ * building any text for lines whose measure it has seen before.
+ */
+public final class RecipeScaler {
+    private final Rational factor;
+    private final Map<RecipeBook, BookScaling> books = new IdentityHashMap<>();
+
+    /**
+     * Constructs a RecipeScaler.
+     *
+     * @param factor what every quantity is multiplied by
+     */
+    public RecipeScaler(Rational factor) {
+        this.factor = factor;
+    }
+
+    /**
+     * Constructs a RecipeScaler that turns a recipe for one number of servings into one for another.
+     *
+     * @param from the servings the recipes are written for
+     * @param to   the servings wanted
+     * @return the scaler
+     */
+    public static RecipeScaler forServings(int from, int to) {
+        if (from <= 0 || to <= 0) {
+            throw new IllegalArgumentException("Servings must be positive");
+        }
+        return new RecipeScaler(Rational.of(to, from));
+    }
+
+    /**
+     * Returns the factor quantities are multiplied by.
+     *
+     * @return the factor
+     */
+    public Rational getFactor() {
+        return factor;
+    }
+
+    /**
+     * Scales one ingredient line.
+     *
+     * @param line the line
+     * @return the scaled line
+     */
+    public IngredientLine scale(IngredientLine line) {
+        Measure measure = scale(Rational.parse(line.getQuantity()), Unit.lookup(line.getUnit()), line.getQuantity(),
+                line.getUnit(), line.isUnitAttached());
+        return new IngredientLine(line.getName(), measure.quantity, measure.unit, measure.attached);
+    }
+
+    /**
+     * Scales the ingredient lines of a recipe.
+     *
+     * @param recipe the recipe
+     * @return the scaled lines, in recipe order
+     */
+    public List<IngredientLine> scale(Recipe recipe) {
+        BookScaling scaling = scalingFor(recipe.getBook());
+        List<IngredientLine> lines = new ArrayList<>(recipe.getIngredientCount());
+        for (int i = 0; i < recipe.getIngredientCount(); i++) {
+            Measure measure = scaling.measure(recipe.getQuantityId(i), recipe.getUnitField(i));
+            String name = recipe.getBook().getIngredientNames().get(recipe.getIngredientNameId(i));
+            lines.add(new IngredientLine(name, measure.quantity, measure.unit, measure.attached));
+        }
+        return lines;
+    }
+
+    /**
+     * Scales every recipe into a new book, keeping names and steps. Of two recipes with the same name,
+     * the later one is kept.
+     *
+     * @param recipes the recipes to scale
+     * @return a book holding the scaled recipes, in the given order
+     */
+    public RecipeBook scaleAll(Collection<Recipe> recipes) {
+        RecipeBook scaled = new RecipeBook();
+        RecipeBook source = null;
+        BookScaling scaling = null;
+        int[] names = new int[0];
+        Map<Long, Long> measures = new HashMap<>();
+        synchronized (scaled) {
+            for (Recipe recipe : recipes) {
+                if (recipe.getBook() != source) {
+                    source = recipe.getBook();
+                    scaling = scalingFor(source);
+                    names = new int[0];
+                    measures.clear();
+                }
+                int[] packed = new int[recipe.getIngredientCount() * 3];
+                for (int i = 0; i < recipe.getIngredientCount(); i++) {
+                    int nameId = recipe.getIngredientNameId(i);
+                    if (nameId >= names.length) {
+                        int old = names.length;
+                        names = Arrays.copyOf(names, Math.max(nameId + 1, old * 2));
+                        Arrays.fill(names, old, names.length, -1);
+                    }
+                    if (names[nameId] < 0) {
+                        names[nameId] = scaled.getIngredientNames().intern(source.getIngredientNames().get(nameId));
+                    }
+                    // Quantity id and unit field of the scaled measure, looked up by those of the original
+                    long key = (long) recipe.getQuantityId(i) << 32 | recipe.getUnitField(i);
+                    Long target = measures.get(key);
+                    if (target == null) {
+                        Measure measure = scaling.measure(recipe.getQuantityId(i), recipe.getUnitField(i));
+                        target = (long) scaled.getQuantities().intern(measure.quantity) << 32
+                                | scaled.getUnits().intern(measure.unit) << 1 | (measure.attached ? 1 : 0);
+                        measures.put(key, target);
+                    }
+                    packed[i * 3] = names[nameId];
+                    packed[i * 3 + 1] = (int) (target >>> 32);
+                    packed[i * 3 + 2] = (int) (long) target;
+                }
+                scaled.put(recipe.withIngredients(scaled, packed));
+            }
+        }
+        return scaled;
+    }
+
+    private synchronized BookScaling scalingFor(RecipeBook book) {
+        BookScaling scaling = books.get(book);
+        if (scaling == null) {
+            scaling = new BookScaling(book);
+            books.put(book, scaling);
+        }
+        return scaling;
+    }
+
+    private Measure scale(Rational quantity, Unit unit, String quantityText, String unitText, boolean attached) {
+        if (quantity == null) {
+            return new Measure(quantityText, unitText, attached);
+        }
+        try {
+            return scale(quantity.times(factor), unit, unitText, attached);
+        } catch (ArithmeticException e) {
+            // Too large to scale exactly; left as written rather than rounded
+            return new Measure(quantityText, unitText, attached);
+        }
+    }
+
+    private Measure scale(Rational scaled, Unit unit, String unitText, boolean attached) {
+        if (unit == null) {
+            return new Measure(format(scaled, false), unitText, attached);
+        }
+        // Everything in the family's smallest unit, then the largest unit that reads well
+        Rational base = scaled.times(unit.base);
+        Unit best = null;
+        Unit fallback = null;
+        for (Unit candidate : Unit.values()) {
+            if (candidate.family != unit.family) {
+                continue;
+            }
+            Rational value = base.dividedBy(candidate.base);
+            if (value.compareTo(Rational.ONE) >= 0) {
+                fallback = candidate;
+            }
+            if (candidate.readsWell(value)) {
+                best = candidate;
+            }
+        }
+        if (best == null) {
+            best = fallback != null ? fallback : unit.family.smallest();
+        }
+        Rational value = base.dividedBy(best.base);
+        String name = value.compareTo(Rational.ONE) > 0 ? best.plural : best.singular;
+        return new Measure(format(value, best.family.metric), name, attached && best.singular.equals(best.plural));
+    }
+
+    private static String format(Rational value, boolean metric) {
+        long denominator = value.getDenominator();
+        if (!metric && (denominator == 2 || denominator == 3 || denominator == 4 || denominator == 8
+                || denominator == 1)) {
+            return value.toString();
+        }
+        String decimal = value.toDecimalString(2);
+        return decimal.equals("0") ? value.toString() : decimal;
+    }
+
+    /**
+     * BookScaling parses one book's quantities and units once each, and remembers every measure it scaled.
+     */
+    private final class BookScaling {
+        private final RecipeBook book;
+        private final Map<Long, Measure> measures = new HashMap<>();
+        private Rational[] quantities = new Rational[0];
+        private boolean[] quantityParsed = new boolean[0];
+        private Unit[] units = new Unit[0];
+        private boolean[] unitParsed = new boolean[0];
+
+        private BookScaling(RecipeBook book) {
+            this.book = book;
+        }
+
+        private synchronized Measure measure(int quantityId, int unitField) {
+            long key = (long) quantityId << 32 | unitField;
+            Measure measure = measures.get(key);
+            if (measure == null) {
+                int unitId = unitField >>> 1;
+                measure = scale(quantity(quantityId), unit(unitId), book.getQuantities().get(quantityId),
+                        book.getUnits().get(unitId), (unitField & 1) != 0);
+                measures.put(key, measure);
+            }
+            return measure;
+        }
+
+        private Rational quantity(int id) {
+            if (id >= quantities.length) {
+                quantities = Arrays.copyOf(quantities, Math.max(id + 1, quantities.length * 2));
+                quantityParsed = Arrays.copyOf(quantityParsed, quantities.length);
+            }
+            if (!quantityParsed[id]) {
+                quantities[id] = Rational.parse(book.getQuantities().get(id));
+                quantityParsed[id] = true;
+            }
+            return quantities[id];
+        }
+
+        private Unit unit(int id) {
+            if (id >= units.length) {
+                units = Arrays.copyOf(units, Math.max(id + 1, units.length * 2));
+                unitParsed = Arrays.copyOf(unitParsed, units.length);
+            }
+            if (!unitParsed[id]) {
+                units[id] = Unit.lookup(book.getUnits().get(id));
+                unitParsed[id] = true;
+            }
+            return units[id];
+        }
+    }
+
+    /**
+     * Measure is a scaled quantity and unit, as text.
+     */
+    private static final class Measure {
+        private final String quantity;
+        private final String unit;
+        private final boolean attached;
+
+        private Measure(String quantity, String unit, boolean attached) {
+            this.quantity = quantity;
+            this.unit = unit;
+            this.attached = attached;
+        }
+    }
+
+    /**
+     * Family groups the units that convert into each other without knowing the ingredient.
+     */
+    private enum Family {
+        US_VOLUME(false), METRIC_VOLUME(true), METRIC_WEIGHT(true), IMPERIAL_WEIGHT(false);
+
+        private final boolean metric;
+
+        Family(boolean metric) {
+            this.metric = metric;
+        }
+
+        private Unit smallest() {
+            for (Unit unit : Unit.values()) {
+                if (unit.family == this) {
+                    return unit;
+                }
+            }
+            throw new IllegalStateException("No unit in " + this);
+        }
+    }
+
+    /**
+     * Fractions lists the denominators each kind of unit is measured in.
+     */
+    private static final class Fractions {
+        private static final long[] HALVES = {1, 2};
+        private static final long[] QUARTERS = {1, 2, 4};
+        private static final long[] EIGHTHS = {1, 2, 4, 8};
+        private static final long[] CUPS = {1, 2, 3, 4, 8};
+        private static final long[] HUNDREDTHS = {1, 2, 4, 5, 10, 20, 25, 50, 100};
+    }
+
+    /**
+     * Unit is a unit the converter knows, listed smallest first within each family.
+     */
+    private enum Unit {
+        TEASPOON("teaspoon", "teaspoon", "teaspoons", Family.US_VOLUME, Fractions.EIGHTHS, "tsp", "tsps"),
+        TABLESPOON("tablespoon", "tablespoon", "tablespoons", Family.US_VOLUME, Fractions.HALVES, "tbsp", "tbsps",
+                "tbs"),
+        CUP("cup", "cup", "cups", Family.US_VOLUME, Fractions.CUPS),
+        QUART("qt", "quart", "quarts", Family.US_VOLUME, Fractions.QUARTERS, "qts"),
+        MILLILITER("ml", "ml", "ml", Family.METRIC_VOLUME, Fractions.HUNDREDTHS, "milliliter", "milliliters",
+                "millilitre", "millilitres"),
+        LITER("l", "l", "l", Family.METRIC_VOLUME, Fractions.HUNDREDTHS, "liter", "liters", "litre", "litres"),
+        MILLIGRAM("mg", "mg", "mg", Family.METRIC_WEIGHT, Fractions.HUNDREDTHS, "milligram", "milligrams"),
+        GRAM("g", "g", "g", Family.METRIC_WEIGHT, Fractions.HUNDREDTHS, "gram", "grams"),
+        KILOGRAM("kg", "kg", "kg", Family.METRIC_WEIGHT, Fractions.HUNDREDTHS, "kilogram", "kilograms", "kilo",
+                "kilos"),
+        OUNCE("oz", "oz", "oz", Family.IMPERIAL_WEIGHT, Fractions.QUARTERS, "ounce", "ounces"),
+        POUND("lb", "lb", "lb", Family.IMPERIAL_WEIGHT, Fractions.QUARTERS, "lbs", "pound", "pounds");
+
+        private static final Rational QUARTER_CUP = Rational.of(1, 4);
+        private static final Map<String, Unit> NAMES = new HashMap<>();
+
+        static {
+            for (Unit unit : values()) {
+                NAMES.put(unit.converterName, unit);
+                NAMES.put(unit.singular, unit);
+                NAMES.put(unit.plural, unit);
+                for (String alias : unit.aliases) {
+                    NAMES.put(alias, unit);
+                }
+                // The converter's rates from a unit down to the smallest of its family are whole numbers
+                double rate = UnitConverterPanel.getConversionRate(unit.converterName,
+                        unit.family.smallest().converterName);
+                unit.base = Rational.of(Math.round(rate), 1);
+            }
+        }
+
+        private final String converterName;
+        private final String singular;
+        private final String plural;
+        private final Family family;
+        private final long[] denominators;
+        private final String[] aliases;
+        private Rational base;
+
+        Unit(String converterName, String singular, String plural, Family family, long[] denominators,
+                String... aliases) {
+            this.converterName = converterName;
+            this.singular = singular;
+            this.plural = plural;
+            this.family = family;
+            this.denominators = denominators;
+            this.aliases = aliases;
+        }
+
+        private static Unit lookup(String text) {
+            String name = text.trim().toLowerCase(Locale.ROOT);
+            if (name.endsWith(".")) {
+                name = name.substring(0, name.length() - 1);
+            }
+            return NAMES.get(name);
+        }
+
+        /**
+         * Returns whether a value in this unit is one a cook would write: at least one unit, or a quarter
+         * cup or more, in fractions the unit is measured in, such as 1 1/2 tablespoons or 2.25 kg.
+         */
+        private boolean readsWell(Rational value) {
+            boolean measured = false;
+            for (long denominator : denominators) {
+                measured |= denominator == value.getDenominator();
+            }
+            Rational least = this == CUP ? QUARTER_CUP : Rational.ONE;
+            return measured && value.compareTo(least) >= 0;
+        }
+    }
+}
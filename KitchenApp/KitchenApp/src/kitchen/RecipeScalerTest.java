@@ -0,0 +1,76 @@
+package kitchen;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * This test suite contains tests for exact quantities and for scaling recipes with them.
+ */
+public class RecipeScalerTest {
+
+    private static List<String> lines(List<IngredientLine> ingredients) {
+        List<String> lines = new ArrayList<>();
+        for (IngredientLine line : ingredients) {
+            lines.add(line.toString());
+        }
+        return lines;
+    }
+
+    @Test
+    public void testRationalParsesAndFormatsQuantities() {
+        assertEquals(Rational.of(1, 2), Rational.parse("1/2"));
+        assertEquals(Rational.of(3, 2), Rational.parse("1 1/2"));
+        assertEquals(Rational.of(3, 2), Rational.parse("1.5"));
+        assertEquals(Rational.of(2, 1), Rational.parse(" 2 "));
+        assertNull(Rational.parse("a pinch"));
+        assertNull(Rational.parse("1/0"));
+        assertEquals("1 1/2", Rational.of(6, 4).toString());
+        assertEquals("1/3", Rational.of(2, 6).toString());
+        assertEquals("0.33", Rational.of(1, 3).toDecimalString(2));
+        assertEquals("2.5", Rational.of(5, 2).toDecimalString(2));
+        assertEquals(Rational.ONE, Rational.of(1, 3).times(Rational.of(3, 1)));
+    }
+
+    @Test
+    public void testScalesIntoSensibleUnits() {
+        RecipeBook book = new RecipeBook();
+        Recipe recipe = book.add("Soup", Arrays.asList("Salt: 1/2 teaspoon", "Stock: 2 cups", "Beef: 200g",
+                "Butter: 8 oz", "Oil: 3 Tbsp", "Eggs: 2", "Pepper: a pinch", "Bay leaf"), Arrays.asList("Simmer."));
+
+        assertEquals(Arrays.asList("Salt: 5 tablespoons", "Stock: 15 quarts", "Beef: 6kg", "Butter: 15 lb",
+                "Oil: 5 5/8 cups", "Eggs: 60", "Pepper: a pinch", "Bay leaf"),
+                lines(RecipeScaler.forServings(4, 120).scale(recipe)));
+        assertEquals(Arrays.asList("Salt: 1/4 teaspoon", "Stock: 1 cup", "Beef: 100g", "Butter: 4 oz",
+                "Oil: 1 1/2 tablespoons", "Eggs: 1", "Pepper: a pinch", "Bay leaf"),
+                lines(new RecipeScaler(Rational.of(1, 2)).scale(recipe)));
+        assertEquals(Arrays.asList("Salt: 3/4 teaspoon", "Stock: 3 cups", "Beef: 300g", "Butter: 12 oz",
+                "Oil: 4 1/2 tablespoons", "Eggs: 3", "Pepper: a pinch", "Bay leaf"),
+                lines(new RecipeScaler(Rational.parse("1.5")).scale(recipe)));
+    }
+
+    @Test
+    public void testScaleAllKeepsNamesStepsAndOrder() {
+        RecipeBook book = new RecipeBook();
+        book.add("Toast", Arrays.asList("Bread: 2 slices", "Butter: 1 tablespoon"), Arrays.asList("Toast."));
+        book.add("Tea", Arrays.asList("Water: 250 ml", "Tea: 1 teaspoon"), Arrays.asList("Steep."));
+        book.add("Porridge", Arrays.asList("Oats: 1/2 cup", "Water: 250 ml"), Arrays.asList("Stir.", "Serve."));
+
+        RecipeBook scaled = new RecipeScaler(Rational.of(4, 1)).scaleAll(book.getRecipes());
+
+        assertEquals(Arrays.asList("Toast", "Tea", "Porridge"), scaled.getNames());
+        assertEquals(Arrays.asList("Bread: 8 slices", "Butter: 1/4 cup"), lines(scaled.get("Toast").getIngredients()));
+        assertEquals(Arrays.asList("Water: 1 l", "Tea: 4 teaspoons"), lines(scaled.get("Tea").getIngredients()));
+        assertEquals(Arrays.asList("Oats: 2 cups", "Water: 1 l"), lines(scaled.get("Porridge").getIngredients()));
+        assertEquals(Arrays.asList("Stir.", "Serve."), scaled.get("Porridge").getSteps());
+        assertSame(scaled, scaled.get("Tea").getBook());
+        assertEquals(3, book.size());
+        assertEquals(Arrays.asList("Water: 250 ml", "Tea: 1 teaspoon"), lines(book.get("Tea").getIngredients()));
+    }
+}
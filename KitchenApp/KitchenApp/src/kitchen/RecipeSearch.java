@@ -0,0 +1,259 @@
+package kitchen;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * RecipeSearch class runs search-as-you-type queries against a {@link RecipeIndex} on a background
+ * thread. Each call to {@link #setQuery} supersedes the previous query: a keystroke after a quiet spell
+ * runs at once, while a burst of keystrokes is debounced so only the latest text is searched. A query
+ * that has been superseded stops at its next step, and results from it are never delivered.
+ *
+ * Results are streamed: the first page as soon as it is ranked, then the rest in chunks. Callbacks run
+ * on the executor given at construction, such as one that hands them to the event dispatch thread.
+ * A search can also cover a {@link RecipeCatalog}. The catalog is indexed once, by catalog number, and
+ * only the hits a listener looks at are decoded. The book has its own small index, which
+ * {@link #reindex()} rebuilds without touching the catalog's; a query searches both and merges them.
+ * {@link #setCatalog} swaps in a rewritten catalog and rebuilds both indexes.
+ */
+public class RecipeSearch {
+    private static final long DEBOUNCE_NANOS = TimeUnit.MILLISECONDS.toNanos(40);
+    private static final int FIRST_PAGE = 20;
+    private static final int CHUNK = 100;
+    private static final int MAX_RESULTS = 1000;
+
+    private final RecipeBook book;
+    private final ResultListener listener;
+    private final Executor deliveryExecutor;
+    private final ScheduledExecutorService worker;
+    private final AtomicLong generation = new AtomicLong();
+    private volatile RecipeIndex catalogIndex;
+    private volatile RecipeIndex bookIndex;
+    private ScheduledFuture<?> pendingQuery;
+    private long lastStartNanos;
+
+    /**
+     * Constructs a RecipeSearch over a recipe book and starts indexing it in the background.
+     *
+     * @param book             the recipes to search
+     * @param listener         the listener that receives results
+     * @param deliveryExecutor the executor the listener's callbacks run on
+     */
+    public RecipeSearch(RecipeBook book, ResultListener listener, Executor deliveryExecutor) {
+        this(book, null, listener, deliveryExecutor);
+    }
+
+    /**
+     * Constructs a RecipeSearch over a catalog and a recipe book and starts indexing them in the
+     * background. A recipe in the book hides the catalog's recipe with the same name.
+     *
+     * @param book             the recipes to search
+     * @param catalog          the catalog to search as well, or null
+     * @param listener         the listener that receives results
+     * @param deliveryExecutor the executor the listener's callbacks run on
+     */
+    public RecipeSearch(RecipeBook book, RecipeCatalog catalog, ResultListener listener,
+                        Executor deliveryExecutor) {
+        this.book = book;
+        this.listener = listener;
+        this.deliveryExecutor = deliveryExecutor;
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "kitchen-recipe-search");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        executor.setRemoveOnCancelPolicy(true);
+        this.worker = executor;
+        setCatalog(catalog);
+    }
+
+    /**
+     * Switches to another catalog, such as the catalog file rewritten after an import, and rebuilds both
+     * indexes in the background, since recipes may have moved from the book into the catalog. Queries
+     * submitted afterwards see the new indexes.
+     *
+     * @param catalog the catalog to search, or null to search the book only
+     */
+    public void setCatalog(final RecipeCatalog catalog) {
+        worker.execute(new Runnable() {
+            @Override
+            public void run() {
+                catalogIndex = catalog == null ? null : RecipeIndex.build(catalog);
+                bookIndex = RecipeIndex.build(book.getRecipes());
+            }
+        });
+    }
+
+    /**
+     * Rebuilds the book's index in the background, after recipes were added to the book or changed.
+     * The catalog's index is kept. Queries submitted afterwards see the new index.
+     */
+    public void reindex() {
+        worker.execute(new Runnable() {
+            @Override
+            public void run() {
+                bookIndex = RecipeIndex.build(book.getRecipes());
+            }
+        });
+    }
+
+    /**
+     * Searches for the given text, superseding any query still pending or running. An empty text
+     * clears the results.
+     *
+     * @param text the query text
+     */
+    public synchronized void setQuery(final String text) {
+        final long query = generation.incrementAndGet();
+        if (pendingQuery != null) {
+            pendingQuery.cancel(false);
+        }
+        long delay = lastStartNanos + DEBOUNCE_NANOS - System.nanoTime();
+        pendingQuery = worker.schedule(new Runnable() {
+            @Override
+            public void run() {
+                runQuery(query, text);
+            }
+        }, Math.max(0, delay), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Stops the background thread.
+     */
+    public void shutdown() {
+        generation.incrementAndGet();
+        worker.shutdownNow();
+    }
+
+    private void runQuery(final long query, final String text) {
+        synchronized (this) {
+            lastStartNanos = System.nanoTime();
+        }
+        if (isStale(query)) {
+            return;
+        }
+        deliver(query, new Runnable() {
+            @Override
+            public void run() {
+                listener.resultsStarted(text);
+            }
+        });
+        List<RecipeIndex.Hit> hits = search(text, FIRST_PAGE);
+        deliverChunk(query, text, hits);
+        int total = hits.size();
+        if (total == FIRST_PAGE && !isStale(query)) {
+            List<RecipeIndex.Hit> all = search(text, MAX_RESULTS);
+            for (int from = FIRST_PAGE; from < all.size() && !isStale(query); from += CHUNK) {
+                deliverChunk(query, text, new ArrayList<>(all.subList(from, Math.min(all.size(), from + CHUNK))));
+            }
+            total = all.size();
+        }
+        final int found = total;
+        deliver(query, new Runnable() {
+            @Override
+            public void run() {
+                listener.resultsFinished(text, found);
+            }
+        });
+    }
+
+    /**
+     * Searches the book's index and the catalog's and merges their hits, best first. A catalog recipe
+     * that the book has a recipe of the same name for is left out.
+     */
+    private List<RecipeIndex.Hit> search(String text, int limit) {
+        List<RecipeIndex.Hit> bookHits = bookIndex.search(text, limit);
+        RecipeIndex catalogSide = catalogIndex;
+        if (catalogSide == null) {
+            return bookHits;
+        }
+        // Fetch enough to make up for catalog recipes the book hides
+        List<RecipeIndex.Hit> catalogHits = catalogSide.search(text, limit + book.size());
+        List<RecipeIndex.Hit> merged = new ArrayList<>(limit);
+        int next = 0;
+        for (RecipeIndex.Hit hit : catalogHits) {
+            if (merged.size() == limit) {
+                break;
+            }
+            if (book.contains(hit.getName())) {
+                continue;
+            }
+            while (next < bookHits.size() && bookHits.get(next).getScore() > hit.getScore() && merged.size() < limit) {
+                merged.add(bookHits.get(next++));
+            }
+            if (merged.size() < limit) {
+                merged.add(hit);
+            }
+        }
+        while (next < bookHits.size() && merged.size() < limit) {
+            merged.add(bookHits.get(next++));
+        }
+        return merged;
+    }
+
+    private void deliverChunk(long query, final String text, final List<RecipeIndex.Hit> hits) {
+        if (hits.isEmpty()) {
+            return;
+        }
+        deliver(query, new Runnable() {
+            @Override
+            public void run() {
+                listener.resultsArrived(text, hits);
+            }
+        });
+    }
+
+    private void deliver(final long query, final Runnable callback) {
+        deliveryExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                // Checked again where the callback runs, so a result never lands after a newer keystroke
+                if (!isStale(query)) {
+                    callback.run();
+                }
+            }
+        });
+    }
+
+    private boolean isStale(long query) {
+        return generation.get() != query;
+    }
+
+    /**
+     * ResultListener is told about the results of the latest query.
+     */
+    public interface ResultListener {
+        /**
+         * Called before the first results of a new query; previous results should be cleared.
+         *
+         * @param query the query text
+         */
+        void resultsStarted(String query);
+
+        /**
+         * Called with the next chunk of results, in rank order.
+         *
+         * @param query the query text
+         * @param hits  the results in this chunk
+         */
+        void resultsArrived(String query, List<RecipeIndex.Hit> hits);
+
+        /**
+         * Called once all results of the query have been delivered.
+         *
+         * @param query the query text
+         * @param total the number of results delivered
+         */
+        void resultsFinished(String query, int total);
+    }
+}
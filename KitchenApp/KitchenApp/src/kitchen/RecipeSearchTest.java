@@ -0,0 +1,165 @@
+package kitchen;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * This test suite contains tests for background search-as-you-type.
+ */
+public class RecipeSearchTest {
+
+    /**
+     * Records every callback as "started q", "arrived q n" or "finished q n" and counts finished queries.
+     */
+    private static final class Recorder implements RecipeSearch.ResultListener {
+        private final List<String> events = new CopyOnWriteArrayList<>();
+        private final List<String> names = new CopyOnWriteArrayList<>();
+        private final String awaited;
+        private final CountDownLatch finished = new CountDownLatch(1);
+
+        private Recorder(String awaited) {
+            this.awaited = awaited;
+        }
+
+        @Override
+        public void resultsStarted(String query) {
+            events.add("started " + query);
+        }
+
+        @Override
+        public void resultsArrived(String query, List<RecipeIndex.Hit> hits) {
+            events.add("arrived " + query + " " + hits.size());
+            for (RecipeIndex.Hit hit : hits) {
+                names.add(hit.getName());
+            }
+        }
+
+        @Override
+        public void resultsFinished(String query, int total) {
+            events.add("finished " + query + " " + total);
+            if (query.equals(awaited)) {
+                finished.countDown();
+            }
+        }
+    }
+
+    private static RecipeBook soups(int count) {
+        RecipeBook book = new RecipeBook();
+        for (int i = 0; i < count; i++) {
+            book.add("Soup " + i, Arrays.asList("Water: 1 l"), Collections.<String>emptyList());
+        }
+        book.add("Apple Pie", Arrays.asList("Apples: 6"), Collections.<String>emptyList());
+        return book;
+    }
+
+    @Test
+    public void testResultsStreamInChunks() throws InterruptedException {
+        Recorder recorder = new Recorder("soup");
+        RecipeSearch search = new RecipeSearch(soups(250), recorder, TimerEngine.directExecutor());
+        search.setQuery("soup");
+        assertTrue(recorder.finished.await(5, TimeUnit.SECONDS));
+        search.shutdown();
+
+        assertEquals(Arrays.asList("started soup", "arrived soup 20", "arrived soup 100", "arrived soup 100",
+                "arrived soup 30", "finished soup 250"), recorder.events);
+    }
+
+    @Test
+    public void testSupersededQueriesAreNeverDelivered() throws InterruptedException {
+        Recorder recorder = new Recorder("apple");
+        RecipeSearch search = new RecipeSearch(soups(5000), recorder, TimerEngine.directExecutor());
+        for (String typed : Arrays.asList("a", "ap", "app", "appl", "apple")) {
+            search.setQuery(typed);
+        }
+        assertTrue(recorder.finished.await(5, TimeUnit.SECONDS));
+        Thread.sleep(100);
+        search.shutdown();
+
+        List<String> events = recorder.events;
+        int started = events.indexOf("started apple");
+        assertTrue(started >= 0, events.toString());
+        for (String event : events.subList(started, events.size())) {
+            assertTrue(event.endsWith("apple") || event.contains(" apple "), events.toString());
+        }
+        assertEquals("finished apple 1", events.get(events.size() - 1));
+    }
+
+    @Test
+    public void testEmptyQueryClearsResults() throws InterruptedException {
+        Recorder recorder = new Recorder("");
+        RecipeSearch search = new RecipeSearch(soups(3), recorder, TimerEngine.directExecutor());
+        search.setQuery("");
+        assertTrue(recorder.finished.await(5, TimeUnit.SECONDS));
+        search.shutdown();
+
+        assertEquals(Arrays.asList("started ", "finished  0"), recorder.events);
+    }
+
+    @Test
+    public void testCatalogHitsMergeWithBookHits() throws IOException, InterruptedException {
+        Path file = Files.createTempFile("recipes", ".catalog");
+        file.toFile().deleteOnExit();
+        RecipeBook catalogued = soups(10);
+        catalogued.add("Tomato Soup", Arrays.asList("Tomatoes: 6"), Collections.<String>emptyList());
+        RecipeCatalog.write(file, catalogued.getRecipes());
+        RecipeCatalog catalog = RecipeCatalog.open(file);
+        RecipeBook book = new RecipeBook();
+        book.add("Soup 3", Arrays.asList("Stock: 1 l"), Collections.<String>emptyList());
+        book.add("Garden Soup", Arrays.asList("Peas: 1 cup"), Collections.<String>emptyList());
+
+        Recorder recorder = new Recorder("soup");
+        RecipeSearch search = new RecipeSearch(book, catalog, recorder, TimerEngine.directExecutor());
+        search.setQuery("soup");
+        assertTrue(recorder.finished.await(5, TimeUnit.SECONDS));
+        search.shutdown();
+        catalog.close();
+
+        // Ten catalog soups and Tomato Soup, less the catalog's Soup 3, plus both book recipes
+        assertEquals("finished soup 12", recorder.events.get(recorder.events.size() - 1));
+        assertEquals(12, new HashSet<>(recorder.names).size());
+        assertTrue(recorder.names.containsAll(Arrays.asList("Soup 3", "Garden Soup", "Tomato Soup")));
+    }
+
+    @Test
+    public void testSwitchingToARewrittenCatalogListsEveryRecipeOnce() throws IOException, InterruptedException {
+        Path file = Files.createTempFile("recipes", ".catalog");
+        file.toFile().deleteOnExit();
+        RecipeCatalog.write(file, soups(3).getRecipes());
+        RecipeCatalog catalog = RecipeCatalog.open(file);
+        RecipeBook book = new RecipeBook();
+        book.add("Garden Soup", Arrays.asList("Peas: 1 cup"), Collections.<String>emptyList());
+        Recorder recorder = new Recorder("soup");
+        RecipeSearch search = new RecipeSearch(book, catalog, recorder, TimerEngine.directExecutor());
+
+        // What an import does: save the catalog and the book together, reopen it and empty the book
+        List<Recipe> all = new ArrayList<>(catalog.getRecipes());
+        all.addAll(book.getRecipes());
+        RecipeCatalog.write(file, all);
+        RecipeCatalog rewritten = RecipeCatalog.open(file);
+        book.clear();
+        search.setCatalog(rewritten);
+        catalog.close();
+        search.setQuery("soup");
+        assertTrue(recorder.finished.await(5, TimeUnit.SECONDS));
+        search.shutdown();
+        rewritten.close();
+
+        assertEquals("finished soup 4", recorder.events.get(recorder.events.size() - 1));
+        assertEquals(4, new HashSet<>(recorder.names).size());
+        assertTrue(recorder.names.contains("Garden Soup"));
+    }
+}
@@ -0,0 +1,407 @@
+package kitchen;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ShardedTimerEngine class partitions a kitchen's timers into one shard per station. Every shard is a
+ * full {@link TimerEngine} with its own scheduler thread, listener list, metrics, {@link TimerRegistry}
+ * and {@link DeadlineIndex}, so starting, ticking and finishing timers at the grill never touches the
+ * locks or threads of the pastry station, and throughput grows with the number of stations and cores.
+ *
+ * The UI reads the kitchen through {@link #view()}, a read-only view that merges the shards on demand,
+ * and receives events through {@link #addListener}, which subscribes a listener to every shard.
+ */
+public class ShardedTimerEngine {
+    private final Map<String, Shard> shards = new LinkedHashMap<>();
+    private final Map<TimerEngine, Shard> shardsByEngine = new IdentityHashMap<>();
+    private final View view = new View();
+
+    /**
+     * Constructs a ShardedTimerEngine over the given engines, one per station.
+     *
+     * @param engines the engine of each station, in display order
+     */
+    public ShardedTimerEngine(Map<String, TimerEngine> engines) {
+        if (engines.isEmpty()) {
+            throw new IllegalArgumentException("At least one station is required");
+        }
+        for (Map.Entry<String, TimerEngine> station : engines.entrySet()) {
+            TimerEngine engine = station.getValue();
+            if (shardsByEngine.containsKey(engine)) {
+                throw new IllegalArgumentException("Stations must not share an engine");
+            }
+            Shard shard = new Shard(station.getKey(), engine);
+            shards.put(station.getKey(), shard);
+            shardsByEngine.put(engine, shard);
+        }
+    }
+
+    /**
+     * Creates a ShardedTimerEngine with a new engine and scheduler thread for each station.
+     *
+     * @param stations     the station names, in display order
+     * @param tickDuration the resolution of each station's scheduler
+     * @param unit         the unit of the tick duration
+     * @return the sharded engine
+     */
+    public static ShardedTimerEngine create(List<String> stations, long tickDuration, TimeUnit unit) {
+        Map<String, TimerEngine> engines = new LinkedHashMap<>();
+        for (String station : stations) {
+            engines.put(station, new TimerEngine(new TimerScheduler("kitchen-timer-" + station, tickDuration, unit)));
+        }
+        return new ShardedTimerEngine(engines);
+    }
+
+    /**
+     * Returns the station names, in display order.
+     *
+     * @return the stations
+     */
+    public List<String> getStations() {
+        return Collections.unmodifiableList(new ArrayList<>(shards.keySet()));
+    }
+
+    /**
+     * Returns the engine of a station.
+     *
+     * @param station the station name
+     * @return its engine
+     */
+    public TimerEngine engineFor(String station) {
+        return shard(station).engine;
+    }
+
+    /**
+     * Returns the station a timer belongs to.
+     *
+     * @param timer a timer created on one of the stations
+     * @return the station name
+     */
+    public String stationOf(CustomTimer timer) {
+        return shardOf(timer).station;
+    }
+
+    /**
+     * Creates a timer on a station and registers it under the given tags.
+     *
+     * @param station the station name
+     * @param name    the name of the timer
+     * @param hours   the initial hours
+     * @param minutes the initial minutes
+     * @param seconds the initial seconds
+     * @param tags    the group tags of the timer
+     * @return the new timer, not started yet
+     */
+    public CustomTimer createTimer(String station, String name, int hours, int minutes, int seconds,
+                                   String... tags) {
+        Shard shard = shard(station);
+        CustomTimer timer = new CustomTimer(shard.engine, name, hours, minutes, seconds);
+        shard.registry.add(timer, tags);
+        return timer;
+    }
+
+    /**
+     * Registers a timer that was created directly on one of the station engines, such as a restored one.
+     *
+     * @param timer the timer
+     * @param tags  the group tags of the timer
+     */
+    public void register(CustomTimer timer, String... tags) {
+        shardOf(timer).registry.add(timer, tags);
+    }
+
+    /**
+     * Forgets a timer on its station, such as one that has finished and been cleared from the dashboard.
+     *
+     * @param timer the timer
+     */
+    public void unregister(CustomTimer timer) {
+        shardOf(timer).registry.remove(timer);
+    }
+
+    /**
+     * Subscribes a listener to the timers of every station.
+     *
+     * @param listener the listener
+     * @param executor the executor its callbacks run on
+     */
+    public void addListener(TimerListener listener, Executor executor) {
+        for (Shard shard : shards.values()) {
+            shard.engine.addListener(listener, executor);
+        }
+    }
+
+    /**
+     * Unsubscribes a listener from every station.
+     *
+     * @param listener the listener to remove
+     */
+    public void removeListener(TimerListener listener) {
+        for (Shard shard : shards.values()) {
+            shard.engine.removeListener(listener);
+        }
+    }
+
+    /**
+     * Stops the given timers, one batch per station.
+     *
+     * @param timers timers from any stations
+     * @return the batches, one for each station that had timers in the selection
+     */
+    public List<TimerBatch> stopAll(Collection<CustomTimer> timers) {
+        return applyBatch(TimerBatch.Operation.STOP, timers);
+    }
+
+    /**
+     * Resets the given timers, one batch per station.
+     *
+     * @param timers timers from any stations
+     * @return the batches, one for each station that had timers in the selection
+     */
+    public List<TimerBatch> resetAll(Collection<CustomTimer> timers) {
+        return applyBatch(TimerBatch.Operation.RESET, timers);
+    }
+
+    /**
+     * Resets and starts the given timers, one batch per station.
+     *
+     * @param timers timers from any stations
+     * @return the batches, one for each station that had timers in the selection
+     */
+    public List<TimerBatch> restartAll(Collection<CustomTimer> timers) {
+        return applyBatch(TimerBatch.Operation.RESTART, timers);
+    }
+
+    private List<TimerBatch> applyBatch(TimerBatch.Operation operation, Collection<CustomTimer> timers) {
+        Map<Shard, List<CustomTimer>> byShard = new LinkedHashMap<>();
+        for (CustomTimer timer : timers) {
+            Shard shard = shardOf(timer);
+            List<CustomTimer> selected = byShard.get(shard);
+            if (selected == null) {
+                selected = new ArrayList<>();
+                byShard.put(shard, selected);
+            }
+            selected.add(timer);
+        }
+        List<TimerBatch> batches = new ArrayList<>(byShard.size());
+        for (Map.Entry<Shard, List<CustomTimer>> selection : byShard.entrySet()) {
+            TimerEngine engine = selection.getKey().engine;
+            switch (operation) {
+                case STOP:
+                    batches.add(engine.stopAll(selection.getValue()));
+                    break;
+                case RESET:
+                    batches.add(engine.resetAll(selection.getValue()));
+                    break;
+                default:
+                    batches.add(engine.restartAll(selection.getValue()));
+                    break;
+            }
+        }
+        return batches;
+    }
+
+    /**
+     * Returns the read-only view that merges every station.
+     *
+     * @return the merged view
+     */
+    public View view() {
+        return view;
+    }
+
+    /**
+     * Stops the scheduler thread of every station.
+     */
+    public void shutdown() {
+        for (Shard shard : shards.values()) {
+            shard.engine.getScheduler().shutdown();
+        }
+    }
+
+    private Shard shard(String station) {
+        Shard shard = shards.get(station);
+        if (shard == null) {
+            throw new IllegalArgumentException("Unknown station: " + station);
+        }
+        return shard;
+    }
+
+    private Shard shardOf(CustomTimer timer) {
+        Shard shard = shardsByEngine.get(timer.getEngine());
+        if (shard == null) {
+            throw new IllegalArgumentException("Timer " + timer.getName() + " does not belong to a station");
+        }
+        return shard;
+    }
+
+    /**
+     * One station: its engine and the per-station structures built on it.
+     */
+    private static final class Shard {
+        private final String station;
+        private final TimerEngine engine;
+        private final TimerRegistry registry;
+        private final DeadlineIndex deadlineIndex;
+
+        private Shard(String station, TimerEngine engine) {
+            this.station = station;
+            this.engine = engine;
+            this.registry = new TimerRegistry(engine);
+            this.deadlineIndex = new DeadlineIndex(engine.getScheduler().getClock());
+            engine.addListener(deadlineIndex, TimerEngine.directExecutor());
+        }
+    }
+
+    /**
+     * A timer paired with the deadline and id it had when a view query read it.
+     */
+    private static final class Deadline {
+        private static final Comparator<Deadline> SOONEST_FIRST = new Comparator<Deadline>() {
+            @Override
+            public int compare(Deadline first, Deadline second) {
+                int byTime = Long.compare(first.deadlineNanos - second.deadlineNanos, 0);
+                return byTime != 0 ? byTime : Long.compare(first.id, second.id);
+            }
+        };
+
+        private final CustomTimer timer;
+        private final long deadlineNanos;
+        private final long id;
+
+        private Deadline(CustomTimer timer) {
+            this.timer = timer;
+            this.deadlineNanos = timer.getDeadlineNanos();
+            this.id = timer.getId();
+        }
+    }
+
+    /**
+     * View is a read-only, merged picture of every station. Each query asks the stations' own indexes
+     * and combines the answers, so reading never blocks a station for longer than its own query.
+     */
+    public final class View {
+        private View() {
+        }
+
+        /**
+         * Sorts timers soonest first. Timers keep ticking on their stations' threads while the view sorts,
+         * so each deadline is read once up front; comparing live deadlines could change the order mid-sort.
+         */
+        private List<CustomTimer> sortByDeadline(List<CustomTimer> timers) {
+            List<Deadline> deadlines = new ArrayList<>(timers.size());
+            for (CustomTimer timer : timers) {
+                deadlines.add(new Deadline(timer));
+            }
+            deadlines.sort(Deadline.SOONEST_FIRST);
+            List<CustomTimer> sorted = new ArrayList<>(deadlines.size());
+            for (Deadline deadline : deadlines) {
+                sorted.add(deadline.timer);
+            }
+            return sorted;
+        }
+
+        /**
+         * Returns the running timers across all stations that finish first, soonest first.
+         *
+         * @param count the most timers to return
+         * @return up to {@code count} timers
+         */
+        public List<CustomTimer> nextToFinish(int count) {
+            List<CustomTimer> merged = new ArrayList<>();
+            for (Shard shard : shards.values()) {
+                merged.addAll(shard.deadlineIndex.nextToFinish(count));
+            }
+            List<CustomTimer> sorted = sortByDeadline(merged);
+            return sorted.size() > count ? new ArrayList<>(sorted.subList(0, count)) : sorted;
+        }
+
+        /**
+         * Returns the running timers across all stations that finish within the given time, soonest first.
+         *
+         * @param window the length of the window
+         * @param unit   the unit of the window
+         * @return the timers finishing within the window
+         */
+        public List<CustomTimer> finishingWithin(long window, TimeUnit unit) {
+            List<CustomTimer> merged = new ArrayList<>();
+            for (Shard shard : shards.values()) {
+                merged.addAll(shard.deadlineIndex.finishingWithin(window, unit));
+            }
+            return sortByDeadline(merged);
+        }
+
+        /**
+         * Returns the timers across all stations whose name starts with the given prefix.
+         *
+         * @param prefix the name prefix
+         * @return the matching timers, grouped by station
+         */
+        public List<CustomTimer> withNamePrefix(String prefix) {
+            List<CustomTimer> merged = new ArrayList<>();
+            for (Shard shard : shards.values()) {
+                merged.addAll(shard.registry.withNamePrefix(prefix));
+            }
+            return merged;
+        }
+
+        /**
+         * Returns the timers across all stations registered under the given tag.
+         *
+         * @param tag the group tag
+         * @return the tagged timers, grouped by station
+         */
+        public List<CustomTimer> withTag(String tag) {
+            List<CustomTimer> merged = new ArrayList<>();
+            for (Shard shard : shards.values()) {
+                merged.addAll(shard.registry.withTag(tag));
+            }
+            return merged;
+        }
+
+        /**
+         * Returns every timer of a station.
+         *
+         * @param station the station name
+         * @return the station's timers
+         */
+        public List<CustomTimer> timersAt(String station) {
+            return shard(station).registry.all();
+        }
+
+        /**
+         * Returns the number of timers running across all stations.
+         *
+         * @return the active timer count
+         */
+        public long getActiveTimers() {
+            long active = 0;
+            for (Shard shard : shards.values()) {
+                active += shard.engine.getMetrics().getActiveTimers();
+            }
+            return active;
+        }
+
+        /**
+         * Returns the metrics report of every station.
+         *
+         * @return one report section per station
+         */
+        public String dumpMetrics() {
+            StringBuilder report = new StringBuilder();
+            for (Shard shard : shards.values()) {
+                report.append('[').append(shard.station).append("]\n").append(shard.engine.getMetrics().dump());
+            }
+            return report.toString();
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package kitchen;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * This test suite contains tests for the per-station sharded timer engine.
+ */
+public class ShardedTimerEngineTest {
+
+    private static String names(List<CustomTimer> timers) {
+        StringBuilder names = new StringBuilder();
+        for (CustomTimer timer : timers) {
+            names.append(names.length() == 0 ? "" : ",").append(timer.getName());
+        }
+        return names.toString();
+    }
+
+    @Test
+    public void testMergedViewSpansStations() {
+        ShardedTimerEngine kitchen = ShardedTimerEngine.create(
+                Arrays.asList("Grill", "Fry", "Pastry"), 10, TimeUnit.MILLISECONDS);
+        kitchen.createTimer("Grill", "Steak", 0, 8, 0, "table 4").start();
+        kitchen.createTimer("Fry", "Fries", 0, 4, 0, "table 4").start();
+        kitchen.createTimer("Pastry", "Tart", 0, 40, 0).start();
+        kitchen.createTimer("Grill", "Skewers", 0, 12, 0).start();
+        kitchen.createTimer("Fry", "Fritters", 0, 6, 0);
+
+        ShardedTimerEngine.View view = kitchen.view();
+        assertEquals("Fries,Steak,Skewers", names(view.nextToFinish(3)));
+        assertEquals("Fries,Steak", names(view.finishingWithin(10, TimeUnit.MINUTES)));
+        assertEquals("Fries,Fritters", names(view.withNamePrefix("Fr")));
+        assertEquals("Steak,Fries", names(view.withTag("table 4")));
+        assertEquals("Steak,Skewers", names(view.timersAt("Grill")));
+        assertEquals(4, view.getActiveTimers());
+        assertTrue(view.dumpMetrics().startsWith("[Grill]\ntimers: active=2"));
+        kitchen.shutdown();
+    }
+
+    @Test
+    public void testEachStationFinishesOnItsOwnThreadAndBatchesSplitByStation() throws InterruptedException {
+        ShardedTimerEngine kitchen = ShardedTimerEngine.create(
+                Arrays.asList("Grill", "Fry"), 1, TimeUnit.MILLISECONDS);
+        final Map<String, String> threads = new ConcurrentHashMap<>();
+        final CountDownLatch finished = new CountDownLatch(2);
+        kitchen.addListener(new TimerListener() {
+            @Override
+            public void timerFinished(CustomTimer timer) {
+                threads.put(timer.getName(), Thread.currentThread().getName());
+                finished.countDown();
+            }
+        }, TimerEngine.directExecutor());
+        CustomTimer steak = kitchen.createTimer("Grill", "Steak", 0, 0, 0);
+        CustomTimer fries = kitchen.createTimer("Fry", "Fries", 0, 0, 0);
+        steak.start();
+        fries.start();
+        assertTrue(finished.await(2, TimeUnit.SECONDS));
+        assertEquals("kitchen-timer-Grill", threads.get("Steak"));
+        assertEquals("kitchen-timer-Fry", threads.get("Fries"));
+        assertEquals("Fry", kitchen.stationOf(fries));
+
+        List<TimerBatch> batches = kitchen.resetAll(Arrays.asList(steak, fries));
+        assertEquals(2, batches.size());
+        assertEquals(1, batches.get(0).size());
+        assertEquals(CustomTimer.TimerStatus.RESET, steak.getStatus());
+        assertThrows(IllegalArgumentException.class, () -> {
+            kitchen.createTimer("Wok", "Noodles", 0, 5, 0);
+        });
+        assertThrows(IllegalArgumentException.class, () -> {
+            kitchen.stopAll(Arrays.asList(new CustomTimer("Elsewhere", 0, 1, 0)));
+        });
+        kitchen.shutdown();
+    }
+
+    @Test
+    public void testClearingFinishedTimersForgetsThem() throws InterruptedException {
+        ShardedTimerEngine kitchen = ShardedTimerEngine.create(
+                Arrays.asList("Grill", "Fry"), 1, TimeUnit.MILLISECONDS);
+        final CountDownLatch finished = new CountDownLatch(1);
+        kitchen.addListener(new TimerListener() {
+            @Override
+            public void timerFinished(CustomTimer timer) {
+                finished.countDown();
+            }
+        }, TimerEngine.directExecutor());
+        CustomTimer steak = kitchen.createTimer("Grill", "Steak", 0, 0, 0);
+        CustomTimer fries = kitchen.createTimer("Fry", "Fries", 0, 5, 0);
+        TimerTableModel model = new TimerTableModel();
+        model.addTimer(steak);
+        model.addTimer(fries);
+        steak.start();
+        fries.start();
+        assertTrue(finished.await(2, TimeUnit.SECONDS));
+
+        List<CustomTimer> cleared = model.removeFinished();
+        for (CustomTimer timer : cleared) {
+            kitchen.unregister(timer);
+        }
+        assertEquals("Steak", names(cleared));
+        assertEquals(1, model.getRowCount());
+        assertEquals("Fries", model.getValueAt(0, 0));
+        assertEquals("", names(kitchen.view().timersAt("Grill")));
+        assertEquals("Fries", names(kitchen.view().withNamePrefix("")));
+        kitchen.shutdown();
+    }
+}
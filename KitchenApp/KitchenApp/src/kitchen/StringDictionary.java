@@ -0,0 +1,82 @@
+package kitchen;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * StringDictionary class interns strings to small dense ids, so a name repeated across many records is
+ * stored once and each record only keeps an int. Ids start at 0 and are handed out in the order strings
+ * are first seen; they are never reused.
+ *
+ * The dictionary only grows, so reads take no lock: adding a string is serialized, and it publishes the
+ * string array and then the new size through volatile fields before the string's id is handed out.
+ * Interning a string that is already present is a lookup in a concurrent map, so the threads of a
+ * parallel build do not contend on it.
+ */
+public class StringDictionary {
+    private final ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<>();
+    private volatile String[] strings = new String[64];
+    private volatile int size;
+
+    /**
+     * Returns the id of the given string, adding it to the dictionary if it is new.
+     *
+     * @param value the string to intern
+     * @return its id
+     */
+    public int intern(String value) {
+        Integer id = ids.get(value);
+        return id != null ? id : add(value);
+    }
+
+    private synchronized int add(String value) {
+        Integer id = ids.get(value);
+        if (id != null) {
+            return id;
+        }
+        int next = size;
+        String[] grown = strings;
+        if (next == grown.length) {
+            grown = Arrays.copyOf(grown, next * 2);
+        }
+        grown[next] = value;
+        strings = grown;
+        size = next + 1;
+        ids.put(value, next);
+        return next;
+    }
+
+    /**
+     * Returns the id of the given string without adding it.
+     *
+     * @param value the string to look up
+     * @return its id, or -1 if the string has not been interned
+     */
+    public int idOf(String value) {
+        Integer id = ids.get(value);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * Returns the string with the given id.
+     *
+     * @param id the id
+     * @return the interned string
+     */
+    public String get(int id) {
+        // Reading the size first makes every string below it visible
+        if (id < 0 || id >= size) {
+            throw new IllegalArgumentException("Unknown string id: " + id);
+        }
+        return strings[id];
+    }
+
+    /**
+     * Returns how many distinct strings the dictionary holds.
+     *
+     * @return the number of strings
+     */
+    public int size() {
+        return size;
+    }
+}
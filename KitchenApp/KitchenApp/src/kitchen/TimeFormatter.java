@@ -0,0 +1,83 @@
+package kitchen;
+
+/**
+ * TimeFormatter class renders a number of seconds as HH:mm:ss into a caller-supplied char buffer
+ * without allocating. Two-digit groups come from pre-rendered tables of the tens and ones digits of
+ * 0 to 99, so each group is two array reads. Hours past 99 are written in full, matching
+ * {@code String.format("%02d:%02d:%02d", ...)}.
+ */
+public final class TimeFormatter {
+    /** The length of a formatted time below 100 hours. */
+    public static final int LENGTH = 8;
+
+    private static final char[] TENS = new char[100];
+    private static final char[] ONES = new char[100];
+
+    static {
+        for (int i = 0; i < 100; i++) {
+            TENS[i] = (char) ('0' + i / 10);
+            ONES[i] = (char) ('0' + i % 10);
+        }
+    }
+
+    private TimeFormatter() {
+    }
+
+    /**
+     * Returns how many chars {@link #format} writes for the given number of seconds.
+     *
+     * @param totalSeconds the non-negative number of seconds
+     * @return the formatted length
+     */
+    public static int length(long totalSeconds) {
+        long hours = totalSeconds / 3600;
+        int hourDigits = 2;
+        for (long limit = 100; hours >= limit && hourDigits < 19; limit *= 10) {
+            hourDigits++;
+        }
+        return hourDigits + 6;
+    }
+
+    /**
+     * Writes the given number of seconds as HH:mm:ss.
+     *
+     * @param totalSeconds the non-negative number of seconds
+     * @param buffer       the buffer to write into
+     * @param offset       where to start writing
+     * @return the offset just past the last char written
+     */
+    public static int format(long totalSeconds, char[] buffer, int offset) {
+        long hours = totalSeconds / 3600;
+        int minutes = (int) (totalSeconds % 3600 / 60);
+        int seconds = (int) (totalSeconds % 60);
+        int end = offset + length(totalSeconds);
+        int position = end;
+        buffer[--position] = ONES[seconds];
+        buffer[--position] = TENS[seconds];
+        buffer[--position] = ':';
+        buffer[--position] = ONES[minutes];
+        buffer[--position] = TENS[minutes];
+        buffer[--position] = ':';
+        while (position > offset) {
+            int group = (int) (hours % 100);
+            hours /= 100;
+            buffer[--position] = ONES[group];
+            if (position > offset) {
+                buffer[--position] = TENS[group];
+            }
+        }
+        return end;
+    }
+
+    /**
+     * Returns the given number of seconds as an HH:mm:ss string.
+     *
+     * @param totalSeconds the non-negative number of seconds
+     * @return the formatted time
+     */
+    public static String format(long totalSeconds) {
+        char[] buffer = new char[length(totalSeconds)];
+        format(totalSeconds, buffer, 0);
+        return new String(buffer);
+    }
+}
@@ -0,0 +1,51 @@
+package kitchen;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * This test suite contains tests for the allocation-free time formatter.
+ */
+public class TimeFormatterTest {
+
+    @Test
+    public void testMatchesStringFormat() {
+        long[] samples = {0, 9, 59, 60, 3599, 3600, 86399, 359999, 360000, 3600L * 12345 + 61};
+        for (long seconds : samples) {
+            String expected = String.format("%02d:%02d:%02d", seconds / 3600, seconds % 3600 / 60, seconds % 60);
+            assertEquals(expected, TimeFormatter.format(seconds));
+            assertEquals(expected.length(), TimeFormatter.length(seconds));
+        }
+    }
+
+    @Test
+    public void testFormatsIntoBufferAtOffset() {
+        char[] buffer = "[........]".toCharArray();
+        assertEquals(9, TimeFormatter.format(3723, buffer, 1));
+        assertEquals("[01:02:03]", new String(buffer));
+    }
+
+    @Test
+    public void testFormattingIntoBufferDoesNotAllocate() {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        char[] buffer = new char[TimeFormatter.LENGTH];
+        long checksum = 0;
+        for (int i = 0; i < 200000; i++) {
+            checksum += TimeFormatter.format(i, buffer, 0) + buffer[7];
+        }
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < 200000; i++) {
+            checksum += TimeFormatter.format(i, buffer, 0) + buffer[7];
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+        // Any per-call allocation costs at least 16 bytes a call; the allowance only covers one-off
+        // objects the JIT materializes when it recompiles the loop mid-measurement.
+        assertTrue(allocated < 200000, allocated + " bytes allocated while formatting, checksum " + checksum);
+    }
+}
@@ -0,0 +1,88 @@
+package kitchen;
+
+/**
+ * TimerBatch class describes one bulk operation applied to many timers at once: which operation ran,
+ * which timers it changed and what status each of them had before. Listeners receive it as a single
+ * event through {@link TimerListener#timersChanged(TimerBatch)}.
+ */
+public final class TimerBatch {
+    private final Operation operation;
+    private final CustomTimer[] timers;
+    private final CustomTimer.TimerStatus[] oldStatuses;
+    private final int size;
+
+    TimerBatch(Operation operation, CustomTimer[] timers, CustomTimer.TimerStatus[] oldStatuses, int size) {
+        this.operation = operation;
+        this.timers = timers;
+        this.oldStatuses = oldStatuses;
+        this.size = size;
+    }
+
+    /**
+     * Returns the operation that was applied.
+     *
+     * @return the operation
+     */
+    public Operation getOperation() {
+        return operation;
+    }
+
+    /**
+     * Returns the status every timer in the batch has after the operation.
+     *
+     * @return the new status
+     */
+    public CustomTimer.TimerStatus getNewStatus() {
+        return operation.newStatus;
+    }
+
+    /**
+     * Returns the number of timers the operation changed.
+     *
+     * @return the number of timers
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the timer at the given position in the batch.
+     *
+     * @param index the position, from 0 to {@link #size()} - 1
+     * @return the timer
+     */
+    public CustomTimer getTimer(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+        }
+        return timers[index];
+    }
+
+    /**
+     * Returns the status the timer at the given position had before the operation.
+     *
+     * @param index the position, from 0 to {@link #size()} - 1
+     * @return the old status
+     */
+    public CustomTimer.TimerStatus getOldStatus(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+        }
+        return oldStatuses[index];
+    }
+
+    /**
+     * Enum representing the bulk operations.
+     */
+    public enum Operation {
+        STOP(CustomTimer.TimerStatus.STOPPED),
+        RESET(CustomTimer.TimerStatus.RESET),
+        RESTART(CustomTimer.TimerStatus.RUNNING);
+
+        private final CustomTimer.TimerStatus newStatus;
+
+        Operation(CustomTimer.TimerStatus newStatus) {
+            this.newStatus = newStatus;
+        }
+    }
+}
@@ -0,0 +1,283 @@
+package kitchen;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import javax.swing.SwingUtilities;
+
+/**
+ * TimerBenchmark class measures how the timer core behaves under load. The scale scenario starts
+ * 1k, 10k and 100k timers on a private engine and, over a sustained run, counts the ticks delivered
+ * and reads how late the scheduler ran its tasks from its lateness histogram. It also samples how deep
+ * the queue of work posted to the event dispatch thread grew and how much the heap grew. The micro
+ * benchmarks time create, start, stop, reset and {@code getFormattedTime()}.
+ * The stations scenario measures how finish throughput grows as a {@link ShardedTimerEngine} gets more
+ * stations, each on its own scheduler thread.
+ *
+ * Every result is printed as one JSON object per line so runs can be stored and compared. Usage:
+ * {@code java kitchen.TimerBenchmark [soakSeconds] [timerCount ...]}.
+ */
+public class TimerBenchmark {
+    private static final int[] DEFAULT_COUNTS = {1000, 10000, 100000};
+    private static final int DEFAULT_SOAK_SECONDS = 30;
+    private static final long SAMPLE_MILLIS = 100;
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int MEASURED_ROUNDS = 10;
+
+    private static volatile long sink;
+
+    /**
+     * Runs the micro benchmarks and then the scale scenario for each timer count.
+     *
+     * @param args the soak length in seconds, followed by the timer counts to run
+     * @throws InterruptedException if interrupted while the scenario runs
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int soakSeconds = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_SOAK_SECONDS;
+        int[] counts = DEFAULT_COUNTS;
+        if (args.length > 1) {
+            counts = new int[args.length - 1];
+            for (int i = 1; i < args.length; i++) {
+                counts[i - 1] = Integer.parseInt(args[i]);
+            }
+        }
+        for (String result : runMicroBenchmarks(100000)) {
+            System.out.println(result);
+        }
+        for (int count : counts) {
+            System.out.println(runScale(count, soakSeconds));
+        }
+        int cores = Runtime.getRuntime().availableProcessors();
+        for (int stations = 1; stations <= cores; stations *= 2) {
+            System.out.println(runStations(stations, 1000, soakSeconds));
+        }
+    }
+
+    /**
+     * Starts the given number of timers and lets them tick for the given time.
+     *
+     * @param timerCount  the number of concurrent timers
+     * @param soakSeconds how long to keep them running
+     * @return the result as a JSON line
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public static String runScale(int timerCount, int soakSeconds) throws InterruptedException {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        TimerScheduler scheduler = new TimerScheduler("kitchen-benchmark", 1, TimeUnit.MILLISECONDS);
+        TimerEngine engine = new TimerEngine(scheduler);
+        final AtomicInteger edtPending = new AtomicInteger();
+        final LongAdder ticks = new LongAdder();
+        final Runnable edtTask = new Runnable() {
+            @Override
+            public void run() {
+                edtPending.decrementAndGet();
+            }
+        };
+        // Stands in for a Swing subscriber: every tick costs one task on the EDT.
+        engine.addListener(new TimerListener() {
+            @Override
+            public void timerTicked(CustomTimer timer, long remainingMillis) {
+                ticks.increment();
+                edtPending.incrementAndGet();
+                SwingUtilities.invokeLater(edtTask);
+            }
+        }, TimerEngine.directExecutor(), true);
+
+        System.gc();
+        long heapBefore = memory.getHeapMemoryUsage().getUsed();
+        Random random = new Random(42);
+        CustomTimer[] timers = new CustomTimer[timerCount];
+        long startNanos = System.nanoTime();
+        for (int i = 0; i < timerCount; i++) {
+            // Outlive the soak so every timer ticks for the whole run.
+            timers[i] = new CustomTimer(engine, "Timer " + i, 0, 0, soakSeconds + 2 + random.nextInt(60));
+            timers[i].start();
+        }
+        long startupMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+
+        int samples = 0;
+        long edtDepthSum = 0;
+        int edtDepthMax = 0;
+        long heapPeak = 0;
+        long soakEnd = System.nanoTime() + TimeUnit.SECONDS.toNanos(soakSeconds);
+        while (System.nanoTime() < soakEnd) {
+            Thread.sleep(SAMPLE_MILLIS);
+            int depth = edtPending.get();
+            edtDepthSum += depth;
+            edtDepthMax = Math.max(edtDepthMax, depth);
+            heapPeak = Math.max(heapPeak, memory.getHeapMemoryUsage().getUsed());
+            samples++;
+        }
+        for (CustomTimer timer : timers) {
+            timer.stop();
+        }
+        scheduler.shutdown();
+        System.gc();
+        long heapAfter = memory.getHeapMemoryUsage().getUsed();
+        LatencyHistogram lateness = scheduler.getLatenessHistogram();
+
+        return String.format(Locale.ROOT,
+                "{\"benchmark\":\"scale\",\"timers\":%d,\"soakSeconds\":%d,\"startupMillis\":%d,"
+                        + "\"ticks\":%d,\"tasksRun\":%d,\"latenessP50Micros\":%d,\"latenessP90Micros\":%d,"
+                        + "\"latenessP99Micros\":%d,\"latenessP999Micros\":%d,\"latenessMaxMicros\":%d,"
+                        + "\"edtQueueMean\":%.1f,\"edtQueueMax\":%d,"
+                        + "\"heapBeforeBytes\":%d,\"heapPeakBytes\":%d,\"heapAfterBytes\":%d}",
+                timerCount, soakSeconds, startupMillis, ticks.sum(), lateness.getCount(),
+                micros(lateness.getValueAtPercentile(50)), micros(lateness.getValueAtPercentile(90)),
+                micros(lateness.getValueAtPercentile(99)), micros(lateness.getValueAtPercentile(99.9)),
+                micros(lateness.getMax()),
+                samples == 0 ? 0.0 : (double) edtDepthSum / samples, edtDepthMax,
+                heapBefore, heapPeak, heapAfter);
+    }
+
+    /**
+     * Keeps zero-length timers on every station finishing and restarting as fast as the station threads
+     * allow, and counts the finishes. With one station per core the rate should grow close to linearly.
+     *
+     * @param stationCount     the number of stations
+     * @param timersPerStation the number of timers on each station
+     * @param seconds          how long to run
+     * @return the result as a JSON line
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public static String runStations(int stationCount, int timersPerStation, int seconds)
+            throws InterruptedException {
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < stationCount; i++) {
+            names.add("benchmark-" + i);
+        }
+        ShardedTimerEngine kitchen = ShardedTimerEngine.create(names, 1, TimeUnit.MILLISECONDS);
+        final LongAdder finishes = new LongAdder();
+        final AtomicBoolean running = new AtomicBoolean(true);
+        kitchen.addListener(new TimerListener() {
+            @Override
+            public void timerFinished(CustomTimer timer) {
+                finishes.increment();
+                if (running.get()) {
+                    timer.reset();
+                    timer.start();
+                }
+            }
+        }, TimerEngine.directExecutor());
+        for (String station : names) {
+            for (int i = 0; i < timersPerStation; i++) {
+                kitchen.createTimer(station, "Timer " + i, 0, 0, 0).start();
+            }
+        }
+        Thread.sleep(TimeUnit.SECONDS.toMillis(seconds));
+        running.set(false);
+        long finished = finishes.sum();
+        kitchen.shutdown();
+
+        return String.format(Locale.ROOT,
+                "{\"benchmark\":\"stations\",\"stations\":%d,\"timersPerStation\":%d,\"seconds\":%d,"
+                        + "\"finishes\":%d,\"finishesPerSecond\":%.0f}",
+                stationCount, timersPerStation, seconds, finished, (double) finished / seconds);
+    }
+
+    /**
+     * Times the timer operations a user triggers from the panel. Each operation is warmed up, then
+     * measured over several rounds, and the best round is reported.
+     *
+     * @param operations the number of operations per round
+     * @return one JSON line per operation
+     */
+    public static String[] runMicroBenchmarks(int operations) {
+        TimerScheduler scheduler = new TimerScheduler("kitchen-benchmark-micro", 10, TimeUnit.MILLISECONDS);
+        final TimerEngine engine = new TimerEngine(scheduler);
+        final CustomTimer[] timers = new CustomTimer[operations];
+        String[] results = new String[5];
+
+        results[0] = measure("create", operations, new Operation() {
+            @Override
+            public void run(int i) {
+                timers[i] = new CustomTimer(engine, "Timer", 0, 10, 0);
+            }
+        });
+        results[1] = measure("start", operations, new Operation() {
+            @Override
+            public void run(int i) {
+                timers[i].start();
+            }
+
+            @Override
+            public void afterRound() {
+                for (CustomTimer timer : timers) {
+                    timer.stop();
+                }
+            }
+        });
+        results[2] = measure("stop", operations, new Operation() {
+            @Override
+            public void beforeRound() {
+                for (CustomTimer timer : timers) {
+                    timer.start();
+                }
+            }
+
+            @Override
+            public void run(int i) {
+                timers[i].stop();
+            }
+        });
+        results[3] = measure("reset", operations, new Operation() {
+            @Override
+            public void run(int i) {
+                timers[i].reset();
+            }
+        });
+        final CustomTimer running = new CustomTimer(engine, "Formatted", 1, 0, 0);
+        running.start();
+        results[4] = measure("getFormattedTime", operations, new Operation() {
+            @Override
+            public void run(int i) {
+                sink += running.getFormattedTime().length();
+            }
+        });
+        running.stop();
+        scheduler.shutdown();
+        return results;
+    }
+
+    private static long micros(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+
+    private static String measure(String name, int operations, Operation operation) {
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < WARMUP_ROUNDS + MEASURED_ROUNDS; round++) {
+            operation.beforeRound();
+            long start = System.nanoTime();
+            for (int i = 0; i < operations; i++) {
+                operation.run(i);
+            }
+            long elapsed = System.nanoTime() - start;
+            operation.afterRound();
+            if (round >= WARMUP_ROUNDS) {
+                best = Math.min(best, elapsed);
+            }
+        }
+        return String.format(Locale.ROOT, "{\"benchmark\":\"%s\",\"operations\":%d,\"nanosPerOp\":%.1f}",
+                name, operations, (double) best / operations);
+    }
+
+    /**
+     * One benchmarked operation, called once per index in every round.
+     */
+    private abstract static class Operation {
+        abstract void run(int i);
+
+        void beforeRound() {
+        }
+
+        void afterRound() {
+        }
+    }
+}
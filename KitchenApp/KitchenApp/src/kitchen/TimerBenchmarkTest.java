@@ -0,0 +1,37 @@
+package kitchen;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * This test suite checks that the benchmark harness runs and reports one JSON line per result.
+ */
+public class TimerBenchmarkTest {
+
+    @Test
+    public void testMicroBenchmarksReportEveryOperation() {
+        String[] results = TimerBenchmark.runMicroBenchmarks(100);
+        assertEquals(5, results.length);
+        for (String result : results) {
+            assertTrue(result.startsWith("{\"benchmark\":\"") && result.endsWith("}"));
+            assertTrue(result.contains("\"nanosPerOp\":"));
+        }
+    }
+
+    @Test
+    public void testScaleScenarioRecordsTicks() throws InterruptedException {
+        String result = TimerBenchmark.runScale(20, 2);
+        assertTrue(result.startsWith("{\"benchmark\":\"scale\",\"timers\":20,"));
+        assertTrue(!result.contains("\"ticks\":0,"));
+        assertTrue(!result.contains("\"tasksRun\":0,"));
+    }
+
+    @Test
+    public void testStationsScenarioCountsFinishes() throws InterruptedException {
+        String result = TimerBenchmark.runStations(2, 10, 1);
+        assertTrue(result.startsWith("{\"benchmark\":\"stations\",\"stations\":2,"));
+        assertTrue(!result.contains("\"finishes\":0,"));
+    }
+}
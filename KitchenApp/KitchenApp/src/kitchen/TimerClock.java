@@ -0,0 +1,40 @@
+package kitchen;
+
+/**
+ * TimerClock interface is the monotonic time source that schedulers and timers read their deadlines
+ * from. The {@link #system()} clock follows {@code System.nanoTime()}; a {@link VirtualClock} only
+ * moves when a test advances it.
+ */
+public interface TimerClock {
+
+    /**
+     * Returns the current time on this clock. Only differences between values are meaningful.
+     *
+     * @return the current time in nanoseconds
+     */
+    long nanoTime();
+
+    /**
+     * Returns the clock backed by {@code System.nanoTime()}.
+     *
+     * @return the system clock
+     */
+    static TimerClock system() {
+        return SystemClock.INSTANCE;
+    }
+
+    /**
+     * The clock backed by {@code System.nanoTime()}.
+     */
+    final class SystemClock implements TimerClock {
+        private static final SystemClock INSTANCE = new SystemClock();
+
+        private SystemClock() {
+        }
+
+        @Override
+        public long nanoTime() {
+            return System.nanoTime();
+        }
+    }
+}
@@ -0,0 +1,366 @@
+package kitchen;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * TimerEngine class is the headless core that timers run on: a {@link TimerScheduler} for deadlines
+ * and a list of {@link TimerListener} subscriptions that are told about every timer's lifecycle.
+ * It has no AWT or Swing dependency, so it runs the same in a server process or in
+ * {@code java.awt.headless} mode; a Swing panel is just one subscriber that asks for its callbacks
+ * on the event dispatch thread.
+ *
+ * Each subscription brings its own executor. {@link #directExecutor()} runs callbacks on the
+ * scheduler thread and suits quick, thread-safe listeners; {@link #virtualThreadExecutor()} runs each
+ * callback on its own virtual thread where the JVM supports them. Executors that do not run tasks in
+ * submission order may deliver a timer's events out of order.
+ */
+public class TimerEngine {
+    private static final Executor DIRECT = new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            command.run();
+        }
+    };
+
+    private final TimerScheduler scheduler;
+    private final TimerMetrics metrics;
+    // Replaced on every change and iterated by index, so firing an event never allocates an iterator
+    private volatile Subscription[] subscriptions = new Subscription[0];
+    private volatile int tickSubscribers;
+
+    /**
+     * Constructs a TimerEngine whose timers are driven by the given scheduler.
+     *
+     * @param scheduler the scheduler for timer deadlines
+     */
+    public TimerEngine(TimerScheduler scheduler) {
+        this.scheduler = scheduler;
+        this.metrics = new TimerMetrics(scheduler);
+    }
+
+    /**
+     * Returns the engine used by timers created without an explicit engine.
+     *
+     * @return the shared engine
+     */
+    public static TimerEngine shared() {
+        return SharedHolder.INSTANCE;
+    }
+
+    /**
+     * Returns an executor that runs callbacks directly on the thread that raised the event.
+     *
+     * @return the direct executor
+     */
+    public static Executor directExecutor() {
+        return DIRECT;
+    }
+
+    /**
+     * Returns an executor that runs every callback on a new virtual thread, or on a pool of daemon
+     * platform threads when the JVM has no virtual threads.
+     *
+     * @return the executor
+     */
+    public static Executor virtualThreadExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            final AtomicInteger count = new AtomicInteger();
+            return Executors.newCachedThreadPool(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "kitchen-timer-listener-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+    }
+
+    /**
+     * Returns the scheduler the engine's timers are driven by.
+     *
+     * @return the scheduler
+     */
+    public TimerScheduler getScheduler() {
+        return scheduler;
+    }
+
+    /**
+     * Returns the health metrics of the engine's timers.
+     *
+     * @return the metrics
+     */
+    public TimerMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Stops every given timer in one pass and reports them to listeners as one batch.
+     *
+     * @param timers the timers to stop, all on this engine
+     * @return the batch that was reported
+     */
+    public TimerBatch stopAll(Collection<CustomTimer> timers) {
+        return applyBatch(TimerBatch.Operation.STOP, timers);
+    }
+
+    /**
+     * Resets every given timer in one pass and reports them to listeners as one batch.
+     *
+     * @param timers the timers to reset, all on this engine
+     * @return the batch that was reported
+     */
+    public TimerBatch resetAll(Collection<CustomTimer> timers) {
+        return applyBatch(TimerBatch.Operation.RESET, timers);
+    }
+
+    /**
+     * Resets and starts every given timer in one pass and reports them to listeners as one batch.
+     *
+     * @param timers the timers to restart, all on this engine
+     * @return the batch that was reported
+     */
+    public TimerBatch restartAll(Collection<CustomTimer> timers) {
+        return applyBatch(TimerBatch.Operation.RESTART, timers);
+    }
+
+    private TimerBatch applyBatch(TimerBatch.Operation operation, Collection<CustomTimer> timers) {
+        CustomTimer[] changed = new CustomTimer[timers.size()];
+        CustomTimer.TimerStatus[] oldStatuses = new CustomTimer.TimerStatus[changed.length];
+        int size = 0;
+        for (CustomTimer timer : timers) {
+            if (timer.getEngine() != this) {
+                throw new IllegalArgumentException("Timer " + timer.getName() + " belongs to another engine");
+            }
+            CustomTimer.TimerStatus oldStatus;
+            switch (operation) {
+                case STOP:
+                    oldStatus = timer.applyStop();
+                    break;
+                case RESET:
+                    oldStatus = timer.applyReset();
+                    break;
+                default:
+                    oldStatus = timer.applyReset();
+                    timer.applyStart();
+                    break;
+            }
+            changed[size] = timer;
+            oldStatuses[size] = oldStatus;
+            size++;
+        }
+        TimerBatch batch = new TimerBatch(operation, changed, oldStatuses, size);
+        if (size > 0) {
+            fireTimersChanged(batch);
+        }
+        return batch;
+    }
+
+    /**
+     * Subscribes a listener to state changes and finishes of every timer on this engine.
+     *
+     * @param listener the listener
+     * @param executor the executor its callbacks run on
+     */
+    public void addListener(TimerListener listener, Executor executor) {
+        addListener(listener, executor, false);
+    }
+
+    /**
+     * Subscribes a listener to every timer on this engine. Adding a listener that is already subscribed
+     * does nothing.
+     *
+     * @param listener the listener
+     * @param executor the executor its callbacks run on
+     * @param ticks    whether the listener also wants a tick each time a running timer's seconds change;
+     *                 timers pick this up the next time they are started
+     */
+    public synchronized void addListener(TimerListener listener, Executor executor, boolean ticks) {
+        for (Subscription subscription : subscriptions) {
+            if (subscription.listener == listener) {
+                return;
+            }
+        }
+        Subscription[] grown = Arrays.copyOf(subscriptions, subscriptions.length + 1);
+        grown[grown.length - 1] = new Subscription(listener, executor, ticks);
+        subscriptions = grown;
+        if (ticks) {
+            tickSubscribers++;
+        }
+    }
+
+    /**
+     * Unsubscribes a listener.
+     *
+     * @param listener the listener to remove
+     */
+    public synchronized void removeListener(TimerListener listener) {
+        Subscription[] current = subscriptions;
+        for (int i = 0; i < current.length; i++) {
+            Subscription subscription = current[i];
+            if (subscription.listener == listener) {
+                Subscription[] shrunk = new Subscription[current.length - 1];
+                System.arraycopy(current, 0, shrunk, 0, i);
+                System.arraycopy(current, i + 1, shrunk, i, shrunk.length - i);
+                subscriptions = shrunk;
+                if (subscription.ticks) {
+                    tickSubscribers--;
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns whether any subscriber wants per-second ticks.
+     *
+     * @return true if timers should schedule ticks
+     */
+    boolean wantsTicks() {
+        return tickSubscribers > 0;
+    }
+
+    void fireTicked(final CustomTimer timer, final long remainingMillis) {
+        for (final Subscription subscription : subscriptions) {
+            if (!subscription.ticks) {
+                continue;
+            }
+            if (subscription.executor == DIRECT) {
+                subscription.listener.timerTicked(timer, remainingMillis);
+            } else {
+                subscription.executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        subscription.listener.timerTicked(timer, remainingMillis);
+                    }
+                });
+            }
+        }
+    }
+
+    void fireFinished(final CustomTimer timer) {
+        for (final Subscription subscription : subscriptions) {
+            if (subscription.executor == DIRECT) {
+                subscription.listener.timerFinished(timer);
+            } else {
+                subscription.executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        subscription.listener.timerFinished(timer);
+                    }
+                });
+            }
+        }
+    }
+
+    void fireStateChanged(final CustomTimer timer, final CustomTimer.TimerStatus oldStatus,
+                          final CustomTimer.TimerStatus newStatus) {
+        metrics.timerStateChanged(oldStatus, newStatus);
+        for (final Subscription subscription : subscriptions) {
+            if (subscription.executor == DIRECT) {
+                subscription.listener.timerStateChanged(timer, oldStatus, newStatus);
+            } else {
+                subscription.executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        subscription.listener.timerStateChanged(timer, oldStatus, newStatus);
+                    }
+                });
+            }
+        }
+    }
+
+    void fireTimersChanged(final TimerBatch batch) {
+        for (int i = 0; i < batch.size(); i++) {
+            metrics.timerStateChanged(batch.getOldStatus(i), batch.getNewStatus());
+        }
+        for (final Subscription subscription : subscriptions) {
+            if (subscription.executor == DIRECT) {
+                subscription.listener.timersChanged(batch);
+            } else {
+                subscription.executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        subscription.listener.timersChanged(batch);
+                    }
+                });
+            }
+        }
+    }
+
+    void fireSequenceStateChanged(final TimerSequence sequence, final CustomTimer.TimerStatus oldStatus,
+                                  final CustomTimer.TimerStatus newStatus) {
+        metrics.timerStateChanged(oldStatus, newStatus);
+        for (final Subscription subscription : subscriptions) {
+            if (subscription.executor == DIRECT) {
+                subscription.listener.sequenceStateChanged(sequence, oldStatus, newStatus);
+            } else {
+                subscription.executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        subscription.listener.sequenceStateChanged(sequence, oldStatus, newStatus);
+                    }
+                });
+            }
+        }
+    }
+
+    void fireSequenceStageChanged(final TimerSequence sequence, final int previousStage, final int newStage) {
+        for (final Subscription subscription : subscriptions) {
+            if (subscription.executor == DIRECT) {
+                subscription.listener.sequenceStageChanged(sequence, previousStage, newStage);
+            } else {
+                subscription.executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        subscription.listener.sequenceStageChanged(sequence, previousStage, newStage);
+                    }
+                });
+            }
+        }
+    }
+
+    void fireSequenceFinished(final TimerSequence sequence) {
+        for (final Subscription subscription : subscriptions) {
+            if (subscription.executor == DIRECT) {
+                subscription.listener.sequenceFinished(sequence);
+            } else {
+                subscription.executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        subscription.listener.sequenceFinished(sequence);
+                    }
+                });
+            }
+        }
+    }
+
+    /**
+     * A listener together with the executor it asked for.
+     */
+    private static final class Subscription {
+        private final TimerListener listener;
+        private final Executor executor;
+        private final boolean ticks;
+
+        private Subscription(TimerListener listener, Executor executor, boolean ticks) {
+            this.listener = listener;
+            this.executor = executor;
+            this.ticks = ticks;
+        }
+    }
+
+    private static final class SharedHolder {
+        private static final TimerEngine INSTANCE = new TimerEngine(TimerScheduler.shared());
+    }
+}
@@ -0,0 +1,352 @@
+package kitchen;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TimerJournal class is an append-only, memory-mapped log of timer lifecycle events.
+ * Each create, start, stop, reset and finish is copied into a {@link MappedLog} under a short lock, and
+ * its flusher forces them to disk outside the lock, so the engine threads that deliver events never
+ * wait for a flush. Running timers are journaled with their wall-clock deadline in
+ * milliseconds, which lets {@link #open(Path)} rebuild their exact remaining time after a restart.
+ * Compaction rewrites the log as one CREATE record per live timer, plus its START or STOP.
+ * The journal hears about lifecycle events as a {@link TimerListener} on the timers' engine and only
+ * records timers it has been asked to {@link #track(CustomTimer)}.
+ *
+ * Payload layout: {@code byte type, long id, long durationMillis, long remainingMillis,
+ * long deadlineEpochMillis, int nameLength, name bytes}, framed as {@link MappedLog} describes.
+ * Version 1 journals stored the name length as a short and are still read.
+ */
+public class TimerJournal extends MappedLog<TimerJournal.Event> implements TimerListener {
+    private static final int MAGIC = 0x4B544A31;
+    private static final int VERSION = 2;
+    private static final int RECORD_FIXED_BYTES = 1 + 8 + 8 + 8 + 8 + 4;
+    private static final int V1_RECORD_FIXED_BYTES = 1 + 8 + 8 + 8 + 8 + 2;
+    private static final long COMMIT_INTERVAL_MILLIS = 50;
+
+    private static final byte CREATE = 1;
+    private static final byte START = 2;
+    private static final byte STOP = 3;
+    private static final byte RESET = 4;
+    private static final byte FINISH = 5;
+
+    private final Map<Long, TimerRecord> live;
+
+    private TimerJournal(Path path, Map<Long, TimerRecord> live) throws IOException {
+        super(path, MAGIC, VERSION, "timer journal", COMMIT_INTERVAL_MILLIS);
+        this.live = live;
+        start("kitchen-timer-journal");
+    }
+
+    /**
+     * Opens the journal at the given path, replaying any existing log. The replayed state is compacted
+     * into a fresh log before the journal accepts new events.
+     *
+     * @param path the journal file
+     * @return the opened journal
+     * @throws IOException if the file cannot be read or mapped
+     */
+    public static TimerJournal open(Path path) throws IOException {
+        Map<Long, TimerRecord> live = new LinkedHashMap<>();
+        if (Files.exists(path)) {
+            replay(path, live);
+        }
+        return new TimerJournal(path, live);
+    }
+
+    /**
+     * Returns the timers that were live when the journal was last written, with the remaining time of
+     * running timers recomputed from their stored deadline.
+     *
+     * @return the timers to restore, in creation order
+     */
+    public synchronized List<TimerRecord> restoredTimers() {
+        long now = System.currentTimeMillis();
+        List<TimerRecord> records = new ArrayList<>();
+        for (TimerRecord record : live.values()) {
+            TimerRecord copy = record.copy();
+            if (copy.status == CustomTimer.TimerStatus.RUNNING) {
+                copy.remainingMillis = Math.max(0, copy.deadlineEpochMillis - now);
+            }
+            records.add(copy);
+        }
+        return records;
+    }
+
+    /**
+     * Rebuilds a timer from a restored record. A timer that was running is started again with its
+     * remaining time, so it finishes at the original deadline.
+     *
+     * @param record the restored record
+     * @param engine the engine the restored timer runs on; this journal should be subscribed to it
+     * @return the restored timer
+     */
+    public CustomTimer restore(TimerRecord record, TimerEngine engine) {
+        CustomTimer timer = new CustomTimer(engine, record.id, record.name, record.durationMillis);
+        timer.restoreRemaining(record.remainingMillis);
+        if (record.status == CustomTimer.TimerStatus.RUNNING) {
+            timer.start();
+        } else if (record.status == CustomTimer.TimerStatus.STOPPED) {
+            timer.stop();
+        }
+        return timer;
+    }
+
+    /**
+     * Journals the creation of a timer, so its later lifecycle events are journaled too.
+     *
+     * @param timer the timer to track
+     */
+    public synchronized void track(CustomTimer timer) {
+        if (!live.containsKey(timer.getId())) {
+            TimerRecord record = new TimerRecord(timer.getId(), timer.getName(), durationMillis(timer));
+            live.put(record.id, record);
+            append(new Event(CREATE, record));
+        }
+    }
+
+    @Override
+    public void timerStateChanged(CustomTimer timer, CustomTimer.TimerStatus oldStatus,
+                                  CustomTimer.TimerStatus newStatus) {
+        switch (newStatus) {
+            case RUNNING:
+                recordStarted(timer, timer.getRemainingMillis());
+                break;
+            case STOPPED:
+                recordStopped(timer, timer.getRemainingMillis());
+                break;
+            case RESET:
+                recordReset(timer);
+                break;
+            default:
+                recordFinished(timer);
+                break;
+        }
+    }
+
+    private synchronized void recordStarted(CustomTimer timer, long remainingMillis) {
+        TimerRecord record = live.get(timer.getId());
+        if (record != null) {
+            record.status = CustomTimer.TimerStatus.RUNNING;
+            record.remainingMillis = remainingMillis;
+            record.deadlineEpochMillis = System.currentTimeMillis() + remainingMillis;
+            append(new Event(START, record));
+        }
+    }
+
+    private synchronized void recordStopped(CustomTimer timer, long remainingMillis) {
+        TimerRecord record = live.get(timer.getId());
+        if (record != null) {
+            record.status = CustomTimer.TimerStatus.STOPPED;
+            record.remainingMillis = remainingMillis;
+            record.deadlineEpochMillis = 0;
+            append(new Event(STOP, record));
+        }
+    }
+
+    private synchronized void recordReset(CustomTimer timer) {
+        TimerRecord record = live.get(timer.getId());
+        if (record != null) {
+            record.status = CustomTimer.TimerStatus.RESET;
+            record.remainingMillis = record.durationMillis;
+            record.deadlineEpochMillis = 0;
+            append(new Event(RESET, record));
+        }
+    }
+
+    private synchronized void recordFinished(CustomTimer timer) {
+        TimerRecord record = live.remove(timer.getId());
+        if (record != null) {
+            record.status = CustomTimer.TimerStatus.FINISHED;
+            record.remainingMillis = 0;
+            append(new Event(FINISH, record));
+        }
+    }
+
+    @Override
+    int payloadLength(Event event) {
+        return RECORD_FIXED_BYTES + event.name.length;
+    }
+
+    @Override
+    void writePayload(ByteBuffer into, Event event) {
+        into.put(event.type);
+        into.putLong(event.id);
+        into.putLong(event.durationMillis);
+        into.putLong(event.remainingMillis);
+        into.putLong(event.deadlineEpochMillis);
+        into.putInt(event.name.length);
+        into.put(event.name);
+    }
+
+    /**
+     * Returns one CREATE event per live timer, plus its START or STOP. Caller holds the lock.
+     */
+    @Override
+    List<Event> snapshot() {
+        List<Event> events = new ArrayList<>(live.size() * 2);
+        for (TimerRecord record : live.values()) {
+            events.add(new Event(CREATE, record));
+            if (record.status == CustomTimer.TimerStatus.RUNNING) {
+                events.add(new Event(START, record));
+            } else if (record.status == CustomTimer.TimerStatus.STOPPED) {
+                events.add(new Event(STOP, record));
+            }
+        }
+        return events;
+    }
+
+    /**
+     * Reads every intact record of the log into the live timer map.
+     */
+    private static void replay(Path path, final Map<Long, TimerRecord> live) throws IOException {
+        MappedLog.replay(path, MAGIC, "timer journal", new MappedLog.RecordReader() {
+            @Override
+            public boolean read(int version, ByteBuffer payload) {
+                int fixedBytes = version == 1 ? V1_RECORD_FIXED_BYTES : RECORD_FIXED_BYTES;
+                if (payload.remaining() < fixedBytes) {
+                    return false;
+                }
+                byte type = payload.get();
+                long id = payload.getLong();
+                long durationMillis = payload.getLong();
+                long remainingMillis = payload.getLong();
+                long deadlineEpochMillis = payload.getLong();
+                int nameLength = version == 1 ? payload.getShort() & 0xFFFF : payload.getInt();
+                if (nameLength != payload.remaining()) {
+                    return false;
+                }
+                byte[] name = new byte[nameLength];
+                payload.get(name);
+                apply(live, type, id, new String(name, StandardCharsets.UTF_8), durationMillis,
+                        remainingMillis, deadlineEpochMillis);
+                return true;
+            }
+        });
+    }
+
+    private static void apply(Map<Long, TimerRecord> live, byte type, long id, String name,
+                              long durationMillis, long remainingMillis, long deadlineEpochMillis) {
+        if (type == CREATE) {
+            live.put(id, new TimerRecord(id, name, durationMillis));
+            return;
+        }
+        if (type == FINISH) {
+            live.remove(id);
+            return;
+        }
+        TimerRecord record = live.get(id);
+        if (record == null) {
+            return;
+        }
+        if (type == START) {
+            record.status = CustomTimer.TimerStatus.RUNNING;
+            record.remainingMillis = remainingMillis;
+            record.deadlineEpochMillis = deadlineEpochMillis;
+        } else if (type == STOP) {
+            record.status = CustomTimer.TimerStatus.STOPPED;
+            record.remainingMillis = remainingMillis;
+            record.deadlineEpochMillis = 0;
+        } else if (type == RESET) {
+            record.status = CustomTimer.TimerStatus.RESET;
+            record.remainingMillis = record.durationMillis;
+            record.deadlineEpochMillis = 0;
+        }
+    }
+
+    /**
+     * Event is one journaled event, with the timer's state when it happened.
+     */
+    static final class Event {
+        private final byte type;
+        private final long id;
+        private final long durationMillis;
+        private final long remainingMillis;
+        private final long deadlineEpochMillis;
+        private final byte[] name;
+
+        private Event(byte type, TimerRecord record) {
+            this.type = type;
+            this.id = record.id;
+            this.durationMillis = record.durationMillis;
+            this.remainingMillis = record.remainingMillis;
+            this.deadlineEpochMillis = record.deadlineEpochMillis;
+            this.name = type == CREATE ? record.name.getBytes(StandardCharsets.UTF_8) : new byte[0];
+        }
+    }
+
+    private static long durationMillis(CustomTimer timer) {
+        return TimeUnit.SECONDS.toMillis((timer.getHours() * 3600L) + (timer.getMinutes() * 60L) + timer.getSeconds());
+    }
+
+    /**
+     * TimerRecord is the journaled state of one timer.
+     */
+    public static final class TimerRecord {
+        private final long id;
+        private final String name;
+        private final long durationMillis;
+        private CustomTimer.TimerStatus status = CustomTimer.TimerStatus.RESET;
+        private long remainingMillis;
+        private long deadlineEpochMillis;
+
+        private TimerRecord(long id, String name, long durationMillis) {
+            this.id = id;
+            this.name = name;
+            this.durationMillis = durationMillis;
+            this.remainingMillis = durationMillis;
+        }
+
+        private TimerRecord copy() {
+            TimerRecord copy = new TimerRecord(id, name, durationMillis);
+            copy.status = status;
+            copy.remainingMillis = remainingMillis;
+            copy.deadlineEpochMillis = deadlineEpochMillis;
+            return copy;
+        }
+
+        /**
+         * Returns the id of the timer.
+         *
+         * @return the timer id
+         */
+        public long getId() {
+            return id;
+        }
+
+        /**
+         * Returns the name of the timer.
+         *
+         * @return the timer name
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Returns the status the timer had when it was last journaled.
+         *
+         * @return the timer status
+         */
+        public CustomTimer.TimerStatus getStatus() {
+            return status;
+        }
+
+        /**
+         * Returns the remaining time of the timer.
+         *
+         * @return the remaining time in milliseconds
+         */
+        public long getRemainingMillis() {
+            return remainingMillis;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package kitchen;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * This test suite contains tests for the TimerJournal.
+ * Each test verifies that timer state written before a restart is replayed after it.
+ */
+public class TimerJournalTest {
+
+    @Test
+    public void testRunningTimerResumesFromDeadline() throws Exception {
+        Path path = Files.createTempDirectory("journal").resolve("timers.journal");
+        TimerEngine engine = new TimerEngine(TimerScheduler.shared());
+        TimerJournal journal = TimerJournal.open(path);
+        engine.addListener(journal, TimerEngine.directExecutor());
+        CustomTimer running = new CustomTimer(engine, "Rice", 0, 30, 0);
+        CustomTimer stopped = new CustomTimer(engine, "Sauce", 0, 10, 0);
+        CustomTimer finished = new CustomTimer(engine, "Eggs", 0, 0, 0);
+        journal.track(running);
+        journal.track(stopped);
+        journal.track(finished);
+        running.start();
+        stopped.start();
+        stopped.stop();
+        finished.start();
+        Thread.sleep(100);
+        long stoppedRemaining = stopped.getRemainingMillis();
+        journal.close();
+        engine.removeListener(journal);
+
+        TimerJournal reopened = TimerJournal.open(path);
+        engine.addListener(reopened, TimerEngine.directExecutor());
+        List<TimerJournal.TimerRecord> records = reopened.restoredTimers();
+        assertEquals(2, records.size());
+        assertEquals(running.getId(), records.get(0).getId());
+        assertEquals(CustomTimer.TimerStatus.RUNNING, records.get(0).getStatus());
+        long drift = Math.abs(records.get(0).getRemainingMillis() - running.getRemainingMillis());
+        assertTrue(drift < 50, "Restored remaining time drifted by " + drift + " ms");
+        assertEquals(CustomTimer.TimerStatus.STOPPED, records.get(1).getStatus());
+        assertEquals(stoppedRemaining, records.get(1).getRemainingMillis());
+
+        CustomTimer restored = reopened.restore(records.get(0), engine);
+        assertEquals("Rice", restored.getName());
+        assertEquals(CustomTimer.TimerStatus.RUNNING, restored.getStatus());
+        running.stop();
+        restored.stop();
+        reopened.close();
+    }
+
+    @Test
+    public void testReplayManyEntriesAndCompact() throws Exception {
+        Path path = Files.createTempDirectory("journal").resolve("timers.journal");
+        TimerEngine engine = new TimerEngine(TimerScheduler.shared());
+        TimerJournal journal = TimerJournal.open(path);
+        engine.addListener(journal, TimerEngine.directExecutor());
+        List<CustomTimer> timers = new ArrayList<>();
+        for (int i = 0; i < 25000; i++) {
+            CustomTimer timer = new CustomTimer(engine, "Timer " + i, 1, 0, 0);
+            journal.track(timer);
+            timer.start();
+            timer.stop();
+            timer.reset();
+            timers.add(timer);
+        }
+        journal.close();
+        assertTrue(Files.size(path) < 8 << 20, "Journal must stay bounded");
+
+        long start = System.nanoTime();
+        TimerJournal reopened = TimerJournal.open(path);
+        assertEquals(timers.size(), reopened.restoredTimers().size());
+        assertTrue(System.nanoTime() - start < 5_000_000_000L);
+        reopened.close();
+    }
+
+    @Test
+    public void testNameLongerThanAShortSurvivesReplay() throws Exception {
+        Path path = Files.createTempDirectory("journal").resolve("timers.journal");
+        TimerEngine engine = new TimerEngine(TimerScheduler.shared());
+        TimerJournal journal = TimerJournal.open(path);
+        char[] name = new char[40000];
+        Arrays.fill(name, 'n');
+        CustomTimer timer = new CustomTimer(engine, new String(name), 0, 5, 0);
+        journal.track(timer);
+        journal.close();
+
+        TimerJournal reopened = TimerJournal.open(path);
+        List<TimerJournal.TimerRecord> records = reopened.restoredTimers();
+        assertEquals(1, records.size());
+        assertEquals(new String(name), records.get(0).getName());
+        reopened.close();
+    }
+}
@@ -0,0 +1,80 @@
+package kitchen;
+
+/**
+ * TimerListener interface receives lifecycle events from the timers of a {@link TimerEngine}.
+ * Every method has an empty default, so a subscriber only overrides the events it cares about.
+ * Callbacks run on the executor the listener was registered with.
+ */
+public interface TimerListener {
+
+    /**
+     * Called while a timer runs, each time the whole seconds it shows drop by one. Only delivered to
+     * listeners registered for ticks.
+     *
+     * @param timer           the timer that ticked
+     * @param remainingMillis the time left in milliseconds
+     */
+    default void timerTicked(CustomTimer timer, long remainingMillis) {
+    }
+
+    /**
+     * Called when a timer reaches its deadline.
+     *
+     * @param timer the timer that finished
+     */
+    default void timerFinished(CustomTimer timer) {
+    }
+
+    /**
+     * Called when a timer moves from one status to another.
+     *
+     * @param timer     the timer that changed
+     * @param oldStatus the status before the change
+     * @param newStatus the status after the change
+     */
+    default void timerStateChanged(CustomTimer timer, CustomTimer.TimerStatus oldStatus,
+                                   CustomTimer.TimerStatus newStatus) {
+    }
+
+    /**
+     * Called once when a bulk operation has changed many timers. The default reports every timer in the
+     * batch to {@link #timerStateChanged}, so listeners that track single timers stay correct without
+     * knowing about batches; listeners that redraw should override it to redraw once per batch.
+     *
+     * @param batch the timers that changed and their statuses before the operation
+     */
+    default void timersChanged(TimerBatch batch) {
+        for (int i = 0; i < batch.size(); i++) {
+            timerStateChanged(batch.getTimer(i), batch.getOldStatus(i), batch.getNewStatus());
+        }
+    }
+
+    /**
+     * Called when a sequence is started, stopped, reset or finishes.
+     *
+     * @param sequence  the sequence that changed
+     * @param oldStatus the status before the change
+     * @param newStatus the status after the change
+     */
+    default void sequenceStateChanged(TimerSequence sequence, CustomTimer.TimerStatus oldStatus,
+                                      CustomTimer.TimerStatus newStatus) {
+    }
+
+    /**
+     * Called when a sequence moves from one stage to the next.
+     *
+     * @param sequence      the sequence that moved on
+     * @param previousStage the index of the stage that just ended
+     * @param newStage      the index of the stage that just began
+     */
+    default void sequenceStageChanged(TimerSequence sequence, int previousStage, int newStage) {
+    }
+
+    /**
+     * Called when the last stage of a sequence reaches its deadline.
+     *
+     * @param sequence the sequence that finished
+     */
+    default void sequenceFinished(TimerSequence sequence) {
+    }
+}
@@ -0,0 +1,156 @@
+package kitchen;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * TimerMetrics class holds the health figures of one {@link TimerEngine}:
+ * <ul>
+ *   <li>how late the scheduler ran each tick and finish compared with the time it was scheduled for,</li>
+ *   <li>how many timers are running, and how many have finished or been reset,</li>
+ *   <li>the worst drift seen between a timer's finish and its deadline on the monotonic clock, and</li>
+ *   <li>how late the dashboard's repaint frames were.</li>
+ * </ul>
+ * Every figure is updated with atomic operations and no allocation. Read it in-process through the
+ * getters, or take a text report with {@link #dump()}.
+ */
+public class TimerMetrics {
+    private final LatencyHistogram tickLateness;
+    private final LatencyHistogram frameLateness = new LatencyHistogram();
+    private final AtomicLong activeTimers = new AtomicLong();
+    private final AtomicLong finishedTimers = new AtomicLong();
+    private final AtomicLong resetTimers = new AtomicLong();
+    private final AtomicLong worstDriftNanos = new AtomicLong();
+
+    /**
+     * Constructs a TimerMetrics that reports the tick lateness recorded by the given scheduler.
+     *
+     * @param scheduler the scheduler the engine's timers run on
+     */
+    public TimerMetrics(TimerScheduler scheduler) {
+        this.tickLateness = scheduler.getLatenessHistogram();
+    }
+
+    /**
+     * Counts a timer moving from one status to another.
+     */
+    void timerStateChanged(CustomTimer.TimerStatus oldStatus, CustomTimer.TimerStatus newStatus) {
+        if (oldStatus == newStatus) {
+            return;
+        }
+        if (newStatus == CustomTimer.TimerStatus.RUNNING) {
+            activeTimers.incrementAndGet();
+        } else if (oldStatus == CustomTimer.TimerStatus.RUNNING) {
+            activeTimers.decrementAndGet();
+        }
+        if (newStatus == CustomTimer.TimerStatus.FINISHED) {
+            finishedTimers.incrementAndGet();
+        } else if (newStatus == CustomTimer.TimerStatus.RESET) {
+            resetTimers.incrementAndGet();
+        }
+    }
+
+    /**
+     * Records how far after its deadline a timer actually finished.
+     *
+     * @param driftNanos the finish time minus the deadline, in nanoseconds
+     */
+    void recordDrift(long driftNanos) {
+        long current = worstDriftNanos.get();
+        while (driftNanos > current && !worstDriftNanos.compareAndSet(current, driftNanos)) {
+            current = worstDriftNanos.get();
+        }
+    }
+
+    /**
+     * Records how late a dashboard repaint frame ran.
+     *
+     * @param latenessNanos the time past the frame's due time, in nanoseconds
+     */
+    public void recordFrameLateness(long latenessNanos) {
+        frameLateness.record(latenessNanos);
+    }
+
+    /**
+     * Returns the histogram of how late scheduled ticks and finishes ran, in nanoseconds.
+     *
+     * @return the tick lateness histogram
+     */
+    public LatencyHistogram getTickLateness() {
+        return tickLateness;
+    }
+
+    /**
+     * Returns the histogram of how late dashboard frames ran, in nanoseconds.
+     *
+     * @return the frame lateness histogram
+     */
+    public LatencyHistogram getFrameLateness() {
+        return frameLateness;
+    }
+
+    /**
+     * Returns the number of timers currently running.
+     *
+     * @return the active timer count
+     */
+    public long getActiveTimers() {
+        return activeTimers.get();
+    }
+
+    /**
+     * Returns the number of times a timer has finished.
+     *
+     * @return the finished timer count
+     */
+    public long getFinishedTimers() {
+        return finishedTimers.get();
+    }
+
+    /**
+     * Returns the number of times a timer has been reset.
+     *
+     * @return the reset count
+     */
+    public long getResetTimers() {
+        return resetTimers.get();
+    }
+
+    /**
+     * Returns the worst drift seen between a finish and its deadline.
+     *
+     * @return the worst drift in nanoseconds
+     */
+    public long getWorstDriftNanos() {
+        return worstDriftNanos.get();
+    }
+
+    /**
+     * Returns a human-readable report of every figure.
+     *
+     * @return the report, one figure per line
+     */
+    public String dump() {
+        StringBuilder report = new StringBuilder();
+        report.append("timers: active=").append(getActiveTimers())
+                .append(" finished=").append(getFinishedTimers())
+                .append(" reset=").append(getResetTimers()).append('\n');
+        report.append(String.format(Locale.ROOT, "worst drift: %.3f ms%n", getWorstDriftNanos() / 1e6));
+        appendHistogram(report, "tick lateness", tickLateness);
+        appendHistogram(report, "frame lateness", frameLateness);
+        return report.toString();
+    }
+
+    private static void appendHistogram(StringBuilder report, String name, LatencyHistogram histogram) {
+        report.append(String.format(Locale.ROOT,
+                "%s: count=%d p50=%dus p90=%dus p99=%dus p99.9=%dus max=%dus%n", name, histogram.getCount(),
+                micros(histogram.getValueAtPercentile(50)), micros(histogram.getValueAtPercentile(90)),
+                micros(histogram.getValueAtPercentile(99)), micros(histogram.getValueAtPercentile(99.9)),
+                micros(histogram.getMax())));
+    }
+
+    private static long micros(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+}
@@ -0,0 +1,69 @@
+package kitchen;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * This test suite contains tests for the lateness histogram and the timer health metrics.
+ */
+public class TimerMetricsTest {
+
+    @Test
+    public void testHistogramPercentilesWithinBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long value = 1; value <= 100000; value++) {
+            histogram.record(value * 1000);
+        }
+        assertEquals(100000, histogram.getCount());
+        assertEquals(100000000L, histogram.getMax());
+        long p50 = histogram.getValueAtPercentile(50);
+        long p99 = histogram.getValueAtPercentile(99);
+        assertTrue(p50 >= 50000000L && p50 <= 50000000L * 104 / 100);
+        assertTrue(p99 >= 99000000L && p99 <= 99000000L * 104 / 100);
+        assertEquals(100000000L, histogram.getValueAtPercentile(100));
+    }
+
+    @Test
+    public void testHistogramBucketsAreContiguous() {
+        for (int index = 1; index < 1800; index++) {
+            long low = LatencyHistogram.highestValueIn(index - 1) + 1;
+            assertEquals(index, LatencyHistogram.indexOf(low));
+            assertEquals(index, LatencyHistogram.indexOf(LatencyHistogram.highestValueIn(index)));
+        }
+        assertTrue(LatencyHistogram.indexOf(Long.MAX_VALUE) < 1920);
+    }
+
+    @Test
+    public void testEngineCountsLifecycleAndLateness() throws InterruptedException {
+        TimerEngine engine = new TimerEngine(new TimerScheduler("metrics-test", 1, TimeUnit.MILLISECONDS));
+        final CountDownLatch finished = new CountDownLatch(1);
+        engine.addListener(new TimerListener() {
+            @Override
+            public void timerFinished(CustomTimer timer) {
+                finished.countDown();
+            }
+        }, TimerEngine.directExecutor());
+        TimerMetrics metrics = engine.getMetrics();
+
+        CustomTimer running = new CustomTimer(engine, "Running", 0, 10, 0);
+        CustomTimer quick = new CustomTimer(engine, "Quick", 0, 0, 0);
+        running.start();
+        quick.start();
+        assertEquals(2, metrics.getActiveTimers());
+        assertTrue(finished.await(5, TimeUnit.SECONDS));
+        assertEquals(1, metrics.getActiveTimers());
+        assertEquals(1, metrics.getFinishedTimers());
+        running.reset();
+        assertEquals(0, metrics.getActiveTimers());
+        assertEquals(1, metrics.getResetTimers());
+        assertTrue(metrics.getTickLateness().getCount() >= 1);
+        assertTrue(metrics.getWorstDriftNanos() >= 0);
+        assertTrue(metrics.dump().startsWith("timers: active=0 finished=1 reset=1"));
+        engine.getScheduler().shutdown();
+    }
+}
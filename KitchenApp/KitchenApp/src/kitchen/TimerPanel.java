@@ -4,31 +4,127 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * TimerPanel class creates a panel for adding and managing countdown timers.
  * Users can input timer name, hours, minutes, and seconds. The timer counts down and alerts the user when it ends.
+ * Running timers are listed in a table that is refreshed once per frame, and only the rows whose
+ * displayed time changed are repainted. The panel is one subscriber of the headless {@link TimerEngine}
+ * and receives its timer events on the event dispatch thread. The lateness of each frame is recorded in
+ * the engine's {@link TimerMetrics}, which the "Timer Metrics" button dumps on demand. The timers that
+ * finish next are read from a {@link DeadlineIndex} rather than by sorting the timer list. The frame
+ * timer only runs while some timer is running, and finished timers stay listed until they are cleared.
+ * A {@link TimerSequence} is started from the Timer Name and Stages fields, where the stages read like
+ * "Saute 3, Simmer 20, Rest 5" in minutes, and running sequences are shown on a line of their own.
+ *
+ * Each kitchen station runs its timers on its own shard of a {@link ShardedTimerEngine}, and the panel
+ * reads the merged view. Every station has its own {@link FinishNotifier}, {@link KitchenEventBus} and
+ * {@link TimerJournal}, so one station's finishes never wait on another station's locks. The pass is the
+ * home station, backed by the shared engine, notifier and event bus. The activity line at the bottom is
+ * a consumer of those buses: the EDT polls every station's bus a few times a second, and a busy station
+ * laps the panel rather than waiting for it.
  */
 public class TimerPanel extends JPanel {
+    private static final int FRAME_MILLIS = 100;
+    private static final long FRAME_NANOS = TimeUnit.MILLISECONDS.toNanos(FRAME_MILLIS);
+    private static final int NEXT_SHOWN = 5;
+    private static final long FINISH_WINDOW_MILLIS = 500;
+    private static final int STATION_EVENT_CAPACITY = 1 << 12;
+    private static final int ACTIVITY_MILLIS = 250;
+    private static final int ACTIVITY_BATCH = 256;
+    private static final String HOME_STATION = "Pass";
+    private static final String[] STATIONS = {HOME_STATION, "Grill", "Fry", "Saute", "Pastry"};
+
+    private JComboBox<String> stationBox;
     private JTextField nameField;
     private JTextField hoursField;
     private JTextField minutesField;
     private JTextField secondsField;
-    private JTextArea resultArea;
+    private JLabel messageLabel;
+    private JLabel nextLabel;
+    private JLabel activityLabel;
     private JButton addTimerButton;
-    private List<CustomTimer> timers;
+    private JButton metricsButton;
+    private JComboBox<TimerBatch.Operation> bulkOperationBox;
+    private JButton bulkButton;
+    private JButton clearFinishedButton;
+    private JTextField stagesField;
+    private JButton sequenceButton;
+    private JLabel sequenceLabel;
+    private final List<TimerSequence> sequences = new ArrayList<>();
+    private JTable timerTable;
+    private TimerTableModel tableModel;
+    private Timer frameTimer;
+    private Timer activityTimer;
+    private final KitchenEventBus.Subscription[] activitySubscriptions =
+            new KitchenEventBus.Subscription[STATIONS.length];
+    private String activityStation;
+    private String latestActivity;
+    private long latestActivityNanos;
+    private final KitchenEventBus.EventHandler activityHandler = new KitchenEventBus.EventHandler() {
+        @Override
+        public void onEvent(KitchenEventBus.Event event) {
+            String what;
+            switch (event.getType()) {
+                case TIMER_STARTED:
+                    what = activityStation + ": " + event.getName() + " started";
+                    break;
+                case TIMER_STOPPED:
+                    what = activityStation + ": " + event.getName() + " stopped";
+                    break;
+                case TIMER_RESET:
+                    what = activityStation + ": " + event.getName() + " reset";
+                    break;
+                case TIMER_FINISHED:
+                    what = activityStation + ": " + event.getName() + " finished";
+                    break;
+                case RECIPE_LOADED:
+                    what = "Recipe opened: " + event.getName();
+                    break;
+                default:
+                    return;
+            }
+            // Stations are polled one after another, so keep whichever event happened last
+            if (latestActivity == null || event.getTimestampNanos() - latestActivityNanos > 0) {
+                latestActivity = "Latest: " + what;
+                latestActivityNanos = event.getTimestampNanos();
+            }
+        }
+    };
+    private final Map<String, TimerJournal> journals = new HashMap<>();
+    private ShardedTimerEngine stations;
+    private long lastFrameNanos;
 
     /**
      * Constructor for TimerPanel, initializes the panel components and layout.
      */
     public TimerPanel() {
-        timers = new ArrayList<>();
+        Map<String, TimerEngine> engines = new LinkedHashMap<>();
+        engines.put(HOME_STATION, TimerEngine.shared());
+        for (int i = 1; i < STATIONS.length; i++) {
+            engines.put(STATIONS[i], new TimerEngine(
+                    new TimerScheduler("kitchen-timer-" + STATIONS[i], 10, TimeUnit.MILLISECONDS)));
+        }
+        stations = new ShardedTimerEngine(engines);
         setLayout(new BorderLayout());
 
         JPanel inputPanel = new JPanel();
-        inputPanel.setLayout(new GridLayout(5, 2));
+        inputPanel.setLayout(new GridLayout(9, 2));
+
+        inputPanel.add(new JLabel("Station:"));
+        stationBox = new JComboBox<>(STATIONS);
+        inputPanel.add(stationBox);
 
         inputPanel.add(new JLabel("Timer Name:"));
         nameField = new JTextField(10);
@@ -46,6 +142,10 @@ public class TimerPanel extends JPanel {
         secondsField = new JTextField(10);
         inputPanel.add(secondsField);
 
+        inputPanel.add(new JLabel("Stages (name minutes, ...):"));
+        stagesField = new JTextField(10);
+        inputPanel.add(stagesField);
+
         addTimerButton = new JButton("Add Timer");
         addTimerButton.addActionListener(new ActionListener() {
             @Override
@@ -60,116 +160,355 @@ public class TimerPanel extends JPanel {
                         throw new NumberFormatException();
                     }
 
-                    CustomTimer timer = new CustomTimer(name, hours, minutes, seconds);
-                    timers.add(timer);
+                    String station = (String) stationBox.getSelectedItem();
+                    CustomTimer timer = stations.createTimer(station, name, hours, minutes, seconds);
+                    TimerJournal journal = journals.get(station);
+                    if (journal != null) {
+                        journal.track(timer);
+                    }
                     timer.start();
-                    resultArea.append("Added Timer: " + timer.getName() + " (" + timer.getFormattedTime() + ")\n");
+                    tableModel.addTimer(timer);
+                    frameTimer.start();
+                    messageLabel.setText("Added Timer: " + timer.getName() + " (" + timer.getFormattedTime() + ")");
                 } catch (NumberFormatException ex) {
-                    resultArea.append("Invalid time entered. Please enter positive values for hours, minutes, and seconds.\n");
+                    messageLabel.setText("Invalid time entered. Please enter positive values for hours, minutes, and seconds.");
                 }
             }
         });
         inputPanel.add(addTimerButton);
 
-        resultArea = new JTextArea(10, 30);
-        resultArea.setEditable(false);
+        metricsButton = new JButton("Timer Metrics");
+        metricsButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                String report = stations.view().dumpMetrics();
+                messageLabel.setText("<html>" + report.replace("\n", "<br>") + "</html>");
+            }
+        });
+        inputPanel.add(metricsButton);
+
+        // Applies one operation to every timer whose name starts with the Timer Name field, as one batch
+        bulkOperationBox = new JComboBox<>(TimerBatch.Operation.values());
+        inputPanel.add(bulkOperationBox);
+        bulkButton = new JButton("Apply to Names Starting With Timer Name");
+        bulkButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                List<CustomTimer> selected = stations.view().withNamePrefix(nameField.getText());
+                TimerBatch.Operation operation = (TimerBatch.Operation) bulkOperationBox.getSelectedItem();
+                if (operation == TimerBatch.Operation.STOP) {
+                    stations.stopAll(selected);
+                } else if (operation == TimerBatch.Operation.RESET) {
+                    stations.resetAll(selected);
+                } else {
+                    stations.restartAll(selected);
+                }
+            }
+        });
+        inputPanel.add(bulkButton);
+
+        clearFinishedButton = new JButton("Clear Finished Timers");
+        clearFinishedButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                List<CustomTimer> cleared = tableModel.removeFinished();
+                for (CustomTimer timer : cleared) {
+                    stations.unregister(timer);
+                }
+                int clearedSequences = 0;
+                for (int i = sequences.size() - 1; i >= 0; i--) {
+                    if (sequences.get(i).getStatus() == CustomTimer.TimerStatus.FINISHED) {
+                        sequences.remove(i);
+                        clearedSequences++;
+                    }
+                }
+                refreshSequences();
+                messageLabel.setText("Cleared " + cleared.size() + " finished timer(s) and "
+                        + clearedSequences + " sequence(s).");
+            }
+        });
+        inputPanel.add(clearFinishedButton);
+
+        sequenceButton = new JButton("Start Sequence");
+        sequenceButton.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                List<TimerSequence.Stage> stages = parseStages(stagesField.getText());
+                if (stages == null) {
+                    messageLabel.setText("Enter stages such as: Saute 3, Simmer 20, Rest 5 (minutes).");
+                    return;
+                }
+                String station = (String) stationBox.getSelectedItem();
+                TimerSequence sequence = new TimerSequence(stations.engineFor(station), nameField.getText(), stages);
+                sequences.add(sequence);
+                sequence.start();
+                frameTimer.start();
+                messageLabel.setText("Started sequence: " + sequence.getName() + " (" + stages.size() + " stages)");
+            }
+        });
+        inputPanel.add(sequenceButton);
+
+        tableModel = new TimerTableModel();
+        timerTable = new JTable(tableModel);
+        timerTable.setFillsViewportHeight(true);
+        messageLabel = new JLabel(" ");
+        nextLabel = new JLabel(" ");
+        activityLabel = new JLabel(" ");
+        sequenceLabel = new JLabel(" ");
+
+        // One repaint pass per frame for the rows on screen, however many timers are running
+        frameTimer = new Timer(FRAME_MILLIS, new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                long now = System.nanoTime();
+                if (lastFrameNanos != 0) {
+                    stations.engineFor(HOME_STATION).getMetrics()
+                            .recordFrameLateness(now - lastFrameNanos - FRAME_NANOS);
+                }
+                lastFrameNanos = now;
+                refreshVisibleRows();
+                refreshNextToFinish();
+                refreshSequences();
+                // Nothing left to count down; the next start or batch starts the frames again
+                if (stations.view().getActiveTimers() == 0) {
+                    frameTimer.stop();
+                    lastFrameNanos = 0;
+                }
+            }
+        });
+        frameTimer.setCoalesce(true);
+
+        activityTimer = new Timer(ACTIVITY_MILLIS, new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                for (int i = 0; i < STATIONS.length; i++) {
+                    activityStation = STATIONS[i];
+                    activitySubscriptions[i].poll(activityHandler, ACTIVITY_BATCH);
+                }
+                if (latestActivity != null && !latestActivity.equals(activityLabel.getText())) {
+                    activityLabel.setText(latestActivity);
+                }
+            }
+        });
+        activityTimer.setCoalesce(true);
 
         add(inputPanel, BorderLayout.NORTH);
-        add(new JScrollPane(resultArea), BorderLayout.CENTER);
+        add(new JScrollPane(timerTable), BorderLayout.CENTER);
+        JPanel statusPanel = new JPanel(new GridLayout(4, 1));
+        statusPanel.add(nextLabel);
+        statusPanel.add(sequenceLabel);
+        statusPanel.add(messageLabel);
+        statusPanel.add(activityLabel);
+        add(statusPanel, BorderLayout.SOUTH);
+
+        for (int i = 0; i < STATIONS.length; i++) {
+            subscribeStation(i);
+        }
+        activityTimer.start();
+        stations.addListener(new TimerListener() {
+            @Override
+            public void timerFinished(CustomTimer timer) {
+                messageLabel.setText(timer.getName() + " timer finished!");
+            }
+
+            @Override
+            public void sequenceFinished(TimerSequence sequence) {
+                messageLabel.setText(sequence.getName() + " sequence finished!");
+                refreshSequences();
+            }
+
+            @Override
+            public void timersChanged(TimerBatch batch) {
+                messageLabel.setText(batch.getOperation() + " applied to " + batch.size() + " timer(s).");
+                refreshVisibleRows();
+                frameTimer.start();
+            }
+        }, new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                SwingUtilities.invokeLater(command);
+            }
+        });
+        restoreTimers();
     }
 
     /**
-     * Inner class CustomTimer representing a custom countdown timer.
+     * Stops the panel. The scheduler threads of the stations the panel created are shut down and every
+     * station journal is closed; the pass runs on the shared engine, which outlives the panel.
      */
-    private class CustomTimer {
-        private String name;
-        private TimerState state;
-        private javax.swing.Timer timer;
-
-        /**
-         * Constructor for CustomTimer.
-         *
-         * @param name    Timer name.
-         * @param hours   Initial hours.
-         * @param minutes Initial minutes.
-         * @param seconds Initial seconds.
-         */
-        public CustomTimer(String name, int hours, int minutes, int seconds) {
-            this.name = name;
-            this.state = new TimerState(hours, minutes, seconds);
-            this.timer = new javax.swing.Timer(1000, new ActionListener() {
-                @Override
-                public void actionPerformed(ActionEvent e) {
-                    if (state.seconds > 0) {
-                        state.seconds--;
-                    } else if (state.minutes > 0) {
-                        state.minutes--;
-                        state.seconds = 59;
-                    } else if (state.hours > 0) {
-                        state.hours--;
-                        state.minutes = 59;
-                        state.seconds = 59;
-                    } else {
-                        timer.stop();
-                        JOptionPane.showMessageDialog(TimerPanel.this, name + " timer finished!");
-                    }
-                    updateResultArea();
-                }
-            });
+    public void dispose() {
+        frameTimer.stop();
+        activityTimer.stop();
+        for (KitchenEventBus.Subscription subscription : activitySubscriptions) {
+            subscription.close();
+        }
+        for (String station : STATIONS) {
+            if (!station.equals(HOME_STATION)) {
+                stations.engineFor(station).getScheduler().shutdown();
+            }
+        }
+        for (TimerJournal journal : journals.values()) {
+            try {
+                journal.close();
+            } catch (IOException ex) {
+                // The timers written so far are already on disk; nothing else can be saved now
+            }
+        }
+        journals.clear();
+    }
+
+    /**
+     * Subscribes a station's own finish notifier and event bus to that station's shard only, and the
+     * activity line to the station's bus.
+     *
+     * @param index the index of the station in {@link #STATIONS}
+     */
+    private void subscribeStation(int index) {
+        String station = STATIONS[index];
+        TimerEngine engine = stations.engineFor(station);
+        FinishNotifier notifier;
+        KitchenEventBus eventBus;
+        if (station.equals(HOME_STATION)) {
+            notifier = FinishNotifier.shared();
+            eventBus = KitchenEventBus.shared();
+        } else {
+            notifier = new FinishNotifier(engine.getScheduler(), FINISH_WINDOW_MILLIS);
+            eventBus = new KitchenEventBus(STATION_EVENT_CAPACITY);
         }
+        engine.addListener(notifier, TimerEngine.directExecutor());
+        engine.addListener(eventBus.timerListener(), TimerEngine.directExecutor());
+        activitySubscriptions[index] = eventBus.subscribe(KitchenEventBus.BackpressurePolicy.DROP);
+    }
 
-        /**
-         * Starts the timer.
-         */
-        public void start() {
-            timer.start();
+    /**
+     * Opens every station's timer journal and brings back every timer that was live when the application
+     * last ran, each at the station it was started at. Running timers resume with the time left until
+     * their original deadline.
+     */
+    private void restoreTimers() {
+        Path directory = Paths.get(System.getProperty("user.home"), ".kitchen_app");
+        int restored = 0;
+        boolean unavailable = false;
+        for (String station : STATIONS) {
+            // The pass keeps the journal file used before the kitchen had stations
+            String fileName = station.equals(HOME_STATION)
+                    ? "timers.journal" : "timers-" + station.toLowerCase() + ".journal";
+            TimerJournal journal;
+            try {
+                Files.createDirectories(directory);
+                journal = TimerJournal.open(directory.resolve(fileName));
+            } catch (IOException | RuntimeException ex) {
+                unavailable = true;
+                continue;
+            }
+            TimerEngine engine = stations.engineFor(station);
+            engine.addListener(journal, TimerEngine.directExecutor());
+            journals.put(station, journal);
+            for (TimerJournal.TimerRecord record : journal.restoredTimers()) {
+                CustomTimer timer = journal.restore(record, engine);
+                stations.register(timer);
+                tableModel.addTimer(timer);
+                restored++;
+            }
         }
+        if (unavailable) {
+            messageLabel.setText("Timer journal unavailable: some timers will not survive a restart.");
+        } else if (restored > 0) {
+            messageLabel.setText("Restored " + restored + " timer(s).");
+        }
+        if (restored > 0) {
+            frameTimer.start();
+        }
+    }
 
-        /**
-         * Gets the name of the timer.
-         *
-         * @return Timer name.
-         */
-        public String getName() {
-            return name;
+    /**
+     * Parses stages written as "Saute 3, Simmer 20, Rest 5", each a name followed by whole minutes.
+     *
+     * @param text the stages
+     * @return the stages in order, or null if the text is not a list of named stages
+     */
+    private static List<TimerSequence.Stage> parseStages(String text) {
+        List<TimerSequence.Stage> stages = new ArrayList<>();
+        for (String part : text.split(",")) {
+            String stage = part.trim();
+            int space = stage.lastIndexOf(' ');
+            if (space <= 0) {
+                return null;
+            }
+            try {
+                int minutes = Integer.parseInt(stage.substring(space + 1));
+                if (minutes < 0) {
+                    return null;
+                }
+                stages.add(new TimerSequence.Stage(stage.substring(0, space).trim(), minutes, TimeUnit.MINUTES));
+            } catch (NumberFormatException ex) {
+                return null;
+            }
         }
+        return stages;
+    }
 
-        /**
-         * Gets the formatted time left for the timer.
-         *
-         * @return Formatted time string.
-         */
-        public String getFormattedTime() {
-            return String.format("%02d:%02d:%02d", state.hours, state.minutes, state.seconds);
+    /**
+     * Shows every sequence with its current stage, the time left in that stage and the time left in all.
+     */
+    private void refreshSequences() {
+        if (sequences.isEmpty()) {
+            if (!" ".equals(sequenceLabel.getText())) {
+                sequenceLabel.setText(" ");
+            }
+            return;
+        }
+        StringBuilder text = new StringBuilder("Sequences:");
+        for (TimerSequence sequence : sequences) {
+            text.append("  ").append(sequence.getName()).append(" - ");
+            if (sequence.getStatus() == CustomTimer.TimerStatus.FINISHED) {
+                text.append("finished");
+                continue;
+            }
+            long stageSeconds = (sequence.getStageRemainingMillis() + 999) / 1000;
+            long totalSeconds = (sequence.getTotalRemainingMillis() + 999) / 1000;
+            text.append(sequence.getStageName(sequence.getCurrentStage())).append(' ')
+                    .append(TimeFormatter.format(stageSeconds)).append(" (")
+                    .append(TimeFormatter.format(totalSeconds)).append(" in all)");
+        }
+        String shown = text.toString();
+        if (!shown.equals(sequenceLabel.getText())) {
+            sequenceLabel.setText(shown);
         }
+    }
 
-        /**
-         * Updates the result area with the current timer state.
-         */
-        private void updateResultArea() {
-            resultArea.append("Timer " + name + " - Time Left: " + getFormattedTime() + "\n");
+    /**
+     * Shows the timers that finish next, soonest first.
+     */
+    private void refreshNextToFinish() {
+        List<CustomTimer> next = stations.view().nextToFinish(NEXT_SHOWN);
+        StringBuilder text = new StringBuilder("Next to finish:");
+        for (CustomTimer timer : next) {
+            text.append("  ").append(timer.getName()).append(" (").append(timer.getFormattedTime()).append(')');
+        }
+        if (next.isEmpty()) {
+            text.append("  none");
+        }
+        String shown = text.toString();
+        if (!shown.equals(nextLabel.getText())) {
+            nextLabel.setText(shown);
         }
     }
 
     /**
-     * Inner class TimerState representing the state of the timer.
+     * Repaints the rows currently scrolled into view whose time or status changed. Rows off screen
+     * need no event; the table reads their live values when they are scrolled into view.
      */
-    private class TimerState {
-        private int hours;
-        private int minutes;
-        private int seconds;
-
-        /**
-         * Constructor for TimerState.
-         *
-         * @param hours   Initial hours.
-         * @param minutes Initial minutes.
-         * @param seconds Initial seconds.
-         */
-        public TimerState(int hours, int minutes, int seconds) {
-            this.hours = hours;
-            this.minutes = minutes;
-            this.seconds = seconds;
+    private void refreshVisibleRows() {
+        Rectangle visible = timerTable.getVisibleRect();
+        int first = timerTable.rowAtPoint(visible.getLocation());
+        int last = timerTable.rowAtPoint(new Point(visible.x, visible.y + visible.height - 1));
+        if (first < 0) {
+            first = 0;
+        }
+        if (last < 0) {
+            last = tableModel.getRowCount() - 1;
         }
+        tableModel.refresh(first, last);
     }
 }
@@ -0,0 +1,168 @@
+package kitchen;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * TimerRegistry class keeps track of an engine's timers so groups of them can be picked out for bulk
+ * operations: by name prefix through a sorted name map, by group tag, or by id. Each selection feeds
+ * straight into {@link #stop}, {@link #reset} or {@link #restart}, which apply the operation in one
+ * pass and report it to listeners as one {@link TimerBatch}.
+ */
+public class TimerRegistry {
+    private final TimerEngine engine;
+    private final Map<Long, CustomTimer> byId = new LinkedHashMap<>();
+    private final TreeMap<String, List<CustomTimer>> byName = new TreeMap<>();
+    private final Map<String, Set<CustomTimer>> byTag = new HashMap<>();
+    private final Map<Long, String[]> tagsById = new HashMap<>();
+
+    /**
+     * Constructs an empty TimerRegistry for the timers of the given engine.
+     *
+     * @param engine the engine the registered timers run on
+     */
+    public TimerRegistry(TimerEngine engine) {
+        this.engine = engine;
+    }
+
+    /**
+     * Registers a timer under the given group tags.
+     *
+     * @param timer the timer, which must run on this registry's engine
+     * @param tags  the group tags, such as a station or an order number
+     */
+    public synchronized void add(CustomTimer timer, String... tags) {
+        if (timer.getEngine() != engine) {
+            throw new IllegalArgumentException("Timer " + timer.getName() + " belongs to another engine");
+        }
+        if (byId.put(timer.getId(), timer) != null) {
+            return;
+        }
+        List<CustomTimer> named = byName.get(timer.getName());
+        if (named == null) {
+            named = new ArrayList<>(1);
+            byName.put(timer.getName(), named);
+        }
+        named.add(timer);
+        for (String tag : tags) {
+            Set<CustomTimer> tagged = byTag.get(tag);
+            if (tagged == null) {
+                tagged = new LinkedHashSet<>();
+                byTag.put(tag, tagged);
+            }
+            tagged.add(timer);
+        }
+        tagsById.put(timer.getId(), tags.clone());
+    }
+
+    /**
+     * Forgets a timer. The timer itself keeps its state.
+     *
+     * @param timer the timer to forget
+     */
+    public synchronized void remove(CustomTimer timer) {
+        if (byId.remove(timer.getId()) == null) {
+            return;
+        }
+        List<CustomTimer> named = byName.get(timer.getName());
+        named.remove(timer);
+        if (named.isEmpty()) {
+            byName.remove(timer.getName());
+        }
+        for (String tag : tagsById.remove(timer.getId())) {
+            Set<CustomTimer> tagged = byTag.get(tag);
+            tagged.remove(timer);
+            if (tagged.isEmpty()) {
+                byTag.remove(tag);
+            }
+        }
+    }
+
+    /**
+     * Returns the timers whose name starts with the given prefix, in name order.
+     *
+     * @param prefix the name prefix; an empty prefix selects every timer
+     * @return the matching timers
+     */
+    public synchronized List<CustomTimer> withNamePrefix(String prefix) {
+        List<CustomTimer> result = new ArrayList<>();
+        for (List<CustomTimer> named : byName.subMap(prefix, true, prefix + Character.MAX_VALUE, true).values()) {
+            result.addAll(named);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the timers registered under the given tag, in the order they were added.
+     *
+     * @param tag the group tag
+     * @return the tagged timers
+     */
+    public synchronized List<CustomTimer> withTag(String tag) {
+        Set<CustomTimer> tagged = byTag.get(tag);
+        return tagged == null ? new ArrayList<CustomTimer>() : new ArrayList<>(tagged);
+    }
+
+    /**
+     * Returns the registered timers with the given ids; unknown ids are skipped.
+     *
+     * @param ids the timer ids
+     * @return the matching timers, in the order of the ids
+     */
+    public synchronized List<CustomTimer> withIds(long... ids) {
+        List<CustomTimer> result = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            CustomTimer timer = byId.get(id);
+            if (timer != null) {
+                result.add(timer);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns every registered timer, in the order they were added.
+     *
+     * @return all timers
+     */
+    public synchronized List<CustomTimer> all() {
+        return new ArrayList<>(byId.values());
+    }
+
+    /**
+     * Stops the given timers as one batch.
+     *
+     * @param timers the timers, usually a selection from this registry
+     * @return the batch reported to listeners
+     */
+    public TimerBatch stop(Collection<CustomTimer> timers) {
+        return engine.stopAll(timers);
+    }
+
+    /**
+     * Resets the given timers as one batch.
+     *
+     * @param timers the timers, usually a selection from this registry
+     * @return the batch reported to listeners
+     */
+    public TimerBatch reset(Collection<CustomTimer> timers) {
+        return engine.resetAll(timers);
+    }
+
+    /**
+     * Resets and starts the given timers as one batch.
+     *
+     * @param timers the timers, usually a selection from this registry
+     * @return the batch reported to listeners
+     */
+    public TimerBatch restart(Collection<CustomTimer> timers) {
+        return engine.restartAll(timers);
+    }
+}
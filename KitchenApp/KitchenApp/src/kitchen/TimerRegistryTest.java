@@ -0,0 +1,87 @@
+package kitchen;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * This test suite contains tests for timer selection and bulk operations.
+ */
+public class TimerRegistryTest {
+
+    @Test
+    public void testSelectByPrefixTagAndIds() {
+        TimerEngine engine = new TimerEngine(new TimerScheduler("registry-test", 10, TimeUnit.MILLISECONDS));
+        TimerRegistry registry = new TimerRegistry(engine);
+        CustomTimer grillSteak = new CustomTimer(engine, "Grill steak", 0, 8, 0);
+        CustomTimer grillFish = new CustomTimer(engine, "Grill fish", 0, 6, 0);
+        CustomTimer rice = new CustomTimer(engine, "Rice", 0, 18, 0);
+        registry.add(grillSteak, "order-12");
+        registry.add(grillFish, "order-13");
+        registry.add(rice, "order-12");
+
+        assertEquals(2, registry.withNamePrefix("Grill").size());
+        assertEquals(3, registry.withNamePrefix("").size());
+        assertTrue(registry.withNamePrefix("Pasta").isEmpty());
+        assertEquals(List.of(grillSteak, rice), registry.withTag("order-12"));
+        assertEquals(List.of(rice, grillFish), registry.withIds(rice.getId(), 999999L, grillFish.getId()));
+
+        registry.remove(rice);
+        assertEquals(List.of(grillSteak), registry.withTag("order-12"));
+        engine.getScheduler().shutdown();
+    }
+
+    @Test
+    public void testBulkOperationEmitsOneAggregatedEvent() {
+        TimerEngine engine = new TimerEngine(new TimerScheduler("registry-test", 10, TimeUnit.MILLISECONDS));
+        final List<TimerBatch> batches = new CopyOnWriteArrayList<>();
+        final List<String> singleChanges = new CopyOnWriteArrayList<>();
+        engine.addListener(new TimerListener() {
+            @Override
+            public void timerStateChanged(CustomTimer timer, CustomTimer.TimerStatus oldStatus,
+                                          CustomTimer.TimerStatus newStatus) {
+                singleChanges.add(timer.getName());
+            }
+
+            @Override
+            public void timersChanged(TimerBatch batch) {
+                batches.add(batch);
+            }
+        }, TimerEngine.directExecutor());
+        DeadlineIndex index = new DeadlineIndex();
+        engine.addListener(index, TimerEngine.directExecutor());
+        TimerRegistry registry = new TimerRegistry(engine);
+        for (int i = 0; i < 200; i++) {
+            CustomTimer timer = new CustomTimer(engine, "Line " + i, 0, 5, 0);
+            registry.add(timer, i % 2 == 0 ? "even" : "odd");
+            timer.start();
+        }
+        singleChanges.clear();
+        assertEquals(200, index.size());
+
+        TimerBatch stopped = registry.stop(registry.withTag("even"));
+        assertEquals(1, batches.size());
+        assertEquals(100, stopped.size());
+        assertEquals(CustomTimer.TimerStatus.RUNNING, stopped.getOldStatus(0));
+        assertEquals(CustomTimer.TimerStatus.STOPPED, stopped.getTimer(99).getStatus());
+        assertTrue(singleChanges.isEmpty());
+        assertEquals(100, index.size());
+        assertEquals(100, engine.getMetrics().getActiveTimers());
+
+        TimerBatch restarted = registry.restart(registry.all());
+        assertEquals(2, batches.size());
+        assertEquals(200, restarted.size());
+        assertEquals(200, index.size());
+        assertEquals(200, engine.getMetrics().getActiveTimers());
+
+        registry.reset(registry.withNamePrefix("Line 1"));
+        assertEquals(CustomTimer.TimerStatus.RESET, registry.withNamePrefix("Line 1").get(0).getStatus());
+        assertEquals(200 - 111, index.size());
+        engine.getScheduler().shutdown();
+    }
+}
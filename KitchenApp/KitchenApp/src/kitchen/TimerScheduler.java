@@ -0,0 +1,374 @@
+package kitchen;
+
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * TimerScheduler class runs delayed tasks for every timer in the application from one worker thread.
+ * Pending tasks are kept in a {@link TimingWheel}, so scheduling and cancelling are O(1) no matter how
+ * many timers are active, and the worker only wakes up when something is due.
+ *
+ * Tasks run on the worker thread, not on the Swing event dispatch thread. A task that needs to touch
+ * Swing components must hand that work over with {@code SwingUtilities.invokeLater}.
+ */
+public final class TimerScheduler {
+    private static final long DEFAULT_TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final TimerClock clock;
+    private final long tickNanos;
+    private final long startNanos;
+    private final TimingWheel wheel;
+    private final Queue<Timeout> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger activeCount = new AtomicInteger();
+    private final LatencyHistogram lateness = new LatencyHistogram();
+    private final Thread worker;
+    private final TimingWheel.ExpiredSink collector = new TimingWheel.ExpiredSink() {
+        @Override
+        public void expired(TimingWheel.Entry entry) {
+            if (batchSize == batch.length) {
+                Timeout[] grown = new Timeout[batch.length * 2];
+                System.arraycopy(batch, 0, grown, 0, batch.length);
+                batch = grown;
+            }
+            batch[batchSize++] = (Timeout) entry;
+        }
+    };
+    private Timeout[] batch = new Timeout[64];
+    private int batchSize;
+    private volatile long plannedWakeNanos = Long.MAX_VALUE;
+    private volatile boolean shutdown;
+
+    /**
+     * Constructs a TimerScheduler with its own worker thread.
+     *
+     * @param name         the name of the worker thread
+     * @param tickDuration the resolution of the wheel
+     * @param unit         the unit of the tick duration
+     */
+    public TimerScheduler(String name, long tickDuration, TimeUnit unit) {
+        this(TimerClock.system(), tickDuration, unit, name);
+    }
+
+    /**
+     * Constructs a TimerScheduler without a worker thread, driven by {@link VirtualClock#advance}.
+     *
+     * @param clock        the virtual clock
+     * @param tickDuration the resolution of the wheel
+     * @param unit         the unit of the tick duration
+     */
+    TimerScheduler(VirtualClock clock, long tickDuration, TimeUnit unit) {
+        this(clock, tickDuration, unit, null);
+    }
+
+    private TimerScheduler(TimerClock clock, long tickDuration, TimeUnit unit, String name) {
+        this.clock = clock;
+        this.tickNanos = unit.toNanos(tickDuration);
+        if (tickNanos <= 0) {
+            throw new IllegalArgumentException("Tick duration must be positive");
+        }
+        this.startNanos = clock.nanoTime();
+        this.wheel = new TimingWheel(0);
+        if (name == null) {
+            this.worker = null;
+            return;
+        }
+        this.worker = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                runWorker();
+            }
+        }, name);
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * Returns the scheduler shared by every timer in the application.
+     *
+     * @return the shared scheduler
+     */
+    public static TimerScheduler shared() {
+        return SharedHolder.INSTANCE;
+    }
+
+    /**
+     * Returns the clock the scheduler's deadlines are measured on.
+     *
+     * @return the clock
+     */
+    public TimerClock getClock() {
+        return clock;
+    }
+
+    /**
+     * Schedules a task to run once after the given delay.
+     *
+     * @param task  the task to run on the worker thread
+     * @param delay the delay before the task runs
+     * @param unit  the unit of the delay
+     * @return a handle that can cancel the task
+     */
+    public Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        return scheduleAt(clock.nanoTime() + unit.toNanos(delay), task);
+    }
+
+    /**
+     * Schedules a task to run once the scheduler's clock reaches the given deadline.
+     *
+     * @param deadlineNanos the deadline on the scheduler's clock
+     * @param task          the task to run on the worker thread
+     * @return a handle that can cancel the task
+     */
+    public Timeout scheduleAt(long deadlineNanos, Runnable task) {
+        if (task == null) {
+            throw new IllegalArgumentException("Task must not be null");
+        }
+        if (shutdown) {
+            throw new IllegalStateException("Scheduler has been shut down");
+        }
+        Timeout timeout = new Timeout(this, task, deadlineNanos);
+        timeout.deadlineTick = tickCeil(deadlineNanos);
+        activeCount.incrementAndGet();
+        pending.add(timeout);
+        if (deadlineNanos < plannedWakeNanos) {
+            LockSupport.unpark(worker);
+        }
+        return timeout;
+    }
+
+    /**
+     * Schedules a timeout whose task has already run to run again at a new deadline, reusing the handle.
+     * Called from the worker thread, typically from inside the task itself, the timeout goes straight
+     * into the wheel and nothing is allocated; from any other thread it is queued like a new task.
+     *
+     * @param timeout       an expired timeout from this scheduler
+     * @param deadlineNanos the new deadline on the scheduler's clock
+     * @return the same timeout, pending again
+     */
+    public Timeout reschedule(Timeout timeout, long deadlineNanos) {
+        if (timeout.scheduler != this || timeout.state != Timeout.EXPIRED) {
+            throw new IllegalStateException("Only an expired timeout of this scheduler can be rescheduled");
+        }
+        if (shutdown) {
+            throw new IllegalStateException("Scheduler has been shut down");
+        }
+        timeout.deadlineNanos = deadlineNanos;
+        timeout.deadlineTick = tickCeil(deadlineNanos);
+        activeCount.incrementAndGet();
+        timeout.state = Timeout.PENDING;
+        if (worker != null && Thread.currentThread() == worker) {
+            wheel.add(timeout);
+        } else {
+            pending.add(timeout);
+            if (deadlineNanos < plannedWakeNanos) {
+                LockSupport.unpark(worker);
+            }
+        }
+        return timeout;
+    }
+
+    /**
+     * Returns the number of tasks that are scheduled and have neither run nor been cancelled.
+     *
+     * @return the number of pending tasks
+     */
+    public int pendingTimeouts() {
+        return activeCount.get();
+    }
+
+    /**
+     * Returns the histogram of how late each task ran compared with its deadline, in nanoseconds.
+     *
+     * @return the lateness histogram
+     */
+    public LatencyHistogram getLatenessHistogram() {
+        return lateness;
+    }
+
+    /**
+     * Stops the worker thread. Tasks that have not run yet are dropped.
+     */
+    public void shutdown() {
+        shutdown = true;
+        LockSupport.unpark(worker);
+    }
+
+    /**
+     * Returns when the earliest pending task of a scheduler without a worker thread falls due. Called by
+     * the driving {@link VirtualClock}.
+     *
+     * @return the time of the next tick with work, or {@code Long.MAX_VALUE} if nothing is pending
+     */
+    long nextDueNanos() {
+        drainPending();
+        long nextTick = wheel.nextTickOfInterest();
+        return nextTick == Long.MAX_VALUE ? Long.MAX_VALUE : startNanos + nextTick * tickNanos;
+    }
+
+    /**
+     * Runs every task due at the clock's current time on the calling thread. Called by the driving
+     * {@link VirtualClock}.
+     */
+    void runDue() {
+        drainPending();
+        advanceWheel();
+        runBatch();
+    }
+
+    private void advanceWheel() {
+        long now = clock.nanoTime();
+        wheel.advanceTo(now - startNanos >= 0 ? (now - startNanos) / tickNanos : 0, collector);
+    }
+
+    private void runWorker() {
+        while (!shutdown) {
+            drainPending();
+            advanceWheel();
+            runBatch();
+            if (!pending.isEmpty()) {
+                continue;
+            }
+            long nextTick = wheel.nextTickOfInterest();
+            long wake = nextTick == Long.MAX_VALUE ? Long.MAX_VALUE : startNanos + nextTick * tickNanos;
+            plannedWakeNanos = wake;
+            if (pending.isEmpty() && !shutdown) {
+                if (wake == Long.MAX_VALUE) {
+                    LockSupport.park(this);
+                } else {
+                    long delay = wake - clock.nanoTime();
+                    if (delay > 0) {
+                        LockSupport.parkNanos(this, delay);
+                    }
+                }
+            }
+            plannedWakeNanos = Long.MIN_VALUE;
+        }
+    }
+
+    private void drainPending() {
+        Timeout timeout;
+        boolean added = false;
+        while ((timeout = pending.poll()) != null) {
+            if (timeout.state == Timeout.CANCELLED) {
+                wheel.remove(timeout);
+            } else if (timeout.state == Timeout.PENDING && !timeout.isLinked()) {
+                wheel.add(timeout);
+                added = true;
+            }
+        }
+        // Grow the expiry batch while new timeouts arrive rather than in the tick that first fills it
+        int active = activeCount.get();
+        if (added && active > batch.length) {
+            int length = batch.length;
+            while (length < active) {
+                length *= 2;
+            }
+            batch = Arrays.copyOf(batch, length);
+        }
+    }
+
+    private void runBatch() {
+        int count = batchSize;
+        batchSize = 0;
+        for (int i = 0; i < count; i++) {
+            Timeout timeout = batch[i];
+            batch[i] = null;
+            if (Timeout.STATE.compareAndSet(timeout, Timeout.PENDING, Timeout.EXPIRED)) {
+                activeCount.decrementAndGet();
+                lateness.record(clock.nanoTime() - timeout.deadlineNanos);
+                try {
+                    timeout.task.run();
+                } catch (Throwable t) {
+                    Thread thread = Thread.currentThread();
+                    thread.getUncaughtExceptionHandler().uncaughtException(thread, t);
+                }
+            }
+        }
+    }
+
+    private long tickCeil(long deadlineNanos) {
+        long offset = deadlineNanos - startNanos;
+        if (offset <= 0) {
+            return 0;
+        }
+        return (offset + tickNanos - 1) / tickNanos;
+    }
+
+    private void cancelled(Timeout timeout) {
+        activeCount.decrementAndGet();
+        pending.add(timeout);
+        LockSupport.unpark(worker);
+    }
+
+    /**
+     * Timeout is the handle returned for a scheduled task.
+     */
+    public static final class Timeout extends TimingWheel.Entry {
+        private static final int PENDING = 0;
+        private static final int CANCELLED = 1;
+        private static final int EXPIRED = 2;
+        private static final AtomicIntegerFieldUpdater<Timeout> STATE =
+                AtomicIntegerFieldUpdater.newUpdater(Timeout.class, "state");
+
+        private final TimerScheduler scheduler;
+        private final Runnable task;
+        private long deadlineNanos;
+        private volatile int state;
+
+        private Timeout(TimerScheduler scheduler, Runnable task, long deadlineNanos) {
+            this.scheduler = scheduler;
+            this.task = task;
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        /**
+         * Cancels the task if it has not run yet.
+         *
+         * @return true if this call cancelled the task
+         */
+        public boolean cancel() {
+            if (!STATE.compareAndSet(this, PENDING, CANCELLED)) {
+                return false;
+            }
+            scheduler.cancelled(this);
+            return true;
+        }
+
+        /**
+         * Returns whether the task was cancelled before it ran.
+         *
+         * @return true if the task was cancelled
+         */
+        public boolean isCancelled() {
+            return state == CANCELLED;
+        }
+
+        /**
+         * Returns whether the task has been handed to the worker thread to run.
+         *
+         * @return true if the task has run or is running
+         */
+        public boolean isExpired() {
+            return state == EXPIRED;
+        }
+
+        /**
+         * Returns the deadline the task was scheduled for.
+         *
+         * @return the deadline on the scheduler's clock
+         */
+        public long getDeadlineNanos() {
+            return deadlineNanos;
+        }
+    }
+
+    private static final class SharedHolder {
+        private static final TimerScheduler INSTANCE =
+                new TimerScheduler("kitchen-timer-scheduler", DEFAULT_TICK_NANOS, TimeUnit.NANOSECONDS);
+    }
+}
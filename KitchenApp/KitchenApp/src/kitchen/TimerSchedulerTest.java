@@ -0,0 +1,124 @@
+package kitchen;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * This test suite contains tests for the timing wheel and the shared timer scheduler.
+ * Each test verifies that tasks fire on their tick, in order, and can be cancelled.
+ */
+public class TimerSchedulerTest {
+
+    @Test
+    public void testWheelExpiresEntriesOnTheirTick() {
+        TimingWheel wheel = new TimingWheel(0);
+        Random random = new Random(42);
+        List<TimingWheel.Entry> entries = new ArrayList<>();
+        for (int i = 0; i < 10000; i++) {
+            TimingWheel.Entry entry = new TimingWheel.Entry();
+            entry.deadlineTick = 1 + random.nextInt(5_000_000);
+            entries.add(entry);
+            wheel.add(entry);
+        }
+        final TimingWheel target = wheel;
+        final long[] lastTick = {0};
+        final int[] expired = {0};
+        wheel.advanceTo(5_000_000, new TimingWheel.ExpiredSink() {
+            @Override
+            public void expired(TimingWheel.Entry entry) {
+                assertEquals(entry.deadlineTick, target.currentTick());
+                assertTrue(entry.deadlineTick >= lastTick[0], "Entries must expire in deadline order");
+                lastTick[0] = entry.deadlineTick;
+                expired[0]++;
+            }
+        });
+        assertEquals(entries.size(), expired[0]);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void testWheelRemovedEntryNeverExpires() {
+        TimingWheel wheel = new TimingWheel(0);
+        TimingWheel.Entry kept = new TimingWheel.Entry();
+        kept.deadlineTick = 70_000;
+        TimingWheel.Entry removed = new TimingWheel.Entry();
+        removed.deadlineTick = 70_000;
+        wheel.add(kept);
+        wheel.add(removed);
+        wheel.remove(removed);
+        final List<TimingWheel.Entry> expired = new ArrayList<>();
+        wheel.advanceTo(100_000, new TimingWheel.ExpiredSink() {
+            @Override
+            public void expired(TimingWheel.Entry entry) {
+                expired.add(entry);
+            }
+        });
+        assertEquals(1, expired.size());
+        assertTrue(expired.get(0) == kept);
+        assertFalse(removed.isLinked());
+    }
+
+    @Test
+    public void testScheduledTaskRuns() throws InterruptedException {
+        TimerScheduler scheduler = new TimerScheduler("test-scheduler", 1, TimeUnit.MILLISECONDS);
+        final CountDownLatch latch = new CountDownLatch(1);
+        long start = System.nanoTime();
+        scheduler.schedule(new Runnable() {
+            @Override
+            public void run() {
+                latch.countDown();
+            }
+        }, 50, TimeUnit.MILLISECONDS);
+        assertTrue(latch.await(2, TimeUnit.SECONDS));
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50), "Task must not fire early");
+        scheduler.shutdown();
+    }
+
+    @Test
+    public void testCancelledTaskDoesNotRun() throws InterruptedException {
+        TimerScheduler scheduler = new TimerScheduler("test-scheduler", 1, TimeUnit.MILLISECONDS);
+        final AtomicInteger runs = new AtomicInteger();
+        TimerScheduler.Timeout timeout = scheduler.schedule(new Runnable() {
+            @Override
+            public void run() {
+                runs.incrementAndGet();
+            }
+        }, 30, TimeUnit.MILLISECONDS);
+        assertTrue(timeout.cancel());
+        assertEquals(0, scheduler.pendingTimeouts());
+        Thread.sleep(100);
+        assertEquals(0, runs.get());
+        assertTrue(timeout.isCancelled());
+        scheduler.shutdown();
+    }
+
+    @Test
+    public void testManyTimersFire() throws InterruptedException {
+        TimerScheduler scheduler = new TimerScheduler("test-scheduler", 1, TimeUnit.MILLISECONDS);
+        final int count = 100_000;
+        final CountDownLatch latch = new CountDownLatch(count);
+        Runnable task = new Runnable() {
+            @Override
+            public void run() {
+                latch.countDown();
+            }
+        };
+        long base = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            scheduler.scheduleAt(base + TimeUnit.MILLISECONDS.toNanos(i % 200), task);
+        }
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertEquals(0, scheduler.pendingTimeouts());
+        scheduler.shutdown();
+    }
+}
@@ -0,0 +1,264 @@
+package kitchen;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * TimerSequence class runs a chain of timed stages, such as "sauté 3 min, simmer 20 min, rest 5 min",
+ * as a single entity. Only the current stage has a task on the scheduler. When it fires, the sequence
+ * moves to the next stage on the scheduler thread, and the next deadline is the previous deadline plus
+ * the stage duration, so stage boundaries never drift. The total remaining time is the current stage's
+ * remaining time plus a precomputed sum of the stages after it.
+ *
+ * Starts, stops, resets, stage changes and the final finish are published to the engine's
+ * {@link TimerListener}s, and a running sequence counts as an active timer in the engine's metrics.
+ */
+public class TimerSequence {
+    private static final AtomicLong NEXT_ID = new AtomicLong(1);
+
+    private final long id;
+    private final String name;
+    private final String[] stageNames;
+    private final long[] stageNanos;
+    private final long[] laterStagesNanos;
+    private final TimerEngine engine;
+    private final TimerClock clock;
+    private final Runnable advanceTask;
+    private volatile CustomTimer.TimerStatus status = CustomTimer.TimerStatus.RESET;
+    private int stage;
+    private long stageDeadlineNanos;
+    private long stageRemainingNanos;
+    private TimerScheduler.Timeout timeout;
+
+    /**
+     * Constructs a TimerSequence with the given stages, ready to start at the first one.
+     *
+     * @param engine the engine that drives the sequence and receives its events
+     * @param name   the name of the sequence
+     * @param stages the stages in the order they run
+     */
+    public TimerSequence(TimerEngine engine, String name, List<Stage> stages) {
+        if (stages.isEmpty()) {
+            throw new IllegalArgumentException("A sequence needs at least one stage");
+        }
+        this.id = NEXT_ID.getAndIncrement();
+        this.name = name;
+        this.engine = engine;
+        this.clock = engine.getScheduler().getClock();
+        int count = stages.size();
+        this.stageNames = new String[count];
+        this.stageNanos = new long[count];
+        this.laterStagesNanos = new long[count];
+        for (int i = 0; i < count; i++) {
+            stageNames[i] = stages.get(i).name;
+            stageNanos[i] = stages.get(i).durationNanos;
+        }
+        for (int i = count - 2; i >= 0; i--) {
+            laterStagesNanos[i] = laterStagesNanos[i + 1] + stageNanos[i + 1];
+        }
+        this.stageRemainingNanos = stageNanos[0];
+        this.advanceTask = new Runnable() {
+            @Override
+            public void run() {
+                advance();
+            }
+        };
+    }
+
+    /**
+     * Starts the sequence, or resumes the current stage with the time it had left when stopped.
+     */
+    public void start() {
+        CustomTimer.TimerStatus oldStatus;
+        synchronized (this) {
+            oldStatus = status;
+            if (oldStatus == CustomTimer.TimerStatus.RUNNING || oldStatus == CustomTimer.TimerStatus.FINISHED) {
+                return;
+            }
+            stageDeadlineNanos = clock.nanoTime() + stageRemainingNanos;
+            timeout = engine.getScheduler().scheduleAt(stageDeadlineNanos, advanceTask);
+            status = CustomTimer.TimerStatus.RUNNING;
+        }
+        engine.fireSequenceStateChanged(this, oldStatus, CustomTimer.TimerStatus.RUNNING);
+    }
+
+    /**
+     * Stops the sequence and banks the time left in the current stage.
+     */
+    public void stop() {
+        synchronized (this) {
+            if (status != CustomTimer.TimerStatus.RUNNING) {
+                return;
+            }
+            cancelTimeout();
+            stageRemainingNanos = Math.max(0, stageDeadlineNanos - clock.nanoTime());
+            status = CustomTimer.TimerStatus.STOPPED;
+        }
+        engine.fireSequenceStateChanged(this, CustomTimer.TimerStatus.RUNNING, CustomTimer.TimerStatus.STOPPED);
+    }
+
+    /**
+     * Stops the sequence and rewinds it to the start of the first stage.
+     */
+    public void reset() {
+        CustomTimer.TimerStatus oldStatus;
+        synchronized (this) {
+            oldStatus = status;
+            cancelTimeout();
+            stage = 0;
+            stageRemainingNanos = stageNanos[0];
+            status = CustomTimer.TimerStatus.RESET;
+        }
+        engine.fireSequenceStateChanged(this, oldStatus, CustomTimer.TimerStatus.RESET);
+    }
+
+    /**
+     * Moves to the next stage once the current one is due, catching up over every stage whose deadline
+     * has already passed. Runs on the scheduler thread.
+     */
+    private void advance() {
+        int fromStage;
+        int toStage;
+        boolean finished;
+        synchronized (this) {
+            // A restart between firing and taking the lock leaves a newer timeout pending.
+            if (status != CustomTimer.TimerStatus.RUNNING || !timeout.isExpired()) {
+                return;
+            }
+            long now = clock.nanoTime();
+            fromStage = stage;
+            while (stage < stageNanos.length - 1 && stageDeadlineNanos <= now) {
+                stage++;
+                stageDeadlineNanos += stageNanos[stage];
+            }
+            toStage = stage;
+            finished = stageDeadlineNanos <= now;
+            if (finished) {
+                engine.getMetrics().recordDrift(now - stageDeadlineNanos);
+                stageRemainingNanos = 0;
+                timeout = null;
+                status = CustomTimer.TimerStatus.FINISHED;
+            } else {
+                timeout = engine.getScheduler().reschedule(timeout, stageDeadlineNanos);
+            }
+        }
+        for (int next = fromStage + 1; next <= toStage; next++) {
+            engine.fireSequenceStageChanged(this, next - 1, next);
+        }
+        if (finished) {
+            engine.fireSequenceStateChanged(this, CustomTimer.TimerStatus.RUNNING, CustomTimer.TimerStatus.FINISHED);
+            engine.fireSequenceFinished(this);
+        }
+    }
+
+    private void cancelTimeout() {
+        if (timeout != null) {
+            timeout.cancel();
+            timeout = null;
+        }
+    }
+
+    /**
+     * Returns the time left across the current stage and every stage after it.
+     *
+     * @return the total remaining time in milliseconds
+     */
+    public synchronized long getTotalRemainingMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(stageRemaining(clock.nanoTime()) + laterStagesNanos[stage]);
+    }
+
+    /**
+     * Returns the time left in the current stage.
+     *
+     * @return the stage's remaining time in milliseconds
+     */
+    public synchronized long getStageRemainingMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(stageRemaining(clock.nanoTime()));
+    }
+
+    private long stageRemaining(long nowNanos) {
+        if (status == CustomTimer.TimerStatus.RUNNING) {
+            return Math.max(0, stageDeadlineNanos - nowNanos);
+        }
+        return stageRemainingNanos;
+    }
+
+    /**
+     * Returns the index of the stage that is running or will run next.
+     *
+     * @return the current stage index
+     */
+    public synchronized int getCurrentStage() {
+        return stage;
+    }
+
+    /**
+     * Returns the name of the stage at the given index.
+     *
+     * @param index the stage index
+     * @return the stage name
+     */
+    public String getStageName(int index) {
+        return stageNames[index];
+    }
+
+    /**
+     * Returns the number of stages in the sequence.
+     *
+     * @return the stage count
+     */
+    public int getStageCount() {
+        return stageNames.length;
+    }
+
+    /**
+     * Returns the id of the sequence.
+     *
+     * @return the id
+     */
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * Returns the name of the sequence.
+     *
+     * @return the name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the current status of the sequence.
+     *
+     * @return the status
+     */
+    public CustomTimer.TimerStatus getStatus() {
+        return status;
+    }
+
+    /**
+     * Stage is one named, timed step of a sequence.
+     */
+    public static final class Stage {
+        private final String name;
+        private final long durationNanos;
+
+        /**
+         * Constructs a Stage with the given name and duration.
+         *
+         * @param name     the name of the stage
+         * @param duration the duration of the stage
+         * @param unit     the unit of the duration
+         */
+        public Stage(String name, long duration, TimeUnit unit) {
+            if (duration < 0) {
+                throw new IllegalArgumentException("Stage duration must be non-negative");
+            }
+            this.name = name;
+            this.durationNanos = unit.toNanos(duration);
+        }
+    }
+}
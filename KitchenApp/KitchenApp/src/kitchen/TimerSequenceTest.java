@@ -0,0 +1,104 @@
+package kitchen;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * This test suite contains tests for chained timer sequences.
+ */
+public class TimerSequenceTest {
+
+    private static List<TimerSequence.Stage> stages() {
+        return Arrays.asList(
+                new TimerSequence.Stage("Saute", 60, TimeUnit.MILLISECONDS),
+                new TimerSequence.Stage("Simmer", 120, TimeUnit.MILLISECONDS),
+                new TimerSequence.Stage("Rest", 60, TimeUnit.MILLISECONDS));
+    }
+
+    /**
+     * Records every sequence event as "Saute->Simmer", "RUNNING->STOPPED" or "finished Risotto".
+     */
+    private static List<String> record(TimerEngine engine) {
+        final List<String> events = new ArrayList<>();
+        engine.addListener(new TimerListener() {
+            @Override
+            public void sequenceStateChanged(TimerSequence sequence, CustomTimer.TimerStatus oldStatus,
+                                             CustomTimer.TimerStatus newStatus) {
+                events.add(oldStatus + "->" + newStatus);
+            }
+
+            @Override
+            public void sequenceStageChanged(TimerSequence sequence, int previousStage, int newStage) {
+                events.add(sequence.getStageName(previousStage) + "->" + sequence.getStageName(newStage));
+            }
+
+            @Override
+            public void sequenceFinished(TimerSequence sequence) {
+                events.add("finished " + sequence.getName());
+            }
+        }, TimerEngine.directExecutor());
+        return events;
+    }
+
+    @Test
+    public void testTotalRemainingCoversEveryStage() {
+        VirtualClock clock = new VirtualClock(0);
+        TimerEngine engine = new TimerEngine(clock.newScheduler(1, TimeUnit.MILLISECONDS));
+        TimerSequence sequence = new TimerSequence(engine, "Risotto", stages());
+        assertEquals(240, sequence.getTotalRemainingMillis());
+        assertEquals(60, sequence.getStageRemainingMillis());
+        assertEquals(0, sequence.getCurrentStage());
+    }
+
+    @Test
+    public void testStagesRunInOrderOnTheScheduler() {
+        VirtualClock clock = new VirtualClock(0);
+        TimerEngine engine = new TimerEngine(clock.newScheduler(1, TimeUnit.MILLISECONDS));
+        List<String> events = record(engine);
+        TimerSequence sequence = new TimerSequence(engine, "Risotto", stages());
+        sequence.start();
+        assertEquals(1, engine.getMetrics().getActiveTimers());
+
+        clock.advance(60, TimeUnit.MILLISECONDS);
+        assertEquals(1, sequence.getCurrentStage());
+        assertEquals(180, sequence.getTotalRemainingMillis());
+        clock.advance(179, TimeUnit.MILLISECONDS);
+        assertEquals(2, sequence.getCurrentStage());
+        assertEquals(CustomTimer.TimerStatus.RUNNING, sequence.getStatus());
+        clock.advance(1, TimeUnit.MILLISECONDS);
+
+        assertEquals(Arrays.asList("RESET->RUNNING", "Saute->Simmer", "Simmer->Rest", "RUNNING->FINISHED",
+                "finished Risotto"), events);
+        assertEquals(CustomTimer.TimerStatus.FINISHED, sequence.getStatus());
+        assertEquals(0, sequence.getTotalRemainingMillis());
+        assertEquals(0, engine.getMetrics().getActiveTimers());
+        assertEquals(0, engine.getMetrics().getWorstDriftNanos());
+    }
+
+    @Test
+    public void testStopBanksStageAndResetRewinds() {
+        VirtualClock clock = new VirtualClock(0);
+        TimerEngine engine = new TimerEngine(clock.newScheduler(1, TimeUnit.MILLISECONDS));
+        List<String> events = record(engine);
+        TimerSequence sequence = new TimerSequence(engine, "Risotto", stages());
+        sequence.start();
+        clock.advance(90, TimeUnit.MILLISECONDS);
+        sequence.stop();
+        sequence.stop();
+        assertEquals(1, sequence.getCurrentStage());
+        assertEquals(150, sequence.getTotalRemainingMillis());
+        clock.advance(50, TimeUnit.MILLISECONDS);
+        assertEquals(150, sequence.getTotalRemainingMillis());
+        sequence.reset();
+        assertEquals(0, sequence.getCurrentStage());
+        assertEquals(240, sequence.getTotalRemainingMillis());
+        assertEquals(Arrays.asList("RESET->RUNNING", "Saute->Simmer", "RUNNING->STOPPED", "STOPPED->RESET"),
+                events);
+    }
+}
@@ -0,0 +1,307 @@
+package kitchen;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TimerStore class keeps very large numbers of timers as parallel primitive arrays instead of one
+ * object per timer: a deadline, banked remaining time and duration as longs, a status byte, and the id
+ * of the name in a shared {@link StringDictionary}. A timer is addressed by a long handle that packs its
+ * slot with a generation number, so a handle to a removed timer is rejected instead of reaching the
+ * slot's next occupant. A timer slot costs 37 bytes: three longs, the status byte, and ints for the
+ * name id, generation and free list. A million timers fit in about 37 MB.
+ *
+ * Only running timers have a finite deadline, so finding due timers is one sequential pass over the
+ * deadline array. The pass runs on the {@link TimerScheduler} thread whenever the earliest deadline is
+ * reached, rounded up to {@link #SWEEP_MILLIS} so that many deadlines close together cost one pass.
+ */
+public class TimerStore {
+    /** The granularity of sweeps; a timer may finish up to this much after its deadline. */
+    public static final long SWEEP_MILLIS = 10;
+
+    private static final long SWEEP_NANOS = TimeUnit.MILLISECONDS.toNanos(SWEEP_MILLIS);
+    private static final long NOT_RUNNING = Long.MAX_VALUE;
+    private static final byte FREE = -1;
+    private static final byte RUNNING = (byte) CustomTimer.TimerStatus.RUNNING.ordinal();
+    private static final byte STOPPED = (byte) CustomTimer.TimerStatus.STOPPED.ordinal();
+    private static final byte RESET = (byte) CustomTimer.TimerStatus.RESET.ordinal();
+    private static final byte FINISHED = (byte) CustomTimer.TimerStatus.FINISHED.ordinal();
+    private static final CustomTimer.TimerStatus[] STATUSES = CustomTimer.TimerStatus.values();
+
+    private final TimerScheduler scheduler;
+    private final TimerClock clock;
+    private final StringDictionary names;
+    private final FinishListener listener;
+    private final Runnable sweepTask;
+    private long[] deadlines;
+    private long[] remaining;
+    private long[] durations;
+    private byte[] statuses;
+    private int[] nameIds;
+    private int[] generations;
+    private int[] freeSlots;
+    private int freeCount;
+    private int usedSlots;
+    private int liveCount;
+    private long[] due = new long[64];
+    private long plannedSweepNanos = NOT_RUNNING;
+    private TimerScheduler.Timeout sweepTimeout;
+
+    /**
+     * Constructs an empty TimerStore.
+     *
+     * @param scheduler       the scheduler whose thread sweeps for due timers
+     * @param names           the dictionary timer names are interned in
+     * @param listener        told about every timer that finishes, on the scheduler thread
+     * @param initialCapacity the number of timers to allocate room for up front
+     */
+    public TimerStore(TimerScheduler scheduler, StringDictionary names, FinishListener listener,
+                      int initialCapacity) {
+        int capacity = Math.max(initialCapacity, 16);
+        this.scheduler = scheduler;
+        this.clock = scheduler.getClock();
+        this.names = names;
+        this.listener = listener;
+        this.deadlines = new long[capacity];
+        this.remaining = new long[capacity];
+        this.durations = new long[capacity];
+        this.statuses = new byte[capacity];
+        this.nameIds = new int[capacity];
+        this.generations = new int[capacity];
+        this.freeSlots = new int[capacity];
+        this.sweepTask = new Runnable() {
+            @Override
+            public void run() {
+                sweep();
+            }
+        };
+    }
+
+    /**
+     * Adds a timer in the RESET state.
+     *
+     * @param name     the name of the timer
+     * @param duration the duration of the timer
+     * @param unit     the unit of the duration
+     * @return the handle of the new timer
+     */
+    public synchronized long create(String name, long duration, TimeUnit unit) {
+        if (duration < 0) {
+            throw new IllegalArgumentException("Time values must be non-negative");
+        }
+        int slot;
+        if (freeCount > 0) {
+            slot = freeSlots[--freeCount];
+        } else {
+            if (usedSlots == deadlines.length) {
+                grow();
+            }
+            slot = usedSlots++;
+        }
+        long durationNanos = unit.toNanos(duration);
+        deadlines[slot] = NOT_RUNNING;
+        remaining[slot] = durationNanos;
+        durations[slot] = durationNanos;
+        statuses[slot] = RESET;
+        nameIds[slot] = names.intern(name);
+        liveCount++;
+        return handle(slot);
+    }
+
+    /**
+     * Removes a timer; its handle is invalid afterwards.
+     *
+     * @param handle the timer handle
+     */
+    public synchronized void remove(long handle) {
+        int slot = slotOf(handle);
+        deadlines[slot] = NOT_RUNNING;
+        statuses[slot] = FREE;
+        generations[slot]++;
+        freeSlots[freeCount++] = slot;
+        liveCount--;
+    }
+
+    /**
+     * Starts a timer, or resumes it with the time it had left when stopped. Finished timers stay finished
+     * until they are reset.
+     *
+     * @param handle the timer handle
+     */
+    public synchronized void start(long handle) {
+        int slot = slotOf(handle);
+        if (statuses[slot] == RUNNING || statuses[slot] == FINISHED) {
+            return;
+        }
+        long deadline = clock.nanoTime() + remaining[slot];
+        deadlines[slot] = deadline;
+        statuses[slot] = RUNNING;
+        planSweep(deadline);
+    }
+
+    /**
+     * Stops a running timer and banks the time it has left.
+     *
+     * @param handle the timer handle
+     */
+    public synchronized void stop(long handle) {
+        int slot = slotOf(handle);
+        if (statuses[slot] != RUNNING) {
+            return;
+        }
+        remaining[slot] = Math.max(0, deadlines[slot] - clock.nanoTime());
+        deadlines[slot] = NOT_RUNNING;
+        statuses[slot] = STOPPED;
+    }
+
+    /**
+     * Stops a timer and puts its full duration back.
+     *
+     * @param handle the timer handle
+     */
+    public synchronized void reset(long handle) {
+        int slot = slotOf(handle);
+        remaining[slot] = durations[slot];
+        deadlines[slot] = NOT_RUNNING;
+        statuses[slot] = RESET;
+    }
+
+    /**
+     * Returns the time a timer has left.
+     *
+     * @param handle the timer handle
+     * @return the remaining time in nanoseconds
+     */
+    public synchronized long getRemainingNanos(long handle) {
+        int slot = slotOf(handle);
+        if (statuses[slot] == RUNNING) {
+            return Math.max(0, deadlines[slot] - clock.nanoTime());
+        }
+        return remaining[slot];
+    }
+
+    /**
+     * Returns the status of a timer.
+     *
+     * @param handle the timer handle
+     * @return the status
+     */
+    public synchronized CustomTimer.TimerStatus getStatus(long handle) {
+        return STATUSES[statuses[slotOf(handle)]];
+    }
+
+    /**
+     * Returns the name of a timer.
+     *
+     * @param handle the timer handle
+     * @return the name
+     */
+    public synchronized String getName(long handle) {
+        return names.get(nameIds[slotOf(handle)]);
+    }
+
+    /**
+     * Returns the number of timers in the store.
+     *
+     * @return the number of live timers
+     */
+    public synchronized int size() {
+        return liveCount;
+    }
+
+    /**
+     * Returns how many timers the arrays currently have room for.
+     *
+     * @return the capacity
+     */
+    public synchronized int capacity() {
+        return deadlines.length;
+    }
+
+    /**
+     * Makes sure a sweep runs no later than the sweep slot holding the given deadline. Caller holds the
+     * lock.
+     */
+    private void planSweep(long deadlineNanos) {
+        long sweepAt = deadlineNanos + SWEEP_NANOS - 1 - Math.floorMod(deadlineNanos - 1, SWEEP_NANOS);
+        if (sweepAt >= plannedSweepNanos) {
+            return;
+        }
+        if (sweepTimeout != null) {
+            sweepTimeout.cancel();
+        }
+        plannedSweepNanos = sweepAt;
+        sweepTimeout = scheduler.scheduleAt(sweepAt, sweepTask);
+    }
+
+    /**
+     * Finishes every running timer whose deadline has passed and plans the next sweep. Runs on the
+     * scheduler thread; the listener is called after the lock is released.
+     */
+    private void sweep() {
+        int dueCount = 0;
+        synchronized (this) {
+            long now = clock.nanoTime();
+            long next = NOT_RUNNING;
+            long[] deadlineArray = deadlines;
+            for (int slot = 0, used = usedSlots; slot < used; slot++) {
+                long deadline = deadlineArray[slot];
+                if (deadline <= now) {
+                    deadlineArray[slot] = NOT_RUNNING;
+                    remaining[slot] = 0;
+                    statuses[slot] = FINISHED;
+                    if (dueCount == due.length) {
+                        due = Arrays.copyOf(due, dueCount * 2);
+                    }
+                    due[dueCount++] = handle(slot);
+                } else if (deadline < next) {
+                    next = deadline;
+                }
+            }
+            plannedSweepNanos = NOT_RUNNING;
+            sweepTimeout = null;
+            if (next != NOT_RUNNING) {
+                planSweep(next);
+            }
+        }
+        for (int i = 0; i < dueCount; i++) {
+            listener.timerFinished(this, due[i]);
+        }
+    }
+
+    private long handle(int slot) {
+        return ((long) generations[slot] << 32) | slot;
+    }
+
+    private int slotOf(long handle) {
+        int slot = (int) handle;
+        if (slot < 0 || slot >= usedSlots || generations[slot] != (int) (handle >>> 32) || statuses[slot] == FREE) {
+            throw new IllegalArgumentException("Stale or unknown timer handle: " + handle);
+        }
+        return slot;
+    }
+
+    private void grow() {
+        int capacity = deadlines.length * 2;
+        deadlines = Arrays.copyOf(deadlines, capacity);
+        remaining = Arrays.copyOf(remaining, capacity);
+        durations = Arrays.copyOf(durations, capacity);
+        statuses = Arrays.copyOf(statuses, capacity);
+        nameIds = Arrays.copyOf(nameIds, capacity);
+        generations = Arrays.copyOf(generations, capacity);
+        freeSlots = Arrays.copyOf(freeSlots, capacity);
+    }
+
+    /**
+     * Callback told about timers in the store that reach their deadline.
+     */
+    public interface FinishListener {
+        /**
+         * Called on the scheduler thread once per finished timer. Must return quickly.
+         *
+         * @param store  the store holding the timer
+         * @param handle the handle of the finished timer
+         */
+        void timerFinished(TimerStore store, long handle);
+    }
+}
@@ -0,0 +1,104 @@
+package kitchen;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * This test suite contains tests for the struct-of-arrays timer store.
+ */
+public class TimerStoreTest {
+
+    private static final TimerStore.FinishListener IGNORE = new TimerStore.FinishListener() {
+        @Override
+        public void timerFinished(TimerStore store, long handle) {
+        }
+    };
+
+    @Test
+    public void testLifecycleThroughHandles() throws InterruptedException {
+        TimerScheduler scheduler = new TimerScheduler("store-test", 1, TimeUnit.MILLISECONDS);
+        TimerStore store = new TimerStore(scheduler, new StringDictionary(), IGNORE, 16);
+        long handle = store.create("Pasta", 10, TimeUnit.SECONDS);
+        assertEquals("Pasta", store.getName(handle));
+        assertEquals(CustomTimer.TimerStatus.RESET, store.getStatus(handle));
+        assertEquals(TimeUnit.SECONDS.toNanos(10), store.getRemainingNanos(handle));
+
+        store.start(handle);
+        assertEquals(CustomTimer.TimerStatus.RUNNING, store.getStatus(handle));
+        Thread.sleep(20);
+        store.stop(handle);
+        long banked = store.getRemainingNanos(handle);
+        assertTrue(banked < TimeUnit.SECONDS.toNanos(10));
+        Thread.sleep(20);
+        assertEquals(banked, store.getRemainingNanos(handle));
+
+        store.reset(handle);
+        assertEquals(TimeUnit.SECONDS.toNanos(10), store.getRemainingNanos(handle));
+        scheduler.shutdown();
+    }
+
+    @Test
+    public void testRemovedHandleIsRejectedAfterSlotReuse() {
+        TimerScheduler scheduler = new TimerScheduler("store-test", 1, TimeUnit.MILLISECONDS);
+        TimerStore store = new TimerStore(scheduler, new StringDictionary(), IGNORE, 16);
+        final long first = store.create("Rice", 1, TimeUnit.MINUTES);
+        store.remove(first);
+        long second = store.create("Beans", 1, TimeUnit.MINUTES);
+        assertEquals((int) first, (int) second);
+        assertEquals("Beans", store.getName(second));
+        assertThrows(IllegalArgumentException.class, () -> store.getName(first));
+        assertEquals(1, store.size());
+        scheduler.shutdown();
+    }
+
+    @Test
+    public void testSweepFinishesDueTimers() throws InterruptedException {
+        TimerScheduler scheduler = new TimerScheduler("store-test", 1, TimeUnit.MILLISECONDS);
+        final List<String> finished = new CopyOnWriteArrayList<>();
+        final CountDownLatch done = new CountDownLatch(2);
+        TimerStore store = new TimerStore(scheduler, new StringDictionary(), new TimerStore.FinishListener() {
+            @Override
+            public void timerFinished(TimerStore store, long handle) {
+                finished.add(store.getName(handle));
+                done.countDown();
+            }
+        }, 16);
+        long eggs = store.create("Eggs", 30, TimeUnit.MILLISECONDS);
+        long toast = store.create("Toast", 80, TimeUnit.MILLISECONDS);
+        long roast = store.create("Roast", 1, TimeUnit.HOURS);
+        store.start(toast);
+        store.start(eggs);
+        store.start(roast);
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals("Eggs", finished.get(0));
+        assertEquals("Toast", finished.get(1));
+        assertEquals(CustomTimer.TimerStatus.FINISHED, store.getStatus(eggs));
+        assertEquals(0, store.getRemainingNanos(toast));
+        assertEquals(CustomTimer.TimerStatus.RUNNING, store.getStatus(roast));
+        scheduler.shutdown();
+    }
+
+    @Test
+    public void testMillionTimersShareInternedNames() {
+        TimerScheduler scheduler = new TimerScheduler("store-test", 1, TimeUnit.MILLISECONDS);
+        StringDictionary names = new StringDictionary();
+        TimerStore store = new TimerStore(scheduler, names, IGNORE, 1 << 20);
+        long last = 0;
+        for (int i = 0; i < 1000000; i++) {
+            last = store.create("Station " + (i % 100), 5, TimeUnit.MINUTES);
+        }
+        assertEquals(1000000, store.size());
+        assertEquals(100, names.size());
+        assertEquals(1 << 20, store.capacity());
+        assertEquals("Station 99", store.getName(last));
+        scheduler.shutdown();
+    }
+}
@@ -0,0 +1,135 @@
+package kitchen;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import javax.swing.table.AbstractTableModel;
+
+/**
+ * TimerTableModel class backs the live timer dashboard with one row per timer.
+ * Cell values are read from the timers whenever a row is painted, so rows scrolled into view are
+ * current even when no frames are running. {@link #refresh(int, int)} keeps the last values it saw
+ * only to decide which rows changed, and fires update events for those rows alone.
+ */
+public class TimerTableModel extends AbstractTableModel {
+    private static final String[] COLUMNS = {"Timer", "Time Left", "Status"};
+
+    private final List<CustomTimer> timers = new ArrayList<>();
+    private String[] shownTimes = new String[16];
+    private CustomTimer.TimerStatus[] shownStatuses = new CustomTimer.TimerStatus[16];
+
+    /**
+     * Appends a row for the given timer.
+     *
+     * @param timer the timer to show
+     */
+    public void addTimer(CustomTimer timer) {
+        int row = timers.size();
+        timers.add(timer);
+        if (row == shownTimes.length) {
+            shownTimes = Arrays.copyOf(shownTimes, row * 2);
+            shownStatuses = Arrays.copyOf(shownStatuses, row * 2);
+        }
+        shownTimes[row] = timer.getFormattedTime();
+        shownStatuses[row] = timer.getStatus();
+        fireTableRowsInserted(row, row);
+    }
+
+    /**
+     * Removes the rows of every finished timer, keeping the remaining rows in order.
+     *
+     * @return the timers whose rows were removed
+     */
+    public List<CustomTimer> removeFinished() {
+        List<CustomTimer> removed = new ArrayList<>();
+        int kept = 0;
+        for (int row = 0; row < timers.size(); row++) {
+            CustomTimer timer = timers.get(row);
+            if (timer.getStatus() == CustomTimer.TimerStatus.FINISHED) {
+                removed.add(timer);
+            } else {
+                timers.set(kept, timer);
+                shownTimes[kept] = shownTimes[row];
+                shownStatuses[kept] = shownStatuses[row];
+                kept++;
+            }
+        }
+        if (removed.isEmpty()) {
+            return removed;
+        }
+        int oldSize = timers.size();
+        timers.subList(kept, oldSize).clear();
+        Arrays.fill(shownTimes, kept, oldSize, null);
+        Arrays.fill(shownStatuses, kept, oldSize, null);
+        fireTableDataChanged();
+        return removed;
+    }
+
+    /**
+     * Returns the timer shown in the given row.
+     *
+     * @param row the row index
+     * @return the timer in that row
+     */
+    public CustomTimer getTimer(int row) {
+        return timers.get(row);
+    }
+
+    /**
+     * Compares the given rows with what they showed at the last refresh and fires one update event per run of
+     * consecutive changed rows.
+     *
+     * @param firstRow the first row to check, inclusive
+     * @param lastRow  the last row to check, inclusive
+     */
+    public void refresh(int firstRow, int lastRow) {
+        int runStart = -1;
+        int last = Math.min(lastRow, timers.size() - 1);
+        for (int row = Math.max(firstRow, 0); row <= last; row++) {
+            CustomTimer timer = timers.get(row);
+            CustomTimer.TimerStatus status = timer.getStatus();
+            String time = timer.getFormattedTime();
+            boolean changed = status != shownStatuses[row] || !time.equals(shownTimes[row]);
+            if (changed) {
+                shownTimes[row] = time;
+                shownStatuses[row] = status;
+                if (runStart < 0) {
+                    runStart = row;
+                }
+            } else if (runStart >= 0) {
+                fireTableRowsUpdated(runStart, row - 1);
+                runStart = -1;
+            }
+        }
+        if (runStart >= 0) {
+            fireTableRowsUpdated(runStart, last);
+        }
+    }
+
+    @Override
+    public int getRowCount() {
+        return timers.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMNS[column];
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        switch (column) {
+            case 0:
+                return timers.get(row).getName();
+            case 1:
+                return timers.get(row).getFormattedTime();
+            default:
+                return timers.get(row).getStatus();
+        }
+    }
+}
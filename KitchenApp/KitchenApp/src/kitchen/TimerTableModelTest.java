@@ -0,0 +1,93 @@
+package kitchen;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javax.swing.event.TableModelEvent;
+import javax.swing.event.TableModelListener;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * This test suite contains tests for the live timer table model.
+ */
+public class TimerTableModelTest {
+
+    /**
+     * Records every update event as "first-last".
+     */
+    private static List<String> record(TimerTableModel model) {
+        final List<String> events = new ArrayList<>();
+        model.addTableModelListener(new TableModelListener() {
+            @Override
+            public void tableChanged(TableModelEvent e) {
+                if (e.getType() == TableModelEvent.UPDATE) {
+                    events.add(e.getFirstRow() + "-" + e.getLastRow());
+                }
+            }
+        });
+        return events;
+    }
+
+    @Test
+    public void testRowsNeverRefreshedShowLiveValues() {
+        VirtualClock clock = new VirtualClock(0);
+        TimerEngine engine = new TimerEngine(clock.newScheduler(1, TimeUnit.MILLISECONDS));
+        TimerTableModel model = new TimerTableModel();
+        CustomTimer timer = new CustomTimer(engine, "Stock", 0, 1, 0);
+        model.addTimer(timer);
+        timer.start();
+
+        clock.advance(10, TimeUnit.SECONDS);
+        assertEquals("00:00:50", model.getValueAt(0, 1));
+        assertEquals(CustomTimer.TimerStatus.RUNNING, model.getValueAt(0, 2));
+        clock.advance(50, TimeUnit.SECONDS);
+        assertEquals("00:00:00", model.getValueAt(0, 1));
+        assertEquals(CustomTimer.TimerStatus.FINISHED, model.getValueAt(0, 2));
+    }
+
+    @Test
+    public void testRefreshFiresOneEventPerRunOfChangedRows() {
+        VirtualClock clock = new VirtualClock(0);
+        TimerEngine engine = new TimerEngine(clock.newScheduler(1, TimeUnit.MILLISECONDS));
+        TimerTableModel model = new TimerTableModel();
+        CustomTimer[] timers = new CustomTimer[5];
+        for (int i = 0; i < timers.length; i++) {
+            timers[i] = new CustomTimer(engine, "Timer " + i, 0, 1, 0);
+            model.addTimer(timers[i]);
+        }
+        List<String> events = record(model);
+        timers[0].start();
+        timers[1].start();
+        timers[3].start();
+
+        clock.advance(1, TimeUnit.SECONDS);
+        model.refresh(0, 4);
+        assertEquals(List.of("0-1", "3-3"), events);
+
+        events.clear();
+        model.refresh(0, 4);
+        assertEquals(List.of(), events);
+    }
+
+    @Test
+    public void testRemoveFinishedKeepsRemainingRowsInOrder() {
+        VirtualClock clock = new VirtualClock(0);
+        TimerEngine engine = new TimerEngine(clock.newScheduler(1, TimeUnit.MILLISECONDS));
+        TimerTableModel model = new TimerTableModel();
+        CustomTimer quick = new CustomTimer(engine, "Quick", 0, 0, 1);
+        CustomTimer slow = new CustomTimer(engine, "Slow", 0, 1, 0);
+        model.addTimer(quick);
+        model.addTimer(slow);
+        quick.start();
+        slow.start();
+
+        clock.advance(2, TimeUnit.SECONDS);
+        assertEquals(List.of(quick), model.removeFinished());
+        assertEquals(1, model.getRowCount());
+        assertEquals("Slow", model.getValueAt(0, 0));
+        assertEquals("00:00:58", model.getValueAt(0, 1));
+    }
+}
@@ -0,0 +1,240 @@
+package kitchen;
+
+/**
+ * TimingWheel class is a hierarchical timing wheel that buckets entries by the tick they are due on.
+ * Level 0 holds the next 64 ticks one slot per tick, and every level above covers 64 times the span
+ * of the level below it. Entries cascade down a level when the wheel reaches their block, so adding
+ * and removing an entry is O(1) and advancing only touches the slots the new tick maps to.
+ *
+ * The wheel is not thread-safe; {@link TimerScheduler} confines it to its worker thread.
+ */
+final class TimingWheel {
+    static final int SLOT_BITS = 6;
+    static final int SLOTS = 1 << SLOT_BITS;
+    static final int SLOT_MASK = SLOTS - 1;
+    static final int LEVELS = 4;
+    static final long MAX_SPAN = 1L << (SLOT_BITS * LEVELS);
+
+    private final Entry[][] slots = new Entry[LEVELS][SLOTS];
+    private final int[] levelSizes = new int[LEVELS];
+    private long currentTick;
+    private int size;
+
+    /**
+     * Constructs a TimingWheel whose last processed tick is the given tick.
+     *
+     * @param startTick the tick the wheel starts at
+     */
+    TimingWheel(long startTick) {
+        this.currentTick = startTick;
+    }
+
+    /**
+     * Returns the last tick the wheel has processed.
+     *
+     * @return the current tick
+     */
+    long currentTick() {
+        return currentTick;
+    }
+
+    /**
+     * Returns the number of entries linked into the wheel.
+     *
+     * @return the number of pending entries
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Links an entry into the wheel. Entries due on or before the current tick fire on the next tick.
+     *
+     * @param entry the entry to add, with its deadline tick already set
+     */
+    void add(Entry entry) {
+        if (entry.level >= 0) {
+            throw new IllegalStateException("Entry is already scheduled");
+        }
+        insert(entry, currentTick + 1);
+    }
+
+    /**
+     * Unlinks an entry from the wheel. Does nothing if the entry is not linked.
+     *
+     * @param entry the entry to remove
+     */
+    void remove(Entry entry) {
+        if (entry.level < 0) {
+            return;
+        }
+        if (entry.prev != null) {
+            entry.prev.next = entry.next;
+        } else {
+            slots[entry.level][entry.slot] = entry.next;
+        }
+        if (entry.next != null) {
+            entry.next.prev = entry.prev;
+        }
+        levelSizes[entry.level]--;
+        size--;
+        entry.prev = null;
+        entry.next = null;
+        entry.level = -1;
+    }
+
+    /**
+     * Returns the earliest tick at which advancing the wheel can expire or cascade anything,
+     * or {@code Long.MAX_VALUE} when the wheel is empty.
+     *
+     * @return the next tick worth processing
+     */
+    long nextTickOfInterest() {
+        if (size == 0) {
+            return Long.MAX_VALUE;
+        }
+        long next = Long.MAX_VALUE;
+        for (int level = 1; level < LEVELS; level++) {
+            if (levelSizes[level] != 0) {
+                int shift = level * SLOT_BITS;
+                next = ((currentTick >>> shift) + 1) << shift;
+                break;
+            }
+        }
+        if (levelSizes[0] != 0) {
+            for (int offset = 1; offset <= SLOTS; offset++) {
+                long tick = currentTick + offset;
+                if (tick >= next) {
+                    break;
+                }
+                if (slots[0][(int) tick & SLOT_MASK] != null) {
+                    return tick;
+                }
+            }
+        }
+        return next;
+    }
+
+    /**
+     * Advances the wheel up to and including the target tick, skipping ticks where nothing is due.
+     * Expired entries are handed to the sink already unlinked, in deadline order.
+     *
+     * @param targetTick the tick to advance to
+     * @param sink       receives every entry that expired on the way
+     */
+    void advanceTo(long targetTick, ExpiredSink sink) {
+        while (currentTick < targetTick) {
+            long next = nextTickOfInterest();
+            if (next > targetTick) {
+                currentTick = targetTick;
+                return;
+            }
+            currentTick = next - 1;
+            Entry expired = advance();
+            while (expired != null) {
+                Entry following = expired.next;
+                expired.next = null;
+                sink.expired(expired);
+                expired = following;
+            }
+        }
+    }
+
+    /**
+     * Processes the tick after the current one: cascades every higher-level slot whose block starts
+     * on that tick, then detaches the level 0 slot for it.
+     *
+     * @return the expired entries, chained through {@code next}
+     */
+    private Entry advance() {
+        long tick = currentTick + 1;
+        for (int level = LEVELS - 1; level > 0; level--) {
+            int shift = level * SLOT_BITS;
+            if ((tick & ((1L << shift) - 1)) == 0) {
+                Entry entry = detach(level, (int) (tick >>> shift) & SLOT_MASK);
+                while (entry != null) {
+                    Entry following = entry.next;
+                    entry.next = null;
+                    insert(entry, tick);
+                    entry = following;
+                }
+            }
+        }
+        currentTick = tick;
+        return detach(0, (int) tick & SLOT_MASK);
+    }
+
+    /**
+     * Empties a slot and returns its former contents, marked as no longer linked.
+     */
+    private Entry detach(int level, int slot) {
+        Entry head = slots[level][slot];
+        slots[level][slot] = null;
+        for (Entry entry = head; entry != null; entry = entry.next) {
+            entry.prev = null;
+            entry.level = -1;
+            levelSizes[level]--;
+            size--;
+        }
+        return head;
+    }
+
+    /**
+     * Links an entry into the slot matching its deadline, measured from the tick being processed.
+     */
+    private void insert(Entry entry, long baseTick) {
+        if (entry.deadlineTick < baseTick) {
+            entry.deadlineTick = baseTick;
+        }
+        long delta = entry.deadlineTick - baseTick;
+        int level;
+        long slotTick;
+        if (delta >= MAX_SPAN) {
+            // Beyond the top level: park in its furthest slot and re-evaluate when it cascades.
+            level = LEVELS - 1;
+            slotTick = baseTick + MAX_SPAN - 1;
+        } else {
+            level = delta < SLOTS ? 0 : (63 - Long.numberOfLeadingZeros(delta)) / SLOT_BITS;
+            slotTick = entry.deadlineTick;
+        }
+        int slot = (int) (slotTick >>> (level * SLOT_BITS)) & SLOT_MASK;
+        Entry head = slots[level][slot];
+        entry.next = head;
+        entry.prev = null;
+        if (head != null) {
+            head.prev = entry;
+        }
+        slots[level][slot] = entry;
+        entry.level = level;
+        entry.slot = slot;
+        levelSizes[level]++;
+        size++;
+    }
+
+    /**
+     * Entry is a node that can be linked into a TimingWheel slot.
+     */
+    static class Entry {
+        long deadlineTick;
+        Entry prev;
+        Entry next;
+        int level = -1;
+        int slot;
+
+        /**
+         * Returns whether the entry is currently linked into a wheel.
+         *
+         * @return true if the entry is scheduled
+         */
+        boolean isLinked() {
+            return level >= 0;
+        }
+    }
+
+    /**
+     * Callback receiving entries as the wheel expires them.
+     */
+    interface ExpiredSink {
+        void expired(Entry entry);
+    }
+}
@@ -211,6 +211,22 @@ public class UnitConverterPanel extends JPanel {
         }
     }
 
+    /**
+     * Returns how many of one unit make one of another, from the same rates the panel converts with.
+     *
+     * @param from The unit to convert from.
+     * @param to   The unit to convert to.
+     * @return The number of {@code to} units in one {@code from} unit.
+     * @throws IllegalArgumentException If either unit is unknown.
+     */
+    public static double getConversionRate(String from, String to) {
+        Map<String, Double> rates = conversionRates.get(from);
+        if (rates == null || !rates.containsKey(to)) {
+            throw new IllegalArgumentException("Unknown unit conversion: " + from + " to " + to);
+        }
+        return rates.get(to);
+    }
+
     /**
      * Performs the unit conversion based on the specified conversion rates.
      *
@@ -0,0 +1,76 @@
+package kitchen;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * VirtualClock class is a {@link TimerClock} whose time only moves when {@link #advance} is called.
+ * Schedulers created with {@link #newScheduler} have no worker thread; advancing the clock steps it
+ * from one due tick to the next and runs the tasks of each tick on the calling thread with the clock
+ * set to exactly that tick. Hours of simulated timers therefore run in milliseconds, deterministically,
+ * and every task sees the same time it would have seen on a perfectly punctual system clock.
+ */
+public class VirtualClock implements TimerClock {
+    private final List<TimerScheduler> schedulers = new CopyOnWriteArrayList<>();
+    private volatile long now;
+
+    /**
+     * Constructs a VirtualClock that starts at the given time.
+     *
+     * @param startNanos the initial time in nanoseconds
+     */
+    public VirtualClock(long startNanos) {
+        this.now = startNanos;
+    }
+
+    @Override
+    public long nanoTime() {
+        return now;
+    }
+
+    /**
+     * Creates a scheduler that runs on this clock and is driven by {@link #advance}.
+     *
+     * @param tickDuration the resolution of the scheduler's wheel
+     * @param unit         the unit of the tick duration
+     * @return the scheduler
+     */
+    public TimerScheduler newScheduler(long tickDuration, TimeUnit unit) {
+        TimerScheduler scheduler = new TimerScheduler(this, tickDuration, unit);
+        schedulers.add(scheduler);
+        return scheduler;
+    }
+
+    /**
+     * Moves the clock forward, running every task that falls due on the way in deadline order.
+     *
+     * @param duration how far to move the clock
+     * @param unit     the unit of the duration
+     */
+    public synchronized void advance(long duration, TimeUnit unit) {
+        if (duration < 0) {
+            throw new IllegalArgumentException("A clock cannot go backwards");
+        }
+        long target = now + unit.toNanos(duration);
+        while (true) {
+            long next = Long.MAX_VALUE;
+            for (TimerScheduler scheduler : schedulers) {
+                next = Math.min(next, scheduler.nextDueNanos());
+            }
+            if (next == Long.MAX_VALUE || next - target > 0) {
+                break;
+            }
+            if (next - now > 0) {
+                now = next;
+            }
+            for (TimerScheduler scheduler : schedulers) {
+                scheduler.runDue();
+            }
+        }
+        now = target;
+        for (TimerScheduler scheduler : schedulers) {
+            scheduler.runDue();
+        }
+    }
+}
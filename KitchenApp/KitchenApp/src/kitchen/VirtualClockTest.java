@@ -0,0 +1,89 @@
+package kitchen;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * This test suite drives timers with a virtual clock, so long services run in moments and every
+ * finish time can be checked exactly.
+ */
+public class VirtualClockTest {
+
+    @Test
+    public void testOneHourTimerFinishesExactlyOnTime() {
+        VirtualClock clock = new VirtualClock(0);
+        TimerEngine engine = new TimerEngine(clock.newScheduler(1, TimeUnit.MILLISECONDS));
+        CustomTimer timer = new CustomTimer(engine, "Braise", 1, 0, 0);
+        timer.start();
+
+        clock.advance(59 * 60 + 59, TimeUnit.SECONDS);
+        assertEquals(CustomTimer.TimerStatus.RUNNING, timer.getStatus());
+        assertEquals(1000, timer.getRemainingMillis());
+        assertEquals("00:00:01", timer.getFormattedTime());
+
+        clock.advance(1, TimeUnit.SECONDS);
+        assertEquals(CustomTimer.TimerStatus.FINISHED, timer.getStatus());
+        assertEquals(0, engine.getMetrics().getWorstDriftNanos());
+    }
+
+    @Test
+    public void testTwelveHourServiceFinishesEveryTimerInOrder() {
+        final int timerCount = 50000;
+        final long serviceNanos = TimeUnit.HOURS.toNanos(12);
+        final VirtualClock clock = new VirtualClock(0);
+        TimerEngine engine = new TimerEngine(clock.newScheduler(1, TimeUnit.MILLISECONDS));
+        final long[] expectedFinish = new long[timerCount];
+        final long[] actualFinish = new long[timerCount];
+        final int[] finishOrder = new int[timerCount];
+        final int[] finishedCount = new int[1];
+        final CustomTimer[] timers = new CustomTimer[timerCount];
+        final Map<Long, Integer> indexById = new HashMap<>();
+        engine.addListener(new TimerListener() {
+            @Override
+            public void timerFinished(CustomTimer timer) {
+                int index = indexById.get(timer.getId());
+                actualFinish[index] = clock.nanoTime();
+                finishOrder[finishedCount[0]++] = index;
+            }
+        }, TimerEngine.directExecutor());
+
+        Random random = new Random(7);
+        for (int i = 0; i < timerCount; i++) {
+            int durationSeconds = 1 + random.nextInt(45 * 60);
+            long startNanos = TimeUnit.MILLISECONDS.toNanos(random.nextInt((int) TimeUnit.HOURS.toMillis(11)));
+            final CustomTimer timer = new CustomTimer(engine, "Ticket " + i, durationSeconds / 3600,
+                    durationSeconds / 60 % 60, durationSeconds % 60);
+            timers[i] = timer;
+            indexById.put(timer.getId(), i);
+            expectedFinish[i] = startNanos + TimeUnit.SECONDS.toNanos(durationSeconds);
+            engine.getScheduler().scheduleAt(startNanos, new Runnable() {
+                @Override
+                public void run() {
+                    timer.start();
+                }
+            });
+        }
+
+        long started = System.nanoTime();
+        clock.advance(serviceNanos, TimeUnit.NANOSECONDS);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+
+        assertEquals(timerCount, finishedCount[0]);
+        for (int i = 0; i < timerCount; i++) {
+            assertEquals(expectedFinish[i], actualFinish[i], "finish time of " + timers[i].getName());
+            assertEquals(CustomTimer.TimerStatus.FINISHED, timers[i].getStatus());
+        }
+        for (int i = 1; i < timerCount; i++) {
+            assertTrue(actualFinish[finishOrder[i - 1]] <= actualFinish[finishOrder[i]]);
+        }
+        assertEquals(0, engine.getMetrics().getWorstDriftNanos());
+        assertTrue(elapsedMillis < 30000, "simulated service took " + elapsedMillis + " ms");
+    }
+}